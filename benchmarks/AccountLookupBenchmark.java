@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.AccountStore;
+import model.JukeboxAccount;
+import model.PasswordHasher;
+
+/**
+ * Benchmarks logging in, as LoginCreateAccountPane.logUserIn() does, against
+ * different numbers of accounts. Passwords are hashed at the lowest cost so
+ * this measures finding the account; LoginBenchmark measures the hashing.
+ *
+ * @author Amelia Matheson
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountLookupBenchmark {
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int size;
+
+	private ArrayList<JukeboxAccount> accounts;
+	private AccountStore store;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		PasswordHasher.setDefault(BenchmarkData.CHEAP_HASHER);
+		accounts = BenchmarkData.accounts(size);
+		store = new AccountStore(accounts);
+		random = new Random(7);
+	}
+
+	/**
+	 * Logging in through the AccountStore.
+	 */
+	@Benchmark
+	public JukeboxAccount storeLogIn() {
+		int user = random.nextInt(size);
+		return store.authenticate("user" + user, "pw" + user);
+	}
+
+	/**
+	 * Logging in by walking the list of accounts, as logUserIn() used to.
+	 */
+	@Benchmark
+	public JukeboxAccount linearScanLogIn() {
+		int user = random.nextInt(size);
+		String username = "user" + user;
+		String password = "pw" + user;
+		for (JukeboxAccount account : accounts) {
+			if (account.getUsername().equals(username)) {
+				return account.checkPassword(password) ? account : null;
+			}
+		}
+		return null;
+	}
+}
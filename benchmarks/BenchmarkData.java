@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import model.JukeboxAccount;
+import model.PasswordHasher;
+import model.Song;
+import model.SongList;
+
+/**
+ * Generates the songs and accounts the benchmarks run against. Everything is
+ * generated from a fixed seed so every run measures the same data.
+ *
+ * @author Amelia Matheson
+ */
+
+public class BenchmarkData {
+
+	private static final String[] WORDS = { "fire", "night", "dance", "macabre", "swing", "cheese", "curtain",
+			"rises", "capture", "tumbao", "sting", "blue", "river", "heart", "echo", "summer", "ghost", "gold",
+			"light", "road" };
+
+	/**
+	 * Hashes passwords at the lowest cost, so a million accounts can be
+	 * generated in seconds. Benchmarks that log in should make it the default
+	 * (see PasswordHasher.setDefault()) so the passwords aren't hashed again.
+	 */
+	public static final PasswordHasher CHEAP_HASHER = new PasswordHasher(1);
+
+	/**
+	 * Generates songs with made up titles, artists, and durations. Artists repeat,
+	 * about ten songs each, as in a real catalog.
+	 *
+	 * @param count : integer representing how many songs to generate.
+	 * @param seed  : long seeding the random choices.
+	 * @return ArrayList of generated Songs.
+	 */
+	public static ArrayList<Song> songs(int count, long seed) {
+		Random random = new Random(seed);
+		int artists = Math.max(1, count / 10);
+		ArrayList<Song> songs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+					+ i;
+			String artist = "Artist " + random.nextInt(artists);
+			songs.add(new Song(title, artist, 5 + random.nextInt(400), "song" + i + ".mp3"));
+		}
+		return songs;
+	}
+
+	/**
+	 * Builds a SongList holding the built in songs followed by generated ones.
+	 *
+	 * @param count : integer representing how many songs to generate.
+	 * @return SongList of about that size.
+	 */
+	public static SongList songList(int count) {
+		SongList list = new SongList();
+		for (Song song : songs(count, 42)) {
+			list.addSong(song);
+		}
+		return list;
+	}
+
+	/**
+	 * Generates accounts named user0, user1, and so on, with password "pw" plus
+	 * the same number, hashed with CHEAP_HASHER.
+	 *
+	 * @param count : integer representing how many accounts to generate.
+	 * @return ArrayList of generated JukeboxAccounts.
+	 */
+	public static ArrayList<JukeboxAccount> accounts(int count) {
+		ArrayList<JukeboxAccount> accounts = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			accounts.add(new JukeboxAccount("user" + i, "pw" + i, null, CHEAP_HASHER));
+		}
+		return accounts;
+	}
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.AccountStore;
+import model.JukeboxAccount;
+import model.PasswordHasher;
+import model.PasswordVerifier;
+
+/**
+ * Benchmarks how many logins per second the default PasswordVerifier manages,
+ * with LOGINS users logging in at once, at different hashing costs. One in
+ * five passwords is wrong, which costs the same to check.
+ *
+ * @author Adrianna Koppes
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginBenchmark {
+
+	private static final int LOGINS = 64;
+
+	@Param({ "1000", "10000", "210000" })
+	public int cost;
+
+	private AccountStore store;
+	private PasswordVerifier verifier;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		store = new AccountStore(new PasswordHasher(cost));
+		for (int i = 0; i < 10; i++) {
+			store.create("user" + i, "pw" + i);
+		}
+		verifier = new PasswordVerifier(PasswordVerifier.DEFAULT_THREADS, LOGINS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		verifier.shutdown();
+	}
+
+	/**
+	 * LOGINS users logging in at once, off the calling thread, as the login
+	 * pane does.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(LOGINS)
+	public int concurrentLogIns() {
+		ArrayList<CompletableFuture<JukeboxAccount>> results = new ArrayList<>(LOGINS);
+		for (int i = 0; i < LOGINS; i++) {
+			int user = i % 10;
+			results.add(verifier.logIn(store, "user" + user, i % 5 == 0 ? "wrong" : "pw" + user));
+		}
+		int loggedIn = 0;
+		for (CompletableFuture<JukeboxAccount> result : results) {
+			if (result.join() != null) {
+				loggedIn++;
+			}
+		}
+		return loggedIn;
+	}
+}
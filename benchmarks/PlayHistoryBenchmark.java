@@ -0,0 +1,116 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.JukeboxAccount;
+import model.PasswordHasher;
+import model.PlayHistoryLog;
+import model.Song;
+import model.SongList;
+
+/**
+ * Benchmarks the play history with size plays recorded, spread over a year
+ * and 1,000 accounts. With snapshot false the whole log is replayed on
+ * opening, as when no snapshot has been written yet; with snapshot true the
+ * counts are read from the snapshot.
+ *
+ * @author Adrianna Koppes
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayHistoryBenchmark {
+
+	private static final long HOUR = 60 * 60 * 1000L;
+
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "false", "true" })
+	public boolean snapshot;
+
+	private SongList catalog;
+	private Path snapshotFile;
+	private Path logFile;
+	private PlayHistoryLog history;
+	private LocalDate firstDay;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		catalog = new SongList();
+		Path dir = Files.createTempDirectory("history");
+		snapshotFile = dir.resolve("history.snapshot");
+		logFile = dir.resolve("history.log");
+		PlayHistoryLog log = new PlayHistoryLog(snapshotFile, logFile, ZoneOffset.UTC, Integer.MAX_VALUE);
+		log.open();
+		PasswordHasher cheap = new PasswordHasher(1);
+		JukeboxAccount[] accounts = new JukeboxAccount[1000];
+		for (int i = 0; i < accounts.length; i++) {
+			accounts[i] = new JukeboxAccount("user" + i, "pw", null, cheap);
+		}
+		long start = LocalDate.of(2024, 1, 1).toEpochDay() * 24 * HOUR;
+		long step = 365 * 24 * HOUR / size;
+		for (int i = 0; i < size; i++) {
+			log.recordPlay(catalog.get(i % catalog.size()), accounts[i % accounts.length], "main", start + i * step);
+		}
+		if (snapshot) {
+			log.checkpoint();
+		}
+		log.close();
+		firstDay = log.getDays().get(0);
+		history = open();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		history.close();
+	}
+
+	private PlayHistoryLog open() {
+		PlayHistoryLog log = new PlayHistoryLog(snapshotFile, logFile, ZoneOffset.UTC, Integer.MAX_VALUE);
+		log.open();
+		return log;
+	}
+
+	/**
+	 * Opening the history, which rebuilds the counts.
+	 */
+	@Benchmark
+	public long reopen() {
+		PlayHistoryLog log = open();
+		log.close();
+		return log.size();
+	}
+
+	/**
+	 * A day's licensing report, from the counts kept in memory.
+	 */
+	@Benchmark
+	public LinkedHashMap<Song, Integer> playsPerSong() {
+		return history.getPlaysPerSong(firstDay);
+	}
+}
@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.HeadlessPlaybackBackend;
+import model.JukeboxAccount;
+import model.PlayList;
+import model.QueuePolicy;
+import model.Song;
+
+/**
+ * Benchmarks filling and reading the PlayList queue, with each QueuePolicy.
+ * Requests come from 1,000 accounts in turn. Nothing is played except in
+ * requestAndSkip(); the headless backend is only there because a PlayList
+ * needs one.
+ *
+ * @author Amelia Matheson
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayListBenchmark {
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "fifo", "round-robin", "fair" })
+	public String policy;
+
+	private HeadlessPlaybackBackend backend;
+	private ArrayList<Song> songs;
+	private ArrayList<JukeboxAccount> accounts;
+	private PlayList full;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		backend = new HeadlessPlaybackBackend();
+		songs = BenchmarkData.songs(size, 42);
+		accounts = BenchmarkData.accounts(1000);
+		full = fill();
+	}
+
+	private PlayList fill() {
+		return fill(QueuePolicy.named(policy));
+	}
+
+	private PlayList fill(QueuePolicy queuePolicy) {
+		PlayList playList = new PlayList(backend);
+		playList.setQueuePolicy(queuePolicy);
+		for (int i = 0; i < songs.size(); i++) {
+			playList.queueUpNextSong(songs.get(i), accounts.get(i % accounts.size()));
+		}
+		return playList;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		backend.shutdown();
+	}
+
+	/**
+	 * Queueing up size songs one at a time with queueUpNextSong().
+	 */
+	@Benchmark
+	public PlayList fillQueue() {
+		return fill();
+	}
+
+	/**
+	 * Queueing up size songs and taking every one back out in the order the
+	 * policy plays them.
+	 */
+	@Benchmark
+	public int fillAndDrain() {
+		QueuePolicy queuePolicy = QueuePolicy.named(policy);
+		fill(queuePolicy);
+		int taken = 0;
+		while (queuePolicy.poll() != null) {
+			taken++;
+		}
+		return taken;
+	}
+
+	/**
+	 * Queueing one more song on a queue of size songs and skipping to the next,
+	 * so the policy picks a song from the full queue each time.
+	 */
+	@Benchmark
+	public Song requestAndSkip() {
+		if (!full.isPlaying()) {
+			full.play();
+		}
+		next++;
+		full.queueUpNextSong(songs.get(next % songs.size()), accounts.get(next % accounts.size()));
+		full.skip();
+		return full.getCurrentSong();
+	}
+
+	/**
+	 * Copying a queue of size songs with getSongsAsList().
+	 */
+	@Benchmark
+	public ArrayList<Song> getSongsAsList() {
+		return full.getSongsAsList();
+	}
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.PlayListJournal;
+import model.Song;
+import model.SongList;
+
+/**
+ * Benchmarks rebuilding a saved queue from the playlist journal, as
+ * SongSelectionPlaylistPane.readPlayList() does at startup. With snapshot
+ * false the whole queue is replayed from the journal, as after a crash; with
+ * snapshot true it is read from a snapshot.
+ *
+ * @author Adrianna Koppes
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayListJournalBenchmark {
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "false", "true" })
+	public boolean snapshot;
+
+	private SongList catalog;
+	private Path snapshotFile;
+	private Path journalFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		catalog = new SongList();
+		Path dir = Files.createTempDirectory("playlist");
+		snapshotFile = dir.resolve("playlist.snapshot");
+		journalFile = dir.resolve("playlist.journal");
+		PlayListJournal journal = new PlayListJournal(catalog, snapshotFile, journalFile, Integer.MAX_VALUE);
+		journal.open();
+		for (int i = 0; i < size; i++) {
+			journal.songQueued(catalog.get(i % catalog.size()));
+		}
+		if (snapshot) {
+			journal.checkpoint();
+		}
+		journal.close();
+	}
+
+	/**
+	 * Reading the saved queue back, without playing it.
+	 */
+	@Benchmark
+	public ArrayList<Song> rebuildQueue() {
+		PlayListJournal journal = new PlayListJournal(catalog, snapshotFile, journalFile, Integer.MAX_VALUE);
+		ArrayList<Song> queue = journal.open();
+		journal.close();
+		return queue;
+	}
+}
@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks for the model. Needs JMH (jmh-core and
+ * jmh-generator-annprocess) on the classpath when compiling and running.
+ *
+ * Usage: java benchmarks.RunBenchmarks [benchmark name regex] [size,size,...]
+ *
+ * For example "java benchmarks.RunBenchmarks SongList 10,100000" runs only the
+ * SongList benchmarks, only at 10 and 100000 songs. With no arguments every
+ * benchmark runs at every size from 10 to 1000000, which takes a while.
+ *
+ * @author Amelia Matheson
+ */
+
+public class RunBenchmarks {
+
+	/**
+	 * Runs the benchmarks selected on the command line.
+	 *
+	 * @param args : String array representing the optional name filter and
+	 *             sizes.
+	 * @throws RunnerException if JMH fails to run a benchmark.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : "";
+		ChainedOptionsBuilder options = new OptionsBuilder().include("benchmarks\\..*" + include + ".*")
+				.shouldFailOnError(true);
+		if (args.length > 1) {
+			options = options.param("size", args[1].split(","));
+		}
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.JukeboxAccount;
+import model.ModelCodec;
+import model.Song;
+
+/**
+ * Benchmarks saving and loading the queue and the accounts with ModelCodec,
+ * the way playlist.ser and accounts.ser are written now, against the Java
+ * serialization they used to be written with. Files are left out so only the
+ * encoding itself is measured.
+ *
+ * @author Amelia Matheson
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int size;
+
+	private LinkedBlockingQueue<Song> queue;
+	private ArrayList<JukeboxAccount> accounts;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		queue = new LinkedBlockingQueue<>(BenchmarkData.songs(size, 42));
+		accounts = BenchmarkData.accounts(size);
+	}
+
+	/**
+	 * Writing and reading back the song queue, as PlayList.writeSongQueue() and
+	 * SongSelectionPlaylistPane.readPlayList() do.
+	 */
+	@Benchmark
+	public Object playListRoundTrip() throws IOException {
+		return ModelCodec.decodeSongs(ModelCodec.encodeSongs(queue));
+	}
+
+	/**
+	 * Writing and reading back the accounts, as the accounts.ser snapshot does.
+	 */
+	@Benchmark
+	public Object accountsRoundTrip() throws IOException {
+		return ModelCodec.decodeAccounts(ModelCodec.encodeAccounts(accounts));
+	}
+
+	/**
+	 * The song queue written with Java serialization, as it was before
+	 * ModelCodec.
+	 */
+	@Benchmark
+	public Object playListSerialized() throws IOException, ClassNotFoundException {
+		return roundTrip(queue);
+	}
+
+	/**
+	 * The accounts written with Java serialization, as they were before
+	 * ModelCodec.
+	 */
+	@Benchmark
+	public Object accountsSerialized() throws IOException, ClassNotFoundException {
+		return roundTrip(accounts);
+	}
+
+	static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(object);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		return in.readObject();
+	}
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Song;
+
+/**
+ * Benchmarks Song.getPlaytimeAsString(), which the song table calls for every
+ * row it draws.
+ *
+ * @author Amelia Matheson
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SongBenchmark {
+
+	private Song[] songs;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		ArrayList<Song> generated = BenchmarkData.songs(1024, 42);
+		songs = generated.toArray(new Song[0]);
+	}
+
+	@Benchmark
+	public String getPlaytimeAsString() {
+		next = (next + 1) & 1023;
+		return songs[next].getPlaytimeAsString();
+	}
+}
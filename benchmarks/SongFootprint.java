@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+
+import model.Song;
+
+/**
+ * Measures roughly how many bytes of heap each Song takes, including its
+ * Strings, after every song's playtime has been shown once (as the song table
+ * does). Not a JMH benchmark; run it with a fixed heap, for example
+ * "java -Xms2g -Xmx2g benchmarks.SongFootprint 1000000".
+ *
+ * @author Amelia Matheson
+ */
+
+public class SongFootprint {
+
+	/**
+	 * Prints the bytes per song for the number of songs given (1000000 if none).
+	 *
+	 * @param args : String array representing the optional number of songs.
+	 */
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		long before = usedHeap();
+		ArrayList<Song> songs = BenchmarkData.songs(count, 42);
+		int length = 0;
+		for (Song song : songs) {
+			length += song.getPlaytimeAsString().length();
+		}
+		long after = usedHeap();
+		// the ArrayList itself holds one 4 byte reference per song
+		double perSong = (after - before) / (double) count - 4;
+		System.out.printf("%d songs: %.1f bytes per song (%d)%n", count, perSong, length);
+		Reference.reachabilityFence(songs); // keeps the songs reachable until measured
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
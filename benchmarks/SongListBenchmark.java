@@ -0,0 +1,102 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Song;
+import model.SongList;
+
+/**
+ * Benchmarks sorting, removing from, and reading the SongList.
+ *
+ * @author Amelia Matheson
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SongListBenchmark {
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	public int size;
+
+	private SongList list;
+	private ArrayList<Song> songs;
+	private Random random;
+
+	/**
+	 * Builds the list and every sorted order before each iteration, so the
+	 * benchmarks measure steady state and every iteration starts from the same
+	 * list, however many songs the last one removed and added.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() {
+		list = BenchmarkData.songList(size);
+		songs = list.getSongs();
+		list.sortByArtist();
+		list.sortByDuration();
+		list.sortByTitle();
+		random = new Random(7);
+	}
+
+	/**
+	 * Switching between the three sort orders, as when clicking column headers.
+	 */
+	@Benchmark
+	public Song switchSortOrder() {
+		list.sortByArtist();
+		list.sortByDuration();
+		list.sortByTitle();
+		return list.get(0);
+	}
+
+	/**
+	 * What sorting by title cost before the orders were maintained: a full
+	 * Collections.sort of the song list.
+	 */
+	@Benchmark
+	public ArrayList<Song> fullSortByTitle() {
+		ArrayList<Song> copy = new ArrayList<>(songs);
+		Collections.sort(copy, Song::compareByTitle);
+		return copy;
+	}
+
+	/**
+	 * Removing a song and adding it back, which keeps the list the same size
+	 * but gives the song a new slot each time. The list is rebuilt before each
+	 * iteration, so the slots used up don't carry over.
+	 */
+	@Benchmark
+	public int removeAndAddSong() {
+		Song song = songs.get(random.nextInt(songs.size()));
+		list.removeSong(song);
+		list.addSong(song);
+		return list.size();
+	}
+
+	/**
+	 * Finding the song at a position in the current order.
+	 */
+	@Benchmark
+	public Song get() {
+		return list.get(random.nextInt(list.size()));
+	}
+}
@@ -21,6 +21,8 @@ import javafx.scene.layout.Region;
 import javafx.stage.Stage;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
+import model.FxPlaybackBackend;
+import model.JukeboxEngine;
 
 public class JukeboxGUI extends Application {
 
@@ -33,6 +35,7 @@ public class JukeboxGUI extends Application {
 		launch(args);
 	}
 
+	private JukeboxEngine engine;
 	private LoginCreateAccountPane loginPane;
 	private SongSelectionPlaylistPane songsPane;
 	private BorderPane everything;
@@ -55,7 +58,9 @@ public class JukeboxGUI extends Application {
 
 		primaryStage.setOnCloseRequest((event) -> {
 			shutDownHandle();
-			loginPane.writeAccountsList();
+			// state is checkpointed in the background, so this only writes out
+			// the last few changes
+			engine.shutdown();
 			Platform.exit();
 			System.exit(0);
 		});
@@ -66,7 +71,8 @@ public class JukeboxGUI extends Application {
 	 * playlist should be restored from a previous version.
 	 */
 	private void LayoutGUI() {
-		songsPane = new SongSelectionPlaylistPane();
+		engine = JukeboxEngine.open(new FxPlaybackBackend());
+		songsPane = new SongSelectionPlaylistPane(engine);
 		ButtonType makeNew = new ButtonType("Cancel", ButtonBar.ButtonData.NO);
 		ButtonType read = new ButtonType("OK", ButtonBar.ButtonData.CANCEL_CLOSE);
 		Alert readOld = new Alert(AlertType.CONFIRMATION);
@@ -94,13 +100,14 @@ public class JukeboxGUI extends Application {
 		everything = new BorderPane();
 		everything.setPadding(new Insets(10));
 
-		loginPane = new LoginCreateAccountPane(songsPane);
+		loginPane = new LoginCreateAccountPane(songsPane, engine);
 		everything.setCenter(songsPane); // was songsPane
 		everything.setBottom(loginPane);
 	}
 
 	/**
 	 * Handles when the application is shut down. Saves the playlist if necessary.
+	 * Accounts are always saved.
 	 */
 	private void shutDownHandle() {
 		ButtonType noSave = new ButtonType("Cancel", ButtonBar.ButtonData.NO);
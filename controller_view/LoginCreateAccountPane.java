@@ -1,13 +1,9 @@
 package controller_view;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.ArrayList;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -20,6 +16,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import model.JukeboxAccount;
+import model.JukeboxEngine;
 
 /**
  * This pane contains components necessary for successfully logging in 
@@ -36,8 +33,8 @@ public class LoginCreateAccountPane extends BorderPane {
 	private HBox box1 = new HBox();
 	private HBox box2 = new HBox();
 
-	private ArrayList<JukeboxAccount> accounts;
-	private JukeboxAccount loggedIn;
+	private JukeboxEngine engine;
+	private volatile JukeboxAccount loggedIn; // set by the password threads
 	private SongSelectionPlaylistPane songPane;
 
 	private Label label = new Label("Login or Create Account");
@@ -54,11 +51,13 @@ public class LoginCreateAccountPane extends BorderPane {
 	/**
 	 * Lays out the GUI objects for the pane and also initializes all the necessary
 	 * variables.
+	 * 
+	 * @param songPane : SongSelectionPlaylistPane to be told who is logged in.
+	 * @param engine   : JukeboxEngine holding the accounts.
 	 */
-	public LoginCreateAccountPane(SongSelectionPlaylistPane songPane) {
+	public LoginCreateAccountPane(SongSelectionPlaylistPane songPane, JukeboxEngine engine) {
 		this.songPane = songPane;
-		accounts = new ArrayList<>();
-		readAccountsList();
+		this.engine = engine;
 		loggedIn = null;
 
 		welcome = new Label();
@@ -100,27 +99,29 @@ public class LoginCreateAccountPane extends BorderPane {
 	}
 
 	/**
-	 * Sets action for each button.
+	 * Sets action for each button. Logging in and creating an account hash the
+	 * password on a background thread, so the buttons are disabled until the
+	 * result comes back to the JavaFX application thread.
 	 */
 	private void setUpButtons() {
 		loginButton.setOnAction((event) -> {
-			int code = logUserIn(userField.getText(), passField.getText()); // send it username and password
-
-			if (code == 1) {
+			String name = userField.getText();
+			setWaiting(true);
+			logUserIn(name, passField.getText()).whenComplete((code, err) -> Platform.runLater(() -> {
+				setWaiting(false);
 				userField.clear();
 				passField.clear();
-				message.setText("Username/Password is incorrect. Create account if you are a new user");
-				code = logUserIn(userField.getText(), passField.getText());
-			}
-
-			else {
-				welcome.setText("Welcome " + userField.getText() + "!");
-				userField.clear();
-				passField.clear();
-				message.setText("");
-				this.setCenter(loggingOutPane);
-				notifyObservers();
-			}
+				if (err != null) {
+					message.setText(failureMessage(err));
+				} else if (code == 1) {
+					message.setText("Username/Password is incorrect. Create account if you are a new user");
+				} else {
+					welcome.setText("Welcome " + name + "!");
+					message.setText("");
+					this.setCenter(loggingOutPane);
+					notifyObservers();
+				}
+			}));
 		});
 
 		logoutButton.setOnAction((event) -> {
@@ -131,65 +132,98 @@ public class LoginCreateAccountPane extends BorderPane {
 		});
 
 		createAccButton.setOnAction((event) -> {
-			if (createAccount(userField.getText(), passField.getText())) {
-				welcome.setText("Welcome " + userField.getText() + "!");
+			String name = userField.getText();
+			setWaiting(true);
+			createAccount(name, passField.getText()).whenComplete((created, err) -> Platform.runLater(() -> {
+				setWaiting(false);
 				userField.clear();
 				passField.clear();
-				this.setCenter(loggingOutPane);
-				notifyObservers();
-			} else {
-				userField.clear();
-				passField.clear();
-				message.setText("Username unavailable. Please choose unique username");
-			}
+				if (err != null) {
+					message.setText(failureMessage(err));
+				} else if (created) {
+					welcome.setText("Welcome " + name + "!");
+					message.setText("");
+					this.setCenter(loggingOutPane);
+					notifyObservers();
+				} else {
+					message.setText("Username unavailable. Please choose unique username");
+				}
+			}));
 		});
 	}
 
 	/**
-	 * Attempts to log the user in, or returns an error code if log in cannot be
-	 * done.
+	 * Disables the log in and create account buttons while a password is being
+	 * checked, so the same request isn't sent twice.
+	 * 
+	 * @param waiting : boolean representing whether a request is in progress.
+	 */
+	private void setWaiting(boolean waiting) {
+		loginButton.setDisable(waiting);
+		createAccButton.setDisable(waiting);
+		if (waiting) {
+			message.setText("Checking...");
+		}
+	}
+
+	/**
+	 * Attempts to log the user in, or gives an error code if log in cannot be
+	 * done. The password is checked on a background thread.
 	 * 
 	 * @param username : String representing the inputted username from the user.
 	 * @param password : String representing the inputted password.
-	 * @return integer representing the "error code" produced by the operation. 0 is
-	 *         returned if there is no error and the user has logged in
-	 *         successfully, 1 is returned if the user has the wrong password, or if
-	 *         the account doesn't exist.
+	 * @return CompletableFuture completed with an integer representing the
+	 *         "error code" produced by the operation. 0 is given if there is no
+	 *         error and the user has logged in successfully, 1 is given if the
+	 *         user has the wrong password, or if the account doesn't exist.
 	 */
-	public int logUserIn(String username, String password) {
-		for (JukeboxAccount account : accounts) {
-			if (account.getUsername().equals(username)) {
-				if (account.getPassword().equals(password)) {
-					loggedIn = account;
-					return 0;
-				} else {
-
-					return 1;
-				}
+	public CompletableFuture<Integer> logUserIn(String username, String password) {
+		return engine.logInAsync(username, password).thenApply((account) -> {
+			if (account == null) {
+				// wrong password, or no matches with existing accounts
+				return 1;
 			}
-		}
-		// no matches with existing accounts
-		return 1;
+			loggedIn = account;
+			return 0;
+		});
 	}
 
 	/**
-	 * Creates a new user account. Users must all have unique usernames.
+	 * Creates a new user account. Users must all have unique usernames. The
+	 * password is hashed on a background thread.
 	 * 
 	 * @param username : String representing username of the new account.
 	 * @param password : String representing password of the new account.
-	 * @return boolean representing whether the account was created successfully or
-	 *         not. true if it was, false otherwise (if usernames are not unique).
+	 * @return CompletableFuture completed with a boolean representing whether the
+	 *         account was created successfully or not. true if it was, false
+	 *         otherwise (if usernames are not unique).
 	 */
-	public boolean createAccount(String username, String password) {
-		for (JukeboxAccount account : accounts) {
-			if (account.getUsername().equals(username)) {
+	public CompletableFuture<Boolean> createAccount(String username, String password) {
+		return engine.createAccountAsync(username, password).thenApply((newUser) -> {
+			if (newUser == null) {
 				return false;
 			}
+			loggedIn = newUser;
+			return true;
+		});
+	}
+
+	/**
+	 * Describes why logging in or creating an account failed. Only a full
+	 * PasswordVerifier means too many people are logging in; anything else gets
+	 * the same message, and the cause is only written to the console, so the
+	 * user never sees the internals.
+	 * 
+	 * @param err : Throwable the login or account creation failed with.
+	 * @return String representing the message to show.
+	 */
+	private static String failureMessage(Throwable err) {
+		Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+		if (cause instanceof RejectedExecutionException) {
+			return "Too many people are logging in. Please try again";
 		}
-		JukeboxAccount newUser = new JukeboxAccount(username, password);
-		loggedIn = newUser;
-		accounts.add(newUser);
-		return true;
+		System.out.println("Couldn't log in or create the account: " + cause);
+		return "Something went wrong. Please try again";
 	}
 
 	/**
@@ -209,45 +243,11 @@ public class LoginCreateAccountPane extends BorderPane {
 	}
 
 	/**
-	 * Reads the accounts list from a serialized file so that account data can be
-	 * preserved between runs.
-	 */
-	public void readAccountsList() {
-		FileInputStream fromFile;
-		try {
-			fromFile = new FileInputStream("accounts.ser");
-			ObjectInputStream inFile = new ObjectInputStream(fromFile);
-
-			accounts = (ArrayList<JukeboxAccount>) inFile.readObject();
-
-			inFile.close();
-		} catch (FileNotFoundException err) {
-			System.out.println("Input file not found");
-		} catch (IOException err) {
-			System.out.println("Couldn't read from file");
-		} catch (ClassNotFoundException err) {
-			System.out.println("Incorrect cast");
-		}
-	}
-
-	/**
-	 * Writes the accounts list from a serialized file so that account data can be
-	 * preserved between runs.
+	 * Makes sure every account change has reached the disk. Compacting the
+	 * journal is left to the engine's background Checkpointer.
 	 */
 	public void writeAccountsList() {
-		FileOutputStream bytesToDisk;
-		try {
-			bytesToDisk = new FileOutputStream("accounts.ser");
-			ObjectOutputStream outFile = new ObjectOutputStream(bytesToDisk);
-
-			outFile.writeObject(accounts);
-
-			outFile.close();
-		} catch (FileNotFoundException err) {
-			System.out.println("Output file not found");
-		} catch (IOException err) {
-			System.out.println("Couldn't write to file");
-		}
+		engine.saveAccounts();
 	}
 
 	/**
@@ -0,0 +1,104 @@
+package controller_view;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import javafx.collections.ObservableListBase;
+import model.Song;
+import model.SongPages;
+
+/**
+ * A read-only ObservableList for the song table that doesn't hold the songs
+ * itself. Rows are fetched from a SongList view a page at a time as they
+ * scroll into view (see SongPages), so showing a catalog of millions of songs
+ * costs no more than showing a handful.
+ *
+ * @author Amelia Matheson
+ */
+
+public class PagedSongList extends ObservableListBase<Song> {
+
+	private List<Song> source;
+	private boolean descending;
+	private SongPages pages;
+	private int shownSize; // size the table was last told about
+
+	/**
+	 * Creates a new PagedSongList.
+	 *
+	 * @param source : List of Songs to show, such as
+	 *               SongList.getSongsInOrderAdded().
+	 */
+	public PagedSongList(List<Song> source) {
+		this.source = source;
+		pages = new SongPages(source, false);
+		shownSize = pages.size();
+	}
+
+	@Override
+	public Song get(int index) {
+		if (index < 0 || index >= shownSize) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + shownSize);
+		}
+		// the source may have shrunk since the last change event; those rows
+		// show empty until refresh() tells the table
+		return index < pages.size() ? pages.get(index) : null;
+	}
+
+	/**
+	 * Retrieves the number of rows as of the last change event, which is what
+	 * the table expects until it is told of another, however the source list
+	 * has changed since.
+	 *
+	 * @return integer representing the number of rows.
+	 */
+	@Override
+	public int size() {
+		return shownSize;
+	}
+
+	/**
+	 * Shows a different list, for example the songs in another order, and tells
+	 * the table every row has changed.
+	 *
+	 * @param source     : List of Songs to show.
+	 * @param descending : boolean representing whether to show the songs in
+	 *                   reverse order. true to reverse them, false otherwise.
+	 */
+	public void setSource(List<Song> source, boolean descending) {
+		this.source = source;
+		this.descending = descending;
+		replaceAll();
+	}
+
+	/**
+	 * Forgets the fetched rows, so songs added to or removed from the source
+	 * list show up, and tells the table every row has changed.
+	 */
+	public void refresh() {
+		replaceAll();
+	}
+
+	private void replaceAll() {
+		SongPages old = pages;
+		int oldSize = shownSize;
+		pages = new SongPages(source, descending);
+		shownSize = pages.size();
+		// the rows being replaced are only fetched if a listener asks for them,
+		// and rows past the end of a list that has shrunk can't be any more
+		List<Song> removed = new AbstractList<Song>() {
+			@Override
+			public Song get(int index) {
+				return index < old.size() ? old.get(index) : null;
+			}
+
+			@Override
+			public int size() {
+				return oldSize;
+			}
+		};
+		beginChange();
+		nextReplace(0, shownSize, removed);
+		endChange();
+	}
+}
@@ -1,66 +1,188 @@
 package controller_view;
 
-import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
+import model.LibraryListener;
+import model.SearchResults;
 import model.Song;
 import model.SongList;
 
 /**
  * This class is responsible for displaying the SongList in a TableView. 
  * 
+ * The table shows a PagedSongList, which only fetches the rows that scroll
+ * into view, so opening it costs the same however many songs there are.
+ * Clicking a column header shows one of the SongList's maintained sorted
+ * orders rather than sorting the rows in the table. Registered as a
+ * LibraryListener, it shows songs added to or removed from the song folder as
+ * the catalog picks them up.
+ * 
  * @author Amelia Matheson
  */
 
-public class SongListTableView extends BorderPane {
+public class SongListTableView extends BorderPane implements LibraryListener {
 	private static TableView<Song> table;
 	private static ObservableList<Song> obslist;
+	private PagedSongList allSongs;
 	private SongList songList;
-	private ArrayList<Song> songs;
+	private TextField searchField = new TextField();
+	private Label resultsLabel = new Label();
+	private Button moreButton = new Button("More");
+	private SearchResults results;
+
+	private static final int PAGE_SIZE = 100;
 
 	/**
 	 * Creates a new SongListTableView to display the list of songs to select.
+	 * 
+	 * @param songList : SongList holding the songs to be displayed.
 	 */
 	@SuppressWarnings("unchecked")
-	public SongListTableView() {
+	public SongListTableView(SongList songList) {
 		this.setMinWidth(300);
 		this.setMaxHeight(400);
 		
 		Label label = new Label("Song List");
 		label.setFont(new Font("Elephant", 14));
 		label.setStyle("-fx-text-fill: magenta");
-		this.setTop(label);
-		Insets insets = new Insets(3);
-		this.setMargin(label, insets);
+		searchField.setPromptText("Search title or artist");
+		VBox top = new VBox(label, searchField);
+		top.setSpacing(3);
+		top.setPadding(new Insets(3));
+		this.setTop(top);
 
 		table = new TableView<Song>();
 		table.setPrefWidth(300);
-		songList = new SongList();
-		songs = songList.getSongs();
-		obslist = FXCollections.observableArrayList(songs);
+		this.songList = songList;
+		allSongs = new PagedSongList(songList.getSongsInOrderAdded());
+		obslist = FXCollections.observableArrayList();
 
 		TableColumn<Song, String> title = new TableColumn<>("Title");
 		TableColumn<Song, String> artist = new TableColumn<>("Artist");
 		TableColumn<Song, String> time = new TableColumn<>("Time");
 		
 
-		title.setCellValueFactory(new PropertyValueFactory<Song, String>("title"));
-		artist.setCellValueFactory(new PropertyValueFactory<Song, String>("artist"));
-		time.setCellValueFactory(new PropertyValueFactory<Song, String>("playtimeAsString"));
+		title.setCellValueFactory((cell) -> new ReadOnlyStringWrapper(cell.getValue().getTitle()));
+		artist.setCellValueFactory((cell) -> new ReadOnlyStringWrapper(cell.getValue().getArtist()));
+		time.setCellValueFactory((cell) -> new ReadOnlyStringWrapper(cell.getValue().getPlaytimeAsString()));
 
-		table.setItems(obslist);
+		table.setItems(allSongs);
+		table.setSortPolicy((sortedTable) -> sort(title, artist));
 		table.getColumns().addAll(title, artist, time);
 		title.setPrefWidth(148);
 		table.setStyle("-fx-border-style: dotted; -fx-border-width: 2; -fx-border-color: darkgoldenrod");
 		this.setCenter(table);
+
+		resultsLabel.setPrefWidth(200);
+		moreButton.setDisable(true);
+		HBox bottom = new HBox(resultsLabel, moreButton);
+		bottom.setSpacing(5);
+		bottom.setPadding(new Insets(3));
+		this.setBottom(bottom);
+		searchField.textProperty().addListener((observable, oldText, newText) -> showSearch(newText));
+		moreButton.setOnAction((event) -> showMore());
+	}
+
+	/**
+	 * Shows the first page of songs matching the search, or every song if the
+	 * search is blank.
+	 * 
+	 * @param query : String representing what the user typed.
+	 */
+	private void showSearch(String query) {
+		if (query == null || query.isBlank()) {
+			results = null;
+			obslist.clear();
+			allSongs.refresh();
+			table.setItems(allSongs);
+			resultsLabel.setText("");
+			moreButton.setDisable(true);
+			return;
+		}
+		results = songList.search(query, 0, PAGE_SIZE);
+		obslist.setAll(results.getSongs());
+		table.setItems(obslist);
+		showResultCount();
+	}
+
+	/**
+	 * Sorts the table by the column that was clicked. All songs are shown in one
+	 * of the SongList's sorted orders; search results are few enough to sort
+	 * directly.
+	 * 
+	 * @param title  : TableColumn showing song titles.
+	 * @param artist : TableColumn showing song artists.
+	 * @return boolean representing whether the table was sorted. Always true.
+	 */
+	private boolean sort(TableColumn<Song, String> title, TableColumn<Song, String> artist) {
+		List<TableColumn<Song, ?>> sortOrder = table.getSortOrder();
+		TableColumn<Song, ?> column = sortOrder.isEmpty() ? null : sortOrder.get(0);
+		boolean descending = column != null && column.getSortType() == TableColumn.SortType.DESCENDING;
+		if (table.getItems() == obslist) {
+			if (column != null) {
+				Comparator<Song> byColumn = column == title ? Song::compareByTitle
+						: column == artist ? Song::compareByArtist : Song::compareByDuration;
+				obslist.sort(descending ? byColumn.reversed() : byColumn);
+			}
+			return true;
+		}
+		if (column == null) {
+			allSongs.setSource(songList.getSongsInOrderAdded(), false);
+		} else if (column == title) {
+			allSongs.setSource(songList.getSongsByTitle(), descending);
+		} else if (column == artist) {
+			allSongs.setSource(songList.getSongsByArtist(), descending);
+		} else {
+			allSongs.setSource(songList.getSongsByDuration(), descending);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the next page of matching songs below the ones already shown.
+	 */
+	private void showMore() {
+		if (results == null || !results.hasMore()) {
+			return;
+		}
+		results = songList.search(searchField.getText(), obslist.size(), PAGE_SIZE);
+		obslist.addAll(results.getSongs());
+		showResultCount();
+	}
+
+	/**
+	 * Shows the songs the catalog has gained and lost, by fetching the rows
+	 * again and running the search again if one is showing. Must be called on
+	 * the JavaFX thread.
+	 * 
+	 * @param removed : List of Songs removed from the catalog.
+	 * @param added   : List of Songs added to the catalog.
+	 */
+	@Override
+	public void libraryChanged(List<Song> removed, List<Song> added) {
+		allSongs.refresh();
+		if (results != null) {
+			showSearch(searchField.getText());
+		}
+	}
+
+	private void showResultCount() {
+		resultsLabel.setText("Showing " + obslist.size() + " of " + results.getTotal());
+		moreButton.setDisable(!results.hasMore());
 	}
 
 	/**
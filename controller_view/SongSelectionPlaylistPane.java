@@ -1,17 +1,18 @@
 package controller_view;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TableView;
 import javafx.scene.control.Alert.AlertType;
@@ -19,13 +20,18 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.text.Font;
 import model.JukeboxAccount;
-import model.PlayList;
+import model.JukeboxEngine;
+import model.ModelCodec;
+import model.PlayListListener;
 import model.Song;
 
 /**
  * The pane that will contain components necessary for displaying SongList
  * and PlayList. Currently has three buttons to play three hard-coded songs.
  * 
+ * Songs are requested through the JukeboxEngine, and the pane listens to the
+ * engine's PlayList to show what is queued and playing.
+ * 
  * Please disregard commented out lines; implementation subject to change
  * in iteration 2 of this project. 
  * 
@@ -33,11 +39,11 @@ import model.Song;
  * @since March 19, 2023
  */
 
-public class SongSelectionPlaylistPane extends GridPane {
+public class SongSelectionPlaylistPane extends GridPane implements PlayListListener {
 
 	private BorderPane songQueuePane;
 	private Button addButton = new Button("Add and Play");
-	private PlayList play;
+	private JukeboxEngine engine;
 	private ObservableList<Song> playlistTracker; // necessary because PlayList
 	// only plays songs (not displays) as per spec
 	private ListView<Song> songList;
@@ -48,9 +54,12 @@ public class SongSelectionPlaylistPane extends GridPane {
 	/**
 	 * Sets up a SongSelectionPlaylistPane containing all the user needs to select
 	 * songs and see the songs that are playing.
+	 * 
+	 * @param engine : JukeboxEngine that songs are requested from.
 	 */
-	public SongSelectionPlaylistPane() {
-		play = new PlayList(this);
+	public SongSelectionPlaylistPane(JukeboxEngine engine) {
+		this.engine = engine;
+		engine.addListener(this);
 		this.setHgap(10);
 		this.setVgap(5);
 		this.setPadding(new Insets(0, 0, 0, 20));
@@ -71,30 +80,23 @@ public class SongSelectionPlaylistPane extends GridPane {
 		songList.setStyle("-fx-border-style: dotted; -fx-border-width: 2; -fx-border-color: darkgoldenrod");
 		songQueuePane.setCenter(songList);
 
-		songsTableView = new SongListTableView();
+		songsTableView = new SongListTableView(engine.getCatalog());
+		engine.addLibraryListener(songsTableView);
 		this.add(songsTableView, 1, 1);
 		this.add(songQueuePane, 3, 1);
 		this.add(addButton, 2, 1);
 
 		theTable = songsTableView.getTable();
+		theTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 		addButton.setOnAction((event) -> {
-			Song song = (Song) theTable.getSelectionModel().getSelectedItem();
-			if (song != null) {
-				addSong(song);
+			List<Song> selected = new ArrayList<>(theTable.getSelectionModel().getSelectedItems());
+			if (!selected.isEmpty()) {
+				addSongs(selected);
 			}
 		});
 
 	}
 
-	/**
-	 * Removes the song that was just played from the playlist ListView.
-	 */
-	public void songOver() {
-		if (!(playlistTracker.isEmpty())) {
-			playlistTracker.remove(0);
-		}
-	}
-
 	/**
 	 * Selects the playing song in the list view.
 	 */
@@ -103,6 +105,60 @@ public class SongSelectionPlaylistPane extends GridPane {
 		songList.getSelectionModel().select(0);
 	}
 
+	/**
+	 * Shows the queue in the playlist ListView as the PlayList has it now, in
+	 * the order its policy will play the songs, and selects the song playing.
+	 * The policy may move songs already waiting when another is queued or one
+	 * starts, so the whole list is rebuilt rather than patched.
+	 */
+	private void showQueue() {
+		// read here, while the PlayList is telling its listeners, so the copy
+		// matches the change being reported
+		List<Song> songs = engine.getPlayList().getSongsAsList();
+		boolean playing = engine.getPlayList().isPlaying();
+		runOnFxThread(() -> {
+			playlistTracker.setAll(songs);
+			if (playing) {
+				showPlayingSong();
+			}
+		});
+	}
+
+	@Override
+	public void songQueued(Song song) {
+		showQueue();
+	}
+
+	@Override
+	public void songsQueued(List<Song> songs) {
+		// one update to the list view for the whole batch
+		showQueue();
+	}
+
+	@Override
+	public void songStarted(Song song) {
+		showQueue();
+	}
+
+	@Override
+	public void songFinished(Song song) {
+		showQueue();
+	}
+
+	/**
+	 * Runs an update to the GUI on the JavaFX application thread, which is the
+	 * only thread allowed to change it.
+	 * 
+	 * @param update : Runnable changing the GUI.
+	 */
+	private void runOnFxThread(Runnable update) {
+		if (Platform.isFxApplicationThread()) {
+			update.run();
+		} else {
+			Platform.runLater(update);
+		}
+	}
+
 	/**
 	 * Updates the current account to reflect the currently logged in user.
 	 * 
@@ -114,27 +170,20 @@ public class SongSelectionPlaylistPane extends GridPane {
 	}
 
 	/**
-	 * Reads the PlayList from the serialized file to restore it to a saved version.
+	 * Restores the PlayList to the saved version: the queue kept in the playlist
+	 * journal, or if there is none yet, the one saved in playlist.ser (by
+	 * writeSongQueue() or by older versions).
 	 */
 	public void readPlayList() {
-		FileInputStream fromFile;
+		if (engine.restoreSavedQueue()) {
+			return;
+		}
 		try {
-			fromFile = new FileInputStream("playlist.ser");
-			ObjectInputStream inFile = new ObjectInputStream(fromFile);
-
-			LinkedBlockingQueue<Song> oldPlay = (LinkedBlockingQueue<Song>) inFile.readObject();
-			play = new PlayList(this, oldPlay);
-			playlistTracker = FXCollections.observableArrayList(play.getSongsAsList());
-			songList.setItems(playlistTracker);
-			play.play();
-
-			inFile.close();
-		} catch (FileNotFoundException err) {
+			engine.restoreQueue(ModelCodec.readSongs(Paths.get("playlist.ser")));
+		} catch (NoSuchFileException err) {
 			System.out.println("Input file not found");
 		} catch (IOException err) {
 			System.out.println("Couldn't read from file");
-		} catch (ClassNotFoundException err) {
-			System.out.println("Incorrect cast");
 		}
 	}
 
@@ -142,42 +191,59 @@ public class SongSelectionPlaylistPane extends GridPane {
 	 * Writes the current PlayList to a serialized file so it can be saved.
 	 */
 	public void writePlayList() {
-		play.writeSongQueue();
+		engine.saveQueue();
 	}
 
 	/**
-	 * Adds the specified song to the playlist. Needs to manually get the song to
-	 * play if the playlist is empty.
+	 * Adds the specified songs to the playlist, all together. Needs to manually
+	 * get the songs to play if the playlist is empty.
 	 * 
-	 * @param song : Song object representing the song to be played.
-	 * @return boolean representing whether the song was successfully added or not.
-	 *         true if it was, false otherwise (this would happen if the user has
-	 *         already added three songs for the day or if a user isn't logged in).
+	 * @param songs : List of Songs representing the songs to be played, in
+	 *              order.
+	 * @return boolean representing whether the songs were successfully added or
+	 *         not. true if they were, false otherwise (this would happen if they
+	 *         would take the user over the most songs allowed for the day, or
+	 *         one of them is already queued, in which case none are added, or if
+	 *         a user isn't logged in).
 	 */
-	private boolean addSong(Song song) {
-		if (currAcc == null) {
+	private boolean addSongs(List<Song> songs) {
+		JukeboxEngine.RequestResult result = engine.requestSongs(currAcc, songs);
+		if (result == JukeboxEngine.RequestResult.NOT_LOGGED_IN) {
 			Alert noLogin = new Alert(AlertType.WARNING);
 			noLogin.setHeaderText("No user logged in");
 			noLogin.setContentText("Please log in or create an account to add songs.");
 			noLogin.show();
 			return false;
 		}
-		boolean added = currAcc.addSong();
-		if (!(added)) {
+		if (result == JukeboxEngine.RequestResult.LIMIT_REACHED) {
 			Alert threeAdded = new Alert(AlertType.WARNING);
-			threeAdded.setHeaderText("Sorry, you already added three songs today.");
-			threeAdded.setContentText("Please come back tomorrow.");
+			int left = currAcc.getSongsLeftToday();
+			if (left == 0) {
+				threeAdded.setHeaderText("Sorry, you already added " + currAcc.getDailyLimit() + " songs today.");
+				threeAdded.setContentText("Please come back tomorrow.");
+			} else {
+				threeAdded.setHeaderText("Sorry, you can only add " + left + " more songs today.");
+				threeAdded.setContentText("Please select fewer songs.");
+			}
 			threeAdded.show();
 			return false;
 		}
-		playlistTracker.add(song);
-		if (play.playListEmpty()) {
-			play.queueUpNextSong(song);
-			play.play();
-			showPlayingSong();
-		} else {
-			play.queueUpNextSong(song);
+		if (result == JukeboxEngine.RequestResult.DUPLICATE) {
+			Alert duplicate = new Alert(AlertType.WARNING);
+			duplicate.setHeaderText(songs.size() == 1 ? "That song is already in the queue."
+					: "Some of those songs are already in the queue.");
+			duplicate.setContentText("Please pick something else, or try again later.");
+			duplicate.show();
+			return false;
+		}
+		if (result == JukeboxEngine.RequestResult.COALESCED) {
+			Alert coalesced = new Alert(AlertType.INFORMATION);
+			coalesced.setHeaderText(songs.size() == 1 ? "That song is already in the queue."
+					: "Those songs are already in the queue.");
+			coalesced.setContentText("It will play once, and your request doesn't count against your songs for today.");
+			coalesced.show();
 		}
+		// the queue and "now playing" are updated by the PlayListListener methods
 		return true;
 	}
 }
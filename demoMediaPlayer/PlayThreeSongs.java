@@ -1,6 +1,5 @@
 package demoMediaPlayer;
 
-import controller_view.SongSelectionPlaylistPane;
 /**
  * Plays three songs.
  * 
@@ -13,6 +12,7 @@ import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
+import model.FxPlaybackBackend;
 import model.PlayList;
 import model.Song;
 
@@ -24,7 +24,7 @@ public class PlayThreeSongs extends Application {
   
   @Override
   public void start(Stage stage) throws Exception {
-    PlayList playList = new PlayList(new SongSelectionPlaylistPane());
+    PlayList playList = new PlayList(new FxPlaybackBackend());
     
     //playList.queueUpNextSong(new Song("", "", 5, "Capture.mp3"));
     //playList.queueUpNextSong(new Song("", "", 15, "SwingCheese.mp3"));
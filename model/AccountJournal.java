@@ -0,0 +1,235 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Persists accounts as a snapshot plus an append-only journal of changes.
+ * Creating an account or adding a song appends one small record instead of
+ * rewriting every account, so saving costs time proportional to what changed.
+ *
+ * Records are written by a background thread that commits everything queued
+ * since its last write with a single fsync (see JournalWriter). Once enough
+ * records have built up the journal is compacted: the snapshot is rewritten
+ * (to a temporary file that is then renamed over the old one) and the journal
+ * is emptied.
+ *
+ * The snapshot is written with ModelCodec. A snapshot still in the old
+ * serialized accounts.ser format is read as well, so existing saved accounts
+ * are picked up on the first run.
+ *
+ * @author Amelia Matheson
+ */
+
+public class AccountJournal implements Checkpointable {
+
+	private static final byte CREATE = 1;
+	private static final byte SONGS = 2;
+	private static final byte PASSWORD = 3;
+	private static final int DEFAULT_COMPACT_EVERY = 10000;
+
+	private Path snapshotFile;
+	private PasswordHasher hasher; // null to use PasswordHasher.getDefault()
+	private AccountStore store;
+	private JournalWriter journal;
+
+	/**
+	 * Creates a new AccountJournal using accounts.ser as the snapshot and
+	 * accounts.journal as the journal.
+	 */
+	public AccountJournal() {
+		this(Paths.get("accounts.ser"), Paths.get("accounts.journal"), DEFAULT_COMPACT_EVERY);
+	}
+
+	/**
+	 * Creates a new AccountJournal with the specified files.
+	 *
+	 * @param snapshotFile : Path representing the file holding the compacted
+	 *                     accounts.
+	 * @param journalFile  : Path representing the file changes are appended to.
+	 * @param compactEvery : integer representing how many records are appended
+	 *                     before the journal is compacted into the snapshot.
+	 */
+	public AccountJournal(Path snapshotFile, Path journalFile, int compactEvery) {
+		this(snapshotFile, journalFile, compactEvery, null);
+	}
+
+	/**
+	 * Creates a new AccountJournal with the specified files, whose AccountStore
+	 * hashes passwords with the specified hasher.
+	 *
+	 * @param snapshotFile : Path representing the file holding the compacted
+	 *                     accounts.
+	 * @param journalFile  : Path representing the file changes are appended to.
+	 * @param compactEvery : integer representing how many records are appended
+	 *                     before the journal is compacted into the snapshot.
+	 * @param hasher       : PasswordHasher for the store, or null to use
+	 *                     PasswordHasher.getDefault().
+	 */
+	public AccountJournal(Path snapshotFile, Path journalFile, int compactEvery, PasswordHasher hasher) {
+		this.snapshotFile = snapshotFile;
+		this.hasher = hasher;
+		journal = new JournalWriter(journalFile, "account", compactEvery, this::compact);
+	}
+
+	/**
+	 * Restores the accounts by reading the snapshot and replaying the journal on
+	 * top of it, then starts appending new changes to the journal. A record torn
+	 * by a crash ends the replay and is cut off the end of the journal.
+	 *
+	 * @return AccountStore holding the restored accounts, which reports its
+	 *         changes back to this journal.
+	 */
+	public AccountStore open() {
+		store = new AccountStore(readSnapshot(), hasher);
+		journal.open(this::apply);
+		store.setJournal(this);
+		journal.start();
+		return store;
+	}
+
+	/**
+	 * Records that a new account was created.
+	 *
+	 * @param account : JukeboxAccount that was just created.
+	 */
+	public void recordCreate(JukeboxAccount account) {
+		synchronized (account) {
+			journal.append(encode(CREATE, account));
+		}
+	}
+
+	/**
+	 * Records the number of songs an account has played today. Records hold the
+	 * new totals rather than the difference, so replaying one twice is harmless.
+	 *
+	 * @param account : JukeboxAccount whose song count changed.
+	 */
+	public void recordSongs(JukeboxAccount account) {
+		synchronized (account) {
+			journal.append(encode(SONGS, account));
+		}
+	}
+
+	/**
+	 * Records that an account's password was hashed again, for example when an
+	 * account saved with a plain text password first logs in.
+	 *
+	 * @param account : JukeboxAccount whose stored password changed.
+	 */
+	public void recordPassword(JukeboxAccount account) {
+		synchronized (account) {
+			journal.append(encode(PASSWORD, account));
+		}
+	}
+
+	/**
+	 * Waits until every record appended so far has been written to disk.
+	 */
+	public void flush() {
+		journal.flush();
+	}
+
+	/**
+	 * Counts the changes not yet compacted into the snapshot.
+	 *
+	 * @return integer representing the number of records since the last
+	 *         checkpoint.
+	 */
+	@Override
+	public int getDirtyRecords() {
+		return journal.getDirtyRecords();
+	}
+
+	/**
+	 * Writes out everything still pending and compacts the journal into the
+	 * snapshot. Run in the background by a Checkpointer.
+	 */
+	@Override
+	public void checkpoint() {
+		journal.checkpoint();
+	}
+
+	/**
+	 * Flushes the journal and stops the background writer.
+	 */
+	public void close() {
+		journal.close();
+	}
+
+	private byte[] encode(byte type, JukeboxAccount account) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(type);
+			out.writeUTF(account.getUsername());
+			if (type == CREATE || type == PASSWORD) {
+				out.writeUTF(account.getStoredPassword());
+			}
+			long quota = account.getQuotaState();
+			out.writeLong(DailyQuota.dayOf(quota));
+			out.writeInt(DailyQuota.countOf(quota));
+			return bytes.toByteArray();
+		} catch (IOException err) {
+			// writing to a byte array can't fail
+			throw new IllegalStateException(err);
+		}
+	}
+
+	/**
+	 * Rewrites the snapshot from the accounts in memory and empties the journal.
+	 * Run by the JournalWriter while it holds its lock, so no batch is written
+	 * halfway through.
+	 */
+	private void compact() {
+		try {
+			ModelCodec.writeAccounts(snapshotFile, store.getAccounts());
+		} catch (IOException err) {
+			System.out.println("Couldn't write to file");
+			return;
+		}
+		journal.truncate();
+	}
+
+	private ArrayList<JukeboxAccount> readSnapshot() {
+		try {
+			return ModelCodec.readAccounts(snapshotFile);
+		} catch (FileNotFoundException | NoSuchFileException err) {
+			System.out.println("Input file not found");
+		} catch (IOException err) {
+			System.out.println("Couldn't read from file");
+		}
+		return new ArrayList<>();
+	}
+
+	private void apply(DataInputStream record) throws IOException {
+		byte type = record.readByte();
+		String username = record.readUTF();
+		JukeboxAccount account;
+		if (type == CREATE) {
+			String password = record.readUTF();
+			account = store.restore(JukeboxAccount.restore(username, password));
+		} else if (type == PASSWORD) {
+			String password = record.readUTF();
+			account = store.find(username);
+			if (account != null) {
+				account.restorePassword(password);
+			}
+		} else {
+			account = store.find(username);
+		}
+		LocalDate date = LocalDate.ofEpochDay(record.readLong());
+		int songs = record.readInt();
+		if (account != null) {
+			account.restoreSongs(date, songs);
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds every JukeboxAccount, indexed by username. Lookups, log ins, and account
+ * creation are constant time no matter how many accounts exist, and are safe to
+ * call from several threads at once. Log ins and account creation also hash a
+ * password (see PasswordHasher), which takes long enough that a front end
+ * should run them through a PasswordVerifier rather than on its own thread.
+ *
+ * @author Amelia Matheson
+ */
+
+public class AccountStore {
+
+	private ConcurrentHashMap<String, JukeboxAccount> accounts;
+	private AccountJournal journal;
+	private PasswordHasher hasher; // null to use PasswordHasher.getDefault()
+	private volatile String dummyHash; // checked against for unknown usernames
+
+	/**
+	 * Creates a new, empty AccountStore.
+	 */
+	public AccountStore() {
+		accounts = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Creates a new, empty AccountStore that hashes the passwords of new
+	 * accounts with the specified hasher.
+	 *
+	 * @param hasher : PasswordHasher for new accounts, or null to use
+	 *               PasswordHasher.getDefault().
+	 */
+	public AccountStore(PasswordHasher hasher) {
+		this();
+		this.hasher = hasher;
+	}
+
+	/**
+	 * Creates a new AccountStore holding the specified accounts. If two accounts
+	 * share a username, the first one is kept.
+	 *
+	 * @param existing : Collection of JukeboxAccounts to be stored, for example
+	 *                 ones restored from a saved file.
+	 */
+	public AccountStore(Collection<JukeboxAccount> existing) {
+		accounts = new ConcurrentHashMap<>(Math.max(16, existing.size() * 4 / 3 + 1));
+		for (JukeboxAccount account : existing) {
+			accounts.putIfAbsent(account.getUsername(), account);
+		}
+	}
+
+	/**
+	 * Creates a new AccountStore holding the specified accounts, that hashes
+	 * passwords with the specified hasher.
+	 *
+	 * @param existing : Collection of JukeboxAccounts to be stored.
+	 * @param hasher   : PasswordHasher for new accounts, or null to use
+	 *                 PasswordHasher.getDefault().
+	 */
+	public AccountStore(Collection<JukeboxAccount> existing, PasswordHasher hasher) {
+		this(existing);
+		this.hasher = hasher;
+	}
+
+	/**
+	 * Retrieves the account with the specified username.
+	 *
+	 * @param username : String representing the username to look up.
+	 * @return JukeboxAccount with that username, or null if there is none.
+	 */
+	public JukeboxAccount find(String username) {
+		if (username == null) {
+			return null;
+		}
+		return accounts.get(username);
+	}
+
+	/**
+	 * Checks a username and password against the stored accounts. If the
+	 * account's password gets hashed again (see JukeboxAccount.checkPassword()),
+	 * it is hashed with this store's hasher and the new hash is recorded so it
+	 * survives a restart. A username that doesn't exist takes as long to turn
+	 * away as a wrong password, so the time taken doesn't tell which usernames
+	 * exist.
+	 *
+	 * @param username : String representing the inputted username.
+	 * @param password : String representing the inputted password.
+	 * @return JukeboxAccount that matches both the username and password, or null
+	 *         if the account doesn't exist or the password is wrong.
+	 */
+	public JukeboxAccount authenticate(String username, String password) {
+		JukeboxAccount account = find(username);
+		if (account == null) {
+			checkUnknown(password);
+			return null;
+		}
+		String stored = account.getStoredPassword();
+		if (!account.checkPassword(password, hasher)) {
+			return null;
+		}
+		if (journal != null && account.getStoredPassword() != stored) {
+			journal.recordPassword(account);
+		}
+		return account;
+	}
+
+	/**
+	 * Does the same work as checking a password, for a username that doesn't
+	 * exist.
+	 */
+	private void checkUnknown(String password) {
+		String hash = dummyHash;
+		if (hash == null) {
+			// making the hash costs the same as checking a password against it
+			PasswordHasher cost = hasher != null ? hasher : PasswordHasher.getDefault();
+			dummyHash = cost.hash(password == null ? "" : password);
+		} else {
+			PasswordHasher.verify(password, hash);
+		}
+	}
+
+	/**
+	 * Creates and stores a new account. Checking that the username is unused and
+	 * storing the new account happen as one atomic step, so two users racing for
+	 * the same username can't both succeed.
+	 *
+	 * @param username : String representing username of the new account.
+	 * @param password : String representing password of the new account.
+	 * @return JukeboxAccount that was created, or null if the username is already
+	 *         taken.
+	 */
+	public JukeboxAccount create(String username, String password) {
+		if (username == null || accounts.containsKey(username)) {
+			return null; // don't spend time hashing for a name that is taken
+		}
+		JukeboxAccount newUser = new JukeboxAccount(username, password, null, hasher);
+		if (accounts.putIfAbsent(username, newUser) != null) {
+			return null;
+		}
+		if (journal != null) {
+			journal.recordCreate(newUser);
+		}
+		return newUser;
+	}
+
+	/**
+	 * Adds a song for the specified account (see JukeboxAccount.addSong()) and
+	 * records the account's new song count so it survives a restart.
+	 *
+	 * @param account : JukeboxAccount that is adding a song.
+	 * @return boolean representing whether the song can be added. true if it can
+	 *         be, false otherwise.
+	 */
+	public boolean addSong(JukeboxAccount account) {
+		if (!account.addSong()) {
+			return false;
+		}
+		if (journal != null) {
+			journal.recordSongs(account);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds several songs for the specified account at once (see
+	 * JukeboxAccount.addSongs()), and records the new song count once.
+	 *
+	 * @param account : JukeboxAccount that is adding songs.
+	 * @param songs   : integer representing how many songs are being added.
+	 * @return boolean representing whether the songs can be added. true if they
+	 *         all can be, false otherwise (in which case none are counted).
+	 */
+	public boolean addSongs(JukeboxAccount account, int songs) {
+		if (!account.addSongs(songs)) {
+			return false;
+		}
+		if (journal != null) {
+			journal.recordSongs(account);
+		}
+		return true;
+	}
+
+	/**
+	 * Stores an account restored from disk, unless one with the same username is
+	 * already stored.
+	 *
+	 * @param account : JukeboxAccount being restored.
+	 * @return JukeboxAccount that is stored under the account's username.
+	 */
+	JukeboxAccount restore(JukeboxAccount account) {
+		JukeboxAccount existing = accounts.putIfAbsent(account.getUsername(), account);
+		return existing == null ? account : existing;
+	}
+
+	/**
+	 * Sets the journal that account changes are reported to.
+	 *
+	 * @param journal : AccountJournal recording changes, or null for none.
+	 */
+	void setJournal(AccountJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Checks whether an account with the specified username exists.
+	 *
+	 * @param username : String representing the username to look up.
+	 * @return boolean representing whether the username is taken. true if it is,
+	 *         false otherwise.
+	 */
+	public boolean contains(String username) {
+		return find(username) != null;
+	}
+
+	/**
+	 * Retrieves the number of stored accounts.
+	 *
+	 * @return integer representing the number of accounts.
+	 */
+	public int size() {
+		return accounts.size();
+	}
+
+	/**
+	 * Gives every stored account as an ArrayList. Necessary for persistence.
+	 *
+	 * @return ArrayList of JukeboxAccounts representing a snapshot of the store.
+	 */
+	public ArrayList<JukeboxAccount> getAccounts() {
+		return new ArrayList<>(accounts.values());
+	}
+}
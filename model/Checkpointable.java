@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * Something that keeps its changes in a journal and can compact them into a
+ * snapshot, such as the AccountJournal and PlayListJournal. A Checkpointer
+ * compacts these in the background.
+ *
+ * @author Amelia Matheson
+ */
+
+public interface Checkpointable {
+
+	/**
+	 * Counts the changes made since the last checkpoint.
+	 *
+	 * @return integer representing the number of changes not yet in the
+	 *         snapshot. 0 means there is nothing to do.
+	 */
+	int getDirtyRecords();
+
+	/**
+	 * Writes every change so far into a new snapshot (to a temporary file that
+	 * is then renamed over the old one) and empties the journal.
+	 */
+	void checkpoint();
+}
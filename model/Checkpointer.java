@@ -0,0 +1,170 @@
+package model;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Compacts journals into their snapshots on a background thread, so saving
+ * never holds up the display and a killed program loses at most what its
+ * journals hadn't written yet. A journal is checkpointed once it has built up
+ * enough changes, or once it has had any changes at all for long enough.
+ *
+ * Because the snapshots stay close to up to date, shutting down only has to
+ * flush the few records written since the last checkpoint (see
+ * JukeboxEngine.shutdown()).
+ *
+ * @author Amelia Matheson
+ */
+
+public class Checkpointer {
+
+	/**
+	 * The longest a change waits before being checkpointed, if no interval is
+	 * given.
+	 */
+	public static final long DEFAULT_INTERVAL_MILLIS = 30000;
+
+	/**
+	 * Changes that trigger a checkpoint right away, if no threshold is given.
+	 */
+	public static final int DEFAULT_DIRTY_THRESHOLD = 1000;
+
+	private static final long MAX_POLL_MILLIS = 1000;
+
+	private long intervalNanos;
+	private int dirtyThreshold;
+	private LongSupplier clock;
+	private CopyOnWriteArrayList<Target> targets = new CopyOnWriteArrayList<>();
+	private AtomicLong checkpoints = new AtomicLong();
+	private ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * A journal being watched, and when it was last clean or checkpointed.
+	 */
+	private static class Target {
+		private Checkpointable journal;
+		private volatile long sinceNanos;
+
+		Target(Checkpointable journal, long sinceNanos) {
+			this.journal = journal;
+			this.sinceNanos = sinceNanos;
+		}
+	}
+
+	/**
+	 * Creates a new Checkpointer with the default interval and threshold.
+	 */
+	public Checkpointer() {
+		this(DEFAULT_INTERVAL_MILLIS, DEFAULT_DIRTY_THRESHOLD);
+	}
+
+	/**
+	 * Creates a new Checkpointer.
+	 *
+	 * @param intervalMillis : long representing the longest a change waits
+	 *                       before being checkpointed, in milliseconds.
+	 * @param dirtyThreshold : integer representing how many changes trigger a
+	 *                       checkpoint without waiting for the interval.
+	 */
+	public Checkpointer(long intervalMillis, int dirtyThreshold) {
+		this(intervalMillis, dirtyThreshold, System::nanoTime);
+	}
+
+	/**
+	 * Creates a new Checkpointer that measures the interval with the specified
+	 * clock, so tests can move time along themselves.
+	 *
+	 * @param intervalMillis : long representing the longest a change waits
+	 *                       before being checkpointed, in milliseconds.
+	 * @param dirtyThreshold : integer representing how many changes trigger a
+	 *                       checkpoint without waiting for the interval.
+	 * @param clock          : LongSupplier giving the time in nanoseconds, like
+	 *                       System.nanoTime().
+	 */
+	public Checkpointer(long intervalMillis, int dirtyThreshold, LongSupplier clock) {
+		if (intervalMillis < 1 || dirtyThreshold < 1) {
+			throw new IllegalArgumentException(
+					"Interval and threshold must be positive: " + intervalMillis + ", " + dirtyThreshold);
+		}
+		intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+		this.dirtyThreshold = dirtyThreshold;
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts watching a journal.
+	 *
+	 * @param journal : Checkpointable to be checkpointed in the background.
+	 */
+	public void add(Checkpointable journal) {
+		targets.add(new Target(journal, clock.getAsLong()));
+	}
+
+	/**
+	 * Starts the background thread. It checks the journals once a second, or
+	 * once per interval if that is shorter.
+	 */
+	public synchronized void start() {
+		if (executor != null) {
+			return;
+		}
+		executor = new ScheduledThreadPoolExecutor(1, (task) -> {
+			Thread thread = new Thread(task, "checkpointer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long poll = Math.min(MAX_POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+		executor.scheduleWithFixedDelay(this::checkNow, poll, poll, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Checkpoints every journal that is due, on the calling thread.
+	 */
+	public void checkNow() {
+		long now = clock.getAsLong();
+		for (Target target : targets) {
+			int dirty = target.journal.getDirtyRecords();
+			if (dirty == 0) {
+				target.sinceNanos = now;
+			} else if (dirty >= dirtyThreshold || now - target.sinceNanos >= intervalNanos) {
+				try {
+					target.journal.checkpoint();
+					checkpoints.incrementAndGet();
+				} catch (RuntimeException err) {
+					// keep going; the next check tries again
+					System.out.println("Couldn't checkpoint: " + err);
+				}
+				target.sinceNanos = clock.getAsLong();
+			}
+		}
+	}
+
+	/**
+	 * Retrieves how many checkpoints have been made.
+	 *
+	 * @return long representing the number of checkpoints.
+	 */
+	public long getCheckpoints() {
+		return checkpoints.get();
+	}
+
+	/**
+	 * Stops the background thread, waiting for a checkpoint in progress to
+	 * finish so the journals can be closed safely afterwards.
+	 */
+	public synchronized void stop() {
+		if (executor == null) {
+			return;
+		}
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		executor = null;
+	}
+}
@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * Tells a PlayList how much time has passed, for the cooldown of
+ * DuplicatePolicy.COOLDOWN. Tests can supply a ManualCooldownClock instead of
+ * the system clock.
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface CooldownClock {
+
+	/**
+	 * Retrieves the current time, only meaningful compared to other readings of
+	 * the same clock.
+	 *
+	 * @return long representing the time in nanoseconds.
+	 */
+	long nanoTime();
+
+	/**
+	 * Retrieves a clock that follows System.nanoTime().
+	 *
+	 * @return CooldownClock reading the system timer.
+	 */
+	static CooldownClock system() {
+		return System::nanoTime;
+	}
+}
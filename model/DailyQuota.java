@@ -0,0 +1,127 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * How many songs an account has added on its most recent day of use. The day
+ * (as days since 1970-01-01) and the count are packed into a single long, so
+ * both are always read and changed together with one compare-and-set and no
+ * locking. A new day needs no reset: a count from an earlier day simply counts
+ * as zero.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class DailyQuota {
+
+	private static final AtomicLongFieldUpdater<DailyQuota> STATE = AtomicLongFieldUpdater
+			.newUpdater(DailyQuota.class, "state");
+
+	private volatile long state; // day in the high 32 bits, count in the low 32
+
+	/**
+	 * Creates a new DailyQuota with no songs added.
+	 *
+	 * @param today : integer representing today as days since 1970-01-01.
+	 */
+	public DailyQuota(int today) {
+		state = pack(today, 0);
+	}
+
+	/**
+	 * Counts some songs against the quota, if they fit under the limit. Either all
+	 * of them are counted or none are.
+	 *
+	 * @param today : integer representing today as days since 1970-01-01.
+	 * @param limit : integer representing the most songs allowed per day.
+	 * @param songs : integer representing how many songs to add.
+	 * @return boolean representing whether the songs were counted. true if they
+	 *         were, false otherwise (if they would go over the limit).
+	 */
+	public boolean tryAdd(int today, int limit, int songs) {
+		while (true) {
+			long current = state;
+			int used = dayOf(current) == today ? countOf(current) : 0;
+			if (songs > limit - used) {
+				return false;
+			}
+			if (STATE.compareAndSet(this, current, pack(today, used + songs))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Finds how many more songs fit under the limit today.
+	 *
+	 * @param today : integer representing today as days since 1970-01-01.
+	 * @param limit : integer representing the most songs allowed per day.
+	 * @return integer representing the number of songs that can still be added.
+	 */
+	public int remaining(int today, int limit) {
+		long current = state;
+		int used = dayOf(current) == today ? countOf(current) : 0;
+		return Math.max(0, limit - used);
+	}
+
+	/**
+	 * Retrieves the day the count belongs to.
+	 *
+	 * @return integer representing that day as days since 1970-01-01.
+	 */
+	public int getDay() {
+		return dayOf(state);
+	}
+
+	/**
+	 * Retrieves the count as stored, even if it belongs to an earlier day.
+	 *
+	 * @return integer representing the number of songs added on getDay().
+	 */
+	public int getCount() {
+		return countOf(state);
+	}
+
+	/**
+	 * Retrieves the day and count together, packed as by set().
+	 *
+	 * @return long with the day in the high 32 bits and the count in the low 32.
+	 */
+	public long getState() {
+		return state;
+	}
+
+	/**
+	 * Overwrites the day and count, for example when restoring saved accounts.
+	 *
+	 * @param day   : integer representing the day as days since 1970-01-01.
+	 * @param count : integer representing the number of songs added that day.
+	 */
+	public void set(int day, int count) {
+		state = pack(day, count);
+	}
+
+	/**
+	 * Extracts the day from a packed state.
+	 *
+	 * @param state : long packed as returned by getState().
+	 * @return integer representing the day as days since 1970-01-01.
+	 */
+	public static int dayOf(long state) {
+		return (int) (state >> 32);
+	}
+
+	/**
+	 * Extracts the count from a packed state.
+	 *
+	 * @param state : long packed as returned by getState().
+	 * @return integer representing the number of songs added.
+	 */
+	public static int countOf(long state) {
+		return (int) state;
+	}
+
+	private static long pack(int day, int count) {
+		return ((long) day << 32) | (count & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,38 @@
+package model;
+
+/**
+ * What a PlayList does when a song is requested that is already waiting or
+ * playing. The PlayList keeps a hash index of the songs in its queue, so the
+ * check takes the same time however long the queue is.
+ *
+ * @author Adrianna Koppes
+ */
+
+public enum DuplicatePolicy {
+
+	/**
+	 * Queue the song again. This is how the PlayList has always worked, and it
+	 * is the default.
+	 */
+	ALLOW,
+
+	/**
+	 * Turn the request away.
+	 */
+	REJECT,
+
+	/**
+	 * Don't queue the song again, but count the request on the entry already
+	 * waiting in the queue, which is then requested by several users (see
+	 * QueueEntry.getRequestCount() and PlayListListener.entryCoalesced()). A
+	 * request for the song playing queues it again.
+	 */
+	COALESCE,
+
+	/**
+	 * Turn the request away while the song is in the queue and until the
+	 * cooldown has passed since it last finished (see
+	 * PlayList.setDuplicateCooldownMillis()).
+	 */
+	COOLDOWN
+}
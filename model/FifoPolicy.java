@@ -0,0 +1,42 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays requests in the order they were made, whoever made them. This is how
+ * the PlayList has always worked, and it is the default.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class FifoPolicy implements QueuePolicy {
+
+	private ArrayDeque<QueueEntry> entries = new ArrayDeque<>();
+
+	@Override
+	public void add(QueueEntry entry) {
+		entries.add(entry);
+	}
+
+	@Override
+	public QueueEntry peek() {
+		return entries.peek();
+	}
+
+	@Override
+	public QueueEntry poll() {
+		return entries.poll();
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public List<QueueEntry> inPlayOrder() {
+		return new ArrayList<>(entries);
+	}
+}
@@ -0,0 +1,164 @@
+package model;
+
+import java.io.File;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+/**
+ * Plays songs from the songfiles folder with a JavaFX MediaPlayer.
+ *
+ * Opening a file and starting its decoder takes a noticeable moment, so the
+ * song that will play next is opened as soon as prepare() is called. Its
+ * MediaPlayer pre-rolls while the current song plays, and play() swaps it in
+ * instead of opening the file again.
+ *
+ * Opened Media is kept in a MediaCache, so songs that are played again and
+ * again are only opened and parsed once while they stay popular.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class FxPlaybackBackend implements PlaybackBackend {
+
+	/**
+	 * The most bytes of song files kept open if no budget is given.
+	 */
+	public static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+
+	private MediaCache<Media> cache;
+	private Media media;
+	private MediaPlayer mediaPlayer;
+	private Song preparedSong;
+	private MediaPlayer preparedPlayer;
+	private PlaybackScheduler scheduler = new FxPlaybackScheduler();
+
+	/**
+	 * Creates a new FxPlaybackBackend with the default cache budget.
+	 */
+	public FxPlaybackBackend() {
+		this(DEFAULT_CACHE_BYTES);
+	}
+
+	/**
+	 * Creates a new FxPlaybackBackend.
+	 *
+	 * @param cacheBytes : long representing the most bytes of song files to keep
+	 *                   open in the MediaCache. 0 turns the cache off.
+	 */
+	public FxPlaybackBackend(long cacheBytes) {
+		cache = new MediaCache<>(new MediaCache.Loader<Media>() {
+			@Override
+			public Media load(String fileName) {
+				return new Media(file(fileName).toURI().toString());
+			}
+
+			@Override
+			public long sizeOf(String fileName, Media loaded) {
+				return file(fileName).length();
+			}
+		}, cacheBytes);
+	}
+
+	/**
+	 * Starts playing a song. The onFinished action is run on the JavaFX
+	 * application thread.
+	 *
+	 * Thanks to TA Aditya Jadhav for helping with this.
+	 *
+	 * @param song       : Song to be played.
+	 * @param onFinished : Runnable to be run once the song has played to the end.
+	 */
+	@Override
+	public synchronized void play(Song song, Runnable onFinished) {
+		stopCurrent();
+		if (preparedPlayer != null && preparedSong == song) {
+			mediaPlayer = preparedPlayer;
+			media = mediaPlayer.getMedia();
+			preparedPlayer = null;
+			preparedSong = null;
+		} else {
+			media = open(song);
+			mediaPlayer = new MediaPlayer(media);
+		}
+		mediaPlayer.setOnEndOfMedia(onFinished);
+		mediaPlayer.play();
+	}
+
+	/**
+	 * Opens the next song and lets its MediaPlayer pre-roll, so play() can start
+	 * it without waiting.
+	 *
+	 * @param next : Song that will probably be played next, or null if there is
+	 *             none.
+	 */
+	@Override
+	public synchronized void prepare(Song next) {
+		if (next == preparedSong) {
+			return;
+		}
+		disposePrepared();
+		if (next == null) {
+			return;
+		}
+		try {
+			preparedPlayer = new MediaPlayer(open(next));
+			preparedSong = next;
+		} catch (RuntimeException err) {
+			// play() will open it again and report the problem then
+			preparedPlayer = null;
+			preparedSong = null;
+		}
+	}
+
+	/**
+	 * Retrieves a scheduler that runs actions on the JavaFX application thread.
+	 *
+	 * @return PlaybackScheduler using the JavaFX animation timer.
+	 */
+	@Override
+	public PlaybackScheduler getScheduler() {
+		return scheduler;
+	}
+
+	@Override
+	public synchronized void stop() {
+		stopCurrent();
+		disposePrepared();
+	}
+
+	/**
+	 * Retrieves the cache of opened Media.
+	 *
+	 * @return MediaCache holding recently played Media.
+	 */
+	public MediaCache<Media> getCache() {
+		return cache;
+	}
+
+	private Media open(Song song) {
+		return cache.get(song);
+	}
+
+	private static File file(String fileName) {
+		return new File("songfiles/" + fileName);
+	}
+
+	private void stopCurrent() {
+		if (mediaPlayer != null) {
+			mediaPlayer.setOnEndOfMedia(null);
+			mediaPlayer.stop();
+			mediaPlayer.dispose();
+			mediaPlayer = null;
+			media = null;
+		}
+	}
+
+	private void disposePrepared() {
+		if (preparedPlayer != null) {
+			preparedPlayer.dispose();
+			preparedPlayer = null;
+			preparedSong = null;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package model;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+/**
+ * Runs actions on the JavaFX application thread after a delay, using the
+ * JavaFX animation timer, so nothing ever sleeps on that thread.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class FxPlaybackScheduler implements PlaybackScheduler {
+
+	@Override
+	public Timer schedule(Runnable action, long delayMillis) {
+		FxTimer timer = new FxTimer(action, delayMillis);
+		runOnFxThread(timer::start);
+		return timer;
+	}
+
+	private static void runOnFxThread(Runnable action) {
+		if (Platform.isFxApplicationThread()) {
+			action.run();
+		} else {
+			Platform.runLater(action);
+		}
+	}
+
+	/**
+	 * One pending action. Only touched on the JavaFX application thread, apart
+	 * from cancel().
+	 */
+	private static class FxTimer implements Timer {
+		private Runnable action;
+		private long delayMillis;
+		private PauseTransition pause;
+		private volatile boolean cancelled;
+
+		FxTimer(Runnable action, long delayMillis) {
+			this.action = action;
+			this.delayMillis = delayMillis;
+		}
+
+		void start() {
+			if (cancelled) {
+				return;
+			}
+			pause = new PauseTransition(Duration.millis(delayMillis));
+			pause.setOnFinished((event) -> {
+				if (!cancelled) {
+					action.run();
+				}
+			});
+			pause.play();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			runOnFxThread(() -> {
+				if (pause != null) {
+					pause.stop();
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pretends to play songs by waiting for their duration, so the queue can run
+ * as a service or under a load test without a display or audio hardware.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class HeadlessPlaybackBackend implements PlaybackBackend {
+
+	private ScheduledExecutorService timer;
+	private double speed;
+	private ScheduledFuture<?> playing;
+	private PlaybackScheduler scheduler;
+	private boolean ownsTimer;
+
+	/**
+	 * Creates a new HeadlessPlaybackBackend that plays songs in real time.
+	 */
+	public HeadlessPlaybackBackend() {
+		this(1.0);
+	}
+
+	/**
+	 * Creates a new HeadlessPlaybackBackend that plays songs faster (or slower)
+	 * than real time.
+	 *
+	 * @param speed : double representing how many times faster than real time
+	 *              songs finish. 1.0 is real time.
+	 */
+	public HeadlessPlaybackBackend(double speed) {
+		this(speed, Executors.newSingleThreadScheduledExecutor((task) -> {
+			Thread thread = new Thread(task, "headless-playback");
+			thread.setDaemon(true);
+			return thread;
+		}));
+		ownsTimer = true;
+	}
+
+	/**
+	 * Creates a new HeadlessPlaybackBackend that runs its timers on threads
+	 * shared with other backends, as the zones of a ZoneManager do.
+	 *
+	 * @param speed : double representing how many times faster than real time
+	 *              songs finish. 1.0 is real time.
+	 * @param timer : ScheduledExecutorService to run the timers on. shutdown()
+	 *              leaves it running.
+	 */
+	public HeadlessPlaybackBackend(double speed, ScheduledExecutorService timer) {
+		if (!(speed > 0)) {
+			throw new IllegalArgumentException("Speed must be positive: " + speed);
+		}
+		this.speed = speed;
+		this.timer = timer;
+		scheduler = (action, delayMillis) -> {
+			long micros = (long) (delayMillis * 1000 / speed);
+			ScheduledFuture<?> future = timer.schedule(action, micros, TimeUnit.MICROSECONDS);
+			return () -> future.cancel(false);
+		};
+	}
+
+	/**
+	 * Starts "playing" a song. The onFinished action is run on this backend's
+	 * timer thread once the song's duration has passed.
+	 *
+	 * @param song       : Song to be played.
+	 * @param onFinished : Runnable to be run once the song has played to the end.
+	 */
+	@Override
+	public synchronized void play(Song song, Runnable onFinished) {
+		stop();
+		long micros = (long) (song.getDurationMilliseconds() * 1000 / speed);
+		playing = timer.schedule(onFinished, micros, TimeUnit.MICROSECONDS);
+	}
+
+	/**
+	 * Retrieves a scheduler that runs actions on this backend's timer thread.
+	 * Delays are sped up by the same amount as songs.
+	 *
+	 * @return PlaybackScheduler sharing the timer thread.
+	 */
+	@Override
+	public PlaybackScheduler getScheduler() {
+		return scheduler;
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (playing != null) {
+			playing.cancel(false);
+			playing = null;
+		}
+	}
+
+	/**
+	 * Stops the timer thread, unless it is shared. The backend can't be used
+	 * afterwards.
+	 */
+	public void shutdown() {
+		stop();
+		if (ownsTimer) {
+			timer.shutdownNow();
+		}
+	}
+}
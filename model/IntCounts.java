@@ -0,0 +1,113 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Counts occurrences of int keys, such as how many times each song id was
+ * played on a day. An open addressing hash table with linear probing, holding
+ * keys and counts in two int arrays, so it costs about 16 bytes a key and no
+ * boxed Integers. Keys can't be removed.
+ *
+ * @author Adrianna Koppes
+ */
+
+class IntCounts {
+
+	private static final int FREE = Integer.MIN_VALUE;
+
+	private int[] keys;
+	private int[] counts;
+	private int size;
+
+	/**
+	 * Creates a new, empty IntCounts.
+	 */
+	IntCounts() {
+		allocate(16);
+	}
+
+	/**
+	 * Adds to the count of a key.
+	 *
+	 * @param key   : integer representing the key, which can't be
+	 *              Integer.MIN_VALUE.
+	 * @param delta : integer representing how much to add.
+	 */
+	void add(int key, int delta) {
+		int i = indexOf(key);
+		if (keys[i] == FREE) {
+			if ((size + 1) * 2 > keys.length) {
+				grow();
+				i = indexOf(key);
+			}
+			keys[i] = key;
+			size++;
+		}
+		counts[i] += delta;
+	}
+
+	/**
+	 * Retrieves the count of a key.
+	 *
+	 * @param key : integer representing the key.
+	 * @return integer representing its count, or 0 if it was never added.
+	 */
+	int get(int key) {
+		int i = indexOf(key);
+		return keys[i] == FREE ? 0 : counts[i];
+	}
+
+	/**
+	 * Retrieves the number of keys counted.
+	 *
+	 * @return integer representing how many distinct keys were added.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gives every key counted.
+	 *
+	 * @return integer array holding the keys, in no particular order.
+	 */
+	int[] keys() {
+		int[] result = new int[size];
+		int next = 0;
+		for (int key : keys) {
+			if (key != FREE) {
+				result[next++] = key;
+			}
+		}
+		return result;
+	}
+
+	private int indexOf(int key) {
+		int mask = keys.length - 1;
+		int hash = key * 0x9E3779B9;
+		int i = (hash ^ (hash >>> 16)) & mask;
+		while (keys[i] != FREE && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldCounts = counts;
+		allocate(oldKeys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				int at = indexOf(oldKeys[i]);
+				keys[at] = oldKeys[i];
+				counts[at] = oldCounts[i];
+			}
+		}
+	}
+
+	private void allocate(int length) {
+		keys = new int[length];
+		counts = new int[length];
+		Arrays.fill(keys, FREE);
+	}
+}
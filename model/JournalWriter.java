@@ -0,0 +1,333 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only journal file shared by AccountJournal, PlayListJournal and
+ * PlayHistoryLog.
+ * Every record is framed with its length and a CRC32 checksum, so a record torn
+ * by a crash is found and cut off when the journal is replayed.
+ *
+ * Records are written by a background thread that commits everything queued
+ * since its last write with a single fsync. Once enough records have built up
+ * the owner's compactor is run to write a snapshot, after which the journal is
+ * emptied, or, for a log that keeps its records, replayed only from where the
+ * snapshot left off.
+ *
+ * @author Amelia Matheson
+ */
+
+class JournalWriter {
+
+	/**
+	 * Applies one replayed record.
+	 */
+	interface RecordHandler {
+
+		/**
+		 * Applies a record read back from the journal.
+		 *
+		 * @param payload : DataInputStream over the record's payload.
+		 * @throws IOException if the payload can't be read.
+		 */
+		void apply(DataInputStream payload) throws IOException;
+	}
+
+	private static final byte[] STOP = new byte[0];
+	private static final int MAX_RECORD = 1 << 20;
+
+	private Path file;
+	private String name;
+	private int compactEvery;
+	private Runnable compactor;
+	private FileChannel channel;
+	private LinkedBlockingQueue<byte[]> pending = new LinkedBlockingQueue<>();
+	private Thread writer;
+	private AtomicLong queued = new AtomicLong(); // records handed to the writer
+	private long written; // records made durable, guarded by this
+	private int sinceSnapshot; // records since the last compaction, guarded by this
+
+	/**
+	 * Creates a new JournalWriter.
+	 *
+	 * @param file         : Path representing the journal file.
+	 * @param name         : String representing what the journal holds, used in
+	 *                     messages and the writer thread's name.
+	 * @param compactEvery : integer representing how many records are appended
+	 *                     before the compactor is run.
+	 * @param compactor    : Runnable that writes a snapshot and then calls
+	 *                     truncate(). Run while holding the lock on this writer.
+	 */
+	JournalWriter(Path file, String name, int compactEvery, Runnable compactor) {
+		this.file = file;
+		this.name = name;
+		this.compactEvery = compactEvery;
+		this.compactor = compactor;
+	}
+
+	/**
+	 * Opens the journal file and replays every intact record in it. A torn
+	 * record ends the replay and is cut off the end of the file.
+	 *
+	 * @param handler : RecordHandler that applies each record.
+	 * @return integer representing the number of records replayed.
+	 */
+	int open(RecordHandler handler) {
+		return open(handler, 0);
+	}
+
+	/**
+	 * Opens the journal file and replays the intact records from a position on,
+	 * for logs that keep the records already in their snapshot.
+	 *
+	 * @param handler : RecordHandler that applies each record.
+	 * @param start   : long representing where the first record to replay
+	 *                starts, a length given by length().
+	 * @return integer representing the number of records replayed.
+	 */
+	int open(RecordHandler handler, long start) {
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			long good = replay(handler, start);
+			channel.truncate(good);
+			channel.position(good);
+		} catch (IOException err) {
+			System.out.println("Couldn't open " + name + " journal");
+			channel = null;
+		}
+		return sinceSnapshot;
+	}
+
+	/**
+	 * Starts the background writer.
+	 */
+	void start() {
+		writer = new Thread(this::writeLoop, name + "-journal");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues a record to be written. Never blocks or takes the lock on this
+	 * writer, so owners may call it while holding their own locks.
+	 *
+	 * @param payload : byte array representing the record, without framing.
+	 */
+	void append(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+		record.putInt(payload.length);
+		record.putInt((int) crc.getValue());
+		record.put(payload);
+		queued.incrementAndGet();
+		pending.add(record.array());
+	}
+
+	/**
+	 * Waits until every record appended so far has been written to disk.
+	 */
+	void flush() {
+		long target = queued.get();
+		synchronized (this) {
+			while (written < target && writer != null && writer.isAlive()) {
+				try {
+					wait(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes out everything still pending and runs the compactor.
+	 */
+	void checkpoint() {
+		flush();
+		synchronized (this) {
+			compactor.run();
+		}
+	}
+
+	/**
+	 * Counts the records that aren't in a snapshot yet, whether or not they have
+	 * been written to the journal.
+	 *
+	 * @return integer representing the records since the last compaction.
+	 */
+	synchronized int getDirtyRecords() {
+		return sinceSnapshot + (int) (queued.get() - written);
+	}
+
+	/**
+	 * Counts the records appended but not yet written to the journal. Callers
+	 * must hold the lock on this writer, as the compactor does.
+	 *
+	 * @return long representing the records still waiting for the writer.
+	 */
+	long getUnwritten() {
+		return queued.get() - written;
+	}
+
+	/**
+	 * Empties the journal once its records are safely in a snapshot. Callers must
+	 * hold the lock on this writer, as the compactor does.
+	 */
+	void truncate() {
+		try {
+			if (channel != null) {
+				channel.truncate(0);
+				channel.force(true);
+			}
+			sinceSnapshot = 0;
+		} catch (IOException err) {
+			System.out.println("Couldn't empty " + name + " journal");
+		}
+	}
+
+	/**
+	 * Records that a snapshot now holds every record written, without emptying
+	 * the journal. Callers must hold the lock on this writer, as the compactor
+	 * does.
+	 */
+	void snapshotTaken() {
+		sinceSnapshot = 0;
+	}
+
+	/**
+	 * Measures the records written to the journal so far. Callers must hold the
+	 * lock on this writer, as the compactor does, so no batch is half written.
+	 *
+	 * @return long representing the length of the journal file in bytes, or -1
+	 *         if it couldn't be opened.
+	 */
+	long length() {
+		try {
+			return channel == null ? -1 : channel.position();
+		} catch (IOException err) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Flushes the journal and stops the background writer.
+	 */
+	void close() {
+		pending.add(STOP);
+		try {
+			if (writer != null) {
+				writer.join();
+			}
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException err) {
+			System.out.println("Couldn't close " + name + " journal");
+		}
+	}
+
+	/**
+	 * Group commit: waits for at least one record, then writes it along with
+	 * everything else that queued up in the meantime and syncs once.
+	 */
+	private void writeLoop() {
+		ArrayList<byte[]> batch = new ArrayList<>();
+		boolean stopping = false;
+		while (!stopping) {
+			try {
+				batch.add(pending.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			pending.drainTo(batch);
+			stopping = batch.remove(STOP);
+			synchronized (this) {
+				writeBatch(batch);
+				written += batch.size();
+				sinceSnapshot += batch.size();
+				batch.clear();
+				if (sinceSnapshot >= compactEvery) {
+					compactor.run();
+				}
+				notifyAll();
+			}
+		}
+	}
+
+	private void writeBatch(ArrayList<byte[]> batch) {
+		if (channel == null || batch.isEmpty()) {
+			return;
+		}
+		int total = 0;
+		for (byte[] record : batch) {
+			total += record.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(total);
+		for (byte[] record : batch) {
+			buffer.put(record);
+		}
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		} catch (IOException err) {
+			System.out.println("Couldn't write to " + name + " journal");
+		}
+	}
+
+	/**
+	 * Applies every intact journal record from a position on.
+	 *
+	 * @return long representing the length of the intact part of the journal.
+	 */
+	private long replay(RecordHandler handler, long start) throws IOException {
+		channel.position(start);
+		DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+		long good = start;
+		CRC32 crc = new CRC32();
+		while (true) {
+			byte[] payload;
+			try {
+				int length = in.readInt();
+				int checksum = in.readInt();
+				if (length <= 0 || length > MAX_RECORD) {
+					break;
+				}
+				payload = new byte[length];
+				in.readFully(payload);
+				crc.reset();
+				crc.update(payload);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+			} catch (EOFException e) {
+				break;
+			}
+			handler.apply(new DataInputStream(new ByteArrayInputStream(payload)));
+			good += 8 + payload.length;
+			sinceSnapshot++;
+		}
+		return good;
+	}
+}
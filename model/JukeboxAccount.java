@@ -1,21 +1,37 @@
 package model;
 
 import java.time.LocalDate;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 /**
  * Class representing a JukeboxAccount with the username, password, songs played
- * today, and current date.
+ * today, and current date. How many songs may be played per day is decided by a
+ * QuotaEngine.
+ * 
+ * Only a salted hash of the password is kept (see PasswordHasher). Accounts
+ * saved by older versions hold their password in plain text until the user
+ * next logs in, when it is replaced by a hash.
  * 
  * @author Adrianna Koppes
  * @since March 12 2023
  */
 public class JukeboxAccount implements Serializable {
 
+	// matches the accounts.ser files written before this was declared
+	private static final long serialVersionUID = 4633698038094821016L;
+	// the quota is saved as the two fields it used to be stored in
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("username", String.class), new ObjectStreamField("password", String.class),
+			new ObjectStreamField("songsToday", int.class), new ObjectStreamField("today", LocalDate.class) };
+
 	private String username;
-	private String password;
-	private int songsToday;
-	private LocalDate today;
+	private volatile String password; // a hash, or plain text if saved by an old version
+	private transient DailyQuota quota;
+	private transient QuotaEngine engine; // null to use QuotaEngine.getDefault()
 
 	/**
 	 * Initializes the new account with the username, password, and today's date,
@@ -25,36 +41,131 @@ public class JukeboxAccount implements Serializable {
 	 * @param password : String representing the account password.
 	 */
 	public JukeboxAccount(String username, String password) {
+		this(username, password, null);
+	}
+
+	/**
+	 * Initializes the new account with the username, password, and a QuotaEngine
+	 * deciding how many songs it may play per day.
+	 * 
+	 * @param username : String representing the account username.
+	 * @param password : String representing the account password.
+	 * @param engine   : QuotaEngine for this account, or null to use
+	 *                 QuotaEngine.getDefault().
+	 */
+	public JukeboxAccount(String username, String password, QuotaEngine engine) {
+		this(username, password, engine, null);
+	}
+
+	/**
+	 * Initializes the new account with the username, password, a QuotaEngine
+	 * deciding how many songs it may play per day, and the PasswordHasher used
+	 * to hash the password. Hashing takes as long as the hasher's cost, so this
+	 * is best called off the JavaFX application thread.
+	 * 
+	 * @param username : String representing the account username.
+	 * @param password : String representing the account password.
+	 * @param engine   : QuotaEngine for this account, or null to use
+	 *                 QuotaEngine.getDefault().
+	 * @param hasher   : PasswordHasher for the password, or null to use
+	 *                 PasswordHasher.getDefault().
+	 */
+	public JukeboxAccount(String username, String password, QuotaEngine engine, PasswordHasher hasher) {
 		this.username = username;
-		this.password = password;
-		songsToday = 0;
-		today = LocalDate.now();
+		this.password = (hasher != null ? hasher : PasswordHasher.getDefault()).hash(password);
+		this.engine = engine;
+		quota = engine().newQuota();
+	}
+
+	private JukeboxAccount(DailyQuota quota, String username, String storedPassword) {
+		this.username = username;
+		this.password = storedPassword;
+		this.quota = quota;
+	}
+
+	/**
+	 * Recreates an account saved to disk, keeping its password exactly as it was
+	 * stored.
+	 * 
+	 * @param username       : String representing the account username.
+	 * @param storedPassword : String representing the password as returned by
+	 *                       getStoredPassword().
+	 * @return JukeboxAccount with no songs played today.
+	 */
+	static JukeboxAccount restore(String username, String storedPassword) {
+		return new JukeboxAccount(QuotaEngine.getDefault().newQuota(), username, storedPassword);
 	}
 
 	/**
-	 * Updates number of songs played today. Will not add another song if three
-	 * songs have already been played today.
+	 * Updates number of songs played today. Will not add another song if the
+	 * daily limit (three songs, by default) has already been reached. The count
+	 * starts over automatically on a new day. Safe to call from several threads
+	 * at once.
 	 * 
 	 * @return boolean representing whether the song can be added. true if it can
-	 *         be, false otherwise (if a user has already added 3 songs).
+	 *         be, false otherwise (if a user has already reached the limit).
 	 */
 	public boolean addSong() {
-		if (songsToday == 3 && today.equals(LocalDate.now())) {
-			return false;
-		}
-		if (!(today.equals(LocalDate.now()))) {
-			updateDate();
-			songsToday = 0;
-		}
-		songsToday++;
-		return true;
+		return engine().tryAdd(quota, 1);
+	}
+
+	/**
+	 * Updates number of songs played today by several at once. Either all of
+	 * them fit under the daily limit and are counted, or none are.
+	 * 
+	 * @param songs : integer representing how many songs are being added.
+	 * @return boolean representing whether the songs can be added. true if they
+	 *         can be, false otherwise (if they would go over the limit).
+	 */
+	public boolean addSongs(int songs) {
+		return engine().tryAdd(quota, songs);
+	}
+
+	/**
+	 * Finds how many more songs this account may add today.
+	 * 
+	 * @return integer representing the number of songs left for today.
+	 */
+	public int getSongsLeftToday() {
+		return engine().remaining(quota);
+	}
+
+	/**
+	 * Retrieves the most songs this account may add per day.
+	 * 
+	 * @return integer representing the daily limit.
+	 */
+	public int getDailyLimit() {
+		return engine().getDailyLimit();
+	}
+
+	/**
+	 * Changes the QuotaEngine deciding how many songs this account may play per
+	 * day, for example to use a different clock or limit.
+	 * 
+	 * @param engine : QuotaEngine for this account, or null to use
+	 *               QuotaEngine.getDefault().
+	 */
+	public void setQuotaEngine(QuotaEngine engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Restores the number of songs played on a specific date, for example when
+	 * replaying the account journal at startup.
+	 * 
+	 * @param date  : LocalDate representing the day the songs were played.
+	 * @param songs : integer representing number of songs played on that day.
+	 */
+	void restoreSongs(LocalDate date, int songs) {
+		quota.set((int) date.toEpochDay(), songs);
 	}
 
 	/**
-	 * Updates today's date.
+	 * Updates today's date, keeping the number of songs played.
 	 */
 	public void updateDate() {
-		today = LocalDate.now();
+		quota.set(engine().today(), quota.getCount());
 	}
 
 	/**
@@ -62,10 +173,11 @@ public class JukeboxAccount implements Serializable {
 	 * maximum allowed.
 	 * 
 	 * For testing purposes only. Will never be used in the real Jukebox program.
+	 * New tests should give the account a QuotaEngine with a ManualQuotaClock
+	 * instead.
 	 */
 	public void setFakeDateAndSongs() {
-		today = today.minusDays(3);
-		songsToday = 3;
+		quota.set(quota.getDay() - 3, engine().getDailyLimit());
 	}
 
 	/**
@@ -78,11 +190,73 @@ public class JukeboxAccount implements Serializable {
 	}
 
 	/**
-	 * Retrieves the account's password.
+	 * Checks whether a password is this account's. Takes as long as the password
+	 * was costly to hash, so this is best called off the JavaFX application
+	 * thread. A password saved in plain text by an older version, or hashed at a
+	 * lower cost than PasswordHasher.getDefault() now uses, is hashed again once
+	 * it has been checked.
+	 * 
+	 * @param attempt : String representing the inputted password.
+	 * @return boolean representing whether the password is correct. true if it
+	 *         is, false otherwise.
+	 */
+	public boolean checkPassword(String attempt) {
+		return checkPassword(attempt, null);
+	}
+
+	/**
+	 * Checks whether a password is this account's, as checkPassword(String)
+	 * does, but hashes it again at the cost of the specified hasher, such as
+	 * the one the account's AccountStore was made with. The new hash only
+	 * replaces the old one if no other thread changed the password meanwhile.
+	 * 
+	 * @param attempt : String representing the inputted password.
+	 * @param hasher  : PasswordHasher whose cost the password should be hashed
+	 *                at, or null to use PasswordHasher.getDefault().
+	 * @return boolean representing whether the password is correct. true if it
+	 *         is, false otherwise.
+	 */
+	public boolean checkPassword(String attempt, PasswordHasher hasher) {
+		if (hasher == null) {
+			hasher = PasswordHasher.getDefault();
+		}
+		String stored = password;
+		if (PasswordHasher.isHash(stored)) {
+			if (!PasswordHasher.verify(attempt, stored)) {
+				return false;
+			}
+		} else if (!PasswordHasher.matchesPlainText(attempt, stored)) {
+			return false;
+		}
+		if (hasher.needsRehash(stored)) {
+			String rehashed = hasher.hash(attempt);
+			synchronized (this) {
+				if (password == stored) {
+					password = rehashed;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces the stored password, for example when replaying the account
+	 * journal at startup.
 	 * 
-	 * @return String representing the account's password.
+	 * @param storedPassword : String representing the password as returned by
+	 *                       getStoredPassword().
 	 */
-	public String getPassword() {
+	synchronized void restorePassword(String storedPassword) {
+		password = storedPassword;
+	}
+
+	/**
+	 * Retrieves the password as it is saved: a hash, or the plain text password
+	 * of an account saved by an older version that hasn't logged in since.
+	 * 
+	 * @return String representing the stored password.
+	 */
+	String getStoredPassword() {
 		return password;
 	}
 
@@ -92,7 +266,7 @@ public class JukeboxAccount implements Serializable {
 	 * @return integer representing number of songs played today.
 	 */
 	public int getSongsToday() {
-		return songsToday;
+		return quota.getCount();
 	}
 
 	/**
@@ -101,6 +275,40 @@ public class JukeboxAccount implements Serializable {
 	 * @return LocalDate object representing today's date.
 	 */
 	public LocalDate getDate() {
-		return today;
+		return LocalDate.ofEpochDay(quota.getDay());
+	}
+
+	/**
+	 * Retrieves the date and number of songs played together, so neither can
+	 * change in between.
+	 * 
+	 * @return long packed as by DailyQuota.getState().
+	 */
+	long getQuotaState() {
+		return quota.getState();
+	}
+
+	private QuotaEngine engine() {
+		QuotaEngine current = engine;
+		return current != null ? current : QuotaEngine.getDefault();
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		long state = quota.getState();
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("username", username);
+		fields.put("password", password);
+		fields.put("songsToday", DailyQuota.countOf(state));
+		fields.put("today", LocalDate.ofEpochDay(DailyQuota.dayOf(state)));
+		out.writeFields();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		username = (String) fields.get("username", null);
+		password = (String) fields.get("password", null);
+		LocalDate today = (LocalDate) fields.get("today", null);
+		quota = today == null ? engine().newQuota() : new DailyQuota((int) today.toEpochDay());
+		quota.set(quota.getDay(), fields.get("songsToday", 0));
 	}
 }
\ No newline at end of file
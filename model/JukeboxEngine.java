@@ -0,0 +1,557 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The whole jukebox without any user interface: the catalog of songs, the
+ * accounts, and the queue of songs being played. A front end (such as the
+ * JavaFX GUI) logs users in and requests songs through the engine, and listens
+ * to the PlayList to show what is playing. Several front ends can share one
+ * engine, and the engine runs just as well with a HeadlessPlaybackBackend and
+ * no display at all.
+ *
+ * Songs play in zones (rooms), each with its own queue. The engine starts with
+ * one zone, named "main", and more can be added through getZones(). Accounts
+ * and their daily limits are shared by every zone.
+ *
+ * An engine made with open() also keeps the main zone's queue in a
+ * PlayListJournal, so it can be restored after a crash.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class JukeboxEngine {
+
+	/**
+	 * The outcome of asking for a song to be played.
+	 */
+	public enum RequestResult {
+		/** The song was added to the queue. */
+		QUEUED,
+		/** Nobody is logged in. */
+		NOT_LOGGED_IN,
+		/** The account has already added the most songs allowed today. */
+		LIMIT_REACHED,
+		/** There is no zone with the requested name. */
+		NO_SUCH_ZONE,
+		/**
+		 * The song is already queued, or finished too recently, and the zone's
+		 * DuplicatePolicy turns it away.
+		 */
+		DUPLICATE,
+		/**
+		 * The songs were already waiting in the queue, and the zone's
+		 * DuplicatePolicy counted the request on them instead, without using
+		 * any of the account's daily limit.
+		 */
+		COALESCED
+	}
+
+	/**
+	 * Name of the zone the engine starts with.
+	 */
+	public static final String MAIN_ZONE = "main";
+
+	private SongList catalog;
+	private AccountStore accounts;
+	private AccountJournal journal;
+	private ZoneManager zones;
+	private PasswordVerifier verifier = new PasswordVerifier();
+	private PlaybackZone mainZone;
+	private PlayListJournal queueJournal;
+	private PlayHistoryLog history;
+	private Checkpointer checkpointer;
+	private LibraryScanner library;
+	private CopyOnWriteArrayList<LibraryListener> libraryListeners = new CopyOnWriteArrayList<>();
+	private ArrayList<Song> savedQueue;
+	private boolean journalingQueue;
+
+	/**
+	 * Creates a new JukeboxEngine from parts that already exist. Account changes
+	 * are only saved if the AccountStore came from an AccountJournal.
+	 *
+	 * @param catalog  : SongList holding the songs that can be requested.
+	 * @param accounts : AccountStore holding the accounts.
+	 * @param backend  : PlaybackBackend that plays the songs.
+	 */
+	public JukeboxEngine(SongList catalog, AccountStore accounts, PlaybackBackend backend) {
+		this.catalog = catalog;
+		this.accounts = accounts;
+		zones = new ZoneManager();
+		mainZone = zones.createZone(MAIN_ZONE, backend);
+		zones.keepZone(MAIN_ZONE);
+	}
+
+	/**
+	 * Creates a new JukeboxEngine with the standard catalog (see SongList()),
+	 * the accounts saved in accounts.ser and accounts.journal, and the queue
+	 * saved in playlist.snapshot and playlist.journal. The saved queue isn't
+	 * played until restoreSavedQueue() is called, and is forgotten if a song is
+	 * requested first. Every song played in any zone, including zones added
+	 * later, is recorded in history.log (see PlayHistoryLog). The journals and the history are
+	 * checkpointed in the background by a Checkpointer. If the songs were
+	 * scanned from songfiles/, the folder is watched and songs added to it or
+	 * changed show up in the catalog. If the system property
+	 * jukebox.queuePolicy is set (to "fifo", "round-robin" or "fair", see
+	 * QueuePolicy.named()), the main zone orders its requests that way, and if
+	 * jukebox.duplicates is set (to "allow", "reject", "coalesce" or
+	 * "cooldown") it handles requests for songs already queued that way.
+	 *
+	 * @param backend : PlaybackBackend that plays the songs.
+	 * @return JukeboxEngine ready to be used.
+	 */
+	public static JukeboxEngine open(PlaybackBackend backend) {
+		AccountJournal journal = new AccountJournal();
+		SongList catalog = new SongList();
+		JukeboxEngine engine = new JukeboxEngine(catalog, journal.open(), backend);
+		engine.journal = journal;
+		String policy = System.getProperty("jukebox.queuePolicy");
+		if (policy != null) {
+			engine.getPlayList().setQueuePolicy(QueuePolicy.named(policy));
+		}
+		String duplicates = System.getProperty("jukebox.duplicates");
+		if (duplicates != null) {
+			engine.getPlayList().setDuplicatePolicy(DuplicatePolicy.valueOf(duplicates.toUpperCase()));
+		}
+		engine.queueJournal = new PlayListJournal(catalog);
+		engine.savedQueue = engine.queueJournal.open();
+		engine.history = new PlayHistoryLog();
+		engine.history.open();
+		engine.zones.addZoneListener(engine.history::listenerFor);
+		engine.checkpointer = new Checkpointer();
+		engine.checkpointer.add(journal);
+		engine.checkpointer.add(engine.queueJournal);
+		engine.checkpointer.add(engine.history);
+		engine.checkpointer.start();
+		engine.watchMetrics();
+		if (catalog.getLibrary() != null) {
+			engine.watchLibrary(catalog.getLibrary(), backend.getScheduler());
+		}
+		return engine;
+	}
+
+	/**
+	 * Keeps the catalog in step with the song folder. Changes are applied on the
+	 * backend's scheduler, which for the GUI is the JavaFX thread that also
+	 * reads the catalog. Other threads may be reading it too, so each change
+	 * is made while holding the catalog's lock, and readers see the catalog
+	 * from before or after it, never in between. Listeners added with
+	 * addLibraryListener() are told afterwards, on the same thread.
+	 *
+	 * @param scanner   : LibraryScanner that found the catalog's songs.
+	 * @param scheduler : PlaybackScheduler whose thread may change the catalog.
+	 */
+	private void watchLibrary(LibraryScanner scanner, PlaybackScheduler scheduler) {
+		try {
+			scanner.watch((removed, added) -> scheduler.schedule(() -> {
+				synchronized (catalog) {
+					for (Song song : removed) {
+						catalog.removeSong(song);
+					}
+					for (Song song : added) {
+						catalog.addSong(song);
+					}
+				}
+				for (LibraryListener listener : libraryListeners) {
+					listener.libraryChanged(removed, added);
+				}
+			}, 0));
+			library = scanner;
+		} catch (IOException err) {
+			System.out.println("Couldn't watch song files for changes");
+		}
+	}
+
+	/**
+	 * Reports the number of songs queued in every zone to JukeboxMetrics, and
+	 * makes the metrics visible through JMX. If the system property
+	 * jukebox.metrics.logSeconds is set, the metrics are also printed that
+	 * often.
+	 */
+	private void watchMetrics() {
+		JukeboxMetrics metrics = JukeboxMetrics.getDefault();
+		metrics.setQueueDepth(() -> {
+			int depth = 0;
+			for (PlaybackZone zone : zones.getZones()) {
+				depth += zone.getPlayList().size();
+			}
+			return depth;
+		});
+		metrics.register();
+		int logSeconds = Integer.getInteger("jukebox.metrics.logSeconds", 0);
+		if (logSeconds > 0) {
+			metrics.startLogging(logSeconds);
+		}
+	}
+
+	/**
+	 * Checks a username and password, waiting while the password is hashed.
+	 *
+	 * @param username : String representing the inputted username.
+	 * @param password : String representing the inputted password.
+	 * @return JukeboxAccount that was logged in, or null if the username or
+	 *         password is wrong.
+	 */
+	public JukeboxAccount logIn(String username, String password) {
+		long start = System.nanoTime();
+		JukeboxAccount account = accounts.authenticate(username, password);
+		JukeboxMetrics.getDefault().getLogin().recordSince(start);
+		return account;
+	}
+
+	/**
+	 * Creates a new account, waiting while the password is hashed. Users must
+	 * all have unique usernames.
+	 *
+	 * @param username : String representing username of the new account.
+	 * @param password : String representing password of the new account.
+	 * @return JukeboxAccount that was created, or null if the username is taken.
+	 */
+	public JukeboxAccount createAccount(String username, String password) {
+		return accounts.create(username, password);
+	}
+
+	/**
+	 * Checks a username and password on a background thread, so a front end
+	 * doesn't freeze while the password is hashed.
+	 *
+	 * @param username : String representing the inputted username.
+	 * @param password : String representing the inputted password.
+	 * @return CompletableFuture completed with the JukeboxAccount that was
+	 *         logged in, or null if the username or password is wrong. Fails with
+	 *         a RejectedExecutionException if too many log ins are waiting.
+	 */
+	public CompletableFuture<JukeboxAccount> logInAsync(String username, String password) {
+		long start = System.nanoTime();
+		return verifier.logIn(accounts, username, password)
+				.whenComplete((account, err) -> JukeboxMetrics.getDefault().getLogin().recordSince(start));
+	}
+
+	/**
+	 * Creates a new account on a background thread. See logInAsync().
+	 *
+	 * @param username : String representing username of the new account.
+	 * @param password : String representing password of the new account.
+	 * @return CompletableFuture completed with the JukeboxAccount that was
+	 *         created, or null if the username is taken.
+	 */
+	public CompletableFuture<JukeboxAccount> createAccountAsync(String username, String password) {
+		return verifier.createAccount(accounts, username, password);
+	}
+
+	/**
+	 * Asks for a song to be played in the main zone, on behalf of an account. If
+	 * nothing is playing, the song starts right away.
+	 *
+	 * @param account : JukeboxAccount requesting the song, or null if nobody is
+	 *                logged in.
+	 * @param song    : Song to be played.
+	 * @return RequestResult saying whether the song was queued, or why not.
+	 */
+	public RequestResult requestSong(JukeboxAccount account, Song song) {
+		return requestSong(account, song, mainZone);
+	}
+
+	/**
+	 * Asks for a song to be played in a zone, on behalf of an account. The song
+	 * counts against the account's daily limit whichever zone it is played in,
+	 * unless it is coalesced with the same song already waiting.
+	 *
+	 * @param account : JukeboxAccount requesting the song, or null if nobody is
+	 *                logged in.
+	 * @param song    : Song to be played.
+	 * @param zone    : String representing the name of the zone to play it in.
+	 * @return RequestResult saying whether the song was queued, or why not.
+	 */
+	public RequestResult requestSong(JukeboxAccount account, Song song, String zone) {
+		PlaybackZone target = zones.getZone(zone);
+		if (target == null) {
+			return RequestResult.NO_SUCH_ZONE;
+		}
+		return requestSong(account, song, target);
+	}
+
+	private RequestResult requestSong(JukeboxAccount account, Song song, PlaybackZone zone) {
+		if (account == null) {
+			return RequestResult.NOT_LOGGED_IN;
+		}
+		if (zone == mainZone) {
+			journalQueue(false); // before taking the playlist's lock, as restoring does
+		}
+		PlayList playList = zone.getPlayList();
+		synchronized (playList) {
+			// checked, counted and queued under one lock, so nobody can queue the
+			// same song in between
+			List<Song> songs = Collections.singletonList(song);
+			if (playList.rejects(songs)) {
+				return RequestResult.DUPLICATE;
+			}
+			if (playList.coalesces(songs) == 1) {
+				zone.request(song, account);
+				return RequestResult.COALESCED;
+			}
+			if (!accounts.addSong(account)) {
+				return RequestResult.LIMIT_REACHED;
+			}
+			zone.request(song, account);
+		}
+		return RequestResult.QUEUED;
+	}
+
+	/**
+	 * Asks for several songs to be played one after another in the main zone,
+	 * on behalf of an account. The songs are counted against the account's
+	 * daily limit all at once: if they don't all fit, or the DuplicatePolicy
+	 * turns any of them away, none are queued. Songs the DuplicatePolicy
+	 * coalesces with ones already waiting aren't counted. They are added to the
+	 * queue in one step and the listeners hear about them together.
+	 *
+	 * @param account : JukeboxAccount requesting the songs, or null if nobody is
+	 *                logged in.
+	 * @param songs   : List of Songs to be played, in order.
+	 * @return RequestResult saying whether the songs were queued, or why not.
+	 */
+	public RequestResult requestSongs(JukeboxAccount account, List<Song> songs) {
+		return requestSongs(account, songs, mainZone);
+	}
+
+	/**
+	 * Asks for several songs to be played one after another in a zone, on
+	 * behalf of an account. See requestSongs(JukeboxAccount, List).
+	 *
+	 * @param account : JukeboxAccount requesting the songs, or null if nobody is
+	 *                logged in.
+	 * @param songs   : List of Songs to be played, in order.
+	 * @param zone    : String representing the name of the zone to play them in.
+	 * @return RequestResult saying whether the songs were queued, or why not.
+	 */
+	public RequestResult requestSongs(JukeboxAccount account, List<Song> songs, String zone) {
+		PlaybackZone target = zones.getZone(zone);
+		if (target == null) {
+			return RequestResult.NO_SUCH_ZONE;
+		}
+		return requestSongs(account, songs, target);
+	}
+
+	private RequestResult requestSongs(JukeboxAccount account, List<Song> songs, PlaybackZone zone) {
+		if (account == null) {
+			return RequestResult.NOT_LOGGED_IN;
+		}
+		// copied first so the list can't change between counting and queueing
+		ArrayList<Song> batch = new ArrayList<>(songs);
+		if (batch.contains(null)) {
+			throw new IllegalArgumentException("Can't request a null song");
+		}
+		if (batch.isEmpty()) {
+			return RequestResult.QUEUED;
+		}
+		if (zone == mainZone) {
+			journalQueue(false);
+		}
+		PlayList playList = zone.getPlayList();
+		synchronized (playList) {
+			if (playList.rejects(batch)) {
+				return RequestResult.DUPLICATE;
+			}
+			int fresh = batch.size() - playList.coalesces(batch);
+			if (fresh > 0 && !accounts.addSongs(account, fresh)) {
+				return RequestResult.LIMIT_REACHED;
+			}
+			zone.requestAll(batch, account);
+			if (fresh == 0) {
+				return RequestResult.COALESCED;
+			}
+		}
+		return RequestResult.QUEUED;
+	}
+
+	/**
+	 * Puts back songs from a saved queue into the main zone, without counting
+	 * them against anyone's daily limit, and starts playing if nothing is.
+	 *
+	 * @param saved : Collection of Songs representing the saved queue, front
+	 *              first.
+	 */
+	public void restoreQueue(Collection<Song> saved) {
+		journalQueue(false);
+		mainZone.restore(saved);
+	}
+
+	/**
+	 * Puts back the queue saved in the playlist journal, as it was when the
+	 * program last stopped, crashed or not.
+	 *
+	 * @return boolean representing whether a saved queue was found. false if
+	 *         this engine has no playlist journal, or there was nothing saved
+	 *         yet.
+	 */
+	public boolean restoreSavedQueue() {
+		if (queueJournal == null || !queueJournal.foundSaved()) {
+			return false;
+		}
+		journalQueue(true);
+		return true;
+	}
+
+	/**
+	 * Starts journaling the main zone's queue, the first time it is called.
+	 * 
+	 * @param restore : boolean representing whether to put back the saved queue
+	 *                first. true to restore it, false to forget it.
+	 */
+	private synchronized void journalQueue(boolean restore) {
+		if (queueJournal == null || journalingQueue) {
+			return;
+		}
+		journalingQueue = true;
+		if (restore) {
+			// already in the journal, so restored before it starts listening
+			mainZone.restore(savedQueue);
+		} else if (!savedQueue.isEmpty()) {
+			queueJournal.discard();
+		}
+		savedQueue = null;
+		mainZone.addListener(queueJournal);
+	}
+
+	/**
+	 * Registers a listener on the main zone's queue.
+	 *
+	 * @param listener : PlayListListener to be told about the queue.
+	 */
+	public void addListener(PlayListListener listener) {
+		mainZone.addListener(listener);
+	}
+
+	/**
+	 * Stops telling a listener about the main zone's queue.
+	 *
+	 * @param listener : PlayListListener to be removed.
+	 */
+	public void removeListener(PlayListListener listener) {
+		mainZone.removeListener(listener);
+	}
+
+	/**
+	 * Registers a listener to be told when songs found in or gone from the song
+	 * folder have been added to or removed from the catalog. Listeners are
+	 * called on the backend's scheduler, which for the GUI is the JavaFX thread.
+	 * Nothing is reported unless the catalog came from a LibraryScanner.
+	 *
+	 * @param listener : LibraryListener to be told about catalog changes.
+	 */
+	public void addLibraryListener(LibraryListener listener) {
+		libraryListeners.add(listener);
+	}
+
+	/**
+	 * Stops telling a listener about catalog changes.
+	 *
+	 * @param listener : LibraryListener to be removed.
+	 */
+	public void removeLibraryListener(LibraryListener listener) {
+		libraryListeners.remove(listener);
+	}
+
+	/**
+	 * Makes sure every account change so far has been written to disk. The
+	 * account journal is compacted in the background (see Checkpointer), so this
+	 * only waits for the few records written since.
+	 */
+	public void saveAccounts() {
+		if (journal != null) {
+			journal.flush();
+		}
+	}
+
+	/**
+	 * Saves the main zone's queue: makes sure the playlist journal has been
+	 * written to disk, or writes playlist.ser if this engine has no playlist
+	 * journal.
+	 */
+	public void saveQueue() {
+		if (queueJournal != null) {
+			queueJournal.flush();
+		} else {
+			mainZone.getPlayList().writeSongQueue();
+		}
+	}
+
+	/**
+	 * Stops playing in every zone and stops saving changes, after writing out
+	 * the ones not yet on disk. The engine can't be used afterwards.
+	 */
+	public void shutdown() {
+		if (library != null) {
+			library.stopWatching();
+		}
+		zones.shutdown();
+		verifier.shutdown();
+		if (checkpointer != null) {
+			checkpointer.stop(); // so no checkpoint runs once the journals close
+		}
+		if (journal != null) {
+			journal.close();
+		}
+		if (queueJournal != null) {
+			queueJournal.close();
+		}
+		if (history != null) {
+			history.close();
+		}
+	}
+
+	/**
+	 * Retrieves the catalog of songs that can be requested.
+	 *
+	 * @return SongList holding the available songs.
+	 */
+	public SongList getCatalog() {
+		return catalog;
+	}
+
+	/**
+	 * Retrieves the accounts.
+	 *
+	 * @return AccountStore holding the accounts.
+	 */
+	public AccountStore getAccounts() {
+		return accounts;
+	}
+
+	/**
+	 * Retrieves the main zone's queue of songs.
+	 *
+	 * @return PlayList holding the queue.
+	 */
+	public PlayList getPlayList() {
+		return mainZone.getPlayList();
+	}
+
+	/**
+	 * Retrieves the history of songs played. Plays in zones added later are
+	 * recorded too if the zone is given a listener from
+	 * PlayHistoryLog.listenerFor().
+	 *
+	 * @return PlayHistoryLog recording what was played, or null if this engine
+	 *         wasn't made with open().
+	 */
+	public PlayHistoryLog getHistory() {
+		return history;
+	}
+
+	/**
+	 * Retrieves the zones, for adding and removing rooms.
+	 *
+	 * @return ZoneManager holding every zone.
+	 */
+	public ZoneManager getZones() {
+		return zones;
+	}
+}
@@ -0,0 +1,229 @@
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Keeps track of how the running jukebox is doing: how many songs are queued,
+ * how long requests take to start playing and songs take to follow each
+ * other, how long log ins take, and how long saving and loading take. Anything
+ * that is timed records into this class's LatencyHistograms, which take no lock
+ * and allocate nothing, so the measuring doesn't slow down what is measured.
+ *
+ * The numbers can be watched through JMX (for example with JConsole) once
+ * register() has been called, under "jukebox:type=Metrics" and
+ * "jukebox:type=Latency,name=...", and printed every so often with
+ * startLogging().
+ *
+ * @author Adrianna Koppes
+ */
+
+public class JukeboxMetrics implements JukeboxMetricsMBean {
+
+	private static final JukeboxMetrics DEFAULT = new JukeboxMetrics();
+
+	private LatencyHistogram enqueueToPlay = new LatencyHistogram("enqueueToPlay");
+	private LatencyHistogram songChange = new LatencyHistogram("songChange");
+	private LatencyHistogram login = new LatencyHistogram("login");
+	private LatencyHistogram fileRead = new LatencyHistogram("fileRead");
+	private LatencyHistogram fileWrite = new LatencyHistogram("fileWrite");
+	private LongAdder bytesRead = new LongAdder();
+	private LongAdder bytesWritten = new LongAdder();
+	private volatile IntSupplier queueDepth = () -> 0;
+	private ScheduledExecutorService logger;
+
+	/**
+	 * Retrieves the metrics the jukebox records into.
+	 *
+	 * @return JukeboxMetrics shared by the whole program.
+	 */
+	public static JukeboxMetrics getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Retrieves the time from a song being queued until it starts playing.
+	 *
+	 * @return LatencyHistogram of the waits.
+	 */
+	public LatencyHistogram getEnqueueToPlay() {
+		return enqueueToPlay;
+	}
+
+	/**
+	 * Retrieves the time from one song ending until the next one starts,
+	 * including the gap between them.
+	 *
+	 * @return LatencyHistogram of the changes.
+	 */
+	public LatencyHistogram getSongChange() {
+		return songChange;
+	}
+
+	/**
+	 * Retrieves the time taken to log in, including any wait for a
+	 * PasswordVerifier thread.
+	 *
+	 * @return LatencyHistogram of the log ins.
+	 */
+	public LatencyHistogram getLogin() {
+		return login;
+	}
+
+	/**
+	 * Retrieves the time taken to read a saved file (see ModelCodec).
+	 *
+	 * @return LatencyHistogram of the reads.
+	 */
+	public LatencyHistogram getFileRead() {
+		return fileRead;
+	}
+
+	/**
+	 * Retrieves the time taken to write a saved file (see ModelCodec).
+	 *
+	 * @return LatencyHistogram of the writes.
+	 */
+	public LatencyHistogram getFileWrite() {
+		return fileWrite;
+	}
+
+	/**
+	 * Records that a saved file was read.
+	 *
+	 * @param startNanos : long representing when the read started, from
+	 *                   System.nanoTime().
+	 * @param bytes      : long representing the size of the file.
+	 */
+	public void recordRead(long startNanos, long bytes) {
+		fileRead.recordSince(startNanos);
+		bytesRead.add(bytes);
+	}
+
+	/**
+	 * Records that a saved file was written.
+	 *
+	 * @param startNanos : long representing when the write started, from
+	 *                   System.nanoTime().
+	 * @param bytes      : long representing the size of the file.
+	 */
+	public void recordWrite(long startNanos, long bytes) {
+		fileWrite.recordSince(startNanos);
+		bytesWritten.add(bytes);
+	}
+
+	/**
+	 * Sets where the queue depth is read from.
+	 *
+	 * @param depth : IntSupplier giving the number of songs queued.
+	 */
+	public void setQueueDepth(IntSupplier depth) {
+		queueDepth = depth;
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return queueDepth.getAsInt();
+	}
+
+	@Override
+	public long getFilesRead() {
+		return fileRead.getCount();
+	}
+
+	@Override
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	@Override
+	public long getFilesWritten() {
+		return fileWrite.getCount();
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : histograms()) {
+			histogram.reset();
+		}
+		bytesRead.reset();
+		bytesWritten.reset();
+	}
+
+	private List<LatencyHistogram> histograms() {
+		return List.of(enqueueToPlay, songChange, login, fileRead, fileWrite);
+	}
+
+	/**
+	 * Makes the metrics visible through JMX. Calling this again does nothing.
+	 */
+	public synchronized void register() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName name = new ObjectName("jukebox:type=Metrics");
+			if (server.isRegistered(name)) {
+				return;
+			}
+			server.registerMBean(this, name);
+			for (LatencyHistogram histogram : histograms()) {
+				server.registerMBean(histogram, new ObjectName("jukebox:type=Latency,name=" + histogram.getName()));
+			}
+		} catch (JMException err) {
+			System.out.println("Couldn't register metrics");
+		}
+	}
+
+	/**
+	 * Prints a summary of the metrics every so often, on a background thread.
+	 * Replaces any logging already started.
+	 *
+	 * @param periodSeconds : long representing the seconds between summaries.
+	 */
+	public synchronized void startLogging(long periodSeconds) {
+		stopLogging();
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, (task) -> {
+			Thread thread = new Thread(task, "metrics-log");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleAtFixedRate(() -> System.out.println(this), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+		logger = executor;
+	}
+
+	/**
+	 * Stops printing summaries.
+	 */
+	public synchronized void stopLogging() {
+		if (logger != null) {
+			logger.shutdownNow();
+			logger = null;
+		}
+	}
+
+	/**
+	 * Gives a summary of every metric, one per line.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder summary = new StringBuilder("queue depth: ").append(getQueueDepth());
+		for (LatencyHistogram histogram : histograms()) {
+			summary.append(System.lineSeparator()).append(histogram);
+		}
+		summary.append(System.lineSeparator()).append("bytes read: ").append(getBytesRead())
+				.append(", written: ").append(getBytesWritten());
+		return summary.toString();
+	}
+}
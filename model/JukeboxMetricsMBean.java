@@ -0,0 +1,42 @@
+package model;
+
+/**
+ * What JukeboxMetrics shows through JMX, besides its LatencyHistograms, which
+ * are registered separately.
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface JukeboxMetricsMBean {
+
+	/**
+	 * @return integer representing the number of songs queued, including the
+	 *         ones playing.
+	 */
+	int getQueueDepth();
+
+	/**
+	 * @return long representing how many saved files have been read.
+	 */
+	long getFilesRead();
+
+	/**
+	 * @return long representing the total size of the saved files read.
+	 */
+	long getBytesRead();
+
+	/**
+	 * @return long representing how many saved files have been written.
+	 */
+	long getFilesWritten();
+
+	/**
+	 * @return long representing the total size of the saved files written.
+	 */
+	long getBytesWritten();
+
+	/**
+	 * Forgets every recorded time and count.
+	 */
+	void reset();
+}
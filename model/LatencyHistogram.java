@@ -0,0 +1,179 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long something takes, many times over, so the average, the
+ * longest, and percentiles can be read while the jukebox runs. Recording takes
+ * no lock and allocates nothing, so it can be called on every song and every
+ * log in without changing how long they take.
+ *
+ * Times are counted in buckets by powers of two of nanoseconds, so the
+ * percentiles are rounded up to the top of their bucket (at most twice the
+ * true value). The average and the longest time are exact.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+	private static final int BUCKETS = 64;
+
+	private String name;
+	private AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private LongAdder count = new LongAdder();
+	private LongAdder totalNanos = new LongAdder();
+	private AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Creates a new, empty LatencyHistogram.
+	 *
+	 * @param name : String representing what is being timed.
+	 */
+	public LatencyHistogram(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records one time.
+	 *
+	 * @param nanos : long representing the time taken in nanoseconds. Negative
+	 *              times count as 0.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		// bucket b holds times from 2^(b-1) up to 2^b - 1, and bucket 0 holds 0
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+		count.increment();
+		totalNanos.add(nanos);
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	/**
+	 * Records the time since a start time.
+	 *
+	 * @param startNanos : long representing the start, from System.nanoTime().
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Retrieves what is being timed.
+	 *
+	 * @return String representing the name given when this was created.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Retrieves the average time.
+	 *
+	 * @return long representing the average in nanoseconds, or 0 if nothing has
+	 *         been recorded.
+	 */
+	public long getMeanNanos() {
+		long recorded = count.sum();
+		return recorded == 0 ? 0 : totalNanos.sum() / recorded;
+	}
+
+	/**
+	 * Retrieves the longest time.
+	 *
+	 * @return long representing the longest time in nanoseconds.
+	 */
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * Finds a time that the specified fraction of the recorded times are under,
+	 * rounded up to a power of two nanoseconds.
+	 *
+	 * @param fraction : double between 0 and 1, such as 0.99.
+	 * @return long representing the time in nanoseconds, or 0 if nothing has
+	 *         been recorded.
+	 */
+	public long getPercentileNanos(double fraction) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			counts[b] = buckets.get(b);
+			total += counts[b];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long wanted = Math.max(1, (long) Math.ceil(total * fraction));
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += counts[b];
+			if (seen >= wanted) {
+				return Math.min(upperBound(b), maxNanos.get());
+			}
+		}
+		return maxNanos.get();
+	}
+
+	private static long upperBound(int bucket) {
+		return (1L << bucket) - 1;
+	}
+
+	@Override
+	public double getMeanMillis() {
+		return toMillis(getMeanNanos());
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return toMillis(getMaxNanos());
+	}
+
+	@Override
+	public double getMedianMillis() {
+		return toMillis(getPercentileNanos(0.5));
+	}
+
+	@Override
+	public double getP99Millis() {
+		return toMillis(getPercentileNanos(0.99));
+	}
+
+	@Override
+	public void reset() {
+		for (int b = 0; b < BUCKETS; b++) {
+			buckets.set(b, 0);
+		}
+		count.reset();
+		totalNanos.reset();
+		maxNanos.set(0);
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * Gives a one line summary, such as "login: 12 in avg 80.1 ms, p99 120.4 ms,
+	 * max 120.4 ms".
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s: %d in avg %.1f ms, p99 %.1f ms, max %.1f ms", name, getCount(), getMeanMillis(),
+				getP99Millis(), getMaxMillis());
+	}
+}
@@ -0,0 +1,40 @@
+package model;
+
+/**
+ * What a LatencyHistogram shows through JMX. Times are in milliseconds.
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface LatencyHistogramMBean {
+
+	/**
+	 * @return long representing how many times have been recorded.
+	 */
+	long getCount();
+
+	/**
+	 * @return double representing the average time.
+	 */
+	double getMeanMillis();
+
+	/**
+	 * @return double representing the longest time.
+	 */
+	double getMaxMillis();
+
+	/**
+	 * @return double representing the time half of the recorded times are under.
+	 */
+	double getMedianMillis();
+
+	/**
+	 * @return double representing the time 99% of the recorded times are under.
+	 */
+	double getP99Millis();
+
+	/**
+	 * Forgets every recorded time.
+	 */
+	void reset();
+}
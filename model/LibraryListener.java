@@ -0,0 +1,25 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Is told when a LibraryScanner watching the song folder finds songs that
+ * were added, changed or deleted. A changed song is reported as the old Song
+ * being removed and the new one being added.
+ *
+ * @author Amelia Matheson
+ */
+
+public interface LibraryListener {
+
+	/**
+	 * Called on the scanner's watch thread after a batch of changed files has
+	 * been read.
+	 *
+	 * @param removed : List of Songs that are no longer in the folder, as they
+	 *                were last scanned.
+	 * @param added   : List of Songs that are new to the folder, or were
+	 *                changed.
+	 */
+	void libraryChanged(List<Song> removed, List<Song> added);
+}
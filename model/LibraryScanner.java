@@ -0,0 +1,543 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds the list of songs from the mp3 files in a folder and its
+ * subfolders, reading each song's title, artist and duration with Mp3Reader.
+ * Files are read in parallel on a ForkJoinPool, and what was read is kept in
+ * a cache file along with each file's size and modification time, so the next
+ * scan (even after a restart) only reads the files that changed.
+ *
+ * Each file is also given an id the first time it is found, which the cache
+ * keeps under its filename. A SongList built from a scan uses these ids, so a
+ * song keeps its id (and a saved queue can find it again) when other files
+ * are added or deleted, even across restarts. New files get ids above every
+ * id in the cache, so the id of a deleted file is only given out again after a
+ * restart, and only if it was the highest.
+ *
+ * Once the first scan is done, watch() follows the folder with a
+ * WatchService and reads only the files that are added or changed, telling a
+ * LibraryListener what changed.
+ *
+ * @author Amelia Matheson
+ */
+
+public class LibraryScanner {
+
+	/**
+	 * The folder scanned if no other is given.
+	 */
+	public static final Path DEFAULT_DIR = Paths.get("songfiles");
+
+	/**
+	 * The cache file used if no other is given.
+	 */
+	public static final Path DEFAULT_CACHE = Paths.get("library.cache");
+
+	/**
+	 * How long the watcher waits for a burst of changes (such as a file being
+	 * copied in) to settle before reading the files.
+	 */
+	public static final long SETTLE_MILLIS = 300;
+
+	private static final int FILES_PER_TASK = 8;
+
+	private final Path dir;
+	private final Path cacheFile;
+	private final ForkJoinPool pool;
+	// keyed by filename, relative to dir and with '/' separators
+	private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+	private final AtomicInteger filesRead = new AtomicInteger();
+	private boolean cacheLoaded;
+	private int nextId; // above every id in the cache or given out since
+	private volatile boolean cacheChanged; // set by the reading threads
+	private WatchService watchService;
+	private Thread watcher;
+
+	/**
+	 * One scanned file: the song read from it, the size and modification time
+	 * it had when it was read, and the file's id.
+	 */
+	public static class Entry {
+		private final Song song;
+		private final long size;
+		private final long modified;
+		private final int id;
+
+		/**
+		 * Creates a new Entry for a file that hasn't been given an id yet.
+		 *
+		 * @param song     : Song read from the file.
+		 * @param size     : long representing the file's size in bytes.
+		 * @param modified : long representing the file's modification time in
+		 *                 milliseconds.
+		 */
+		public Entry(Song song, long size, long modified) {
+			this(song, size, modified, -1);
+		}
+
+		/**
+		 * Creates a new Entry.
+		 *
+		 * @param song     : Song read from the file.
+		 * @param size     : long representing the file's size in bytes.
+		 * @param modified : long representing the file's modification time in
+		 *                 milliseconds.
+		 * @param id       : integer representing the file's id, or -1 if it
+		 *                 hasn't been given one.
+		 */
+		public Entry(Song song, long size, long modified, int id) {
+			this.song = song;
+			this.size = size;
+			this.modified = modified;
+			this.id = id;
+		}
+
+		/**
+		 * Retrieves the song read from the file.
+		 *
+		 * @return Song read from the file.
+		 */
+		public Song getSong() {
+			return song;
+		}
+
+		/**
+		 * Retrieves the file's size when it was read.
+		 *
+		 * @return long representing the size in bytes.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Retrieves the file's modification time when it was read.
+		 *
+		 * @return long representing the time in milliseconds.
+		 */
+		public long getModified() {
+			return modified;
+		}
+
+		/**
+		 * Retrieves the file's id.
+		 *
+		 * @return integer representing the id, or -1 if it hasn't been given
+		 *         one.
+		 */
+		public int getId() {
+			return id;
+		}
+
+		private boolean matches(BasicFileAttributes attributes) {
+			return size == attributes.size() && modified == attributes.lastModifiedTime().toMillis();
+		}
+	}
+
+	/**
+	 * Creates a new LibraryScanner for the songfiles folder, caching in
+	 * library.cache.
+	 */
+	public LibraryScanner() {
+		this(DEFAULT_DIR, DEFAULT_CACHE);
+	}
+
+	/**
+	 * Creates a new LibraryScanner that reads files on the common ForkJoinPool.
+	 *
+	 * @param dir       : Path representing the folder holding the songs.
+	 * @param cacheFile : Path representing the cache file, or null to keep
+	 *                  nothing between runs.
+	 */
+	public LibraryScanner(Path dir, Path cacheFile) {
+		this(dir, cacheFile, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new LibraryScanner.
+	 *
+	 * @param dir       : Path representing the folder holding the songs.
+	 * @param cacheFile : Path representing the cache file, or null to keep
+	 *                  nothing between runs.
+	 * @param pool      : ForkJoinPool that reads the files.
+	 */
+	public LibraryScanner(Path dir, Path cacheFile, ForkJoinPool pool) {
+		this.dir = dir;
+		this.cacheFile = cacheFile;
+		this.pool = pool;
+	}
+
+	/**
+	 * Finds every mp3 file in the folder and its subfolders, and reads the ones
+	 * that aren't in the cache or have changed since. Files that can't be read
+	 * are left out.
+	 *
+	 * @return List of Songs sorted by filename, so each song keeps its place
+	 *         from one run to the next.
+	 * @throws IOException if the folder can't be listed.
+	 */
+	public synchronized List<Song> scan() throws IOException {
+		loadCache();
+		ArrayList<Path> files = listFiles(dir);
+		Collections.sort(files);
+		Song[] songs = read(files);
+		giveIds(files);
+		// forget files that are gone
+		HashSet<String> found = new HashSet<>();
+		for (Path file : files) {
+			found.add(nameOf(file));
+		}
+		if (cache.keySet().retainAll(found)) {
+			cacheChanged = true;
+		}
+		saveCache();
+
+		ArrayList<Song> list = new ArrayList<>(songs.length);
+		for (Song song : songs) {
+			if (song != null) {
+				list.add(song);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Retrieves how many files have actually been read (rather than found in the
+	 * cache) by this scanner so far.
+	 *
+	 * @return integer representing the number of files read.
+	 */
+	public int getFilesRead() {
+		return filesRead.get();
+	}
+
+	/**
+	 * Finds the id of a scanned song's file. A file keeps its id while it is
+	 * in the folder, even if it changes, and from one run to the next.
+	 *
+	 * @param song : Song returned by scan() or reported to a LibraryListener.
+	 * @return integer representing the id, or -1 if the song's file isn't in
+	 *         the folder (any more).
+	 */
+	public int idOf(Song song) {
+		Entry entry = cache.get(song.getFileName());
+		return entry == null ? -1 : entry.getId();
+	}
+
+	/**
+	 * Starts following the folder on a background thread. Files that are added
+	 * or changed are read (in parallel, if many change at once) and reported to
+	 * the listener along with files that were deleted. Does nothing if the
+	 * folder is already being watched.
+	 *
+	 * @param listener : LibraryListener told about each batch of changes.
+	 * @throws IOException if the folder can't be watched.
+	 */
+	public synchronized void watch(LibraryListener listener) throws IOException {
+		if (watcher != null) {
+			return;
+		}
+		watchService = dir.getFileSystem().newWatchService();
+		HashMap<WatchKey, Path> keys = new HashMap<>();
+		register(dir, keys);
+		WatchService service = watchService;
+		watcher = new Thread(() -> follow(service, keys, listener), "library-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	/**
+	 * Stops following the folder. Waits for a batch being read to finish.
+	 */
+	public void stopWatching() {
+		Thread thread;
+		synchronized (this) {
+			thread = watcher;
+			if (thread == null) {
+				return;
+			}
+			watcher = null;
+			try {
+				watchService.close();
+			} catch (IOException err) {
+				System.out.println("Couldn't stop watching " + dir);
+			}
+		}
+		try {
+			thread.join(TimeUnit.MINUTES.toMillis(1));
+		} catch (InterruptedException err) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Runs on the watch thread until the WatchService is closed.
+	 */
+	private void follow(WatchService service, Map<WatchKey, Path> keys, LibraryListener listener) {
+		try {
+			while (true) {
+				LinkedHashSet<Path> changed = new LinkedHashSet<>();
+				boolean overflow = false;
+				WatchKey key = service.take();
+				// keep collecting until the folder has been quiet for a moment
+				while (key != null) {
+					Path folder = keys.get(key);
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW || folder == null) {
+							overflow = true;
+						} else {
+							changed.add(folder.resolve((Path) event.context()));
+						}
+					}
+					if (!key.reset()) {
+						keys.remove(key);
+					}
+					key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+				}
+				for (Path path : changed) {
+					if (Files.isDirectory(path)) {
+						register(path, keys);
+					}
+				}
+				rescan(overflow ? null : changed, listener);
+			}
+		} catch (InterruptedException | ClosedWatchServiceException err) {
+			// stopped
+		} catch (IOException err) {
+			System.out.println("Couldn't keep watching " + dir + ": " + err.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the files that changed and tells the listener.
+	 *
+	 * @param changed  : Set of Paths that changed, or null to check everything.
+	 * @param listener : LibraryListener to be told what changed.
+	 */
+	private synchronized void rescan(LinkedHashSet<Path> changed, LibraryListener listener) throws IOException {
+		HashMap<String, Song> before = new HashMap<>();
+		for (Entry entry : cache.values()) {
+			before.put(entry.getSong().getFileName(), entry.getSong());
+		}
+		ArrayList<Path> files = new ArrayList<>();
+		LinkedHashSet<String> checked = new LinkedHashSet<>();
+		if (changed == null) {
+			files = listFiles(dir);
+			checked.addAll(before.keySet());
+		} else {
+			for (Path path : changed) {
+				if (Files.isDirectory(path)) {
+					files.addAll(listFiles(path)); // a folder moved in
+				} else if (isMp3(path)) {
+					files.add(path);
+				}
+				checked.add(nameOf(path));
+			}
+		}
+		Collections.sort(files);
+		Song[] songs = read(files);
+		giveIds(files);
+
+		ArrayList<Song> removed = new ArrayList<>();
+		ArrayList<Song> added = new ArrayList<>();
+		LinkedHashSet<String> present = new LinkedHashSet<>();
+		for (Song song : songs) {
+			if (song == null) {
+				continue;
+			}
+			present.add(song.getFileName());
+			Song old = before.get(song.getFileName());
+			if (old == null || !old.equals(song)) {
+				if (old != null) {
+					removed.add(old);
+				}
+				added.add(song);
+			}
+		}
+		for (String name : checked) {
+			String prefix = name + "/";
+			for (Map.Entry<String, Song> old : before.entrySet()) {
+				String oldName = old.getKey();
+				if ((oldName.equals(name) || oldName.startsWith(prefix)) && !present.contains(oldName)) {
+					cache.remove(oldName);
+					removed.add(old.getValue());
+					cacheChanged = true;
+				}
+			}
+		}
+		saveCache();
+		if (!removed.isEmpty() || !added.isEmpty()) {
+			listener.libraryChanged(removed, added);
+		}
+	}
+
+	/**
+	 * Gives ids to the files that were just read for the first time, in
+	 * filename order. Runs after the parallel reads, so ids don't depend on
+	 * which file finished first.
+	 */
+	private void giveIds(List<Path> files) {
+		for (Path file : files) {
+			String name = nameOf(file);
+			Entry entry = cache.get(name);
+			if (entry != null && entry.getId() < 0) {
+				cache.put(name, new Entry(entry.getSong(), entry.getSize(), entry.getModified(), nextId++));
+				cacheChanged = true;
+			}
+		}
+	}
+
+	/**
+	 * Reads the files in parallel.
+	 *
+	 * @return array of Songs, in the same order as the files, with null for
+	 *         files that couldn't be read.
+	 */
+	private Song[] read(List<Path> files) {
+		Song[] songs = new Song[files.size()];
+		pool.invoke(new ReadTask(files, songs, 0, files.size()));
+		return songs;
+	}
+
+	/**
+	 * Reads a range of files, splitting it in half until each half is small.
+	 */
+	private class ReadTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List<Path> files;
+		private final Song[] songs;
+		private final int from;
+		private final int to;
+
+		ReadTask(List<Path> files, Song[] songs, int from, int to) {
+			this.files = files;
+			this.songs = songs;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= FILES_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					songs[i] = readFile(files.get(i));
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ReadTask(files, songs, from, middle), new ReadTask(files, songs, middle, to));
+		}
+	}
+
+	/**
+	 * Retrieves the song in a file from the cache, or reads it if the file is
+	 * new or has changed.
+	 *
+	 * @return Song in the file, or null if it couldn't be read.
+	 */
+	private Song readFile(Path file) {
+		String name = nameOf(file);
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			Entry cached = cache.get(name);
+			if (cached != null && cached.matches(attributes)) {
+				return cached.getSong();
+			}
+			Song song = Mp3Reader.read(file, name);
+			filesRead.incrementAndGet();
+			// a changed file keeps its id; a new one is given one by giveIds()
+			int id = cached == null ? -1 : cached.getId();
+			cache.put(name, new Entry(song, attributes.size(), attributes.lastModifiedTime().toMillis(), id));
+			cacheChanged = true;
+			return song;
+		} catch (NoSuchFileException err) {
+			return null; // deleted since it was listed
+		} catch (IOException err) {
+			System.out.println("Couldn't read " + file + ": " + err.getMessage());
+			return null;
+		}
+	}
+
+	private void loadCache() {
+		if (cacheLoaded) {
+			return;
+		}
+		cacheLoaded = true;
+		if (cacheFile == null || !Files.exists(cacheFile)) {
+			return;
+		}
+		try {
+			for (Entry entry : ModelCodec.readLibrary(cacheFile)) {
+				cache.put(entry.getSong().getFileName(), entry);
+				nextId = Math.max(nextId, entry.getId() + 1);
+			}
+		} catch (IOException err) {
+			System.out.println("Couldn't read library cache, reading every song");
+		}
+	}
+
+	private void saveCache() {
+		if (cacheFile == null || !cacheChanged) {
+			return;
+		}
+		ArrayList<Entry> entries = new ArrayList<>(cache.values());
+		entries.sort((one, two) -> one.getSong().getFileName().compareTo(two.getSong().getFileName()));
+		try {
+			ModelCodec.writeLibrary(cacheFile, entries);
+			cacheChanged = false;
+		} catch (IOException err) {
+			System.out.println("Couldn't write library cache");
+		}
+	}
+
+	private void register(Path folder, Map<WatchKey, Path> keys) throws IOException {
+		try (Stream<Path> folders = Files.walk(folder)) {
+			for (Path sub : folders.filter(Files::isDirectory).collect(Collectors.toList())) {
+				keys.put(sub.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), sub);
+			}
+		}
+	}
+
+	private static ArrayList<Path> listFiles(Path folder) throws IOException {
+		try (Stream<Path> paths = Files.walk(folder)) {
+			return paths.filter((path) -> isMp3(path) && Files.isRegularFile(path))
+					.collect(Collectors.toCollection(ArrayList::new));
+		}
+	}
+
+	private static boolean isMp3(Path path) {
+		return path.getFileName().toString().toLowerCase().endsWith(".mp3");
+	}
+
+	private String nameOf(Path file) {
+		return dir.relativize(file).toString().replace(File.separatorChar, '/');
+	}
+}
@@ -0,0 +1,171 @@
+package model;
+
+import java.util.BitSet;
+
+/**
+ * Keeps track of which slots of a SongList still hold a song, so the song at a
+ * position can be found in O(log n) time even after songs have been removed
+ * from the middle. Uses a Fenwick tree of live slot counts.
+ *
+ * @author Amelia Matheson
+ */
+
+class LiveSlots {
+
+	private BitSet removed = new BitSet();
+	private int[] tree; // built on the first removal; tree[0] is unused
+	private int slots;
+	private int live;
+
+	/**
+	 * Adds a new live slot at the end.
+	 */
+	void add() {
+		slots++;
+		live++;
+		if (tree == null) {
+			return;
+		}
+		if (slots >= tree.length) {
+			rebuild(tree.length * 2);
+		} else {
+			adjust(slots, 1);
+		}
+	}
+
+	/**
+	 * Adds many live slots at once, for example a whole catalog.
+	 *
+	 * @param added : integer representing how many slots to add.
+	 */
+	void addAll(int added) {
+		slots += added;
+		live += added;
+		if (tree != null) {
+			rebuild(Math.max(tree.length, slots * 2));
+		}
+	}
+
+	/**
+	 * Marks a slot as no longer holding a song.
+	 *
+	 * @param slot : integer representing the slot that was emptied.
+	 */
+	void remove(int slot) {
+		if (removed.get(slot)) {
+			return;
+		}
+		if (tree == null) {
+			rebuild(Math.max(16, slots * 2));
+		}
+		removed.set(slot);
+		live--;
+		adjust(slot + 1, -1);
+	}
+
+	/**
+	 * Marks an emptied slot as holding a song again.
+	 *
+	 * @param slot : integer representing the slot that was filled.
+	 */
+	void revive(int slot) {
+		if (!removed.get(slot)) {
+			return;
+		}
+		removed.clear(slot);
+		live++;
+		adjust(slot + 1, 1);
+	}
+
+	/**
+	 * Checks if a slot has been emptied.
+	 *
+	 * @param slot : integer representing the slot.
+	 * @return boolean representing whether the slot's song was removed. true if
+	 *         it was, false otherwise.
+	 */
+	boolean isRemoved(int slot) {
+		return removed.get(slot);
+	}
+
+	/**
+	 * Retrieves the number of live slots.
+	 *
+	 * @return integer representing how many slots still hold a song.
+	 */
+	int size() {
+		return live;
+	}
+
+	/**
+	 * Retrieves the total number of slots, live or not.
+	 *
+	 * @return integer representing one more than the largest slot.
+	 */
+	int capacity() {
+		return slots;
+	}
+
+	/**
+	 * Finds the live slot at the specified position.
+	 *
+	 * @param position : integer representing the position among live slots.
+	 * @return integer representing the slot at that position.
+	 */
+	int slotAt(int position) {
+		if (position < 0 || position >= live) {
+			throw new IndexOutOfBoundsException("Index " + position + " out of bounds for length " + live);
+		}
+		if (tree == null) {
+			return position; // nothing removed yet
+		}
+		int node = 0;
+		int remaining = position + 1;
+		for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+			int next = node + step;
+			if (next < tree.length && tree[next] < remaining) {
+				node = next;
+				remaining -= tree[next];
+			}
+		}
+		return node; // node + 1 is the 1-based position, so node is the slot
+	}
+
+	/**
+	 * Gives the live slots in slot order.
+	 *
+	 * @return integer array representing every live slot.
+	 */
+	int[] liveSlots() {
+		int[] result = new int[live];
+		int next = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			if (!removed.get(slot)) {
+				result[next++] = slot;
+			}
+		}
+		return result;
+	}
+
+	private void adjust(int index, int delta) {
+		for (; index < tree.length; index += index & -index) {
+			tree[index] += delta;
+		}
+	}
+
+	private void rebuild(int length) {
+		tree = new int[length];
+		for (int slot = 0; slot < slots; slot++) {
+			if (!removed.get(slot)) {
+				tree[slot + 1]++;
+			}
+		}
+		// linear time construction: push each count up to its parent
+		for (int i = 1; i < length; i++) {
+			int parent = i + (i & -i);
+			if (parent < length) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CooldownClock whose time only moves when it is told to. For testing.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class ManualCooldownClock implements CooldownClock {
+
+	private volatile long nanos;
+
+	@Override
+	public long nanoTime() {
+		return nanos;
+	}
+
+	/**
+	 * Moves the clock forward.
+	 *
+	 * @param millis : long representing how many milliseconds to move forward.
+	 */
+	public void advanceMillis(long millis) {
+		nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+}
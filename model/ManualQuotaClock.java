@@ -0,0 +1,56 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * QuotaClock whose date only changes when it is told to. For testing.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class ManualQuotaClock implements QuotaClock {
+
+	private volatile int today;
+
+	/**
+	 * Creates a new ManualQuotaClock set to the specified date.
+	 *
+	 * @param date : LocalDate representing the date the clock starts at.
+	 */
+	public ManualQuotaClock(LocalDate date) {
+		set(date);
+	}
+
+	@Override
+	public int today() {
+		return today;
+	}
+
+	/**
+	 * Sets the clock to a date.
+	 *
+	 * @param date : LocalDate representing the new date.
+	 */
+	public void set(LocalDate date) {
+		today = (int) date.toEpochDay();
+	}
+
+	/**
+	 * Moves the clock forward by some days.
+	 *
+	 * @param days : integer representing how many days to move forward. May be
+	 *             negative to move backward.
+	 */
+	public void advanceDays(int days) {
+		today += days;
+	}
+
+	/**
+	 * Retrieves the clock's date.
+	 *
+	 * @return LocalDate representing the date the clock is set to.
+	 */
+	public LocalDate getDate() {
+		return LocalDate.ofEpochDay(today);
+	}
+}
@@ -0,0 +1,225 @@
+package model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps recently played media loaded, so a song that is played again doesn't
+ * have to be opened and parsed again. Entries are looked up by file name and
+ * the least recently used ones are dropped once their total size goes over a
+ * budget.
+ *
+ * The type of media is a parameter so the cache can hold JavaFX Media in the
+ * GUI and something simpler in tests.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class MediaCache<M> {
+
+	/**
+	 * Loads media for the cache, and says how much room it takes.
+	 */
+	public interface Loader<M> {
+
+		/**
+		 * Loads the media in a file.
+		 *
+		 * @param fileName : String representing the file name of a song.
+		 * @return M holding the loaded media.
+		 */
+		M load(String fileName);
+
+		/**
+		 * Gives the size of loaded media, used against the cache's budget.
+		 *
+		 * @param fileName : String representing the file name of a song.
+		 * @param media    : M holding the loaded media.
+		 * @return long representing the size in bytes.
+		 */
+		long sizeOf(String fileName, M media);
+	}
+
+	private Loader<M> loader;
+	private long maxBytes;
+	private LinkedHashMap<String, Entry<M>> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Creates a new, empty MediaCache.
+	 *
+	 * @param loader   : Loader that loads media that isn't in the cache.
+	 * @param maxBytes : long representing the most bytes of media to keep.
+	 */
+	public MediaCache(Loader<M> loader, long maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Budget can't be negative: " + maxBytes);
+		}
+		this.loader = loader;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Retrieves the media for a song, loading it if it isn't in the cache.
+	 *
+	 * @param song : Song whose media is wanted.
+	 * @return M holding the song's media.
+	 */
+	public M get(Song song) {
+		return get(song.getFileName());
+	}
+
+	/**
+	 * Retrieves the media in a file, loading it if it isn't in the cache. Media
+	 * bigger than the whole budget is loaded but not kept.
+	 *
+	 * @param fileName : String representing the file name of a song.
+	 * @return M holding the file's media.
+	 */
+	public M get(String fileName) {
+		synchronized (this) {
+			Entry<M> entry = entries.get(fileName);
+			if (entry != null) {
+				hits++;
+				return entry.media;
+			}
+			misses++;
+		}
+		// loading can be slow, so it happens outside the lock
+		M media = loader.load(fileName);
+		long size = Math.max(0, loader.sizeOf(fileName, media));
+		synchronized (this) {
+			Entry<M> existing = entries.get(fileName);
+			if (existing != null) {
+				return existing.media; // loaded by another thread meanwhile
+			}
+			if (size <= maxBytes) {
+				entries.put(fileName, new Entry<>(media, size));
+				bytes += size;
+				evict();
+			}
+		}
+		return media;
+	}
+
+	/**
+	 * Drops a file's media from the cache, for example after the file changed.
+	 *
+	 * @param fileName : String representing the file name of a song.
+	 */
+	public synchronized void invalidate(String fileName) {
+		Entry<M> entry = entries.remove(fileName);
+		if (entry != null) {
+			bytes -= entry.size;
+		}
+	}
+
+	/**
+	 * Drops everything from the cache. The counters are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Changes the budget, dropping least recently used media if it is now over.
+	 *
+	 * @param maxBytes : long representing the most bytes of media to keep.
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Budget can't be negative: " + maxBytes);
+		}
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/**
+	 * Checks if a file's media is in the cache, without counting as a use.
+	 *
+	 * @param fileName : String representing the file name of a song.
+	 * @return boolean representing whether the media is cached. true if it is,
+	 *         false otherwise.
+	 */
+	public synchronized boolean contains(String fileName) {
+		return entries.containsKey(fileName);
+	}
+
+	/**
+	 * Retrieves the number of files whose media is cached.
+	 *
+	 * @return integer representing the number of entries.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Retrieves the total size of the cached media.
+	 *
+	 * @return long representing the bytes in use.
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Retrieves the budget.
+	 *
+	 * @return long representing the most bytes of media to keep.
+	 */
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Retrieves how many lookups found their media in the cache.
+	 *
+	 * @return long representing the number of hits.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Retrieves how many lookups had to load their media.
+	 *
+	 * @return long representing the number of misses.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Retrieves how many entries were dropped to stay within the budget.
+	 *
+	 * @return long representing the number of evictions.
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Entry<M>>> oldest = entries.entrySet().iterator();
+		while (bytes > maxBytes && oldest.hasNext()) {
+			bytes -= oldest.next().getValue().size;
+			oldest.remove();
+			evictions++;
+		}
+	}
+
+	private static class Entry<M> {
+		private M media;
+		private long size;
+
+		Entry(M media, long size) {
+			this.media = media;
+			this.size = size;
+		}
+	}
+}
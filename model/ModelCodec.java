@@ -0,0 +1,491 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Saves and loads lists of songs and accounts, and the LibraryScanner's
+ * cache, in a compact, versioned binary format, in place of Java
+ * serialization. Encoding and decoding work directly on a ByteBuffer and know
+ * exactly which fields they write, so they are much faster, the files are
+ * much smaller, and renaming a field in Song or JukeboxAccount no longer
+ * breaks saved files.
+ *
+ * Every file starts with the magic number "JBM1", the format version, and
+ * what kind of list it holds, and ends with a CRC32 of everything before it.
+ * Version 2 added each library file's id; version 1 files are still read, and
+ * their files are given ids by the next scan.
+ * Numbers are written as variable-length integers and strings as a length
+ * followed by UTF-8 bytes. In a list of songs each artist is written once and
+ * later songs by the same artist refer back to it.
+ *
+ * Files written by Java serialization (the old playlist.ser and accounts.ser)
+ * are recognized by their header and still read, so nothing saved by earlier
+ * versions is lost; they are rewritten in this format the next time they are
+ * saved. Only the classes those files were made of are let through, so a
+ * planted file can't make the jukebox create any other object. How long each
+ * file takes to read or write, and its size, are recorded in JukeboxMetrics.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class ModelCodec {
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	public static final int VERSION = 2;
+
+	private static final int MAGIC = 0x4A424D31; // "JBM1"
+	private static final short SERIALIZATION_MAGIC = (short) 0xACED;
+	private static final byte SONGS = 1;
+	private static final byte ACCOUNTS = 2;
+	private static final byte LIBRARY = 3;
+	private static final int NULL_STRING = -1;
+	// what old playlist.ser and accounts.ser files hold: an ArrayList of
+	// accounts (with LocalDates), or songs in an ArrayList or the
+	// LinkedBlockingQueue the PlayList used to save, with its lock and counter
+	private static final ObjectInputFilter SERIALIZED_CLASSES = ObjectInputFilter.Config.createFilter(
+			"maxdepth=8;model.Song;model.JukeboxAccount;java.util.ArrayList;java.lang.Object;"
+					+ "java.time.LocalDate;java.time.Ser;java.util.concurrent.LinkedBlockingQueue;"
+					+ "java.util.concurrent.atomic.AtomicInteger;java.lang.Number;"
+					+ "java.util.concurrent.locks.ReentrantLock;java.util.concurrent.locks.ReentrantLock$*;"
+					+ "java.util.concurrent.locks.AbstractQueuedSynchronizer;"
+					+ "java.util.concurrent.locks.AbstractQueuedSynchronizer$ConditionObject;"
+					+ "java.util.concurrent.locks.AbstractOwnableSynchronizer;!*");
+
+	/**
+	 * Encodes a list of songs.
+	 *
+	 * @param songs : Collection of Songs to be encoded, in order.
+	 * @return byte array holding the encoded songs.
+	 */
+	public static byte[] encodeSongs(Collection<Song> songs) {
+		Encoder out = new Encoder(32 + songs.size() * 48);
+		out.header(SONGS);
+		out.putVarInt(songs.size());
+		HashMap<String, Integer> artists = new HashMap<>();
+		for (Song song : songs) {
+			putSong(out, song, artists);
+		}
+		return out.finish();
+	}
+
+	/**
+	 * Decodes a list of songs encoded by encodeSongs().
+	 *
+	 * @param bytes : byte array holding the encoded songs.
+	 * @return ArrayList of Songs, in the order they were encoded.
+	 * @throws IOException if the bytes aren't a valid list of songs.
+	 */
+	public static ArrayList<Song> decodeSongs(byte[] bytes) throws IOException {
+		ByteBuffer in = open(bytes, SONGS);
+		try {
+			int count = getCount(in);
+			ArrayList<Song> songs = new ArrayList<>(count);
+			ArrayList<String> artists = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				songs.add(getSong(in, artists));
+			}
+			return songs;
+		} catch (BufferUnderflowException | IllegalArgumentException err) {
+			throw new IOException("Song list is cut short or damaged", err);
+		}
+	}
+
+	/**
+	 * Encodes the results of a LibraryScanner: each song along with the size and
+	 * modification time its file had when it was read, and the file's id.
+	 *
+	 * @param entries : Collection of LibraryScanner.Entries to be encoded.
+	 * @return byte array holding the encoded entries.
+	 */
+	public static byte[] encodeLibrary(Collection<LibraryScanner.Entry> entries) {
+		Encoder out = new Encoder(32 + entries.size() * 64);
+		out.header(LIBRARY);
+		out.putVarInt(entries.size());
+		HashMap<String, Integer> artists = new HashMap<>();
+		for (LibraryScanner.Entry entry : entries) {
+			putSong(out, entry.getSong(), artists);
+			out.putVarLong(entry.getSize());
+			out.putVarLong(entry.getModified());
+			out.putVarInt(entry.getId());
+		}
+		return out.finish();
+	}
+
+	/**
+	 * Decodes the results of a LibraryScanner encoded by encodeLibrary().
+	 *
+	 * @param bytes : byte array holding the encoded entries.
+	 * @return ArrayList of LibraryScanner.Entries, in the order they were
+	 *         encoded.
+	 * @throws IOException if the bytes aren't valid scan results.
+	 */
+	public static ArrayList<LibraryScanner.Entry> decodeLibrary(byte[] bytes) throws IOException {
+		ByteBuffer in = open(bytes, LIBRARY);
+		boolean hasIds = bytes[4] >= 2; // the version, checked by open()
+		try {
+			int count = getCount(in);
+			ArrayList<LibraryScanner.Entry> entries = new ArrayList<>(count);
+			ArrayList<String> artists = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				Song song = getSong(in, artists);
+				long size = getVarLong(in);
+				long modified = getVarLong(in);
+				entries.add(new LibraryScanner.Entry(song, size, modified, hasIds ? getVarInt(in) : -1));
+			}
+			return entries;
+		} catch (BufferUnderflowException | IllegalArgumentException err) {
+			throw new IOException("Library is cut short or damaged", err);
+		}
+	}
+
+	/**
+	 * Encodes a list of accounts, including how many songs each has played on
+	 * its current day. Passwords are written as stored (see
+	 * JukeboxAccount.getStoredPassword()).
+	 *
+	 * @param accounts : Collection of JukeboxAccounts to be encoded.
+	 * @return byte array holding the encoded accounts.
+	 */
+	public static byte[] encodeAccounts(Collection<JukeboxAccount> accounts) {
+		Encoder out = new Encoder(32 + accounts.size() * 40);
+		out.header(ACCOUNTS);
+		out.putVarInt(accounts.size());
+		for (JukeboxAccount account : accounts) {
+			long quota;
+			synchronized (account) {
+				quota = account.getQuotaState();
+			}
+			out.putString(account.getUsername());
+			out.putString(account.getStoredPassword());
+			out.putVarLong(DailyQuota.dayOf(quota));
+			out.putVarInt(DailyQuota.countOf(quota));
+		}
+		return out.finish();
+	}
+
+	/**
+	 * Decodes a list of accounts encoded by encodeAccounts().
+	 *
+	 * @param bytes : byte array holding the encoded accounts.
+	 * @return ArrayList of JukeboxAccounts, in the order they were encoded.
+	 * @throws IOException if the bytes aren't a valid list of accounts.
+	 */
+	public static ArrayList<JukeboxAccount> decodeAccounts(byte[] bytes) throws IOException {
+		ByteBuffer in = open(bytes, ACCOUNTS);
+		try {
+			int count = getCount(in);
+			ArrayList<JukeboxAccount> accounts = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				JukeboxAccount account = JukeboxAccount.restore(getString(in), getString(in));
+				LocalDate day = LocalDate.ofEpochDay(getVarLong(in));
+				account.restoreSongs(day, getVarInt(in));
+				accounts.add(account);
+			}
+			return accounts;
+		} catch (BufferUnderflowException | IllegalArgumentException err) {
+			throw new IOException("Account list is cut short or damaged", err);
+		}
+	}
+
+	/**
+	 * Reads a list of songs from a file, in this format or the old serialized
+	 * LinkedBlockingQueue (or any other collection) of Songs.
+	 *
+	 * @param file : Path representing the file to read.
+	 * @return ArrayList of Songs held in the file.
+	 * @throws IOException if the file can't be read or isn't a list of songs.
+	 */
+	public static ArrayList<Song> readSongs(Path file) throws IOException {
+		long start = System.nanoTime();
+		byte[] bytes = Files.readAllBytes(file);
+		ArrayList<Song> songs = isSerialized(bytes) ? readSerialized(bytes, Song.class) : decodeSongs(bytes);
+		JukeboxMetrics.getDefault().recordRead(start, bytes.length);
+		return songs;
+	}
+
+	/**
+	 * Reads a list of accounts from a file, in this format or the old serialized
+	 * ArrayList of JukeboxAccounts.
+	 *
+	 * @param file : Path representing the file to read.
+	 * @return ArrayList of JukeboxAccounts held in the file.
+	 * @throws IOException if the file can't be read or isn't a list of accounts.
+	 */
+	public static ArrayList<JukeboxAccount> readAccounts(Path file) throws IOException {
+		long start = System.nanoTime();
+		byte[] bytes = Files.readAllBytes(file);
+		ArrayList<JukeboxAccount> accounts = isSerialized(bytes) ? readSerialized(bytes, JukeboxAccount.class)
+				: decodeAccounts(bytes);
+		JukeboxMetrics.getDefault().recordRead(start, bytes.length);
+		return accounts;
+	}
+
+	/**
+	 * Writes a list of songs to a file, replacing it all at once so a crash
+	 * can't leave it half written.
+	 *
+	 * @param file  : Path representing the file to write.
+	 * @param songs : Collection of Songs to be written, in order.
+	 * @throws IOException if the file can't be written.
+	 */
+	public static void writeSongs(Path file, Collection<Song> songs) throws IOException {
+		long start = System.nanoTime();
+		replace(file, encodeSongs(songs), start);
+	}
+
+	/**
+	 * Writes a list of accounts to a file, replacing it all at once so a crash
+	 * can't leave it half written.
+	 *
+	 * @param file     : Path representing the file to write.
+	 * @param accounts : Collection of JukeboxAccounts to be written.
+	 * @throws IOException if the file can't be written.
+	 */
+	public static void writeAccounts(Path file, Collection<JukeboxAccount> accounts) throws IOException {
+		long start = System.nanoTime();
+		replace(file, encodeAccounts(accounts), start);
+	}
+
+	/**
+	 * Reads the results of a LibraryScanner from a file.
+	 *
+	 * @param file : Path representing the file to read.
+	 * @return ArrayList of LibraryScanner.Entries held in the file.
+	 * @throws IOException if the file can't be read or isn't scan results.
+	 */
+	public static ArrayList<LibraryScanner.Entry> readLibrary(Path file) throws IOException {
+		long start = System.nanoTime();
+		byte[] bytes = Files.readAllBytes(file);
+		ArrayList<LibraryScanner.Entry> entries = decodeLibrary(bytes);
+		JukeboxMetrics.getDefault().recordRead(start, bytes.length);
+		return entries;
+	}
+
+	/**
+	 * Writes the results of a LibraryScanner to a file, replacing it all at
+	 * once so a crash can't leave it half written.
+	 *
+	 * @param file    : Path representing the file to write.
+	 * @param entries : Collection of LibraryScanner.Entries to be written.
+	 * @throws IOException if the file can't be written.
+	 */
+	public static void writeLibrary(Path file, Collection<LibraryScanner.Entry> entries) throws IOException {
+		long start = System.nanoTime();
+		replace(file, encodeLibrary(entries), start);
+	}
+
+	private static void replace(Path file, byte[] bytes, long start) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+			out.force(true);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		JukeboxMetrics.getDefault().recordWrite(start, bytes.length);
+	}
+
+	private static boolean isSerialized(byte[] bytes) {
+		return bytes.length >= 2 && ByteBuffer.wrap(bytes).getShort() == SERIALIZATION_MAGIC;
+	}
+
+	private static <T> ArrayList<T> readSerialized(byte[] bytes, Class<T> type) throws IOException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			in.setObjectInputFilter(SERIALIZED_CLASSES);
+			Object read = in.readObject();
+			if (!(read instanceof Collection)) {
+				throw new IOException("Expected a collection, found " + read.getClass().getName());
+			}
+			ArrayList<T> items = new ArrayList<>();
+			for (Object item : (Collection<?>) read) {
+				items.add(type.cast(item));
+			}
+			return items;
+		} catch (ClassNotFoundException | ClassCastException err) {
+			throw new IOException("Incorrect cast", err);
+		}
+	}
+
+	/**
+	 * Checks the header and checksum, and gives a buffer positioned after the
+	 * header.
+	 */
+	private static ByteBuffer open(byte[] bytes, byte kind) throws IOException {
+		if (bytes.length < 10) {
+			throw new IOException("File is too short");
+		}
+		ByteBuffer in = ByteBuffer.wrap(bytes, 0, bytes.length - 4);
+		if (in.getInt() != MAGIC) {
+			throw new IOException("Not a jukebox file");
+		}
+		int version = in.get();
+		if (version < 1 || version > VERSION) {
+			throw new IOException("Unsupported format version " + version);
+		}
+		if (in.get() != kind) {
+			throw new IOException("File holds something else");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length - 4);
+		if ((int) crc.getValue() != ByteBuffer.wrap(bytes).getInt(bytes.length - 4)) {
+			throw new IOException("Checksum doesn't match");
+		}
+		return in;
+	}
+
+	private static void putSong(Encoder out, Song song, HashMap<String, Integer> artists) {
+		out.putString(song.getTitle());
+		Integer artist = artists.get(song.getArtist());
+		if (artist == null) {
+			// 0 means a new artist follows; later songs refer to it by number
+			out.putVarInt(0);
+			out.putString(song.getArtist());
+			artists.put(song.getArtist(), artists.size() + 1);
+		} else {
+			out.putVarInt(artist);
+		}
+		out.putVarInt((int) (song.getDurationMilliseconds() / 1000));
+		out.putString(song.getFileName());
+	}
+
+	private static Song getSong(ByteBuffer in, ArrayList<String> artists) throws IOException {
+		String title = getString(in);
+		int artistRef = getVarInt(in);
+		String artist;
+		if (artistRef == 0) {
+			artist = getString(in);
+			artists.add(artist);
+		} else if (artistRef <= artists.size()) {
+			artist = artists.get(artistRef - 1);
+		} else {
+			throw new IOException("Unknown artist " + artistRef);
+		}
+		int duration = getVarInt(in);
+		String fileName = getString(in);
+		return new Song(title, artist, duration, fileName);
+	}
+
+	private static int getCount(ByteBuffer in) throws IOException {
+		int count = getVarInt(in);
+		// every item takes at least a byte, which catches absurd counts early
+		if (count < 0 || count > in.remaining()) {
+			throw new IOException("Bad count " + count);
+		}
+		return count;
+	}
+
+	private static String getString(ByteBuffer in) throws IOException {
+		int length = getVarInt(in) - 1; // 0 is null
+		if (length == NULL_STRING) {
+			return null;
+		}
+		if (length < 0 || length > in.remaining()) {
+			throw new IOException("Bad string length " + length);
+		}
+		String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	private static int getVarInt(ByteBuffer in) throws IOException {
+		long value = getVarLong(in);
+		if (value != (int) value) {
+			throw new IOException("Number too large");
+		}
+		return (int) value;
+	}
+
+	private static long getVarLong(ByteBuffer in) throws IOException {
+		long zigzag = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.get();
+			zigzag |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IOException("Number too long");
+	}
+
+	/**
+	 * Writes the encoded form into a ByteBuffer that grows as needed.
+	 */
+	private static class Encoder {
+		private ByteBuffer out;
+
+		Encoder(int capacity) {
+			out = ByteBuffer.allocate(capacity);
+		}
+
+		void header(byte kind) {
+			out.putInt(MAGIC);
+			out.put((byte) VERSION);
+			out.put(kind);
+		}
+
+		void putVarInt(int value) {
+			putVarLong(value);
+		}
+
+		void putVarLong(long value) {
+			ensure(10);
+			long zigzag = (value << 1) ^ (value >> 63);
+			while ((zigzag & ~0x7FL) != 0) {
+				out.put((byte) ((zigzag & 0x7F) | 0x80));
+				zigzag >>>= 7;
+			}
+			out.put((byte) zigzag);
+		}
+
+		void putString(String value) {
+			if (value == null) {
+				putVarInt(0);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putVarInt(bytes.length + 1);
+			ensure(bytes.length);
+			out.put(bytes);
+		}
+
+		byte[] finish() {
+			CRC32 crc = new CRC32();
+			crc.update(out.array(), 0, out.position());
+			ensure(4);
+			out.putInt((int) crc.getValue());
+			byte[] bytes = new byte[out.position()];
+			System.arraycopy(out.array(), 0, bytes, 0, bytes.length);
+			return bytes;
+		}
+
+		private void ensure(int more) {
+			if (out.remaining() < more) {
+				ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + more));
+				out.flip();
+				bigger.put(out);
+				out = bigger;
+			}
+		}
+	}
+}
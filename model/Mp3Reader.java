@@ -0,0 +1,365 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the title, artist and duration of an mp3 file. The title and artist
+ * come from the ID3v2 tag (versions 2.2 to 2.4, unsynchronised or not, with
+ * or without an extended header), or the ID3v1 tag at the end of the file if
+ * there is no ID3v2 tag. The duration comes from the first
+ * MPEG frame: the frame count in its Xing, Info or VBRI header if it has one,
+ * otherwise the bitrate and the size of the audio, which is exact for files
+ * with a constant bitrate.
+ *
+ * Only the start and end of the file are read, never the audio itself.
+ *
+ * @author Amelia Matheson
+ */
+
+public class Mp3Reader {
+
+	// most of a big ID3v2 tag is cover art, which comes after the text frames
+	private static final int MAX_TAG_READ = 64 * 1024;
+	private static final int MAX_SYNC_SEARCH = 64 * 1024;
+	private static final int ID3V1_SIZE = 128;
+
+	// kbps, indexed by [MPEG 1 or 2][layer - 1][bitrate index]
+	private static final int[][][] BITRATES = {
+			{
+					{ 0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448 },
+					{ 0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384 },
+					{ 0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320 } },
+			{
+					{ 0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256 },
+					{ 0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160 },
+					{ 0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160 } } };
+	// Hz for MPEG 1, halved for MPEG 2 and quartered for MPEG 2.5
+	private static final int[] SAMPLE_RATES = { 44100, 48000, 32000 };
+
+	private Mp3Reader() {
+	}
+
+	/**
+	 * Reads a song from an mp3 file. Anything missing from the file is filled in
+	 * the same way as Song(String): the title is the file name without ".mp3",
+	 * the artist is blank and the duration is 20 seconds.
+	 *
+	 * @param file     : Path representing the mp3 file to be read.
+	 * @param fileName : String representing the filename the Song should have.
+	 * @return Song read from the file.
+	 * @throws IOException if the file can't be read.
+	 */
+	public static Song read(Path file, String fileName) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			Tags tags = new Tags();
+			long audioStart = 0;
+			ByteBuffer header = readAt(channel, 0, 10);
+			if (header.remaining() == 10 && header.get(0) == 'I' && header.get(1) == 'D' && header.get(2) == '3') {
+				int version = header.get(3);
+				int flags = header.get(5) & 0xff;
+				int tagSize = syncSafe(header, 6);
+				audioStart = 10 + tagSize + ((flags & 0x10) != 0 ? 10 : 0);
+				readId3v2(readAt(channel, 10, Math.min(tagSize, MAX_TAG_READ)), version, flags, tags);
+			}
+			long audioEnd = size;
+			if (size - audioStart >= ID3V1_SIZE) {
+				ByteBuffer v1 = readAt(channel, size - ID3V1_SIZE, ID3V1_SIZE);
+				if (v1.get(0) == 'T' && v1.get(1) == 'A' && v1.get(2) == 'G') {
+					audioEnd = size - ID3V1_SIZE;
+					if (tags.title == null) {
+						tags.title = latin1(v1, 3, 30);
+					}
+					if (tags.artist == null) {
+						tags.artist = latin1(v1, 33, 30);
+					}
+				}
+			}
+			double seconds = readDuration(channel, audioStart, audioEnd);
+			if (seconds <= 0 && tags.lengthMillis > 0) {
+				seconds = tags.lengthMillis / 1000.0;
+			}
+
+			String title = blankToNull(tags.title);
+			if (title == null) {
+				title = fileName.substring(fileName.lastIndexOf('/') + 1);
+				if (title.toLowerCase().endsWith(".mp3")) {
+					title = title.substring(0, title.length() - 4);
+				}
+			}
+			String artist = blankToNull(tags.artist);
+			int duration = seconds > 0 ? (int) Math.max(1, Math.round(seconds)) : 20;
+			return new Song(title, artist == null ? "" : artist, duration, fileName);
+		}
+	}
+
+	/**
+	 * What was found in the tags.
+	 */
+	private static class Tags {
+		private String title;
+		private String artist;
+		private long lengthMillis;
+	}
+
+	private static void readId3v2(ByteBuffer tag, int version, int flags, Tags tags) {
+		boolean unsynchronised = (flags & 0x80) != 0;
+		if ((flags & 0x40) != 0 && version == 2) {
+			return; // compressed, which was never given a format
+		}
+		if (unsynchronised && version < 4) {
+			// before 2.4 the whole tag is unsynchronised, extended header too
+			tag = resynchronise(tag, 0, tag.limit());
+		}
+		if ((flags & 0x40) != 0) {
+			if (tag.limit() < 4) {
+				return;
+			}
+			// 2.3 counts the bytes after the size, 2.4 the whole extended header
+			int extended = version == 3 ? 4 + tag.getInt(0) : syncSafe(tag, 0);
+			if (extended < 4 || extended > tag.limit()) {
+				return;
+			}
+			tag.position(extended);
+		}
+		int idLength = version == 2 ? 3 : 4;
+		int headerLength = version == 2 ? 6 : 10;
+		while (tag.remaining() >= headerLength) {
+			int start = tag.position();
+			if (tag.get(start) == 0) {
+				return; // padding
+			}
+			String id = new String(tag.array(), start, idLength, StandardCharsets.ISO_8859_1);
+			int frameSize;
+			if (version == 2) {
+				frameSize = ((tag.get(start + 3) & 0xff) << 16) | ((tag.get(start + 4) & 0xff) << 8)
+						| (tag.get(start + 5) & 0xff);
+			} else if (version == 3) {
+				frameSize = tag.getInt(start + 4);
+			} else {
+				frameSize = syncSafe(tag, start + 4);
+			}
+			int body = start + headerLength;
+			if (frameSize <= 0 || frameSize > tag.limit() - body) {
+				return; // cut off by MAX_TAG_READ, or not a frame
+			}
+			tag.position(body + frameSize);
+			ByteBuffer data = tag;
+			int offset = body;
+			int length = frameSize;
+			int frameFlags = version == 2 ? 0 : tag.get(start + 9) & 0xff;
+			if (version == 3 && (frameFlags & 0xc0) != 0) {
+				continue; // compressed or encrypted
+			}
+			if (version == 4) {
+				if ((frameFlags & 0x0c) != 0) {
+					continue; // compressed or encrypted
+				}
+				if ((frameFlags & 0x01) != 0) {
+					offset += 4; // data length indicator
+					length -= 4;
+				}
+				if (unsynchronised || (frameFlags & 0x02) != 0) {
+					data = resynchronise(tag, offset, length);
+					offset = 0;
+					length = data.limit();
+				}
+			}
+			if (length <= 0) {
+				continue;
+			}
+			if (id.equals("TIT2") || id.equals("TT2")) {
+				tags.title = text(data, offset, length);
+			} else if (id.equals("TPE1") || id.equals("TP1")) {
+				tags.artist = text(data, offset, length);
+			} else if (id.equals("TLEN") || id.equals("TLE")) {
+				try {
+					tags.lengthMillis = Long.parseLong(text(data, offset, length).trim());
+				} catch (NumberFormatException err) {
+					// ignore a bad length, the frames give it anyway
+				}
+			}
+		}
+	}
+
+	/**
+	 * Undoes unsynchronisation: drops the 0 byte that was put after every 0xFF,
+	 * so the tag could never be mistaken for an MPEG frame header.
+	 *
+	 * @return ByteBuffer holding the bytes as they were before.
+	 */
+	private static ByteBuffer resynchronise(ByteBuffer buffer, int offset, int length) {
+		byte[] bytes = new byte[length];
+		int count = 0;
+		for (int i = offset; i < offset + length; i++) {
+			byte b = buffer.get(i);
+			if (b == 0 && i > offset && buffer.get(i - 1) == (byte) 0xff) {
+				continue;
+			}
+			bytes[count++] = b;
+		}
+		return ByteBuffer.wrap(bytes, 0, count);
+	}
+
+	/**
+	 * Decodes a text frame: an encoding byte followed by the text.
+	 */
+	private static String text(ByteBuffer tag, int offset, int length) {
+		Charset charset;
+		switch (tag.get(offset)) {
+		case 1:
+			charset = StandardCharsets.UTF_16; // with a byte order mark
+			break;
+		case 2:
+			charset = StandardCharsets.UTF_16BE;
+			break;
+		case 3:
+			charset = StandardCharsets.UTF_8;
+			break;
+		default:
+			charset = StandardCharsets.ISO_8859_1;
+		}
+		String text = new String(tag.array(), offset + 1, length - 1, charset);
+		int end = text.indexOf('\0');
+		return end < 0 ? text : text.substring(0, end);
+	}
+
+	/**
+	 * Finds the first MPEG audio frame and works out the duration from it.
+	 *
+	 * @return double representing the duration in seconds, or 0 if no frame was
+	 *         found.
+	 */
+	private static double readDuration(FileChannel channel, long audioStart, long audioEnd) throws IOException {
+		ByteBuffer audio = readAt(channel, audioStart, (int) Math.min(MAX_SYNC_SEARCH, audioEnd - audioStart));
+		for (int i = 0; i + 4 <= audio.limit(); i++) {
+			Frame frame = Frame.parse(audio.getInt(i));
+			if (frame == null) {
+				continue;
+			}
+			// a sync pattern inside other data is unlikely to be followed by a
+			// second frame header right where this one ends
+			int next = i + frame.length;
+			if (next + 4 <= audio.limit() && Frame.parse(audio.getInt(next)) == null) {
+				continue;
+			}
+			long frames = frame.countFrames(audio, i);
+			if (frames > 0) {
+				return (double) frames * frame.samples / frame.sampleRate;
+			}
+			return (audioEnd - audioStart - i) * 8.0 / frame.bitrate;
+		}
+		return 0;
+	}
+
+	/**
+	 * The parts of an MPEG audio frame header needed for the duration.
+	 */
+	private static class Frame {
+		private boolean mpeg1;
+		private boolean mono;
+		private int bitrate; // bits per second
+		private int sampleRate;
+		private int samples; // samples per frame
+		private int length; // bytes, including the header
+
+		/**
+		 * Reads a frame header.
+		 *
+		 * @return Frame, or null if the bytes aren't a valid header.
+		 */
+		private static Frame parse(int header) {
+			if ((header >>> 21) != 0x7ff) {
+				return null;
+			}
+			int version = (header >>> 19) & 3; // 0 = 2.5, 2 = 2, 3 = 1
+			int layer = 4 - ((header >>> 17) & 3); // 4 means reserved
+			int bitrateIndex = (header >>> 12) & 0xf;
+			int rateIndex = (header >>> 10) & 3;
+			if (version == 1 || layer == 4 || bitrateIndex == 0 || bitrateIndex == 15 || rateIndex == 3) {
+				return null;
+			}
+			Frame frame = new Frame();
+			frame.mpeg1 = version == 3;
+			frame.mono = ((header >>> 6) & 3) == 3;
+			frame.bitrate = BITRATES[frame.mpeg1 ? 0 : 1][layer - 1][bitrateIndex] * 1000;
+			frame.sampleRate = SAMPLE_RATES[rateIndex] >> (frame.mpeg1 ? 0 : version == 2 ? 1 : 2);
+			int padding = (header >>> 9) & 1;
+			if (layer == 1) {
+				frame.samples = 384;
+				frame.length = (12 * frame.bitrate / frame.sampleRate + padding) * 4;
+			} else {
+				frame.samples = layer == 3 && !frame.mpeg1 ? 576 : 1152;
+				frame.length = frame.samples / 8 * frame.bitrate / frame.sampleRate + padding;
+			}
+			return frame;
+		}
+
+		/**
+		 * Reads the number of frames from a Xing, Info or VBRI header in the frame,
+		 * which encoders add to files with a variable bitrate.
+		 *
+		 * @return long representing the number of frames, or 0 if the frame has no
+		 *         such header.
+		 */
+		private long countFrames(ByteBuffer audio, int start) {
+			int sideInfo = mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+			int xing = start + 4 + sideInfo;
+			if (xing + 12 <= audio.limit() && (tagAt(audio, xing, "Xing") || tagAt(audio, xing, "Info"))) {
+				if ((audio.getInt(xing + 4) & 1) != 0) {
+					return audio.getInt(xing + 8) & 0xffffffffL;
+				}
+				return 0;
+			}
+			int vbri = start + 4 + 32;
+			if (vbri + 18 <= audio.limit() && tagAt(audio, vbri, "VBRI")) {
+				return audio.getInt(vbri + 14) & 0xffffffffL;
+			}
+			return 0;
+		}
+	}
+
+	private static boolean tagAt(ByteBuffer buffer, int offset, String tag) {
+		for (int i = 0; i < tag.length(); i++) {
+			if (buffer.get(offset + i) != tag.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(Math.max(0, length));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static int syncSafe(ByteBuffer buffer, int offset) {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			value = (value << 7) | (buffer.get(offset + i) & 0x7f);
+		}
+		return value;
+	}
+
+	private static String latin1(ByteBuffer buffer, int offset, int length) {
+		String text = new String(buffer.array(), offset, length, StandardCharsets.ISO_8859_1);
+		int end = text.indexOf('\0');
+		return (end < 0 ? text : text.substring(0, end)).trim();
+	}
+
+	private static String blankToNull(String text) {
+		return text == null || text.isBlank() ? null : text.trim();
+	}
+}
@@ -0,0 +1,194 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hashes passwords with PBKDF2 (HMAC-SHA256) and a random salt, so the saved
+ * accounts don't give away anyone's password. The cost is the number of
+ * iterations: each doubling doubles the time taken to check a password, for a
+ * user logging in and for anyone guessing. Checking a password takes a
+ * noticeable fraction of a second at the default cost, so it should be done
+ * off the JavaFX application thread (see PasswordVerifier).
+ *
+ * Hashes are stored as "pbkdf2$iterations$salt$hash", with the salt and hash
+ * in Base64. Because the iterations are part of the hash, changing the cost
+ * only affects passwords hashed afterwards, and older hashes still check.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class PasswordHasher {
+
+	/**
+	 * Iterations used if no cost is given, as recommended for PBKDF2 with
+	 * HMAC-SHA256 at the time of writing.
+	 */
+	public static final int DEFAULT_ITERATIONS = 210000;
+
+	private static final String PREFIX = "pbkdf2$";
+	private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+	private static final int SALT_BYTES = 16;
+	private static final int HASH_BITS = 256;
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private static volatile PasswordHasher defaultHasher = new PasswordHasher(DEFAULT_ITERATIONS);
+
+	private int iterations;
+
+	/**
+	 * Creates a new PasswordHasher.
+	 *
+	 * @param iterations : integer representing the cost of hashing a password.
+	 */
+	public PasswordHasher(int iterations) {
+		if (iterations < 1) {
+			throw new IllegalArgumentException("Need at least one iteration: " + iterations);
+		}
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Retrieves the hasher used for accounts that weren't given one, at the
+	 * default cost unless changed with setDefault().
+	 *
+	 * @return PasswordHasher used by default.
+	 */
+	public static PasswordHasher getDefault() {
+		return defaultHasher;
+	}
+
+	/**
+	 * Changes the hasher used for accounts that weren't given one.
+	 *
+	 * @param hasher : PasswordHasher to be used by default.
+	 */
+	public static void setDefault(PasswordHasher hasher) {
+		defaultHasher = hasher;
+	}
+
+	/**
+	 * Retrieves the cost of hashing a password.
+	 *
+	 * @return integer representing the number of iterations.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Hashes a password with a new random salt.
+	 *
+	 * @param password : String representing the password.
+	 * @return String holding the salt, the cost, and the hash.
+	 */
+	public String hash(String password) {
+		byte[] salt = new byte[SALT_BYTES];
+		RANDOM.nextBytes(salt);
+		Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+		return PREFIX + iterations + "$" + base64.encodeToString(salt) + "$"
+				+ base64.encodeToString(pbkdf2(password, salt, iterations));
+	}
+
+	/**
+	 * Checks whether a hash was made with a lower cost than this hasher's, so
+	 * the password should be hashed again the next time it is known.
+	 *
+	 * @param hash : String returned by hash().
+	 * @return boolean representing whether the hash is weaker than this hasher
+	 *         makes. true if it is, false otherwise.
+	 */
+	public boolean needsRehash(String hash) {
+		String[] parts = split(hash);
+		return parts == null || Integer.parseInt(parts[1]) < iterations;
+	}
+
+	/**
+	 * Checks a password against a hash. Takes as long as the hash was costly to
+	 * make, and compares in constant time.
+	 *
+	 * @param password : String representing the password to check.
+	 * @param hash     : String returned by hash().
+	 * @return boolean representing whether the password matches. true if it
+	 *         does, false otherwise (including if the hash isn't one).
+	 */
+	public static boolean verify(String password, String hash) {
+		String[] parts = split(hash);
+		if (parts == null || password == null) {
+			return false;
+		}
+		Base64.Decoder base64 = Base64.getDecoder();
+		byte[] expected = base64.decode(parts[3]);
+		byte[] actual = pbkdf2(password, base64.decode(parts[2]), Integer.parseInt(parts[1]));
+		return MessageDigest.isEqual(expected, actual);
+	}
+
+	/**
+	 * Checks whether a stored password is a hash, rather than a plain text
+	 * password saved by an older version.
+	 *
+	 * @param stored : String representing the stored password.
+	 * @return boolean representing whether it is a hash. true if it is, false
+	 *         otherwise.
+	 */
+	public static boolean isHash(String stored) {
+		return split(stored) != null;
+	}
+
+	/**
+	 * Compares a password with a plain text one saved by an older version, in
+	 * constant time.
+	 *
+	 * @param password : String representing the password to check.
+	 * @param stored   : String representing the saved plain text password.
+	 * @return boolean representing whether they match. true if they do, false
+	 *         otherwise.
+	 */
+	static boolean matchesPlainText(String password, String stored) {
+		if (password == null || stored == null) {
+			return false;
+		}
+		return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Splits a hash into its parts, or gives null if it isn't well formed.
+	 */
+	private static String[] split(String hash) {
+		if (hash == null || !hash.startsWith(PREFIX)) {
+			return null;
+		}
+		String[] parts = hash.split("\\$");
+		if (parts.length != 4) {
+			return null;
+		}
+		try {
+			Base64.Decoder base64 = Base64.getDecoder();
+			base64.decode(parts[2]);
+			base64.decode(parts[3]);
+			return Integer.parseInt(parts[1]) > 0 ? parts : null;
+		} catch (IllegalArgumentException err) {
+			return null;
+		}
+	}
+
+	private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+		char[] chars = password.toCharArray();
+		PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, HASH_BITS);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		} catch (GeneralSecurityException err) {
+			// every Java 8+ runtime provides this algorithm
+			throw new IllegalStateException(ALGORITHM + " isn't available", err);
+		} finally {
+			spec.clearPassword();
+			Arrays.fill(chars, '\0');
+		}
+	}
+}
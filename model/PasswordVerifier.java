@@ -0,0 +1,109 @@
+package model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs log ins and account creation on a small pool of background threads,
+ * because hashing a password (see PasswordHasher) takes too long to do on the
+ * JavaFX application thread. Results come back as CompletableFutures.
+ *
+ * The pool is bounded in both threads and waiting requests. Hashing is pure
+ * CPU work, so more threads than cores wouldn't check passwords any faster,
+ * and if more requests arrive than can wait, the extra ones fail right away
+ * with a RejectedExecutionException instead of piling up.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class PasswordVerifier {
+
+	/**
+	 * Threads in the pool if no number is given: half the cores, leaving the
+	 * rest for playback and the display.
+	 */
+	public static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+	/**
+	 * Requests that may wait for a thread if no number is given.
+	 */
+	public static final int DEFAULT_QUEUE = 64;
+
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * Creates a new PasswordVerifier with the default number of threads and
+	 * waiting requests.
+	 */
+	public PasswordVerifier() {
+		this(DEFAULT_THREADS, DEFAULT_QUEUE);
+	}
+
+	/**
+	 * Creates a new PasswordVerifier.
+	 *
+	 * @param threads : integer representing the most passwords checked at once.
+	 * @param queue   : integer representing the most requests that may wait for
+	 *                a thread.
+	 */
+	public PasswordVerifier(int threads, int queue) {
+		if (threads < 1 || queue < 1) {
+			throw new IllegalArgumentException("Need at least one thread and queue slot: " + threads + ", " + queue);
+		}
+		AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue),
+				(task) -> {
+					Thread thread = new Thread(task, "password-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Checks a username and password in the background (see
+	 * AccountStore.authenticate()).
+	 *
+	 * @param accounts : AccountStore holding the accounts.
+	 * @param username : String representing the inputted username.
+	 * @param password : String representing the inputted password.
+	 * @return CompletableFuture completed with the JukeboxAccount that was
+	 *         logged in, or null if the username or password is wrong.
+	 */
+	public CompletableFuture<JukeboxAccount> logIn(AccountStore accounts, String username, String password) {
+		return submit(() -> accounts.authenticate(username, password));
+	}
+
+	/**
+	 * Creates a new account in the background (see AccountStore.create()).
+	 *
+	 * @param accounts : AccountStore holding the accounts.
+	 * @param username : String representing username of the new account.
+	 * @param password : String representing password of the new account.
+	 * @return CompletableFuture completed with the JukeboxAccount that was
+	 *         created, or null if the username is taken.
+	 */
+	public CompletableFuture<JukeboxAccount> createAccount(AccountStore accounts, String username, String password) {
+		return submit(() -> accounts.create(username, password));
+	}
+
+	private <T> CompletableFuture<T> submit(Supplier<T> work) {
+		try {
+			return CompletableFuture.supplyAsync(work, executor);
+		} catch (RejectedExecutionException err) {
+			return CompletableFuture.failedFuture(err);
+		}
+	}
+
+	/**
+	 * Stops the threads once the requests already made are done. No more
+	 * requests are accepted.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,611 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Records every song that starts playing, for licensing reports and to see
+ * what gets played. Each play is appended to history.log as a small record of
+ * when it started and the ids of the song, account and zone it was played
+ * for. Songs, accounts and zones are given ids by the log itself the first
+ * time they appear, with a record holding the song's title, artist, duration
+ * and file name, or the account's or zone's name. A play takes 29 bytes on
+ * disk, and means the same song however the catalog is reordered or changed
+ * later. Records are written by the JournalWriter's background thread in
+ * batches, never on the thread playing the songs, and unlike the other
+ * journals the log is never emptied.
+ *
+ * Counts are kept up to date as plays are recorded: plays of each song on
+ * each day, plays by each account, and plays in each hour of the day. Every
+ * so often they are written to history.snapshot along with how much of the
+ * log they cover, so opening the log only replays the plays recorded since,
+ * and no query reads the log at all.
+ *
+ * Days and hours are in the time zone given when the log was created.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class PlayHistoryLog implements Checkpointable {
+
+	private static final byte PLAY = 1;
+	private static final byte ACCOUNT = 2;
+	private static final byte ZONE = 3;
+	private static final byte SONG = 4;
+	private static final int NOBODY = -1;
+	private static final int SNAPSHOT_MAGIC = 0x4A424831; // "JBH1"
+	private static final int SNAPSHOT_VERSION = 1;
+	private static final int DEFAULT_SNAPSHOT_EVERY = 10000;
+
+	private Path snapshotFile;
+	private Path logFile;
+	private ZoneId timeZone;
+	private JournalWriter log;
+
+	// songs and names and the ids given to them, in the order they were first
+	// seen
+	private ArrayList<Song> songs = new ArrayList<>();
+	private HashMap<Song, Integer> songIds = new HashMap<>();
+	private ArrayList<String> accountNames = new ArrayList<>();
+	private HashMap<String, Integer> accountIds = new HashMap<>();
+	private ArrayList<String> zoneNames = new ArrayList<>();
+	private HashMap<String, Integer> zoneIds = new HashMap<>();
+
+	// the counts, all guarded by this
+	private long plays;
+	private TreeMap<Integer, IntCounts> playsPerDay = new TreeMap<>(); // by epoch day, then song id
+	private int[] playsPerAccount = new int[16]; // by account id
+	private long[] playsPerHour = new long[24];
+
+	/**
+	 * Creates a new PlayHistoryLog using history.log as the log and
+	 * history.snapshot as the snapshot, counting days in the system's time
+	 * zone.
+	 */
+	public PlayHistoryLog() {
+		this(Paths.get("history.snapshot"), Paths.get("history.log"), ZoneId.systemDefault(),
+				DEFAULT_SNAPSHOT_EVERY);
+	}
+
+	/**
+	 * Creates a new PlayHistoryLog with the specified files.
+	 *
+	 * @param snapshotFile  : Path representing the file holding the counts.
+	 * @param logFile       : Path representing the file plays are appended to.
+	 * @param timeZone      : ZoneId representing the time zone days and hours
+	 *                      are counted in.
+	 * @param snapshotEvery : integer representing how many records are
+	 *                      appended before the counts are written to the
+	 *                      snapshot.
+	 */
+	public PlayHistoryLog(Path snapshotFile, Path logFile, ZoneId timeZone, int snapshotEvery) {
+		this.snapshotFile = snapshotFile;
+		this.logFile = logFile;
+		this.timeZone = timeZone;
+		log = new JournalWriter(logFile, "history", snapshotEvery, this::compact);
+	}
+
+	/**
+	 * Reads the counts from the snapshot and replays the plays logged after
+	 * it, then starts appending new plays to the log.
+	 */
+	public void open() {
+		long start = readSnapshot();
+		long length = 0;
+		try {
+			length = Files.size(logFile);
+		} catch (IOException err) {
+			// no log yet
+		}
+		if (start > length) {
+			// the log was replaced since the snapshot was taken
+			clearCounts();
+			start = 0;
+		}
+		log.open(this::apply, start);
+		log.start();
+	}
+
+	/**
+	 * Makes a listener that records the plays of one zone's queue.
+	 *
+	 * @param zone : String representing the name of the zone.
+	 * @return PlayListListener to be added to the zone's queue.
+	 */
+	public PlayListListener listenerFor(String zone) {
+		return new PlayListListener() {
+			@Override
+			public void songQueued(Song song) {
+			}
+
+			@Override
+			public void songStarted(Song song) {
+				recordPlay(song, null, zone, System.currentTimeMillis());
+			}
+
+			@Override
+			public void entryStarted(QueueEntry entry) {
+				recordPlay(entry.getSong(), entry.getAccount(), zone, System.currentTimeMillis());
+			}
+
+			@Override
+			public void songFinished(Song song) {
+			}
+		};
+	}
+
+	/**
+	 * Records that a song started playing. Returns once the play is counted and
+	 * handed to the background writer, so it never waits for the disk.
+	 *
+	 * @param song       : Song that started playing.
+	 * @param account    : JukeboxAccount that asked for it, or null if nobody
+	 *                   did.
+	 * @param zone       : String representing the name of the zone it played
+	 *                   in.
+	 * @param timeMillis : long representing when it started, in milliseconds
+	 *                   since the epoch.
+	 */
+	public synchronized void recordPlay(Song song, JukeboxAccount account, String zone, long timeMillis) {
+		int accountId = account == null ? NOBODY : idOf(account.getUsername(), accountIds, accountNames, ACCOUNT);
+		int zoneId = idOf(zone, zoneIds, zoneNames, ZONE);
+		int songId = idOf(song);
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(21);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(PLAY);
+			out.writeLong(timeMillis);
+			out.writeInt(songId);
+			out.writeInt(accountId);
+			out.writeInt(zoneId);
+			log.append(bytes.toByteArray());
+		} catch (IOException err) {
+			// writing to a byte array can't fail
+			throw new IllegalStateException(err);
+		}
+		count(timeMillis, songId, accountId);
+	}
+
+	private int idOf(Song song) {
+		Integer id = songIds.get(song);
+		if (id != null) {
+			return id;
+		}
+		id = songs.size();
+		songIds.put(song, id);
+		songs.add(song);
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(SONG);
+			out.writeInt(id);
+			writeSong(out, song);
+			log.append(bytes.toByteArray());
+		} catch (IOException err) {
+			throw new IllegalStateException(err);
+		}
+		return id;
+	}
+
+	private int idOf(String name, HashMap<String, Integer> ids, ArrayList<String> names, byte type) {
+		Integer id = ids.get(name);
+		if (id != null) {
+			return id;
+		}
+		id = names.size();
+		ids.put(name, id);
+		names.add(name);
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(type);
+			out.writeInt(id);
+			out.writeUTF(name);
+			log.append(bytes.toByteArray());
+		} catch (IOException err) {
+			throw new IllegalStateException(err);
+		}
+		return id;
+	}
+
+	private void count(long timeMillis, int songId, int accountId) {
+		ZonedDateTime time = Instant.ofEpochMilli(timeMillis).atZone(timeZone);
+		int day = (int) time.toLocalDate().toEpochDay();
+		IntCounts counts = playsPerDay.get(day);
+		if (counts == null) {
+			counts = new IntCounts();
+			playsPerDay.put(day, counts);
+		}
+		counts.add(songId, 1);
+		if (accountId != NOBODY) {
+			if (accountId >= playsPerAccount.length) {
+				playsPerAccount = Arrays.copyOf(playsPerAccount, Math.max(accountId + 1, playsPerAccount.length * 2));
+			}
+			playsPerAccount[accountId]++;
+		}
+		playsPerHour[time.getHour()]++;
+		plays++;
+	}
+
+	/**
+	 * Retrieves the number of plays recorded.
+	 *
+	 * @return long representing how many songs have started playing.
+	 */
+	public synchronized long size() {
+		return plays;
+	}
+
+	/**
+	 * Counts the plays of a song on a day. Takes O(1) time.
+	 *
+	 * @param song : Song to be counted.
+	 * @param day  : LocalDate representing the day, in the log's time zone.
+	 * @return integer representing how many times the song started playing
+	 *         that day.
+	 */
+	public synchronized int getPlays(Song song, LocalDate day) {
+		Integer id = songIds.get(song);
+		IntCounts counts = playsPerDay.get((int) day.toEpochDay());
+		return id == null || counts == null ? 0 : counts.get(id);
+	}
+
+	/**
+	 * Counts the plays of every song played on a day.
+	 *
+	 * @param day : LocalDate representing the day, in the log's time zone.
+	 * @return LinkedHashMap from each Song played that day, whether or not it
+	 *         is still in the catalog, to how many times it played, most played
+	 *         first.
+	 */
+	public synchronized LinkedHashMap<Song, Integer> getPlaysPerSong(LocalDate day) {
+		ArrayList<Map.Entry<Song, Integer>> counted = new ArrayList<>();
+		IntCounts counts = playsPerDay.get((int) day.toEpochDay());
+		if (counts != null) {
+			for (int id : counts.keys()) {
+				counted.add(Map.entry(songs.get(id), counts.get(id)));
+			}
+		}
+		return mostFirst(counted);
+	}
+
+	/**
+	 * Lists the days with plays recorded.
+	 *
+	 * @return List of LocalDates, earliest first.
+	 */
+	public synchronized List<LocalDate> getDays() {
+		ArrayList<LocalDate> days = new ArrayList<>(playsPerDay.size());
+		for (int day : playsPerDay.keySet()) {
+			days.add(LocalDate.ofEpochDay(day));
+		}
+		return days;
+	}
+
+	/**
+	 * Counts the songs played for an account. Takes O(1) time.
+	 *
+	 * @param username : String representing the account's username.
+	 * @return integer representing how many songs it asked for have started
+	 *         playing.
+	 */
+	public synchronized int getPlaysBy(String username) {
+		Integer id = accountIds.get(username);
+		return id == null ? 0 : playsPerAccount[id];
+	}
+
+	/**
+	 * Counts the songs played for every account.
+	 *
+	 * @return LinkedHashMap from each username to how many songs it asked for
+	 *         have started playing, most first.
+	 */
+	public synchronized LinkedHashMap<String, Integer> getPlaysPerAccount() {
+		ArrayList<Map.Entry<String, Integer>> counted = new ArrayList<>(accountNames.size());
+		for (int id = 0; id < accountNames.size(); id++) {
+			counted.add(Map.entry(accountNames.get(id), playsPerAccount[id]));
+		}
+		return mostFirst(counted);
+	}
+
+	/**
+	 * Counts the plays in each hour of the day, over every day recorded.
+	 *
+	 * @return long array of 24 counts, for midnight to 1 a.m. first.
+	 */
+	public synchronized long[] getPlaysPerHour() {
+		return playsPerHour.clone();
+	}
+
+	/**
+	 * Finds the hours of the day with the most plays.
+	 *
+	 * @param count : integer representing how many hours to give.
+	 * @return List of Integers representing hours of the day (0 to 23), busiest
+	 *         first. Hours with the same number of plays are given earliest
+	 *         first.
+	 */
+	public synchronized List<Integer> getBusiestHours(int count) {
+		ArrayList<Integer> hours = new ArrayList<>(24);
+		for (int hour = 0; hour < 24; hour++) {
+			hours.add(hour);
+		}
+		hours.sort((a, b) -> Long.compare(playsPerHour[b], playsPerHour[a]));
+		return hours.subList(0, Math.max(0, Math.min(count, 24)));
+	}
+
+	private static <K> LinkedHashMap<K, Integer> mostFirst(ArrayList<Map.Entry<K, Integer>> counted) {
+		counted.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+		LinkedHashMap<K, Integer> result = new LinkedHashMap<>();
+		for (Map.Entry<K, Integer> entry : counted) {
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Waits until every play so far has been written to disk.
+	 */
+	public void flush() {
+		log.flush();
+	}
+
+	/**
+	 * Counts the records logged since the counts were last written to the
+	 * snapshot.
+	 *
+	 * @return integer representing the number of records since the last
+	 *         checkpoint.
+	 */
+	@Override
+	public int getDirtyRecords() {
+		return log.getDirtyRecords();
+	}
+
+	/**
+	 * Writes out everything still pending and writes the counts to the
+	 * snapshot. The log itself is kept.
+	 */
+	@Override
+	public void checkpoint() {
+		log.checkpoint();
+	}
+
+	/**
+	 * Flushes the log and stops the background writer.
+	 */
+	public void close() {
+		log.close();
+	}
+
+	private synchronized void apply(DataInputStream record) throws IOException {
+		byte type = record.readByte();
+		if (type == PLAY) {
+			long time = record.readLong();
+			int songId = record.readInt();
+			int accountId = record.readInt();
+			record.readInt(); // the zone isn't counted
+			count(time, songId, accountId);
+		} else if (type == SONG) {
+			int id = record.readInt();
+			Song song = readSong(record);
+			songIds.put(song, id);
+			songs.add(song);
+		} else {
+			int id = record.readInt();
+			String name = record.readUTF();
+			if (type == ACCOUNT) {
+				accountIds.put(name, id);
+				accountNames.add(name);
+			} else {
+				zoneIds.put(name, id);
+				zoneNames.add(name);
+			}
+		}
+	}
+
+	private void clearCounts() {
+		songs.clear();
+		songIds.clear();
+		accountNames.clear();
+		accountIds.clear();
+		zoneNames.clear();
+		zoneIds.clear();
+		plays = 0;
+		playsPerDay.clear();
+		playsPerAccount = new int[16];
+		playsPerHour = new long[24];
+	}
+
+	/**
+	 * Writes the counts to the snapshot, along with the length of the log they
+	 * cover. Run by the JournalWriter while it holds its lock, so the length
+	 * covers only whole batches. Plays are counted as soon as they are
+	 * recorded, so if some are still waiting to be written the counts are
+	 * ahead of the log, and the snapshot is left for the next time.
+	 */
+	private void compact() {
+		long covered = log.length();
+		if (covered < 0) {
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			DataOutputStream out = new DataOutputStream(bytes);
+			synchronized (this) {
+				if (log.getUnwritten() > 0) {
+					return;
+				}
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeLong(covered);
+				out.writeLong(plays);
+				out.writeInt(songs.size());
+				for (Song song : songs) {
+					writeSong(out, song);
+				}
+				writeNames(out, accountNames);
+				writeNames(out, zoneNames);
+				for (int id = 0; id < accountNames.size(); id++) {
+					out.writeInt(playsPerAccount[id]);
+				}
+				for (long hour : playsPerHour) {
+					out.writeLong(hour);
+				}
+				out.writeInt(playsPerDay.size());
+				for (Map.Entry<Integer, IntCounts> day : playsPerDay.entrySet()) {
+					IntCounts counts = day.getValue();
+					out.writeInt(day.getKey());
+					out.writeInt(counts.size());
+					for (int id : counts.keys()) {
+						out.writeInt(id);
+						out.writeInt(counts.get(id));
+					}
+				}
+			}
+			CRC32 crc = new CRC32();
+			crc.update(bytes.toByteArray());
+			out.writeInt((int) crc.getValue());
+		} catch (IOException err) {
+			throw new IllegalStateException(err);
+		}
+
+		Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+		try {
+			Files.write(temp, bytes.toByteArray());
+			Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.snapshotTaken();
+		} catch (IOException err) {
+			System.out.println("Couldn't write to file");
+		}
+	}
+
+	private static void writeSong(DataOutputStream out, Song song) throws IOException {
+		writeString(out, song.getTitle());
+		writeString(out, song.getArtist());
+		out.writeInt((int) (song.getDurationMilliseconds() / 1000));
+		writeString(out, song.getFileName());
+	}
+
+	private static Song readSong(DataInputStream in) throws IOException {
+		String title = readString(in);
+		String artist = readString(in);
+		int duration = in.readInt();
+		return new Song(title, artist, duration, readString(in));
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeNames(DataOutputStream out, ArrayList<String> names) throws IOException {
+		out.writeInt(names.size());
+		for (String name : names) {
+			out.writeUTF(name);
+		}
+	}
+
+	/**
+	 * Reads the counts from the snapshot.
+	 *
+	 * @return long representing the length of the log the snapshot covers, or 0
+	 *         if there is no valid snapshot.
+	 */
+	private synchronized long readSnapshot() {
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(snapshotFile);
+		} catch (NoSuchFileException err) {
+			return 0;
+		} catch (IOException err) {
+			System.out.println("Couldn't read from file");
+			return 0;
+		}
+		if (bytes.length < 12) {
+			System.out.println("History snapshot is not valid");
+			return 0;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length - 4);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		if (buffer.getInt(0) != SNAPSHOT_MAGIC || buffer.getInt(4) != SNAPSHOT_VERSION
+				|| (int) crc.getValue() != buffer.getInt(bytes.length - 4)) {
+			System.out.println("History snapshot is not valid");
+			return 0;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 8, bytes.length - 12));
+			long covered = in.readLong();
+			plays = in.readLong();
+			int songCount = in.readInt();
+			for (int id = 0; id < songCount; id++) {
+				Song song = readSong(in);
+				songs.add(song);
+				songIds.put(song, id);
+			}
+			readNames(in, accountNames, accountIds);
+			readNames(in, zoneNames, zoneIds);
+			playsPerAccount = new int[Math.max(16, accountNames.size())];
+			for (int id = 0; id < accountNames.size(); id++) {
+				playsPerAccount[id] = in.readInt();
+			}
+			for (int hour = 0; hour < 24; hour++) {
+				playsPerHour[hour] = in.readLong();
+			}
+			int days = in.readInt();
+			for (int i = 0; i < days; i++) {
+				int day = in.readInt();
+				int count = in.readInt();
+				IntCounts counts = new IntCounts();
+				for (int j = 0; j < count; j++) {
+					int id = in.readInt();
+					counts.add(id, in.readInt());
+				}
+				playsPerDay.put(day, counts);
+			}
+			return covered;
+		} catch (IOException err) {
+			System.out.println("History snapshot is not valid");
+			clearCounts();
+			return 0;
+		}
+	}
+
+	private static void readNames(DataInputStream in, ArrayList<String> names, HashMap<String, Integer> ids)
+			throws IOException {
+		int count = in.readInt();
+		for (int id = 0; id < count; id++) {
+			String name = in.readUTF();
+			names.add(name);
+			ids.put(name, id);
+		}
+	}
+}
@@ -1,92 +1,716 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-import controller_view.SongSelectionPlaylistPane;
-
-import java.io.Serializable;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.net.URI;
-
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
+import java.nio.file.Paths;
 
 /**
- * PlayList accepts songs to add to a queue to play. It also plays songs in a
- * separate thread in the background with a 2-second delay.
+ * PlayList accepts songs to add to a queue to play. It also plays songs in the
+ * background, with a gap between songs (2 seconds unless changed with
+ * setGapMillis()). The gap is waited out with a timed callback from the
+ * backend's PlaybackScheduler, so no thread (in particular not the JavaFX
+ * application thread) sleeps through it, and it can be skipped, paused, or
+ * cancelled while it is pending.
+ * 
+ * The songs are played by a PlaybackBackend, and anything interested in what
+ * is playing registers as a PlayListListener, so the PlayList runs the same
+ * with or without a GUI. While a song plays, the backend is told which song
+ * comes next so it can load it ahead of time. How long each switch from one
+ * song to the next takes (not counting the gap) is measured and can be read
+ * with getLastTransitionNanos() and getAverageTransitionNanos(). How long songs
+ * wait in the queue, and how long it takes from one song ending to the next
+ * starting, are recorded in JukeboxMetrics.
+ * 
+ * Each request is kept as a QueueEntry saying which account asked for it, and
+ * a QueuePolicy decides which one plays next: in the order they were asked
+ * for (FifoPolicy, the default), taking turns between accounts
+ * (RoundRobinPolicy), or sharing play time between accounts
+ * (WeightedFairPolicy). The songs in the queue are also kept in a hash index,
+ * so a DuplicatePolicy can turn away, coalesce, or cool down requests for a
+ * song already queued in constant time.
  * 
  * @author Adrianna Koppes
  * @since March 12 2023
  */
 
-public class PlayList implements Serializable {
+public class PlayList {
 
-	private LinkedBlockingQueue<Song> songs;
-	private SongSelectionPlaylistPane display;
+	/**
+	 * The gap between songs if none is set.
+	 */
+	public static final long DEFAULT_GAP_MILLIS = 2000;
+
+	/**
+	 * How long a song must have finished before it can be requested again under
+	 * DuplicatePolicy.COOLDOWN, if no other time is set.
+	 */
+	public static final long DEFAULT_COOLDOWN_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+	private QueuePolicy queue; // the songs waiting, not the one playing
+	private QueueEntry head; // the song playing, or stopped and to be played again
+	private long nextSeq;
+	// every song waiting or playing, with how many times it is queued
+	private HashMap<Song, Queued> index = new HashMap<>();
+	// when songs last finished under COOLDOWN, oldest first, forgotten once
+	// they have cooled down
+	private LinkedHashMap<Song, Long> finishedAt = new LinkedHashMap<>();
+	private DuplicatePolicy duplicates = DuplicatePolicy.ALLOW;
+	private long cooldownNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_COOLDOWN_MILLIS);
+	private CooldownClock cooldownClock = CooldownClock.system();
+	private PlaybackBackend backend;
+	private CopyOnWriteArrayList<PlayListListener> listeners;
 	private Song curr;
-	private Media media;
-	private static MediaPlayer mediaPlayer;
+	private volatile long gapMillis;
+	private long lastTransitionNanos;
+	private long totalTransitionNanos;
+	private int transitions;
+	private long plays; // identifies the Waiter of the song playing
+	private PlaybackScheduler.Timer gap;
+	private long gaps; // identifies the pending gap
+	private long gapDueNanos;
+	private long gapLeftNanos = -1; // -1 unless a gap is paused
+	private long endedNanos; // when the last song ended, 0 once the next started
 
 	/**
-	 * Sets up a new PlayList with the specified observer.
+	 * Sets up a new PlayList that plays songs with the specified backend.
 	 * 
-	 * @param songPane : SongSelectionPlaylistPane object observing the playlist.
+	 * @param backend : PlaybackBackend that plays the songs.
 	 */
-	public PlayList(SongSelectionPlaylistPane songPane) {
-		display = songPane;
-		songs = new LinkedBlockingQueue<>();
-		curr = null;
-		media = null;
-		mediaPlayer = null;
+	public PlayList(PlaybackBackend backend) {
+		this(backend, new LinkedBlockingQueue<>());
 	}
 
 	/**
-	 * Sets up a new PlayList with the specified observer and song queue.
+	 * Sets up a new PlayList with the specified backend and song queue.
 	 * 
-	 * @param songPane : SongSelectionPlaylistPane object observing the playlist.
-	 * @param prev     : LinkedBlockingQueue of Songs representing an old playlist
-	 *                 that is being restored.
+	 * @param backend : PlaybackBackend that plays the songs.
+	 * @param prev    : LinkedBlockingQueue of Songs representing an old playlist
+	 *                that is being restored.
 	 */
-	public PlayList(SongSelectionPlaylistPane songPane, LinkedBlockingQueue<Song> prev) {
-		display = songPane;
-		songs = prev;
+	public PlayList(PlaybackBackend backend, LinkedBlockingQueue<Song> prev) {
+		this.backend = backend;
+		queue = new FifoPolicy();
+		for (Song song : prev) {
+			QueueEntry entry = new QueueEntry(song, null, nextSeq++, 0);
+			queue.add(entry);
+			indexAdd(entry);
+		}
+		listeners = new CopyOnWriteArrayList<>();
 		curr = null;
-		media = null;
-		mediaPlayer = null;
+		gapMillis = DEFAULT_GAP_MILLIS;
 	}
 
 	/**
-	 * Adds a song to the queue.
+	 * Sets how long to wait after a song finishes before the next one starts.
+	 * 
+	 * @param gapMillis : long representing the gap in milliseconds. 0 starts the
+	 *                  next song as soon as the last one ends.
+	 */
+	public void setGapMillis(long gapMillis) {
+		if (gapMillis < 0) {
+			throw new IllegalArgumentException("Gap can't be negative: " + gapMillis);
+		}
+		this.gapMillis = gapMillis;
+	}
+
+	/**
+	 * Retrieves how long the playlist waits between songs.
+	 * 
+	 * @return long representing the gap in milliseconds.
+	 */
+	public long getGapMillis() {
+		return gapMillis;
+	}
+
+	/**
+	 * Changes how the waiting songs are ordered. The songs already waiting are
+	 * handed to the new policy in the order they were asked for.
+	 * 
+	 * @param policy : QueuePolicy with nothing in it yet.
+	 */
+	public synchronized void setQueuePolicy(QueuePolicy policy) {
+		if (policy.size() != 0) {
+			throw new IllegalArgumentException("Policy already holds songs");
+		}
+		ArrayList<QueueEntry> waiting = new ArrayList<>(queue.inPlayOrder());
+		waiting.sort((one, two) -> Long.compare(one.getSeq(), two.getSeq()));
+		for (QueueEntry entry : waiting) {
+			policy.add(entry);
+		}
+		queue = policy;
+		prepareNext();
+	}
+
+	/**
+	 * Retrieves how the waiting songs are ordered.
+	 * 
+	 * @return QueuePolicy holding the waiting songs.
+	 */
+	public synchronized QueuePolicy getQueuePolicy() {
+		return queue;
+	}
+
+	/**
+	 * Changes what happens when a song is requested that is already waiting or
+	 * playing.
+	 * 
+	 * @param policy : DuplicatePolicy to be followed from now on.
+	 */
+	public synchronized void setDuplicatePolicy(DuplicatePolicy policy) {
+		duplicates = policy;
+		if (policy != DuplicatePolicy.COOLDOWN) {
+			finishedAt.clear();
+		}
+	}
+
+	/**
+	 * Retrieves what happens when a song is requested that is already waiting
+	 * or playing.
+	 * 
+	 * @return DuplicatePolicy being followed.
+	 */
+	public synchronized DuplicatePolicy getDuplicatePolicy() {
+		return duplicates;
+	}
+
+	/**
+	 * Sets how long a song must have finished before it can be requested again
+	 * under DuplicatePolicy.COOLDOWN.
+	 * 
+	 * @param cooldownMillis : long representing the cooldown in milliseconds.
+	 */
+	public synchronized void setDuplicateCooldownMillis(long cooldownMillis) {
+		if (cooldownMillis < 0) {
+			throw new IllegalArgumentException("Cooldown can't be negative: " + cooldownMillis);
+		}
+		cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+	}
+
+	/**
+	 * Retrieves how long a song must have finished before it can be requested
+	 * again under DuplicatePolicy.COOLDOWN.
+	 * 
+	 * @return long representing the cooldown in milliseconds.
+	 */
+	public synchronized long getDuplicateCooldownMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(cooldownNanos);
+	}
+
+	/**
+	 * Sets the clock the cooldown of DuplicatePolicy.COOLDOWN is measured with.
+	 * Songs already cooling down are forgotten, since their times came from the
+	 * old clock.
+	 * 
+	 * @param clock : CooldownClock to be used from now on.
+	 */
+	public synchronized void setCooldownClock(CooldownClock clock) {
+		if (clock == null) {
+			throw new IllegalArgumentException("Cooldown clock can't be null");
+		}
+		cooldownClock = clock;
+		finishedAt.clear();
+	}
+
+	/**
+	 * Checks if the DuplicatePolicy would turn any of the songs away, because
+	 * it is already queued, finished too recently, or appears twice in the
+	 * list. Takes O(1) time per song, however long the queue is.
+	 * 
+	 * @param songsToAdd : List of Songs that might be requested together.
+	 * @return boolean representing whether queueing the songs would be refused.
+	 *         true if it would, false otherwise.
+	 */
+	public synchronized boolean rejects(List<Song> songsToAdd) {
+		if (duplicates != DuplicatePolicy.REJECT && duplicates != DuplicatePolicy.COOLDOWN) {
+			return false;
+		}
+		HashSet<Song> batch = new HashSet<>();
+		for (Song song : songsToAdd) {
+			if (index.containsKey(song) || !batch.add(song)) {
+				return true;
+			}
+			if (duplicates == DuplicatePolicy.COOLDOWN && finishedRecently(song)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts how many of the songs the DuplicatePolicy would coalesce instead of
+	 * queueing: those already waiting, and those appearing earlier in the list.
+	 * The song playing is never coalesced into, so a request for it queues it
+	 * again.
+	 * 
+	 * @param songsToAdd : List of Songs that might be requested together.
+	 * @return integer representing how many of the songs would be coalesced.
+	 */
+	public synchronized int coalesces(List<Song> songsToAdd) {
+		if (duplicates != DuplicatePolicy.COALESCE) {
+			return 0;
+		}
+		HashSet<Song> batch = new HashSet<>();
+		int coalesced = 0;
+		for (Song song : songsToAdd) {
+			if (!batch.add(song) || waitingEntry(song) != null) {
+				coalesced++;
+			}
+		}
+		return coalesced;
+	}
+
+	/**
+	 * Retrieves the entry more requests for a song are coalesced into: the last
+	 * one queued, as long as it is still waiting.
+	 */
+	private QueueEntry waitingEntry(Song song) {
+		Queued queued = index.get(song);
+		if (queued == null || queued.entry == head) {
+			return null;
+		}
+		return queued.entry;
+	}
+
+	private boolean finishedRecently(Song song) {
+		forgetCooledDown();
+		return finishedAt.containsKey(song);
+	}
+
+	/**
+	 * Drops the songs that finished longer ago than the cooldown, from the
+	 * oldest, so only songs still cooling down are remembered.
+	 */
+	private void forgetCooledDown() {
+		long now = cooldownClock.nanoTime();
+		Iterator<Long> oldest = finishedAt.values().iterator();
+		while (oldest.hasNext() && now - oldest.next() >= cooldownNanos) {
+			oldest.remove();
+		}
+	}
+
+	/**
+	 * Registers a listener to be told when songs are queued, start, and finish.
+	 * 
+	 * @param listener : PlayListListener to be added.
+	 */
+	public void addListener(PlayListListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Stops telling a listener about the playlist.
+	 * 
+	 * @param listener : PlayListListener to be removed.
+	 */
+	public void removeListener(PlayListListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Adds a song to the queue, requested by nobody in particular.
+	 * 
+	 * @param songToAdd : Song object to be added to the queue.
+	 * @return boolean representing whether the song was queued (or coalesced
+	 *         with the same song already queued). false if the DuplicatePolicy
+	 *         turned it away.
+	 */
+	public boolean queueUpNextSong(Song songToAdd) {
+		return queueUpNextSong(songToAdd, null);
+	}
+
+	/**
+	 * Adds a song to the queue on behalf of an account. Where it goes depends on
+	 * the QueuePolicy, and whether it goes in at all if it is already queued on
+	 * the DuplicatePolicy.
 	 * 
 	 * @param songToAdd : Song object to be added to the queue.
+	 * @param account   : JukeboxAccount that asked for it, or null if nobody
+	 *                  did.
+	 * @return boolean representing whether the song was queued (or coalesced
+	 *         with the same song already queued). false if the DuplicatePolicy
+	 *         turned it away.
+	 */
+	public boolean queueUpNextSong(Song songToAdd, JukeboxAccount account) {
+		return queueUp(Collections.singletonList(songToAdd), account, true);
+	}
+
+	/**
+	 * Adds several songs to the queue in one step, and tells the listeners about
+	 * all of them at once (see PlayListListener.songsQueued()). With FifoPolicy
+	 * no other song can end up between them. If the DuplicatePolicy turns any
+	 * of them away, none are queued.
+	 * 
+	 * @param songsToAdd : List of Songs to be added, in order.
+	 * @return boolean representing whether the songs were queued. false if the
+	 *         DuplicatePolicy turned them away.
 	 */
-	public void queueUpNextSong(Song songToAdd) {
-		songs.add(songToAdd);
+	public boolean queueUpNextSongs(List<Song> songsToAdd) {
+		return queueUpNextSongs(songsToAdd, null);
 	}
 
 	/**
-	 * Starts the thread that plays the songs.
+	 * Adds several songs to the queue in one step on behalf of an account. See
+	 * queueUpNextSongs(List).
 	 * 
-	 * Thanks to TA Aditya Jadhav for helping with this.
+	 * @param songsToAdd : List of Songs to be added, in order.
+	 * @param account    : JukeboxAccount that asked for them, or null if nobody
+	 *                   did.
+	 * @return boolean representing whether the songs were queued. false if the
+	 *         DuplicatePolicy turned them away.
 	 */
-	public void play() {
-		if (songs.isEmpty()) {
+	public boolean queueUpNextSongs(List<Song> songsToAdd, JukeboxAccount account) {
+		return queueUp(songsToAdd, account, true);
+	}
+
+	/**
+	 * Puts back the songs of a saved queue, whatever the DuplicatePolicy, so the
+	 * queue is restored exactly as it was.
+	 * 
+	 * @param saved : List of Songs representing the saved queue, front first.
+	 */
+	void queueUpSavedSongs(List<Song> saved) {
+		queueUp(saved, null, false);
+	}
+
+	private synchronized boolean queueUp(List<Song> songsToAdd, JukeboxAccount account, boolean checkDuplicates) {
+		if (songsToAdd.isEmpty()) {
+			return true;
+		}
+		if (checkDuplicates && rejects(songsToAdd)) {
+			return false;
+		}
+		long now = System.nanoTime();
+		ArrayList<QueueEntry> added = new ArrayList<>(songsToAdd.size());
+		ArrayList<QueueEntry> coalesced = new ArrayList<>(0);
+		boolean coalesce = checkDuplicates && duplicates == DuplicatePolicy.COALESCE;
+		QueueEntry next = queue.peek();
+		for (Song song : songsToAdd) {
+			QueueEntry waiting = coalesce ? waitingEntry(song) : null;
+			if (waiting != null) {
+				waiting.addRequest(account);
+				coalesced.add(waiting);
+				continue;
+			}
+			QueueEntry entry = new QueueEntry(song, account, nextSeq++, now);
+			queue.add(entry);
+			indexAdd(entry);
+			added.add(entry);
+		}
+		if (queue.peek() != next) {
+			prepareNext();
+		}
+		// told while holding the lock, like starts and finishes, so listeners
+		// always hear that an entry was queued before that it started
+		for (PlayListListener listener : listeners) {
+			if (!added.isEmpty()) {
+				listener.entriesQueued(added);
+			}
+			for (QueueEntry entry : coalesced) {
+				listener.entryCoalesced(entry);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * How many times a song is waiting or playing, and the entry to coalesce
+	 * more requests for it into.
+	 */
+	private static class Queued {
+		private QueueEntry entry; // null if that one was taken off and others remain
+		private int copies;
+	}
+
+	private void indexAdd(QueueEntry entry) {
+		Queued queued = index.get(entry.getSong());
+		if (queued == null) {
+			queued = new Queued();
+			index.put(entry.getSong(), queued);
+		}
+		queued.entry = entry;
+		queued.copies++;
+	}
+
+	/**
+	 * Takes an entry that finished (or was skipped) out of the index.
+	 */
+	private void indexRemove(QueueEntry entry) {
+		Queued queued = index.get(entry.getSong());
+		if (queued == null) {
+			return;
+		}
+		if (--queued.copies == 0) {
+			index.remove(entry.getSong());
+			if (duplicates == DuplicatePolicy.COOLDOWN) {
+				// moved to the end, so the map stays in order of finishing
+				finishedAt.remove(entry.getSong());
+				finishedAt.put(entry.getSong(), cooldownClock.nanoTime());
+				forgetCooledDown();
+			}
+		} else if (queued.entry == entry) {
+			queued.entry = null;
+		}
+	}
+
+	/**
+	 * Starts playing the song at the front of the queue. Once it finishes, the
+	 * following songs play one after another until the queue is empty.
+	 */
+	public synchronized void play() {
+		cancelGap();
+		if (head == null) {
+			head = queue.poll();
+		}
+		if (head == null) {
+			curr = null;
+			return;
+		}
+		curr = head.getSong();
+		backend.play(curr, new Waiter(++plays));
+		long queued = head.takeQueuedNanos();
+		if (queued != 0) {
+			JukeboxMetrics.getDefault().getEnqueueToPlay().recordSince(queued);
+		}
+		prepareNext();
+		for (PlayListListener listener : listeners) {
+			listener.entryStarted(head);
+		}
+	}
+
+	/**
+	 * Tells the backend about the song that plays next, so it is loaded by the
+	 * time it is needed: the one the QueuePolicy would choose now.
+	 */
+	private synchronized void prepareNext() {
+		if (curr == null) {
+			return;
+		}
+		QueueEntry next = queue.peek();
+		backend.prepare(next == null ? null : next.getSong());
+	}
+
+	/**
+	 * Called when the song playing has ended. Takes it off the queue and starts
+	 * the gap before the next song, or the next song itself if there is no gap.
+	 */
+	private synchronized void songEnded(long play) {
+		if (play != plays || curr == null) {
+			return; // stopped or skipped since this song started
+		}
+		QueueEntry finished = head;
+		head = null;
+		indexRemove(finished);
+		endedNanos = System.nanoTime();
+		for (PlayListListener listener : listeners) {
+			listener.entryFinished(finished);
+		}
+		if (queue.size() == 0) {
+			curr = null;
+		} else if (gapMillis == 0) {
+			startNext();
+		} else {
+			startGap(TimeUnit.MILLISECONDS.toNanos(gapMillis));
+		}
+	}
+
+	private void startGap(long nanos) {
+		long id = ++gaps;
+		gapDueNanos = System.nanoTime() + nanos;
+		gapLeftNanos = -1;
+		gap = backend.getScheduler().schedule(() -> gapEnded(id), TimeUnit.NANOSECONDS.toMillis(nanos));
+	}
+
+	private synchronized void gapEnded(long id) {
+		if (id != gaps || gap == null) {
+			return; // cancelled after the timer fired
+		}
+		gap = null;
+		startNext();
+	}
+
+	/**
+	 * Starts the next song at the end of a gap, measuring how long it takes.
+	 */
+	private void startNext() {
+		long start = System.nanoTime();
+		play();
+		if (curr != null) {
+			lastTransitionNanos = System.nanoTime() - start;
+			totalTransitionNanos += lastTransitionNanos;
+			transitions++;
+			if (endedNanos != 0) {
+				JukeboxMetrics.getDefault().getSongChange().recordSince(endedNanos);
+				endedNanos = 0;
+			}
+		}
+	}
+
+	private void cancelGap() {
+		if (gap != null) {
+			gap.cancel();
+			gap = null;
+		}
+		gaps++;
+		gapLeftNanos = -1;
+	}
+
+	/**
+	 * Checks if the playlist is in the gap between two songs, whether or not the
+	 * gap is paused.
+	 * 
+	 * @return boolean representing whether the next song is waiting for the gap
+	 *         to end. true if it is, false otherwise.
+	 */
+	public synchronized boolean isGapPending() {
+		return gap != null || gapLeftNanos >= 0;
+	}
+
+	/**
+	 * Checks if the gap between two songs has been paused.
+	 * 
+	 * @return boolean representing whether the gap is paused. true if it is,
+	 *         false otherwise.
+	 */
+	public synchronized boolean isGapPaused() {
+		return gapLeftNanos >= 0;
+	}
+
+	/**
+	 * Pauses the gap between two songs, so the next song won't start until
+	 * resumeGap() is called.
+	 * 
+	 * @return boolean representing whether there was a running gap to pause.
+	 *         true if there was, false otherwise.
+	 */
+	public synchronized boolean pauseGap() {
+		if (gap == null) {
+			return false;
+		}
+		long left = Math.max(0, gapDueNanos - System.nanoTime());
+		cancelGap();
+		gapLeftNanos = left;
+		return true;
+	}
+
+	/**
+	 * Resumes a paused gap. The next song starts once the rest of the gap has
+	 * passed.
+	 * 
+	 * @return boolean representing whether there was a paused gap to resume.
+	 *         true if there was, false otherwise.
+	 */
+	public synchronized boolean resumeGap() {
+		if (gapLeftNanos < 0) {
+			return false;
+		}
+		startGap(gapLeftNanos);
+		return true;
+	}
+
+	/**
+	 * Skips ahead to the next song right away. During a gap (paused or not) this
+	 * ends the gap early. While a song is playing it stops that song and takes
+	 * it off the queue.
+	 */
+	public synchronized void skip() {
+		if (isGapPending()) {
+			startNext();
 			return;
 		}
-		curr = songs.peek();
-		String path = "songfiles/" + curr.getFileName();
-		File file = new File(path);
-		URI uri = file.toURI();
-		media = new Media(uri.toString());
-		mediaPlayer = new MediaPlayer(media);
-		mediaPlayer.play();
-		display.showPlayingSong();
-		mediaPlayer.setOnEndOfMedia(new Waiter());
+		if (curr == null) {
+			return;
+		}
+		backend.stop();
+		plays++;
+		QueueEntry skipped = head;
+		head = null;
+		indexRemove(skipped);
+		for (PlayListListener listener : listeners) {
+			listener.entryFinished(skipped);
+		}
+		play();
+	}
+
+	/**
+	 * Retrieves the song that is playing.
+	 * 
+	 * @return Song that is playing, or null if nothing is.
+	 */
+	public synchronized Song getCurrentSong() {
+		return curr;
+	}
+
+	/**
+	 * Checks if a song is playing (or between songs, about to play). During a
+	 * gap getCurrentSong() still gives the song that just finished.
+	 * 
+	 * @return boolean representing whether the playlist is playing. true if it
+	 *         is, false otherwise.
+	 */
+	public synchronized boolean isPlaying() {
+		return curr != null;
+	}
+
+	/**
+	 * Retrieves the number of songs in the queue, including the one playing.
+	 * 
+	 * @return integer representing the length of the queue.
+	 */
+	public synchronized int size() {
+		return queue.size() + (head == null ? 0 : 1);
+	}
+
+	/**
+	 * Stops playing, and cancels the gap if the playlist is between songs. The
+	 * queue is kept, and play() starts it again from the song that was playing
+	 * (or the one that was about to).
+	 */
+	public synchronized void stop() {
+		cancelGap();
+		backend.stop();
+		plays++;
+		curr = null;
+	}
+
+	/**
+	 * Retrieves how long the most recent switch from one song to the next took,
+	 * from the end of the gap until the next song was playing.
+	 * 
+	 * @return long representing the time in nanoseconds, or 0 if no song has
+	 *         followed another yet.
+	 */
+	public synchronized long getLastTransitionNanos() {
+		return lastTransitionNanos;
+	}
+
+	/**
+	 * Retrieves the average time taken to switch from one song to the next, not
+	 * counting the gap.
+	 * 
+	 * @return long representing the time in nanoseconds, or 0 if no song has
+	 *         followed another yet.
+	 */
+	public synchronized long getAverageTransitionNanos() {
+		return transitions == 0 ? 0 : totalTransitionNanos / transitions;
+	}
+
+	/**
+	 * Retrieves how many times one song has followed another.
+	 * 
+	 * @return integer representing the number of measured transitions.
+	 */
+	public synchronized int getTransitionCount() {
+		return transitions;
 	}
 
 	/**
@@ -96,37 +720,49 @@ public class PlayList implements Serializable {
 	 *         empty, false otherwise.
 	 */
 	public boolean playListEmpty() {
-		return songs.isEmpty();
+		return size() == 0;
 	}
 
+	/**
+	 * Saves the song queue, including the song playing, to playlist.ser (see
+	 * ModelCodec). The PlayList itself isn't saved; a new one is given the songs
+	 * when the queue is restored.
+	 */
 	public void writeSongQueue() {
-		FileOutputStream bytesToDisk;
 		try {
-			bytesToDisk = new FileOutputStream("playlist.ser");
-			ObjectOutputStream outFile = new ObjectOutputStream(bytesToDisk);
-
-			outFile.writeObject(songs);
-
-			outFile.close();
-		} catch (FileNotFoundException err) {
-			System.out.println("Output file not found");
+			ModelCodec.writeSongs(Paths.get("playlist.ser"), getSongsAsList());
 		} catch (IOException err) {
-			err.printStackTrace();
+			System.out.println("Couldn't write to file");
 		}
 	}
 
 	/**
-	 * Gives the entire song queue as an ArrayList. Necessary for persistence.
+	 * Gives the entire song queue as an ArrayList, in the order the songs would
+	 * play if nothing else were queued. Necessary for persistence.
 	 * 
 	 * @return ArrayList of Songs representing the current song queue.
 	 */
 	public ArrayList<Song> getSongsAsList() {
-		ArrayList<Song> songsList = new ArrayList<>();
-		Song[] tempSongsList = songs.toArray(new Song[2]);
-		for (int i = 0; i < tempSongsList.length; i++) {
-			songsList.add(tempSongsList[i]);
+		ArrayList<Song> songs = new ArrayList<>();
+		for (QueueEntry entry : getEntries()) {
+			songs.add(entry.getSong());
+		}
+		return songs;
+	}
+
+	/**
+	 * Gives the entire queue, with who asked for each song, in the order the
+	 * songs would play if nothing else were queued.
+	 * 
+	 * @return ArrayList of QueueEntries, the one playing first.
+	 */
+	public synchronized ArrayList<QueueEntry> getEntries() {
+		ArrayList<QueueEntry> entries = new ArrayList<>(size());
+		if (head != null) {
+			entries.add(head);
 		}
-		return songsList;
+		entries.addAll(queue.inPlayOrder());
+		return entries;
 	}
 
 	/**
@@ -137,19 +773,20 @@ public class PlayList implements Serializable {
 	 */
 	private class Waiter implements Runnable {
 
+		private long play;
+
+		Waiter(long play) {
+			this.play = play;
+		}
+
 		/**
 		 * Runs the necessary actions for what should be done after a song finishes
-		 * playing. First pauses for two seconds, and then plays the next song.
+		 * playing. Starts the gap, after which the next song plays. Returns right
+		 * away, so it is safe to run on the JavaFX application thread.
 		 */
 		@Override
 		public void run() {
-			try {
-				Thread.sleep(2000);
-			} catch (InterruptedException e) {
-			}
-			songs.poll();
-			display.songOver();
-			play();
+			songEnded(play);
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,389 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Saves the song queue as it changes, so it survives a crash. Registered as a
+ * PlayListListener, it appends a small record every time a song is queued or
+ * finishes, holding the song's id in the SongList (see SongList.idOf()) rather
+ * than the whole Song. Each queued song gets a sequence number, and the record
+ * for a finished song names the one that finished, since a QueuePolicy may
+ * play songs in a different order than they were queued.
+ *
+ * Like the AccountJournal, records are checksummed and written in batches with
+ * one fsync each (see JournalWriter), and every so often the whole queue is
+ * written to a binary snapshot and the journal is emptied. Opening reads the
+ * snapshot and replays the journal, which takes milliseconds even for a queue
+ * of 100,000 songs.
+ *
+ * Ids stay the same from one run to the next, even for a library scanned from
+ * the song folder (see LibraryScanner). Every entry also holds the song's hash
+ * code, so if a song has been deleted or changed since the queue was saved,
+ * it is dropped (and the number dropped is printed) instead of a different
+ * song being played by mistake.
+ *
+ * The saved queue is kept in memory as primitive longs (see SavedQueue), and
+ * each request's sequence number is kept on its QueueEntry, so a long queue
+ * costs 16 bytes a song here rather than several boxed objects.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class PlayListJournal implements PlayListListener, Checkpointable {
+
+	private static final byte ENQUEUE = 1;
+	private static final byte DEQUEUE = 2;
+	private static final int SNAPSHOT_MAGIC = 0x4A425131; // "JBQ1"
+	private static final int SNAPSHOT_VERSION = 1;
+	private static final int DEFAULT_COMPACT_EVERY = 10000;
+
+	private SongList catalog;
+	private Path snapshotFile;
+	private JournalWriter journal;
+	// the saved queue: sequence number -> id in the high half, hash in the low
+	private SavedQueue entries = new SavedQueue();
+	private long nextSeq;
+	private boolean foundSaved;
+	// sequence numbers of the restored songs, which were queued before this
+	// journal was listening, in the order they were saved
+	private long[] restored = new long[0];
+	private int nextRestored;
+
+	/**
+	 * Creates a new PlayListJournal using playlist.snapshot as the snapshot and
+	 * playlist.journal as the journal.
+	 *
+	 * @param catalog : SongList that gives the songs their ids.
+	 */
+	public PlayListJournal(SongList catalog) {
+		this(catalog, Paths.get("playlist.snapshot"), Paths.get("playlist.journal"), DEFAULT_COMPACT_EVERY);
+	}
+
+	/**
+	 * Creates a new PlayListJournal with the specified files.
+	 *
+	 * @param catalog      : SongList that gives the songs their ids.
+	 * @param snapshotFile : Path representing the file holding the compacted
+	 *                     queue.
+	 * @param journalFile  : Path representing the file changes are appended to.
+	 * @param compactEvery : integer representing how many records are appended
+	 *                     before the journal is compacted into the snapshot.
+	 */
+	public PlayListJournal(SongList catalog, Path snapshotFile, Path journalFile, int compactEvery) {
+		this.catalog = catalog;
+		this.snapshotFile = snapshotFile;
+		journal = new JournalWriter(journalFile, "playlist", compactEvery, this::compact);
+	}
+
+	/**
+	 * Reads the saved queue, by reading the snapshot and replaying the journal
+	 * on top of it, then starts appending new changes to the journal.
+	 *
+	 * @return ArrayList of Songs representing the saved queue, front first.
+	 */
+	public ArrayList<Song> open() {
+		readSnapshot();
+		if (journal.open(this::apply) > 0) {
+			foundSaved = true;
+		}
+		journal.start();
+		synchronized (this) {
+			long[] seqs = entries.seqs();
+			long[] values = entries.values();
+			ArrayList<Song> songs = new ArrayList<>(seqs.length);
+			restored = new long[seqs.length];
+			nextRestored = 0;
+			int kept = 0;
+			for (int i = 0; i < seqs.length; i++) {
+				Song song = catalog.getById((int) (values[i] >> 32));
+				if (song == null || song.hashCode() != (int) values[i]) {
+					entries.remove(seqs[i]); // the catalog changed; skip the song
+				} else {
+					songs.add(song);
+					restored[kept++] = seqs[i];
+				}
+			}
+			restored = Arrays.copyOf(restored, kept);
+			if (kept < seqs.length) {
+				System.out.println("Couldn't restore " + (seqs.length - kept) + " songs no longer in the catalog");
+			}
+			return songs;
+		}
+	}
+
+	/**
+	 * Checks if open() found a saved queue, even an empty one.
+	 *
+	 * @return boolean representing whether there was a snapshot or journal to
+	 *         read. true if there was, false otherwise.
+	 */
+	public boolean foundSaved() {
+		return foundSaved;
+	}
+
+	/**
+	 * Records that a song was added to the end of the queue.
+	 *
+	 * @param song : Song that was queued.
+	 */
+	@Override
+	public synchronized void songQueued(Song song) {
+		record(song);
+	}
+
+	/**
+	 * Records that several songs were added to the back of the queue, holding
+	 * the lock once for all of them.
+	 *
+	 * @param songs : List of Songs that were queued, in order.
+	 */
+	@Override
+	public synchronized void songsQueued(List<Song> songs) {
+		for (Song song : songs) {
+			songQueued(song);
+		}
+	}
+
+	/**
+	 * Records that songs were added to the queue, remembering which sequence
+	 * number each request got.
+	 *
+	 * @param queued : List of QueueEntries that were queued, in order.
+	 */
+	@Override
+	public synchronized void entriesQueued(List<QueueEntry> queued) {
+		for (QueueEntry entry : queued) {
+			entry.journalSeq = record(entry.getSong());
+		}
+	}
+
+	private long record(Song song) {
+		// a song that isn't in the catalog gets id -1 and is skipped on restore,
+		// but still takes its place in the queue
+		int id = catalog.idOf(song);
+		long seq = nextSeq++;
+		long entry = ((long) id << 32) | (song.hashCode() & 0xFFFFFFFFL);
+		entries.put(seq, entry);
+		journal.append(encode(ENQUEUE, seq, entry));
+		return seq;
+	}
+
+	@Override
+	public void songStarted(Song song) {
+	}
+
+	/**
+	 * Records that the song at the front of the queue finished (or was skipped).
+	 *
+	 * @param song : Song that finished.
+	 */
+	@Override
+	public synchronized void songFinished(Song song) {
+		long seq = entries.removeFirst();
+		if (seq < 0) {
+			return;
+		}
+		journal.append(encode(DEQUEUE, seq, 0));
+	}
+
+	/**
+	 * Records that a particular request finished (or was skipped), wherever it
+	 * was in the queue.
+	 *
+	 * @param entry : QueueEntry of the song that finished.
+	 */
+	@Override
+	public synchronized void entryFinished(QueueEntry entry) {
+		long seq = entry.journalSeq;
+		if (seq < 0) {
+			// restored songs are requested by nobody, so they play in the order
+			// they were saved
+			if (nextRestored == restored.length) {
+				return;
+			}
+			seq = restored[nextRestored++];
+		}
+		entry.journalSeq = -1;
+		if (!entries.remove(seq)) {
+			return;
+		}
+		journal.append(encode(DEQUEUE, seq, 0));
+	}
+
+	/**
+	 * Forgets the saved queue, for when the user chooses not to restore it.
+	 */
+	public void discard() {
+		synchronized (this) {
+			entries.clear();
+			restored = new long[0];
+			nextRestored = 0;
+		}
+		journal.checkpoint();
+	}
+
+	/**
+	 * Waits until every change so far has been written to disk.
+	 */
+	public void flush() {
+		journal.flush();
+	}
+
+	/**
+	 * Counts the changes not yet compacted into the snapshot.
+	 *
+	 * @return integer representing the number of records since the last
+	 *         checkpoint.
+	 */
+	@Override
+	public int getDirtyRecords() {
+		return journal.getDirtyRecords();
+	}
+
+	/**
+	 * Writes out everything still pending and compacts the journal into the
+	 * snapshot.
+	 */
+	@Override
+	public void checkpoint() {
+		journal.checkpoint();
+	}
+
+	/**
+	 * Flushes the journal and stops the background writer.
+	 */
+	public void close() {
+		journal.close();
+	}
+
+	/**
+	 * Retrieves the number of songs in the saved queue.
+	 *
+	 * @return integer representing the length of the queue.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private byte[] encode(byte type, long seq, long entry) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(17);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(type);
+			out.writeLong(seq);
+			if (type == ENQUEUE) {
+				out.writeLong(entry);
+			}
+			return bytes.toByteArray();
+		} catch (IOException err) {
+			// writing to a byte array can't fail
+			throw new IllegalStateException(err);
+		}
+	}
+
+	private synchronized void apply(DataInputStream record) throws IOException {
+		byte type = record.readByte();
+		long seq = record.readLong();
+		if (type == ENQUEUE) {
+			entries.put(seq, record.readLong());
+			nextSeq = Math.max(nextSeq, seq + 1);
+		} else {
+			entries.remove(seq);
+		}
+	}
+
+	/**
+	 * Rewrites the snapshot from the queue in memory and empties the journal.
+	 * Run by the JournalWriter while it holds its lock, so no batch is written
+	 * halfway through.
+	 */
+	private void compact() {
+		ByteBuffer snapshot;
+		synchronized (this) {
+			snapshot = ByteBuffer.allocate(24 + entries.size() * 16 + 4);
+			snapshot.putInt(SNAPSHOT_MAGIC);
+			snapshot.putInt(SNAPSHOT_VERSION);
+			snapshot.putLong(nextSeq);
+			snapshot.putInt(entries.size());
+			snapshot.putInt(0); // reserved
+			long[] seqs = entries.seqs();
+			long[] values = entries.values();
+			for (int i = 0; i < seqs.length; i++) {
+				snapshot.putLong(seqs[i]);
+				snapshot.putLong(values[i]);
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(snapshot.array(), 0, snapshot.position());
+		snapshot.putInt((int) crc.getValue());
+		snapshot.flip();
+
+		Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (snapshot.hasRemaining()) {
+				out.write(snapshot);
+			}
+			out.force(true);
+		} catch (IOException err) {
+			System.out.println("Couldn't write to file");
+			return;
+		}
+		try {
+			Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			journal.truncate();
+		} catch (IOException err) {
+			System.out.println("Couldn't replace snapshot file");
+		}
+	}
+
+	private synchronized void readSnapshot() {
+		ByteBuffer snapshot;
+		try {
+			snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+		} catch (NoSuchFileException err) {
+			return;
+		} catch (IOException err) {
+			System.out.println("Couldn't read from file");
+			return;
+		}
+		foundSaved = true;
+		if (snapshot.remaining() < 28 || snapshot.getInt(0) != SNAPSHOT_MAGIC
+				|| snapshot.getInt(4) != SNAPSHOT_VERSION) {
+			System.out.println("Playlist snapshot is not valid");
+			return;
+		}
+		int count = snapshot.getInt(16);
+		int length = 24 + count * 16;
+		if (count < 0 || snapshot.remaining() != length + 4) {
+			System.out.println("Playlist snapshot is not valid");
+			return;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(snapshot.array(), 0, length);
+		if ((int) crc.getValue() != snapshot.getInt(length)) {
+			System.out.println("Playlist snapshot is not valid");
+			return;
+		}
+		nextSeq = snapshot.getLong(8);
+		snapshot.position(24);
+		for (int i = 0; i < count; i++) {
+			entries.put(snapshot.getLong(), snapshot.getLong());
+		}
+	}
+}
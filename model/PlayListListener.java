@@ -0,0 +1,104 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Observer of a PlayList. Front ends such as the GUI implement this to find out
+ * what is playing without the PlayList knowing anything about them. Methods
+ * may be called from any thread, so GUI listeners must hand the work to their
+ * own UI thread.
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface PlayListListener {
+
+	/**
+	 * Called when a song is added to the queue.
+	 *
+	 * @param song : Song that was queued.
+	 */
+	void songQueued(Song song);
+
+	/**
+	 * Called when several songs are added to the queue at once, so
+	 * a listener can handle them in one go (for example with one update to a
+	 * GUI). Calls songQueued() for each song unless overridden.
+	 *
+	 * @param songs : List of Songs that were queued, in order.
+	 */
+	default void songsQueued(List<Song> songs) {
+		for (Song song : songs) {
+			songQueued(song);
+		}
+	}
+
+	/**
+	 * Called with the QueueEntries of songs added to the queue, for listeners
+	 * that need to know who asked for each song, or which request a finished
+	 * song was. Calls songQueued() for one entry and songsQueued() for several
+	 * unless overridden.
+	 *
+	 * @param entries : List of QueueEntries that were queued, in order.
+	 */
+	default void entriesQueued(List<QueueEntry> entries) {
+		if (entries.size() == 1) {
+			songQueued(entries.get(0).getSong());
+			return;
+		}
+		ArrayList<Song> songs = new ArrayList<>(entries.size());
+		for (QueueEntry entry : entries) {
+			songs.add(entry.getSong());
+		}
+		songsQueued(songs);
+	}
+
+	/**
+	 * Called when a request for a song already waiting is counted on its entry
+	 * instead of queueing the song again (see DuplicatePolicy.COALESCE). Does
+	 * nothing unless overridden.
+	 *
+	 * @param entry : QueueEntry the request was counted on, whose
+	 *              getRequestCount() includes it.
+	 */
+	default void entryCoalesced(QueueEntry entry) {
+	}
+
+	/**
+	 * Called when a song starts playing. It is the song at the front of the
+	 * queue.
+	 *
+	 * @param song : Song that started playing.
+	 */
+	void songStarted(Song song);
+
+	/**
+	 * Called with the QueueEntry of a song that started playing, for listeners
+	 * that need to know who asked for it. Calls songStarted() unless
+	 * overridden.
+	 *
+	 * @param entry : QueueEntry of the song that started playing.
+	 */
+	default void entryStarted(QueueEntry entry) {
+		songStarted(entry.getSong());
+	}
+
+	/**
+	 * Called when a song has finished playing and been taken off the front of
+	 * the queue.
+	 *
+	 * @param song : Song that finished.
+	 */
+	void songFinished(Song song);
+
+	/**
+	 * Called with the QueueEntry of a song that has finished playing (or was
+	 * skipped). Calls songFinished() unless overridden.
+	 *
+	 * @param entry : QueueEntry of the song that finished.
+	 */
+	default void entryFinished(QueueEntry entry) {
+		songFinished(entry.getSong());
+	}
+}
@@ -0,0 +1,48 @@
+package model;
+
+/**
+ * Whatever actually plays the songs for a PlayList: JavaFX media in the GUI
+ * (FxPlaybackBackend), or a timer when running without a display
+ * (HeadlessPlaybackBackend).
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface PlaybackBackend {
+
+	/**
+	 * Starts playing a song, replacing whatever was playing before.
+	 *
+	 * @param song       : Song to be played.
+	 * @param onFinished : Runnable to be run once the song has played to the end.
+	 */
+	void play(Song song, Runnable onFinished);
+
+	/**
+	 * Tells the backend which song is likely to be played next, so it can load
+	 * it ahead of time while the current song plays. A later play() of the same
+	 * Song object should then start right away. Backends that have nothing to
+	 * load ignore this.
+	 *
+	 * @param next : Song that will probably be played next, or null if the queue
+	 *             has nothing after the current song.
+	 */
+	default void prepare(Song next) {
+	}
+
+	/**
+	 * Retrieves the scheduler the PlayList uses to wait out the gap between
+	 * songs. Its actions should run on the same thread as onFinished actions.
+	 *
+	 * @return PlaybackScheduler for this backend. Unless overridden, one shared
+	 *         daemon thread.
+	 */
+	default PlaybackScheduler getScheduler() {
+		return PlaybackScheduler.shared();
+	}
+
+	/**
+	 * Stops the song that is playing, without running its onFinished action.
+	 */
+	void stop();
+}
@@ -0,0 +1,76 @@
+package model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an action after a delay, without keeping a thread asleep in the
+ * meantime. The PlayList uses one to start the next song once the gap between
+ * songs has passed. Each PlaybackBackend supplies a scheduler that runs actions
+ * on the same thread as its end-of-song actions.
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface PlaybackScheduler {
+
+	/**
+	 * An action that has been scheduled and not run yet.
+	 */
+	interface Timer {
+
+		/**
+		 * Stops the action from running, if it hasn't started already.
+		 */
+		void cancel();
+	}
+
+	/**
+	 * Schedules an action.
+	 *
+	 * @param action      : Runnable to be run once the delay has passed.
+	 * @param delayMillis : long representing the delay in milliseconds.
+	 * @return Timer that can cancel the action.
+	 */
+	Timer schedule(Runnable action, long delayMillis);
+
+	/**
+	 * Creates a scheduler that runs actions on the specified executor's threads.
+	 *
+	 * @param executor : ScheduledExecutorService that runs the actions.
+	 * @return PlaybackScheduler backed by the executor.
+	 */
+	static PlaybackScheduler of(ScheduledExecutorService executor) {
+		return (action, delayMillis) -> {
+			ScheduledFuture<?> future = executor.schedule(action, delayMillis, TimeUnit.MILLISECONDS);
+			return () -> future.cancel(false);
+		};
+	}
+
+	/**
+	 * Retrieves a scheduler shared by every backend that has no thread of its
+	 * own. It runs actions on a single daemon thread.
+	 *
+	 * @return PlaybackScheduler shared by those backends.
+	 */
+	static PlaybackScheduler shared() {
+		return Shared.SCHEDULER;
+	}
+
+	/**
+	 * Holds the shared scheduler, so its thread is only started if it is used.
+	 */
+	class Shared {
+		private static final PlaybackScheduler SCHEDULER = of(
+				Executors.newSingleThreadScheduledExecutor((task) -> {
+					Thread thread = new Thread(task, "playback-scheduler");
+					thread.setDaemon(true);
+					return thread;
+				}));
+
+		private Shared() {
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One room that plays its own music: a queue of songs, the backend that plays
+ * them, and the listeners watching them. Zones share nothing with each other,
+ * so several can play at once in one program. Zones are made and removed by a
+ * ZoneManager.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class PlaybackZone {
+
+	private String name;
+	private PlaybackBackend backend;
+	private PlayList playList;
+
+	/**
+	 * Creates a new PlaybackZone with an empty queue.
+	 *
+	 * @param name    : String representing the name of the zone.
+	 * @param backend : PlaybackBackend that plays this zone's songs, used by no
+	 *                other zone.
+	 */
+	PlaybackZone(String name, PlaybackBackend backend) {
+		this.name = name;
+		this.backend = backend;
+		playList = new PlayList(backend);
+	}
+
+	/**
+	 * Queues up a song, and starts playing it if nothing is playing.
+	 *
+	 * @param song : Song to be played.
+	 * @return boolean representing whether the request was accepted. false if
+	 *         the playlist's DuplicatePolicy turned it away.
+	 */
+	public boolean request(Song song) {
+		return request(song, null);
+	}
+
+	/**
+	 * Queues up a song on behalf of an account, and starts playing it if nothing
+	 * is playing.
+	 *
+	 * @param song    : Song to be played.
+	 * @param account : JukeboxAccount that asked for it, or null if nobody did.
+	 * @return boolean representing whether the request was accepted. false if
+	 *         the playlist's DuplicatePolicy turned it away.
+	 */
+	public boolean request(Song song, JukeboxAccount account) {
+		synchronized (playList) {
+			if (!playList.queueUpNextSong(song, account)) {
+				return false;
+			}
+			if (!playList.isPlaying()) {
+				playList.play();
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Queues up several songs one after another, and starts playing the first if
+	 * nothing is playing.
+	 *
+	 * @param songs : List of Songs to be played, in order.
+	 * @return boolean representing whether the request was accepted. false if
+	 *         the playlist's DuplicatePolicy turned it away.
+	 */
+	public boolean requestAll(List<Song> songs) {
+		return requestAll(songs, null);
+	}
+
+	/**
+	 * Queues up several songs on behalf of an account, and starts playing if
+	 * nothing is playing.
+	 *
+	 * @param songs   : List of Songs to be played, in order.
+	 * @param account : JukeboxAccount that asked for them, or null if nobody
+	 *                did.
+	 * @return boolean representing whether the request was accepted. false if
+	 *         the playlist's DuplicatePolicy turned it away.
+	 */
+	public boolean requestAll(List<Song> songs, JukeboxAccount account) {
+		synchronized (playList) {
+			if (!playList.queueUpNextSongs(songs, account)) {
+				return false;
+			}
+			if (!playList.isPlaying()) {
+				playList.play();
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Puts back songs from a saved queue, whatever the DuplicatePolicy, and
+	 * starts playing if nothing is.
+	 *
+	 * @param saved : Collection of Songs representing the saved queue, front
+	 *              first.
+	 */
+	public void restore(Collection<Song> saved) {
+		synchronized (playList) {
+			playList.queueUpSavedSongs(new ArrayList<>(saved));
+			if (!playList.isPlaying()) {
+				playList.play();
+			}
+		}
+	}
+
+	/**
+	 * Registers a listener on this zone's queue.
+	 *
+	 * @param listener : PlayListListener to be told about the queue.
+	 */
+	public void addListener(PlayListListener listener) {
+		playList.addListener(listener);
+	}
+
+	/**
+	 * Stops telling a listener about this zone's queue.
+	 *
+	 * @param listener : PlayListListener to be removed.
+	 */
+	public void removeListener(PlayListListener listener) {
+		playList.removeListener(listener);
+	}
+
+	/**
+	 * Stops playing. Called by the ZoneManager when the zone is removed.
+	 */
+	void close() {
+		playList.stop();
+	}
+
+	/**
+	 * Retrieves the name of the zone.
+	 *
+	 * @return String representing the zone's name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Retrieves the zone's queue of songs.
+	 *
+	 * @return PlayList holding the zone's queue.
+	 */
+	public PlayList getPlayList() {
+		return playList;
+	}
+
+	/**
+	 * Retrieves the backend playing the zone's songs.
+	 *
+	 * @return PlaybackBackend used by this zone.
+	 */
+	public PlaybackBackend getBackend() {
+		return backend;
+	}
+}
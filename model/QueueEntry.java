@@ -0,0 +1,128 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * One request waiting in a PlayList: the song, the account that asked for it,
+ * and when it was queued. Entries are compared by identity, so the same song
+ * queued twice gives two entries, unless the PlayList's DuplicatePolicy
+ * coalesces them into one entry requested by several users.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class QueueEntry {
+
+	private final Song song;
+	private final JukeboxAccount account;
+	private final long seq;
+	private long queuedNanos; // 0 once the song has started, or if not known
+	private ArrayList<Object> alsoRequestedBy; // null unless coalesced
+	double finish; // virtual finish time, used by WeightedFairPolicy
+	long journalSeq = -1; // sequence number given by a PlayListJournal, if any
+
+	/**
+	 * Creates a new QueueEntry. Called by the PlayList when a song is queued.
+	 *
+	 * @param song        : Song that was requested.
+	 * @param account     : JukeboxAccount that requested it, or null if nobody
+	 *                    did (a restored queue, for example).
+	 * @param seq         : long representing the order it was queued in.
+	 * @param queuedNanos : long representing System.nanoTime() when it was
+	 *                    queued, or 0 if not known.
+	 */
+	QueueEntry(Song song, JukeboxAccount account, long seq, long queuedNanos) {
+		this.song = song;
+		this.account = account;
+		this.seq = seq;
+		this.queuedNanos = queuedNanos;
+	}
+
+	/**
+	 * Retrieves the song requested.
+	 *
+	 * @return Song to be played.
+	 */
+	public Song getSong() {
+		return song;
+	}
+
+	/**
+	 * Retrieves the account that requested the song.
+	 *
+	 * @return JukeboxAccount that requested it, or null if nobody did.
+	 */
+	public JukeboxAccount getAccount() {
+		return account;
+	}
+
+	/**
+	 * Retrieves the order the entry was queued in. Later entries in the same
+	 * PlayList have larger numbers.
+	 *
+	 * @return long representing the entry's place in the order of requests.
+	 */
+	public long getSeq() {
+		return seq;
+	}
+
+	/**
+	 * Retrieves how many users asked for the song. More than 1 if other
+	 * requests were coalesced into this one (see DuplicatePolicy.COALESCE).
+	 *
+	 * @return integer representing the number of users.
+	 */
+	public synchronized int getRequestCount() {
+		return 1 + (alsoRequestedBy == null ? 0 : alsoRequestedBy.size());
+	}
+
+	/**
+	 * Counts another request for the same song, unless it was made by a user
+	 * already counted.
+	 *
+	 * @param by : JukeboxAccount that asked for the song again, or null if
+	 *           nobody did.
+	 */
+	synchronized void addRequest(JukeboxAccount by) {
+		Object requester = by == null ? QueueEntry.class : by.getUsername();
+		if (requester.equals(requester())
+				|| (alsoRequestedBy != null && alsoRequestedBy.contains(requester))) {
+			return;
+		}
+		if (alsoRequestedBy == null) {
+			alsoRequestedBy = new ArrayList<>(2);
+		}
+		alsoRequestedBy.add(requester);
+	}
+
+	/**
+	 * Retrieves the key the queue policies group requests by: the account's
+	 * username, or one shared key for all the requests made by nobody.
+	 *
+	 * @return Object identifying who requested the song.
+	 */
+	Object requester() {
+		return account == null ? QueueEntry.class : account.getUsername();
+	}
+
+	/**
+	 * Takes the time the entry was queued, the first time its song starts.
+	 *
+	 * @return long representing System.nanoTime() when it was queued, or 0 if
+	 *         not known or already taken.
+	 */
+	long takeQueuedNanos() {
+		long queued = queuedNanos;
+		queuedNanos = 0; // only the first start counts
+		return queued;
+	}
+
+	@Override
+	public String toString() {
+		int requests = getRequestCount();
+		if (requests > 1) {
+			return song + " (requested by " + requests + " users)";
+		}
+		return song + (account == null ? "" : " for " + account.getUsername());
+	}
+}
@@ -0,0 +1,74 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Decides the order a PlayList plays its waiting requests in. The song playing
+ * isn't held by the policy: the PlayList takes the next entry with poll() when
+ * it starts it, so a policy only orders the songs still to come.
+ *
+ * Adding and taking an entry take O(log n) time or better with any number of
+ * entries waiting. A policy is used by one PlayList, which only calls it while
+ * holding its own lock.
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface QueuePolicy {
+
+	/**
+	 * Adds a request.
+	 *
+	 * @param entry : QueueEntry to be played at some point.
+	 */
+	void add(QueueEntry entry);
+
+	/**
+	 * Retrieves the request that would be played next, without taking it.
+	 *
+	 * @return QueueEntry to be played next, or null if none are waiting.
+	 */
+	QueueEntry peek();
+
+	/**
+	 * Takes the request to be played next.
+	 *
+	 * @return QueueEntry to be played next, or null if none are waiting.
+	 */
+	QueueEntry poll();
+
+	/**
+	 * Retrieves the number of requests waiting.
+	 *
+	 * @return integer representing the number of entries held.
+	 */
+	int size();
+
+	/**
+	 * Lists the requests waiting in the order they would be played if nothing
+	 * else were added. Takes O(n log n) time at most.
+	 *
+	 * @return List of QueueEntries, next to be played first.
+	 */
+	List<QueueEntry> inPlayOrder();
+
+	/**
+	 * Creates a policy by name, for choosing one in a setting.
+	 *
+	 * @param name : String representing the policy: "fifo", "round-robin" or
+	 *             "fair".
+	 * @return QueuePolicy with nothing waiting.
+	 */
+	static QueuePolicy named(String name) {
+		switch (name) {
+		case "fifo":
+			return new FifoPolicy();
+		case "round-robin":
+			return new RoundRobinPolicy();
+		case "fair":
+			return new WeightedFairPolicy();
+		default:
+			throw new IllegalArgumentException("Unknown queue policy: " + name);
+		}
+	}
+}
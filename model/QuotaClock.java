@@ -0,0 +1,76 @@
+package model;
+
+import java.util.TimeZone;
+
+/**
+ * Tells the quota engine what day it is, as a count of days since 1970-01-01
+ * (the same numbering as LocalDate.toEpochDay()). Tests can supply a
+ * ManualQuotaClock instead of the system clock.
+ *
+ * @author Adrianna Koppes
+ */
+
+public interface QuotaClock {
+
+	/**
+	 * Retrieves today's date.
+	 *
+	 * @return integer representing today as days since 1970-01-01.
+	 */
+	int today();
+
+	/**
+	 * Retrieves a clock that follows the system time in the default time zone.
+	 *
+	 * @return QuotaClock reading the system time.
+	 */
+	static QuotaClock system() {
+		return SystemClock.INSTANCE;
+	}
+
+	/**
+	 * Clock following the system time. The start and end of the current day are
+	 * remembered, so asking for the date allocates nothing and only has to do
+	 * any real work once a day.
+	 */
+	final class SystemClock implements QuotaClock {
+
+		private static final SystemClock INSTANCE = new SystemClock();
+		private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+		private TimeZone zone = TimeZone.getDefault();
+		private volatile Day current = new Day(0, 0, 0);
+
+		private SystemClock() {
+		}
+
+		@Override
+		public int today() {
+			long now = System.currentTimeMillis();
+			Day day = current;
+			if (now >= day.starts && now < day.ends) {
+				return day.epochDay;
+			}
+			long local = now + zone.getOffset(now);
+			int epochDay = (int) Math.floorDiv(local, DAY_MILLIS);
+			long starts = now - Math.floorMod(local, DAY_MILLIS);
+			// daylight saving changes can make a day shorter than 24 hours, so
+			// never assume the cached day lasts longer than until the next hour
+			long ends = Math.min(starts + DAY_MILLIS, now - Math.floorMod(now, 3600000L) + 3600000L);
+			current = new Day(epochDay, starts, ends);
+			return epochDay;
+		}
+
+		private static class Day {
+			private int epochDay;
+			private long starts;
+			private long ends;
+
+			private Day(int epochDay, long starts, long ends) {
+				this.epochDay = epochDay;
+				this.starts = starts;
+				this.ends = ends;
+			}
+		}
+	}
+}
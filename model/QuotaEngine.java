@@ -0,0 +1,106 @@
+package model;
+
+/**
+ * Decides how many songs an account may add per day, using an injectable clock
+ * and a configurable limit. Checks are lock free and allocate nothing (see
+ * DailyQuota), so they stay correct and fast when one user sends several
+ * requests at once.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class QuotaEngine {
+
+	/**
+	 * The number of songs each user may add per day unless configured otherwise.
+	 */
+	public static final int DEFAULT_DAILY_LIMIT = 3;
+
+	private static volatile QuotaEngine defaultEngine = new QuotaEngine(QuotaClock.system(), DEFAULT_DAILY_LIMIT);
+
+	private QuotaClock clock;
+	private int dailyLimit;
+
+	/**
+	 * Creates a new QuotaEngine.
+	 *
+	 * @param clock      : QuotaClock telling the engine what day it is.
+	 * @param dailyLimit : integer representing the most songs a user may add per
+	 *                   day.
+	 */
+	public QuotaEngine(QuotaClock clock, int dailyLimit) {
+		if (dailyLimit < 0) {
+			throw new IllegalArgumentException("Daily limit can't be negative: " + dailyLimit);
+		}
+		this.clock = clock;
+		this.dailyLimit = dailyLimit;
+	}
+
+	/**
+	 * Retrieves the engine used by accounts that weren't given one: the system
+	 * clock and three songs per day, unless changed with setDefault().
+	 *
+	 * @return QuotaEngine used by default.
+	 */
+	public static QuotaEngine getDefault() {
+		return defaultEngine;
+	}
+
+	/**
+	 * Changes the engine used by accounts that weren't given one.
+	 *
+	 * @param engine : QuotaEngine to be used by default.
+	 */
+	public static void setDefault(QuotaEngine engine) {
+		defaultEngine = engine;
+	}
+
+	/**
+	 * Creates a quota for a new account, with no songs added today.
+	 *
+	 * @return DailyQuota starting today.
+	 */
+	public DailyQuota newQuota() {
+		return new DailyQuota(clock.today());
+	}
+
+	/**
+	 * Counts songs against a quota, if they fit under today's limit.
+	 *
+	 * @param quota : DailyQuota of the account adding songs.
+	 * @param songs : integer representing how many songs are being added.
+	 * @return boolean representing whether the songs can be added. true if they
+	 *         can be, false otherwise.
+	 */
+	public boolean tryAdd(DailyQuota quota, int songs) {
+		return quota.tryAdd(clock.today(), dailyLimit, songs);
+	}
+
+	/**
+	 * Finds how many more songs fit under today's limit.
+	 *
+	 * @param quota : DailyQuota of the account.
+	 * @return integer representing the number of songs that can still be added.
+	 */
+	public int remaining(DailyQuota quota) {
+		return quota.remaining(clock.today(), dailyLimit);
+	}
+
+	/**
+	 * Retrieves today's date according to this engine's clock.
+	 *
+	 * @return integer representing today as days since 1970-01-01.
+	 */
+	public int today() {
+		return clock.today();
+	}
+
+	/**
+	 * Retrieves the most songs a user may add per day.
+	 *
+	 * @return integer representing the daily limit.
+	 */
+	public int getDailyLimit() {
+		return dailyLimit;
+	}
+}
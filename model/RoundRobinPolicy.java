@@ -0,0 +1,82 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Takes turns between the accounts with requests waiting: one song from each
+ * in turn, and each account's songs in the order it asked for them. Someone
+ * who queues three songs doesn't hold up someone who queues one after them.
+ * An account with nothing waiting joins at the back of the turns. Adding and
+ * taking a request take O(1) time.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class RoundRobinPolicy implements QueuePolicy {
+
+	private HashMap<Object, ArrayDeque<QueueEntry>> waiting = new HashMap<>();
+	private ArrayDeque<Object> turns = new ArrayDeque<>(); // accounts with songs waiting
+	private int size;
+
+	@Override
+	public void add(QueueEntry entry) {
+		ArrayDeque<QueueEntry> songs = waiting.get(entry.requester());
+		if (songs == null) {
+			songs = new ArrayDeque<>();
+			waiting.put(entry.requester(), songs);
+			turns.add(entry.requester());
+		}
+		songs.add(entry);
+		size++;
+	}
+
+	@Override
+	public QueueEntry peek() {
+		Object next = turns.peek();
+		return next == null ? null : waiting.get(next).peek();
+	}
+
+	@Override
+	public QueueEntry poll() {
+		Object next = turns.poll();
+		if (next == null) {
+			return null;
+		}
+		ArrayDeque<QueueEntry> songs = waiting.get(next);
+		QueueEntry entry = songs.poll();
+		if (songs.isEmpty()) {
+			waiting.remove(next);
+		} else {
+			turns.add(next); // back of the line for its next song
+		}
+		size--;
+		return entry;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public List<QueueEntry> inPlayOrder() {
+		ArrayList<QueueEntry> order = new ArrayList<>(size);
+		HashMap<Object, ArrayDeque<QueueEntry>> copies = new HashMap<>();
+		ArrayDeque<Object> copyTurns = new ArrayDeque<>(turns);
+		for (Object requester : turns) {
+			copies.put(requester, new ArrayDeque<>(waiting.get(requester)));
+		}
+		while (!copyTurns.isEmpty()) {
+			Object next = copyTurns.poll();
+			ArrayDeque<QueueEntry> songs = copies.get(next);
+			order.add(songs.poll());
+			if (!songs.isEmpty()) {
+				copyTurns.add(next);
+			}
+		}
+		return order;
+	}
+}
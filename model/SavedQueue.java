@@ -0,0 +1,186 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The queue a PlayListJournal saves: pairs of a sequence number and a long
+ * value (a song's id and hash code), kept in sequence order in two long
+ * arrays. This replaces a LinkedHashMap of boxed Longs, which cost about 90
+ * bytes and three objects per queued song, with 16 bytes and none.
+ *
+ * Sequence numbers only grow, so adding normally appends and finding a
+ * number is a binary search. Removed pairs are marked and left in place until
+ * they make up half of the arrays, then squeezed out in one pass, so removing
+ * takes O(log n) amortized time wherever the pair is.
+ *
+ * @author Adrianna Koppes
+ */
+
+class SavedQueue {
+
+	// no song id is this negative, so no value written by the journal is this
+	private static final long REMOVED = Long.MIN_VALUE;
+
+	private long[] seqs = new long[16];
+	private long[] values = new long[16];
+	private int first; // every pair before this one is removed
+	private int end;
+	private int size;
+
+	/**
+	 * Adds a pair, or replaces the value of a sequence number already there.
+	 *
+	 * @param seq   : long representing the sequence number.
+	 * @param value : long representing the value saved with it.
+	 */
+	void put(long seq, long value) {
+		if (end > first && seqs[end - 1] >= seq) {
+			int i = indexOf(seq);
+			if (i >= 0) {
+				if (values[i] == REMOVED) {
+					size++;
+				}
+				values[i] = value;
+				return;
+			}
+			// older than the last pair, which only happens replaying a journal
+			// written while a snapshot was taken
+			makeRoom();
+			int at = -indexOf(seq) - 1; // makeRoom() may have moved the pairs
+			System.arraycopy(seqs, at, seqs, at + 1, end - at);
+			System.arraycopy(values, at, values, at + 1, end - at);
+			seqs[at] = seq;
+			values[at] = value;
+			end++;
+			size++;
+			return;
+		}
+		makeRoom();
+		seqs[end] = seq;
+		values[end] = value;
+		end++;
+		size++;
+	}
+
+	/**
+	 * Removes a pair.
+	 *
+	 * @param seq : long representing the sequence number of the pair.
+	 * @return boolean representing whether there was such a pair. true if there
+	 *         was, false otherwise.
+	 */
+	boolean remove(long seq) {
+		int i = indexOf(seq);
+		if (i < 0 || values[i] == REMOVED) {
+			return false;
+		}
+		values[i] = REMOVED;
+		size--;
+		skipRemoved();
+		if (end - first > 32 && size < (end - first) / 2) {
+			pack();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the pair with the smallest sequence number.
+	 *
+	 * @return long representing the sequence number removed, or -1 if there was
+	 *         none.
+	 */
+	long removeFirst() {
+		if (size == 0) {
+			return -1;
+		}
+		long seq = seqs[first];
+		values[first] = REMOVED;
+		size--;
+		skipRemoved();
+		return seq;
+	}
+
+	/**
+	 * Removes every pair.
+	 */
+	void clear() {
+		first = 0;
+		end = 0;
+		size = 0;
+	}
+
+	/**
+	 * Retrieves the number of pairs.
+	 *
+	 * @return integer representing how many pairs there are.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gives the sequence numbers, smallest first.
+	 *
+	 * @return long array holding a copy of the sequence numbers.
+	 */
+	long[] seqs() {
+		pack();
+		return Arrays.copyOfRange(seqs, 0, size);
+	}
+
+	/**
+	 * Gives the values, in the same order as seqs().
+	 *
+	 * @return long array holding a copy of the values.
+	 */
+	long[] values() {
+		pack();
+		return Arrays.copyOfRange(values, 0, size);
+	}
+
+	/**
+	 * Finds a sequence number among the pairs, removed or not.
+	 *
+	 * @return integer representing its index, or -(insertion point) - 1 if it
+	 *         isn't there, like Arrays.binarySearch().
+	 */
+	private int indexOf(long seq) {
+		return Arrays.binarySearch(seqs, first, end, seq);
+	}
+
+	private void skipRemoved() {
+		while (first < end && values[first] == REMOVED) {
+			first++;
+		}
+		if (first == end) {
+			clear();
+		}
+	}
+
+	private void makeRoom() {
+		if (end < seqs.length) {
+			return;
+		}
+		pack();
+		if (size * 2 > seqs.length) {
+			seqs = Arrays.copyOf(seqs, seqs.length * 2);
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+	}
+
+	/**
+	 * Moves the pairs still there to the front of the arrays.
+	 */
+	private void pack() {
+		int to = 0;
+		for (int i = first; i < end; i++) {
+			if (values[i] != REMOVED) {
+				seqs[to] = seqs[i];
+				values[to] = values[i];
+				to++;
+			}
+		}
+		first = 0;
+		end = to;
+	}
+}
@@ -0,0 +1,69 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * One page of songs matching a search, along with how many songs matched in
+ * total.
+ *
+ * @author Amelia Matheson
+ */
+
+public class SearchResults {
+
+	private ArrayList<Song> songs;
+	private int offset;
+	private int total;
+
+	/**
+	 * Creates a new page of search results.
+	 *
+	 * @param songs  : ArrayList of Songs representing the songs on this page,
+	 *               best match first.
+	 * @param offset : integer representing the position of the first song on
+	 *               this page among all the matches.
+	 * @param total  : integer representing how many songs matched in total.
+	 */
+	public SearchResults(ArrayList<Song> songs, int offset, int total) {
+		this.songs = songs;
+		this.offset = offset;
+		this.total = total;
+	}
+
+	/**
+	 * Retrieves the songs on this page.
+	 *
+	 * @return ArrayList of Songs representing the matches, best match first.
+	 */
+	public ArrayList<Song> getSongs() {
+		return songs;
+	}
+
+	/**
+	 * Retrieves the position of the first song on this page.
+	 *
+	 * @return integer representing how many better matches came before this page.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Retrieves the total number of matches.
+	 *
+	 * @return integer representing how many songs matched the search.
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Checks if there are more matches after this page.
+	 *
+	 * @return boolean representing whether another page exists. true if it does,
+	 *         false otherwise.
+	 */
+	public boolean hasMore() {
+		return offset + songs.size() < total;
+	}
+}
@@ -1,5 +1,9 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -7,15 +11,31 @@ import java.util.Objects;
  * Class representing a Song, with a title, artist, duration, and filename to
  * access the song file.
  * 
+ * Songs are kept small, since a catalog can hold millions of them: artists are
+ * shared between all of an artist's songs through a StringPool, and the
+ * formatted playtimes are shared between all songs of the same length instead
+ * of being stored in each Song.
+ * 
  * @author Amelia Matheson
  */
 
 public class Song implements Comparable<Song>, Serializable {
+	private static final long serialVersionUID = -2464382204166406505L;
+
+	// the fields Songs were first saved with, so old playlist.ser files load
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("title", String.class), new ObjectStreamField("artist", String.class),
+			new ObjectStreamField("fileName", String.class), new ObjectStreamField("duration", int.class),
+			new ObjectStreamField("playtimeAsString", String.class) };
+
+	private static final StringPool ARTISTS = new StringPool(); // weak, so unused artists go
+	private static final int CACHED_PLAYTIMES = 60 * 60;
+	private static final String[] PLAYTIMES = new String[CACHED_PLAYTIMES];
+
 	private String title;
 	private String artist;
 	private String fileName;
 	private int duration;
-	private String playtimeAsString;
 
 	/**
 	 * Creates a new Song with a specified filename.
@@ -24,7 +44,7 @@ public class Song implements Comparable<Song>, Serializable {
 	 */
 	public Song(String name) {
 		title = name;
-		artist = "";
+		artist = ARTISTS.intern("");
 		duration = 20; // default value
 		fileName = name;
 	}
@@ -39,7 +59,7 @@ public class Song implements Comparable<Song>, Serializable {
 	 */
 	public Song(String name, String artist, int playtime, String fileName) {
 		title = name;
-		this.artist = artist;
+		this.artist = ARTISTS.intern(artist);
 		duration = playtime;
 		this.fileName = fileName;
 	}
@@ -117,13 +137,29 @@ public class Song implements Comparable<Song>, Serializable {
 	 * on the left side of the colon representing minutes and the digits on the
 	 * right side of the colon representing seconds.
 	 * 
+	 * Songs under an hour long share one String per duration, so calling this
+	 * for every row of a table creates no garbage.
+	 * 
 	 * @return String representing the duration of the song.
 	 */
 	public String getPlaytimeAsString() {
+		if (duration < 0 || duration >= CACHED_PLAYTIMES) {
+			return formatPlaytime(duration);
+		}
+		String playtime = PLAYTIMES[duration];
+		if (playtime == null) {
+			// racing threads at worst format the same String twice
+			playtime = formatPlaytime(duration);
+			PLAYTIMES[duration] = playtime;
+		}
+		return playtime;
+	}
+
+	private static String formatPlaytime(int duration) {
 		int minutes = duration / 60;
 		int seconds = duration % 60;
 
-		playtimeAsString = minutes + ":" + seconds;
+		String playtimeAsString = minutes + ":" + seconds;
 		if (seconds < 10) {
 			playtimeAsString = minutes + ":0" + seconds;
 		}
@@ -183,4 +219,33 @@ public class Song implements Comparable<Song>, Serializable {
 		return Objects.equals(artist, other.artist) && duration == other.duration
 				&& Objects.equals(fileName, other.fileName) && Objects.equals(title, other.title);
 	}
+
+	/**
+	 * Computes a hash code consistent with equals(), so Songs can be used in
+	 * hashed collections.
+	 * 
+	 * @return integer representing the hash code of the Song.
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hash(title, artist, duration, fileName);
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("title", title);
+		fields.put("artist", artist);
+		fields.put("fileName", fileName);
+		fields.put("duration", duration);
+		fields.put("playtimeAsString", getPlaytimeAsString());
+		out.writeFields();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		title = (String) fields.get("title", null);
+		artist = ARTISTS.intern((String) fields.get("artist", null));
+		fileName = (String) fields.get("fileName", null);
+		duration = fields.get("duration", 0);
+	}
 }
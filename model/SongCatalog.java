@@ -0,0 +1,134 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a binary song catalog file, memory mapped so songs are only
+ * decoded when they are asked for. Opening a catalog costs the same no matter
+ * how many songs it holds.
+ *
+ * File layout (all numbers big-endian):
+ *
+ * <pre>
+ * header   : int magic "JBC1", int version, int song count, int unused,
+ *            long offset of the records, long offset of the string pool
+ * records  : one 16 byte record per song: int title, int artist,
+ *            int filename (offsets into the string pool), int duration in seconds
+ * pool     : each distinct string once, as an unsigned short byte length
+ *            followed by its UTF-8 bytes
+ * </pre>
+ *
+ * Use SongCatalogWriter to build catalog files.
+ *
+ * @author Amelia Matheson
+ */
+
+public class SongCatalog {
+
+	static final int MAGIC = 0x4A424331; // "JBC1"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int RECORD_SIZE = 16;
+
+	private MappedByteBuffer data;
+	private int count;
+	private int records;
+	private int pool;
+
+	private SongCatalog(MappedByteBuffer data) throws IOException {
+		this.data = data;
+		if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+			throw new IOException("Not a song catalog file");
+		}
+		if (data.getInt(4) != VERSION) {
+			throw new IOException("Unsupported song catalog version " + data.getInt(4));
+		}
+		count = data.getInt(8);
+		records = (int) data.getLong(16);
+		pool = (int) data.getLong(24);
+		if (count < 0 || records + (long) count * RECORD_SIZE > pool || pool > data.limit()) {
+			throw new IOException("Corrupt song catalog file");
+		}
+	}
+
+	/**
+	 * Opens and maps the specified catalog file.
+	 *
+	 * @param file : Path representing the catalog file.
+	 * @return SongCatalog reading from that file.
+	 * @throws IOException if the file can't be read or isn't a song catalog.
+	 */
+	public static SongCatalog open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Song catalog is larger than 2GB");
+			}
+			return new SongCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+		}
+	}
+
+	/**
+	 * Retrieves the number of songs in the catalog.
+	 *
+	 * @return integer representing the number of songs.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Decodes the song at the specified position in the catalog.
+	 *
+	 * @param i : integer representing the position of the song.
+	 * @return Song object at that position.
+	 */
+	public Song get(int i) {
+		if (i < 0 || i >= count) {
+			throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + count);
+		}
+		int record = records + i * RECORD_SIZE;
+		String title = string(data.getInt(record));
+		String artist = string(data.getInt(record + 4));
+		String fileName = string(data.getInt(record + 8));
+		return new Song(title, artist, data.getInt(record + 12), fileName);
+	}
+
+	/**
+	 * Retrieves just the duration of the song at the specified position, without
+	 * decoding any of its strings.
+	 *
+	 * @param i : integer representing the position of the song.
+	 * @return integer representing the song's duration in seconds.
+	 */
+	public int getDuration(int i) {
+		return data.getInt(records + i * RECORD_SIZE + 12);
+	}
+
+	private String string(int offset) {
+		int at = pool + offset;
+		int length = data.getShort(at) & 0xFFFF;
+		byte[] bytes = new byte[length];
+		// absolute bulk get, so concurrent readers don't disturb each other
+		data.get(at + 2, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the header for a catalog with the specified layout.
+	 */
+	static void writeHeader(ByteBuffer header, int count, long pool) {
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(count);
+		header.putInt(0);
+		header.putLong(HEADER_SIZE);
+		header.putLong(pool);
+	}
+}
@@ -0,0 +1,178 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Builds binary song catalog files that SongCatalog can read, either from a
+ * folder of mp3 files or from a CSV file with one song per line in the form
+ * title,artist,duration in seconds,filename.
+ *
+ * Usage: java model.SongCatalogWriter output.jbc (songfiles/ | songs.csv)
+ *
+ * @author Amelia Matheson
+ */
+
+public class SongCatalogWriter {
+
+	/**
+	 * Builds a catalog from the folder or CSV file given on the command line.
+	 *
+	 * @param args : String array representing the output file and the source.
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.out.println("Usage: java model.SongCatalogWriter output.jbc (songfiles/ | songs.csv)");
+			return;
+		}
+		Path out = Paths.get(args[0]);
+		Path source = Paths.get(args[1]);
+		try {
+			List<Song> songs;
+			if (Files.isDirectory(source)) {
+				songs = readDirectory(source);
+			} else {
+				songs = readCsv(source);
+			}
+			write(songs, out);
+			System.out.println("Wrote " + songs.size() + " songs to " + out);
+		} catch (IOException err) {
+			System.out.println("Couldn't build catalog: " + err.getMessage());
+		}
+	}
+
+	/**
+	 * Creates a Song for every mp3 file in a folder and its subfolders, reading
+	 * the title, artist and duration from the files (see LibraryScanner).
+	 *
+	 * @param dir : Path representing the folder holding the song files.
+	 * @return List of Songs, sorted by filename.
+	 * @throws IOException if the folder can't be read.
+	 */
+	public static List<Song> readDirectory(Path dir) throws IOException {
+		return new LibraryScanner(dir, null).scan();
+	}
+
+	/**
+	 * Reads songs from a CSV file. Fields may be wrapped in double quotes, with
+	 * doubled quotes inside them. Blank lines, lines starting with #, and a
+	 * header line are skipped.
+	 *
+	 * @param csv : Path representing the CSV file.
+	 * @return List of Songs in the order they appear in the file.
+	 * @throws IOException if the file can't be read or a line is malformed.
+	 */
+	public static List<Song> readCsv(Path csv) throws IOException {
+		ArrayList<Song> songs = new ArrayList<>();
+		try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = in.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank() || line.startsWith("#")) {
+					continue;
+				}
+				List<String> fields = splitCsv(line);
+				if (fields.size() != 4) {
+					throw new IOException("Line " + lineNumber + " should have 4 fields");
+				}
+				int duration;
+				try {
+					duration = Integer.parseInt(fields.get(2).trim());
+				} catch (NumberFormatException e) {
+					if (lineNumber == 1) {
+						continue; // header line
+					}
+					throw new IOException("Line " + lineNumber + " has a bad duration");
+				}
+				songs.add(new Song(fields.get(0), fields.get(1), duration, fields.get(3)));
+			}
+		}
+		return songs;
+	}
+
+	/**
+	 * Writes songs to a catalog file. Strings repeated between songs, such as an
+	 * artist with many songs, are stored only once.
+	 *
+	 * @param songs : List of Songs to be written.
+	 * @param out   : Path representing the catalog file to be created.
+	 * @throws IOException if the file can't be written or a string is too long.
+	 */
+	public static void write(List<Song> songs, Path out) throws IOException {
+		HashMap<String, Integer> offsets = new HashMap<>();
+		ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+		ByteBuffer records = ByteBuffer.allocate(songs.size() * SongCatalog.RECORD_SIZE);
+		for (Song song : songs) {
+			records.putInt(intern(song.getTitle(), offsets, poolBytes));
+			records.putInt(intern(song.getArtist(), offsets, poolBytes));
+			records.putInt(intern(song.getFileName(), offsets, poolBytes));
+			records.putInt((int) (song.getDurationMilliseconds() / 1000));
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(SongCatalog.HEADER_SIZE);
+		SongCatalog.writeHeader(header, songs.size(), SongCatalog.HEADER_SIZE + (long) records.capacity());
+		try (OutputStream file = Files.newOutputStream(out)) {
+			file.write(header.array());
+			file.write(records.array());
+			poolBytes.writeTo(file);
+		}
+	}
+
+	private static int intern(String s, HashMap<String, Integer> offsets, ByteArrayOutputStream pool)
+			throws IOException {
+		Integer known = offsets.get(s);
+		if (known != null) {
+			return known;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > 0xFFFF) {
+			throw new IOException("String too long for catalog: " + s.substring(0, 40) + "...");
+		}
+		int offset = pool.size();
+		DataOutputStream out = new DataOutputStream(pool);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+		offsets.put(s, offset);
+		return offset;
+	}
+
+	private static List<String> splitCsv(String line) {
+		ArrayList<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,144 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Finds the slot of a song in a SongList in O(1) time, so the id of a queued
+ * song can be looked up without sorting the whole list by title first. An
+ * open addressing hash table with linear probing: each bucket holds a slot
+ * number and that song's hash code, in two int arrays, so the table costs
+ * about 16 bytes per song and no objects. Songs are only fetched from the
+ * SongList (and decoded from the catalog) when their hash code matches.
+ *
+ * @author Amelia Matheson
+ */
+
+class SongIds {
+
+	private static final int EMPTY = -1;
+
+	private IntFunction<Song> songs;
+	private int[] slots;
+	private int[] hashes;
+	private int size;
+
+	/**
+	 * Creates a new SongIds holding the specified slots.
+	 *
+	 * @param songs : IntFunction giving the Song in each slot.
+	 * @param live  : integer array representing the slots to start with.
+	 */
+	SongIds(IntFunction<Song> songs, int[] live) {
+		this.songs = songs;
+		allocate(Math.max(16, Integer.highestOneBit(Math.max(1, live.length) * 2) * 2));
+		for (int slot : live) {
+			add(slot);
+		}
+	}
+
+	/**
+	 * Adds the song in a slot.
+	 *
+	 * @param slot : integer representing the slot the song was added in.
+	 */
+	void add(int slot) {
+		if ((size + 1) * 2 > slots.length) {
+			grow();
+		}
+		insert(slot, songs.apply(slot).hashCode());
+		size++;
+	}
+
+	/**
+	 * Removes the song in a slot. The SongList must still give the song for
+	 * that slot while this runs.
+	 *
+	 * @param slot : integer representing the slot the song is being removed
+	 *             from.
+	 */
+	void remove(int slot) {
+		int mask = slots.length - 1;
+		int i = mix(songs.apply(slot).hashCode()) & mask;
+		while (slots[i] != slot) {
+			if (slots[i] == EMPTY) {
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		size--;
+		// shift later buckets of the same run back, so no lookup stops early
+		int hole = i;
+		for (int next = (hole + 1) & mask; slots[next] != EMPTY; next = (next + 1) & mask) {
+			int home = mix(hashes[next]) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				slots[hole] = slots[next];
+				hashes[hole] = hashes[next];
+				hole = next;
+			}
+		}
+		slots[hole] = EMPTY;
+	}
+
+	/**
+	 * Finds the slot holding a song equal to the specified one.
+	 *
+	 * @param song : Song to be looked up.
+	 * @return integer representing the slot, or -1 if there is none.
+	 */
+	int find(Song song) {
+		int hash = song.hashCode();
+		int mask = slots.length - 1;
+		for (int i = mix(hash) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+			if (hashes[i] == hash && song.equals(songs.apply(slots[i]))) {
+				return slots[i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Retrieves the number of songs in the table.
+	 *
+	 * @return integer representing how many slots were added and not removed.
+	 */
+	int size() {
+		return size;
+	}
+
+	private void insert(int slot, int hash) {
+		int mask = slots.length - 1;
+		int i = mix(hash) & mask;
+		while (slots[i] != EMPTY) {
+			i = (i + 1) & mask;
+		}
+		slots[i] = slot;
+		hashes[i] = hash;
+	}
+
+	private void grow() {
+		int[] oldSlots = slots;
+		int[] oldHashes = hashes;
+		allocate(oldSlots.length * 2);
+		for (int i = 0; i < oldSlots.length; i++) {
+			if (oldSlots[i] != EMPTY) {
+				insert(oldSlots[i], oldHashes[i]);
+			}
+		}
+	}
+
+	private void allocate(int length) {
+		slots = new int[length];
+		hashes = new int[length];
+		Arrays.fill(slots, EMPTY);
+	}
+
+	/**
+	 * Spreads the bits of a hash code, since Objects.hash() of similar songs
+	 * differ mostly in the low bits.
+	 */
+	private static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
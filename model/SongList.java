@@ -1,55 +1,219 @@
 package model;
 
 /**
- * Contains the list of songs that can be played by the Jukebox.
+ * Contains the list of songs that can be played by the Jukebox. Safe to use
+ * from several threads: every method, and every view it gives out, holds the
+ * SongList's lock, so the library watcher can add and remove songs while
+ * others read them.
  * 
  * @author Amelia Matheson
  */
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 public class SongList {
+	 private static final Path CATALOG_FILE = Paths.get("songfiles", "catalog.jbc");
+
+	 // Every song gets a slot number when it is added and keeps it. Catalog songs
+	 // fill the first slots, and songs added later follow in songList. Songs
+	 // from a LibraryScanner take the slot of their file's id instead.
 	 private ArrayList<Song> songList;
-	 private int size;
+	 private SongCatalog catalog;
+	 private LiveSlots live;
+	 // sorted orders are built the first time they are needed, then kept updated
+	 private SongOrder byTitle;
+	 private SongOrder byArtist;
+	 private SongOrder byDuration;
+	 private SongOrder current; // order followed by get(), null for order added
+	 private SongSearchIndex index; // built the first time the list is searched
+	 private SongIds ids; // built the first time an id is looked up
+	 private LibraryScanner library; // null unless the songs came from a scan
 	 
 	 /**
-	  * Creates a new SongList with all the available songs.
+	  * Creates a new SongList with all the available songs. Reads
+	  * songfiles/catalog.jbc if it exists (see SongCatalogWriter), otherwise
+	  * scans the mp3 files in songfiles/ (see LibraryScanner), otherwise uses
+	  * the built in songs.
 	  */
 	 public SongList() {
+		 if (Files.exists(CATALOG_FILE)) {
+			 try {
+				 useCatalog(SongCatalog.open(CATALOG_FILE));
+				 return;
+			 } catch (IOException err) {
+				 System.out.println("Couldn't read song catalog, using built in songs");
+			 }
+		 } else if (Files.isDirectory(LibraryScanner.DEFAULT_DIR)) {
+			 LibraryScanner scanner = new LibraryScanner();
+			 try {
+				 List<Song> scanned = scanner.scan();
+				 if (!scanned.isEmpty()) {
+					 useLibrary(scanner, scanned);
+					 return;
+				 }
+			 } catch (IOException err) {
+				 System.out.println("Couldn't scan song files, using built in songs");
+			 }
+		 }
 		 songList = new ArrayList<>();
-		 songList.add(new Song("Pokemon Capture", "Pikachu", 5, "Capture.mp3"));
-		 songList.add(new Song("Danse Macabre", "Kevin MacLeod", 34, "DanseMacabreViolinHook.mp3"));
-		 songList.add(new Song("Determined Tumbao", "FreePlay Music", 20, "DeterminedTumbao.mp3"));
-		 songList.add(new Song("LopingSting", "Kevin MacLeod", 5, "LopingSting.mp3"));
-		 songList.add(new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3"));
-		 songList.add(new Song("The Curtain Rises", "Kevin MacLeod", 28, "TheCurtainRises.mp3"));
-		 songList.add(new Song("UntameableFire", "Pierre Langer", 282, "UntameableFire.mp3"));
-		 size = 7;
+		 live = new LiveSlots();
+		 addSong(new Song("Pokemon Capture", "Pikachu", 5, "Capture.mp3"));
+		 addSong(new Song("Danse Macabre", "Kevin MacLeod", 34, "DanseMacabreViolinHook.mp3"));
+		 addSong(new Song("Determined Tumbao", "FreePlay Music", 20, "DeterminedTumbao.mp3"));
+		 addSong(new Song("LopingSting", "Kevin MacLeod", 5, "LopingSting.mp3"));
+		 addSong(new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3"));
+		 addSong(new Song("The Curtain Rises", "Kevin MacLeod", 28, "TheCurtainRises.mp3"));
+		 addSong(new Song("UntameableFire", "Pierre Langer", 282, "UntameableFire.mp3"));
+	 }
+	 
+	 /**
+	  * Creates a new SongList backed by a memory mapped catalog. Songs are decoded
+	  * from the catalog one at a time as they are retrieved.
+	  * 
+	  * @param catalog : SongCatalog holding the available songs.
+	  */
+	 public SongList(SongCatalog catalog) {
+		 useCatalog(catalog);
+	 }
+	 
+	 /**
+	  * Creates a new SongList with the songs a LibraryScanner finds. Each song's
+	  * id is the one the scanner gave its file, so ids stay the same when files
+	  * are added to or deleted from the folder.
+	  * 
+	  * @param scanner : LibraryScanner to scan the songs with.
+	  * @throws IOException if the scanner's folder can't be listed.
+	  */
+	 public SongList(LibraryScanner scanner) throws IOException {
+		 useLibrary(scanner, scanner.scan());
+	 }
+	 
+	 private void useLibrary(LibraryScanner scanner, List<Song> scanned) {
+		 songList = new ArrayList<>(scanned.size());
+		 live = new LiveSlots();
+		 library = scanner;
+		 for (Song song : scanned) {
+			 addSong(song);
+		 }
+	 }
+	 
+	 private void useCatalog(SongCatalog songCatalog) {
+		 catalog = songCatalog;
+		 songList = new ArrayList<>(); // songs added after the catalog
+		 live = new LiveSlots();
+		 live.addAll(catalog.size());
+	 }
+	 
+	 /**
+	  * Retrieves the LibraryScanner the songs were found by, which can watch the
+	  * song folder for changes.
+	  * 
+	  * @return LibraryScanner, or null if the songs came from a catalog or are
+	  *         the built in ones.
+	  */
+	 public LibraryScanner getLibrary() {
+		 return library;
 	 }
 	 
 	 /**
-	  * Adds a new song to the SongList.
+	  * Adds a new song to the SongList. Takes O(log n) time to place it in each
+	  * sorted order that has been built. If the songs came from a LibraryScanner,
+	  * a song from the folder gets its file's id (see LibraryScanner.idOf()).
+	  * Other songs go at the end.
 	  * 
 	  * @param newSong : Song representing the song to be added.
 	  */
-	 public void addSong(Song newSong) {
-		 songList.add(newSong);
-		 size++;
+	 public synchronized void addSong(Song newSong) {
+		 int slot = library == null ? -1 : library.idOf(newSong);
+		 if (slot < 0 || (slot < live.capacity() && !live.isRemoved(slot))) {
+			 slot = live.capacity(); // no id, or a song added by hand has it
+		 }
+		 while (live.capacity() < slot) {
+			 // the ids of files deleted before this run stay empty
+			 songList.add(null);
+			 live.add();
+			 live.remove(live.capacity() - 1);
+		 }
+		 if (slot < live.capacity()) {
+			 songList.set(slot - catalogSize(), newSong); // a changed file's old slot
+			 live.revive(slot);
+		 } else {
+			 songList.add(newSong);
+			 live.add();
+		 }
+		 for (SongOrder order : builtOrders()) {
+			 order.insert(slot);
+		 }
+		 if (ids != null) {
+			 ids.add(slot);
+		 }
+		 if (index != null) {
+			 index.add(newSong);
+		 }
 	 }
 	 
 	 /**
-	  * Removes a song from the SongList.
+	  * Removes a song from the SongList. Takes O(log n) time.
 	  * 
 	  * @param toBeRemoved : Song representing the song to be removed.
 	  */
-	 public void removeSong(Song toBeRemoved) {
-		 for (Song song : songList) {
-			 if (song.equals(toBeRemoved)) {
-				 songList.remove(song);
-				 return;
-			 }
+	 public synchronized void removeSong(Song toBeRemoved) {
+		 int slot = idOf(toBeRemoved);
+		 if (slot < 0) {
+			 return;
+		 }
+		 for (SongOrder order : builtOrders()) {
+			 order.remove(slot);
+		 }
+		 ids.remove(slot);
+		 live.remove(slot);
+		 if (index != null) {
+			 index.remove(toBeRemoved);
+		 }
+		 if (slot >= catalogSize()) {
+			 songList.set(slot - catalogSize(), null); // no order refers to it anymore
+		 }
+	 }
+	 
+	 /**
+	  * Finds the id of a song in the list. A song keeps its id for as long as it
+	  * is in the list, and keeps it from one run to the next as long as the
+	  * catalog and the songs added at startup stay the same. Songs from a
+	  * LibraryScanner keep the ids the scanner gave their files, which are
+	  * saved with its cache, so they survive files being added and deleted.
+	  * Ids are dense: they run from 0 up, and only removed songs leave gaps.
+	  * Takes O(1) time, after the first call builds a hash table of the songs
+	  * (see SongIds).
+	  * 
+	  * @param song : Song to be looked up.
+	  * @return integer representing the song's id, or -1 if it isn't in the list.
+	  */
+	 public synchronized int idOf(Song song) {
+		 if (ids == null) {
+			 ids = new SongIds(this::slot, live.liveSlots());
 		 }
+		 return ids.find(song);
+	 }
+	 
+	 /**
+	  * Retrieves a song by its id, in O(1) time.
+	  * 
+	  * @param id : integer representing an id given by idOf().
+	  * @return Song with that id, or null if there is none (any more).
+	  */
+	 public synchronized Song getById(int id) {
+		 if (id < 0 || id >= live.capacity() || live.isRemoved(id)) {
+			 return null;
+		 }
+		 return slot(id);
 	 }
 	 
 	 /**
@@ -57,47 +221,201 @@ public class SongList {
 	  * 
 	  * @return : integer representing the size of the song list.
 	  */
-	 public int size() {
-		 return size;
+	 public synchronized int size() {
+		 return live.size();
 	 }
 	 
 	 /**
-	  * Retrieves a specified song based on the index of that song.
+	  * Retrieves a specified song based on the index of that song. Follows the
+	  * order chosen by the most recent sort, or the order the songs were added if
+	  * the list hasn't been sorted.
 	  * 
 	  * @param i : integer representing the index of the song in the list.
 	  * @return Song object at the specified index.
 	  */
-	 public Song get(int i) {
-		 return songList.get(i);
+	 public synchronized Song get(int i) {
+		 if (current != null) {
+			 return slot(current.slotAt(i));
+		 }
+		 return slot(live.slotAt(i));
+	 }
+	 
+	 /**
+	  * Retrieves the list of songs, in the same order as get().
+	  * 
+	  * @return ArrayList of Songs representing a copy of the song list.
+	  */
+	 public synchronized ArrayList<Song> getSongs() {
+		 ArrayList<Song> songs = new ArrayList<>(size());
+		 for (int i = 0; i < size(); i++) {
+			 songs.add(get(i));
+		 }
+		 return songs;
+	 }
+	 
+	 /**
+	  * Gives a read-only view of the songs in the order they were added.
+	  * 
+	  * @return List of Songs that follows the SongList as it changes.
+	  */
+	 public synchronized List<Song> getSongsInOrderAdded() {
+		 return lockedView(new AbstractList<Song>() {
+			 @Override
+			 public Song get(int i) {
+				 return slot(live.slotAt(i));
+			 }
+
+			 @Override
+			 public int size() {
+				 return live.size();
+			 }
+		 });
+	 }
+	 
+	 /**
+	  * Gives a read-only view of the songs sorted by title. The order is kept up
+	  * to date as songs are added and removed, so after the first call this takes
+	  * O(1) time.
+	  * 
+	  * @return List of Songs sorted by title.
+	  */
+	 public synchronized List<Song> getSongsByTitle() {
+		 return lockedView(titleOrder().view());
+	 }
+	 
+	 /**
+	  * Gives a read-only view of the songs sorted by artist. See
+	  * getSongsByTitle().
+	  * 
+	  * @return List of Songs sorted by artist.
+	  */
+	 public synchronized List<Song> getSongsByArtist() {
+		 return lockedView(artistOrder().view());
+	 }
+	 
+	 /**
+	  * Gives a read-only view of the songs sorted by duration. See
+	  * getSongsByTitle().
+	  * 
+	  * @return List of Songs sorted by duration.
+	  */
+	 public synchronized List<Song> getSongsByDuration() {
+		 return lockedView(durationOrder().view());
 	 }
 	 
 	 /**
-	  * Retrieves the list of songs.
+	  * Searches the song titles and artists. See SongSearchIndex.search() for how
+	  * matches are ranked.
 	  * 
-	  * @return ArrayList of Songs representing the song list.
+	  * @param query  : String representing what the user typed.
+	  * @param offset : integer representing how many of the best matches to skip.
+	  * @param limit  : integer representing the most songs to return.
+	  * @return SearchResults holding the requested page of matches.
 	  */
-	 public ArrayList<Song> getSongs() {
-		 return songList;
+	 public synchronized SearchResults search(String query, int offset, int limit) {
+		 if (index == null) {
+			 index = new SongSearchIndex();
+			 for (Song song : getSongsInOrderAdded()) {
+				 index.add(song);
+			 }
+		 }
+		 return index.search(query, offset, limit);
 	 }
 	 
 	 /**
-	  * Sorts the song list by title.
+	  * Sorts the song list by title. Songs with the same title stay in the order
+	  * they were added.
 	  */
-	 public void sortByTitle() {
-		 Collections.sort(songList, Song::compareByTitle);
+	 public synchronized void sortByTitle() {
+		 current = titleOrder();
 	 }
 	 
 	 /**
 	  * Sorts the song list by artist.
 	  */
-	 public void sortByArtist() {
-		 Collections.sort(songList, Song::compareByArtist);
+	 public synchronized void sortByArtist() {
+		 current = artistOrder();
 	 }
 	 
 	 /**
 	  * Sorts the song list by duration.
 	  */
-	 public void sortByDuration() {
-		Collections.sort(songList, Song::compareByDuration);
+	 public synchronized void sortByDuration() {
+		current = durationOrder();
 	}
+	 
+	 /**
+	  * Wraps a view of the songs so it can't be changed, and each call holds the
+	  * SongList's lock.
+	  */
+	 private List<Song> lockedView(List<Song> view) {
+		 return Collections.unmodifiableList(new AbstractList<Song>() {
+			 @Override
+			 public Song get(int i) {
+				 synchronized (SongList.this) {
+					 return view.get(i);
+				 }
+			 }
+
+			 @Override
+			 public int size() {
+				 synchronized (SongList.this) {
+					 return view.size();
+				 }
+			 }
+		 });
+	 }
+	 
+	 private SongOrder titleOrder() {
+		 if (byTitle == null) {
+			 byTitle = buildOrder(Song::compareByTitle);
+		 }
+		 return byTitle;
+	 }
+	 
+	 private SongOrder artistOrder() {
+		 if (byArtist == null) {
+			 byArtist = buildOrder(Song::compareByArtist);
+		 }
+		 return byArtist;
+	 }
+	 
+	 private SongOrder durationOrder() {
+		 if (byDuration == null) {
+			 byDuration = buildOrder(Song::compareByDuration);
+		 }
+		 return byDuration;
+	 }
+	 
+	 private SongOrder buildOrder(Comparator<Song> byKey) {
+		 return new SongOrder(byKey, this::slot, live.liveSlots(), live.capacity());
+	 }
+	 
+	 private ArrayList<SongOrder> builtOrders() {
+		 ArrayList<SongOrder> orders = new ArrayList<>(3);
+		 if (byTitle != null) {
+			 orders.add(byTitle);
+		 }
+		 if (byArtist != null) {
+			 orders.add(byArtist);
+		 }
+		 if (byDuration != null) {
+			 orders.add(byDuration);
+		 }
+		 return orders;
+	 }
+	 
+	 private int catalogSize() {
+		 return catalog == null ? 0 : catalog.size();
+	 }
+	 
+	 /**
+	  * Retrieves the song in a slot, decoding it from the catalog if necessary.
+	  */
+	 private Song slot(int slot) {
+		 if (slot < catalogSize()) {
+			 return catalog.get(slot);
+		 }
+		 return songList.get(slot - catalogSize());
+	 }
 }
\ No newline at end of file
@@ -0,0 +1,274 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * One sorted order of the songs in a SongList, kept up to date as songs are
+ * added and removed rather than re-sorted. The songs are identified by their
+ * slot number in the SongList and held in a treap (a randomly balanced binary
+ * search tree) that also counts the size of every subtree, so adding, removing
+ * and finding the song at a position all take O(log n) time.
+ *
+ * Tree nodes are slot numbers, and their links live in int arrays indexed by
+ * slot, so the tree costs 16 bytes per song and no objects.
+ *
+ * @author Amelia Matheson
+ */
+
+class SongOrder {
+
+	private static final int NIL = -1;
+
+	private Comparator<Song> byKey;
+	private IntFunction<Song> songs;
+	private Random random = new Random();
+	private int[] left;
+	private int[] right;
+	private int[] count; // size of the subtree rooted at each node
+	private int[] priority;
+	private int root = NIL;
+	private int splitLess;
+	private int splitRest;
+
+	/**
+	 * Creates a new order holding the specified slots.
+	 *
+	 * @param byKey : Comparator of Songs that defines the order. Songs it finds
+	 *              equal are kept in the order they were added.
+	 * @param songs : IntFunction giving the Song in each slot.
+	 * @param slots : integer array representing the slots to start with.
+	 * @param capacity : integer representing one more than the largest slot.
+	 */
+	SongOrder(Comparator<Song> byKey, IntFunction<Song> songs, int[] slots, int capacity) {
+		this.byKey = byKey;
+		this.songs = songs;
+		left = new int[capacity];
+		right = new int[capacity];
+		count = new int[capacity];
+		priority = new int[capacity];
+
+		// decode every song once up front instead of on every comparison
+		Song[] decoded = new Song[capacity];
+		Integer[] sorted = new Integer[slots.length];
+		for (int i = 0; i < slots.length; i++) {
+			decoded[slots[i]] = songs.apply(slots[i]);
+			sorted[i] = slots[i];
+		}
+		Arrays.sort(sorted, (a, b) -> compare(decoded[a], a, decoded[b], b));
+		for (int slot : slots) {
+			priority[slot] = random.nextInt();
+		}
+		root = build(sorted, 0, sorted.length - 1);
+	}
+
+	/**
+	 * Adds a slot to the order.
+	 *
+	 * @param slot : integer representing the slot of a newly added song.
+	 */
+	void insert(int slot) {
+		grow(slot);
+		left[slot] = NIL;
+		right[slot] = NIL;
+		count[slot] = 1;
+		priority[slot] = random.nextInt();
+		root = insert(root, slot, songs.apply(slot));
+	}
+
+	/**
+	 * Removes a slot from the order.
+	 *
+	 * @param slot : integer representing the slot of a removed song.
+	 */
+	void remove(int slot) {
+		root = erase(root, slot, songs.apply(slot));
+	}
+
+	/**
+	 * Retrieves the number of songs in the order.
+	 *
+	 * @return integer representing the number of songs.
+	 */
+	int size() {
+		return root == NIL ? 0 : count[root];
+	}
+
+	/**
+	 * Finds the slot at the specified position in the order.
+	 *
+	 * @param position : integer representing the position, starting from 0.
+	 * @return integer representing the slot at that position.
+	 */
+	int slotAt(int position) {
+		if (position < 0 || position >= size()) {
+			throw new IndexOutOfBoundsException("Index " + position + " out of bounds for length " + size());
+		}
+		int node = root;
+		while (true) {
+			int before = left[node] == NIL ? 0 : count[left[node]];
+			if (position < before) {
+				node = left[node];
+			} else if (position == before) {
+				return node;
+			} else {
+				position -= before + 1;
+				node = right[node];
+			}
+		}
+	}
+
+	/**
+	 * Gives a read-only view of the songs in this order.
+	 *
+	 * @return List of Songs that follows this order as it changes.
+	 */
+	List<Song> view() {
+		return new AbstractList<Song>() {
+			@Override
+			public Song get(int index) {
+				return songs.apply(slotAt(index));
+			}
+
+			@Override
+			public int size() {
+				return SongOrder.this.size();
+			}
+		};
+	}
+
+	private int compare(Song a, int slotA, Song b, int slotB) {
+		int c = byKey.compare(a, b);
+		return c != 0 ? c : Integer.compare(slotA, slotB);
+	}
+
+	private int insert(int node, int slot, Song song) {
+		if (node == NIL) {
+			return slot;
+		}
+		if (priority[slot] > priority[node]) {
+			split(node, slot, song);
+			left[slot] = splitLess;
+			right[slot] = splitRest;
+			update(slot);
+			return slot;
+		}
+		if (compare(song, slot, songs.apply(node), node) < 0) {
+			left[node] = insert(left[node], slot, song);
+		} else {
+			right[node] = insert(right[node], slot, song);
+		}
+		update(node);
+		return node;
+	}
+
+	/**
+	 * Splits a subtree into the nodes before the slot (left in splitLess) and the
+	 * rest (left in splitRest).
+	 */
+	private void split(int node, int slot, Song song) {
+		if (node == NIL) {
+			splitLess = NIL;
+			splitRest = NIL;
+		} else if (compare(songs.apply(node), node, song, slot) < 0) {
+			split(right[node], slot, song);
+			right[node] = splitLess;
+			update(node);
+			splitLess = node;
+		} else {
+			split(left[node], slot, song);
+			left[node] = splitRest;
+			update(node);
+			splitRest = node;
+		}
+	}
+
+	private int erase(int node, int slot, Song song) {
+		if (node == NIL) {
+			return NIL;
+		}
+		if (node == slot) {
+			return merge(left[node], right[node]);
+		}
+		if (compare(song, slot, songs.apply(node), node) < 0) {
+			left[node] = erase(left[node], slot, song);
+		} else {
+			right[node] = erase(right[node], slot, song);
+		}
+		update(node);
+		return node;
+	}
+
+	private int merge(int a, int b) {
+		if (a == NIL) {
+			return b;
+		}
+		if (b == NIL) {
+			return a;
+		}
+		if (priority[a] > priority[b]) {
+			right[a] = merge(right[a], b);
+			update(a);
+			return a;
+		}
+		left[b] = merge(a, left[b]);
+		update(b);
+		return b;
+	}
+
+	/**
+	 * Builds a balanced tree from sorted slots in linear time, then moves the
+	 * priorities around so they are in heap order.
+	 */
+	private int build(Integer[] sorted, int lo, int hi) {
+		if (lo > hi) {
+			return NIL;
+		}
+		int mid = (lo + hi) >>> 1;
+		int node = sorted[mid];
+		left[node] = build(sorted, lo, mid - 1);
+		right[node] = build(sorted, mid + 1, hi);
+		siftDown(node);
+		update(node);
+		return node;
+	}
+
+	private void siftDown(int node) {
+		while (true) {
+			int highest = node;
+			if (left[node] != NIL && priority[left[node]] > priority[highest]) {
+				highest = left[node];
+			}
+			if (right[node] != NIL && priority[right[node]] > priority[highest]) {
+				highest = right[node];
+			}
+			if (highest == node) {
+				return;
+			}
+			int swap = priority[node];
+			priority[node] = priority[highest];
+			priority[highest] = swap;
+			node = highest;
+		}
+	}
+
+	private void update(int node) {
+		count[node] = 1 + (left[node] == NIL ? 0 : count[left[node]])
+				+ (right[node] == NIL ? 0 : count[right[node]]);
+	}
+
+	private void grow(int slot) {
+		if (slot < left.length) {
+			return;
+		}
+		int capacity = Math.max(slot + 1, left.length * 2);
+		left = Arrays.copyOf(left, capacity);
+		right = Arrays.copyOf(right, capacity);
+		count = Arrays.copyOf(count, capacity);
+		priority = Arrays.copyOf(priority, capacity);
+	}
+}
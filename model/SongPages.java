@@ -0,0 +1,125 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads songs from a large list a page at a time, keeping only the most
+ * recently used pages. A table that shows a few dozen rows of a catalog of
+ * millions only ever fetches the pages it scrolls through, and creating a
+ * SongPages costs nothing however long the list is.
+ *
+ * @author Amelia Matheson
+ */
+
+public class SongPages {
+
+	/**
+	 * Number of songs fetched at a time if no page size is given.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 64;
+
+	/**
+	 * Number of pages kept if no limit is given.
+	 */
+	public static final int DEFAULT_MAX_PAGES = 32;
+
+	private List<Song> source;
+	private boolean descending;
+	private int pageSize;
+	private LinkedHashMap<Integer, Song[]> pages;
+	private long fetches;
+
+	/**
+	 * Creates a new SongPages with the default page size and page limit.
+	 *
+	 * @param source     : List of Songs to read from, such as one of the views
+	 *                   given by SongList.
+	 * @param descending : boolean representing whether to give the songs in
+	 *                   reverse order. true to reverse them, false otherwise.
+	 */
+	public SongPages(List<Song> source, boolean descending) {
+		this(source, descending, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+	}
+
+	/**
+	 * Creates a new SongPages.
+	 *
+	 * @param source     : List of Songs to read from.
+	 * @param descending : boolean representing whether to give the songs in
+	 *                   reverse order. true to reverse them, false otherwise.
+	 * @param pageSize   : integer representing how many songs to fetch at a time.
+	 * @param maxPages   : integer representing how many pages to keep.
+	 */
+	public SongPages(List<Song> source, boolean descending, int pageSize, int maxPages) {
+		if (pageSize < 1 || maxPages < 1) {
+			throw new IllegalArgumentException("Page size and page limit must be positive");
+		}
+		this.source = source;
+		this.descending = descending;
+		this.pageSize = pageSize;
+		pages = new LinkedHashMap<Integer, Song[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Song[]> eldest) {
+				return size() > maxPages;
+			}
+		};
+	}
+
+	/**
+	 * Retrieves the number of songs.
+	 *
+	 * @return integer representing the size of the source list.
+	 */
+	public int size() {
+		return source.size();
+	}
+
+	/**
+	 * Retrieves the song at a position, fetching its page if it isn't kept.
+	 *
+	 * @param index : integer representing the position, starting from 0.
+	 * @return Song at that position.
+	 */
+	public Song get(int index) {
+		int size = size();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+		int page = index / pageSize;
+		Song[] songs = pages.get(page);
+		if (songs == null) {
+			songs = fetch(page, size);
+			pages.put(page, songs);
+		}
+		return songs[index % pageSize];
+	}
+
+	/**
+	 * Forgets every kept page, for when the source list has changed.
+	 */
+	public void invalidate() {
+		pages.clear();
+	}
+
+	/**
+	 * Retrieves how many pages have been fetched from the source list.
+	 *
+	 * @return long representing the number of fetches.
+	 */
+	public long getFetches() {
+		return fetches;
+	}
+
+	private Song[] fetch(int page, int size) {
+		fetches++;
+		int start = page * pageSize;
+		Song[] songs = new Song[Math.min(pageSize, size - start)];
+		for (int i = 0; i < songs.length; i++) {
+			int position = start + i;
+			songs[i] = source.get(descending ? size - 1 - position : position);
+		}
+		return songs;
+	}
+}
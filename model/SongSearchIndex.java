@@ -0,0 +1,351 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Search index over song titles and artists, for filtering the song list as the
+ * user types. Whole words are kept in a prefix trie, so short queries find every
+ * song with a word starting with the query. Longer queries use postings of
+ * three-character sequences (trigrams), so they also match in the middle of a
+ * word. Either way only songs sharing the query's words or trigrams are looked
+ * at, never the whole catalog.
+ *
+ * Songs are added and removed one at a time as the SongList changes.
+ *
+ * @author Amelia Matheson
+ */
+
+public class SongSearchIndex {
+
+	private static final Comparator<Match> BEST_FIRST = Comparator.comparingInt((Match m) -> -m.score)
+			.thenComparingInt(m -> m.entry.title.length()).thenComparing(m -> m.entry.title)
+			.thenComparing(m -> m.entry.artist);
+
+	private IdentityHashMap<Song, Entry> entries;
+	private TrieNode root;
+	private HashMap<Long, Set<Song>> trigrams;
+
+	/**
+	 * Creates a new, empty SongSearchIndex.
+	 */
+	public SongSearchIndex() {
+		entries = new IdentityHashMap<>();
+		root = new TrieNode();
+		trigrams = new HashMap<>();
+	}
+
+	/**
+	 * Adds a song to the index.
+	 *
+	 * @param song : Song to be made searchable.
+	 */
+	public synchronized void add(Song song) {
+		if (entries.containsKey(song)) {
+			return;
+		}
+		Entry entry = new Entry(normalize(song.getTitle()), normalize(song.getArtist()));
+		entries.put(song, entry);
+		for (String word : words(entry)) {
+			wordNode(word, true).songs.add(song);
+		}
+		for (long trigram : trigrams(entry)) {
+			trigrams.computeIfAbsent(trigram, k -> newSongSet()).add(song);
+		}
+	}
+
+	/**
+	 * Removes a song from the index.
+	 *
+	 * @param song : Song to be removed. Need not be the same object that was
+	 *             added, as long as it is equal to it.
+	 * @return boolean representing whether the song was in the index. true if it
+	 *         was, false otherwise.
+	 */
+	public synchronized boolean remove(Song song) {
+		Song stored = findStored(song);
+		if (stored == null) {
+			return false;
+		}
+		Entry entry = entries.remove(stored);
+		for (String word : words(entry)) {
+			wordNode(word, false).songs.remove(stored);
+		}
+		for (long trigram : trigrams(entry)) {
+			Set<Song> postings = trigrams.get(trigram);
+			postings.remove(stored);
+			if (postings.isEmpty()) {
+				trigrams.remove(trigram);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Retrieves the number of songs in the index.
+	 *
+	 * @return integer representing the number of indexed songs.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Finds songs whose title or artist matches the query, best matches first.
+	 * Matches at the start of the title rank highest, then matches at the start
+	 * of a word, then matches anywhere; title matches rank above artist matches.
+	 *
+	 * @param query  : String representing what the user typed. Case and
+	 *               punctuation are ignored.
+	 * @param offset : integer representing how many of the best matches to skip.
+	 * @param limit  : integer representing the most songs to return.
+	 * @return SearchResults holding the requested page of matches.
+	 */
+	public synchronized SearchResults search(String query, int offset, int limit) {
+		String q = normalize(query);
+		if (q.isEmpty() || limit <= 0) {
+			return new SearchResults(new ArrayList<>(), offset, 0);
+		}
+		ArrayList<Song> candidates = q.length() >= 3 ? trigramMatches(q) : prefixMatches(q);
+
+		// only the best offset + limit matches need to be kept in order
+		int keep = offset + limit;
+		PriorityQueue<Match> best = new PriorityQueue<>(Math.min(keep, candidates.size()) + 1,
+				BEST_FIRST.reversed());
+		for (Song song : candidates) {
+			Entry entry = entries.get(song);
+			best.add(new Match(song, entry, score(entry, q)));
+			if (best.size() > keep) {
+				best.poll();
+			}
+		}
+		ArrayList<Match> ranked = new ArrayList<>(best);
+		ranked.sort(BEST_FIRST);
+		ArrayList<Song> page = new ArrayList<>();
+		for (int i = offset; i < ranked.size(); i++) {
+			page.add(ranked.get(i).song);
+		}
+		return new SearchResults(page, offset, candidates.size());
+	}
+
+	/**
+	 * Songs with a word starting with the query.
+	 */
+	private ArrayList<Song> prefixMatches(String q) {
+		int space = q.indexOf(' ');
+		String prefix = space < 0 ? q : q.substring(0, space);
+		TrieNode node = root;
+		for (int i = 0; i < prefix.length() && node != null; i++) {
+			node = node.children.get(prefix.charAt(i));
+		}
+		Set<Song> found = newSongSet();
+		if (node != null) {
+			collect(node, found);
+		}
+		return new ArrayList<>(found);
+	}
+
+	/**
+	 * Songs whose title or artist contains the query, found by intersecting the
+	 * postings of every trigram in the query, smallest first.
+	 */
+	private ArrayList<Song> trigramMatches(String q) {
+		ArrayList<Set<Song>> postings = new ArrayList<>();
+		for (int i = 0; i + 3 <= q.length(); i++) {
+			Set<Song> songs = trigrams.get(trigram(q, i));
+			if (songs == null) {
+				return new ArrayList<>();
+			}
+			postings.add(songs);
+		}
+		postings.sort(Comparator.comparingInt(Set::size));
+		ArrayList<Song> found = new ArrayList<>();
+		for (Song song : postings.get(0)) {
+			boolean inAll = true;
+			for (int i = 1; i < postings.size() && inAll; i++) {
+				inAll = postings.get(i).contains(song);
+			}
+			Entry entry = entries.get(song);
+			// sharing every trigram doesn't guarantee they are in a row
+			if (inAll && (entry.title.contains(q) || entry.artist.contains(q))) {
+				found.add(song);
+			}
+		}
+		return found;
+	}
+
+	private static int score(Entry entry, String q) {
+		int score = 0;
+		if (entry.title.startsWith(q)) {
+			score += 100;
+		} else if (entry.title.contains(" " + q)) {
+			score += 70;
+		} else if (entry.title.contains(q)) {
+			score += 40;
+		}
+		if (entry.artist.startsWith(q)) {
+			score += 30;
+		} else if (entry.artist.contains(" " + q)) {
+			score += 20;
+		} else if (entry.artist.contains(q)) {
+			score += 10;
+		}
+		return score;
+	}
+
+	private void collect(TrieNode node, Set<Song> found) {
+		found.addAll(node.songs);
+		for (TrieNode child : node.children.values()) {
+			collect(child, found);
+		}
+	}
+
+	private Song findStored(Song song) {
+		if (entries.containsKey(song)) {
+			return song;
+		}
+		// an equal song has the same words, so look among songs sharing one
+		ArrayList<String> words = words(new Entry(normalize(song.getTitle()), normalize(song.getArtist())));
+		if (!words.isEmpty()) {
+			TrieNode node = wordNode(words.get(0), false);
+			if (node != null) {
+				for (Song stored : node.songs) {
+					if (stored.equals(song)) {
+						return stored;
+					}
+				}
+			}
+			return null;
+		}
+		for (Song stored : entries.keySet()) {
+			if (stored.equals(song)) {
+				return stored;
+			}
+		}
+		return null;
+	}
+
+	private TrieNode wordNode(String word, boolean create) {
+		TrieNode node = root;
+		for (int i = 0; i < word.length(); i++) {
+			TrieNode next = node.children.get(word.charAt(i));
+			if (next == null) {
+				if (!create) {
+					return null;
+				}
+				next = new TrieNode();
+				node.children.put(word.charAt(i), next);
+			}
+			node = next;
+		}
+		return node;
+	}
+
+	private static ArrayList<String> words(Entry entry) {
+		ArrayList<String> words = new ArrayList<>();
+		addWords(entry.title, words);
+		addWords(entry.artist, words);
+		return words;
+	}
+
+	private static void addWords(String text, ArrayList<String> words) {
+		if (text.isEmpty()) {
+			return;
+		}
+		for (String word : text.split(" ")) {
+			if (!words.contains(word)) {
+				words.add(word);
+			}
+		}
+	}
+
+	private static ArrayList<Long> trigrams(Entry entry) {
+		ArrayList<Long> keys = new ArrayList<>();
+		addTrigrams(entry.title, keys);
+		addTrigrams(entry.artist, keys);
+		return keys;
+	}
+
+	private static void addTrigrams(String text, ArrayList<Long> keys) {
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			long key = trigram(text, i);
+			if (!keys.contains(key)) {
+				keys.add(key);
+			}
+		}
+	}
+
+	private static long trigram(String text, int i) {
+		return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+	}
+
+	/**
+	 * Lower cases the text and turns every run of punctuation or spaces into a
+	 * single space.
+	 */
+	static String normalize(String text) {
+		StringBuilder normal = new StringBuilder(text.length());
+		boolean space = true; // drops leading spaces
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				normal.append(Character.toLowerCase(c));
+				space = false;
+			} else if (!space) {
+				normal.append(' ');
+				space = true;
+			}
+		}
+		int end = normal.length();
+		if (end > 0 && normal.charAt(end - 1) == ' ') {
+			normal.setLength(end - 1);
+		}
+		return normal.toString();
+	}
+
+	private static Set<Song> newSongSet() {
+		// identity based, since Song has no hashCode to go with its equals
+		return Collections.newSetFromMap(new IdentityHashMap<>());
+	}
+
+	/**
+	 * Normalized text of an indexed song.
+	 */
+	private static class Entry {
+		private String title;
+		private String artist;
+
+		private Entry(String title, String artist) {
+			this.title = title;
+			this.artist = artist;
+		}
+	}
+
+	/**
+	 * Node of the word trie, holding the songs with a word ending here.
+	 */
+	private static class TrieNode {
+		private HashMap<Character, TrieNode> children = new HashMap<>();
+		private Set<Song> songs = newSongSet();
+	}
+
+	/**
+	 * A candidate song and how well it matches the query.
+	 */
+	private static class Match {
+		private Song song;
+		private Entry entry;
+		private int score;
+
+		private Match(Song song, Entry entry, int score) {
+			this.song = song;
+			this.entry = entry;
+			this.score = score;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package model;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Hands out one shared String for every distinct value, so that text repeated
+ * across many objects (like an artist with hundreds of songs) is only stored
+ * once. The pool only holds its Strings weakly: once nothing else uses a
+ * value, it is dropped from the pool, so a pool that lives as long as the
+ * program (like the one for artists, while songs come and go from a watched
+ * library) only holds values still in use.
+ *
+ * @author Amelia Matheson
+ */
+
+public class StringPool {
+
+	// the values refer to the keys, so they must be weak too
+	private WeakHashMap<String, WeakReference<String>> strings = new WeakHashMap<>();
+
+	/**
+	 * Finds the pooled String equal to the specified one, adding it to the pool
+	 * if there is none.
+	 *
+	 * @param value : String to be looked up, or null.
+	 * @return String equal to value that is shared by every caller, or null if
+	 *         value is null.
+	 */
+	public synchronized String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		WeakReference<String> ref = strings.get(value);
+		String pooled = ref == null ? null : ref.get();
+		if (pooled != null) {
+			return pooled;
+		}
+		strings.put(value, new WeakReference<>(value));
+		return value;
+	}
+
+	/**
+	 * Retrieves the number of distinct Strings in the pool. Values nothing else
+	 * uses any more may still be counted until the garbage collector has
+	 * cleared them.
+	 *
+	 * @return integer representing the size of the pool.
+	 */
+	public synchronized int size() {
+		return strings.size();
+	}
+}
@@ -0,0 +1,113 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Shares the play time fairly between the accounts with requests waiting
+ * (weighted fair queuing). Each account's songs are played in the order it
+ * asked for them, but a song's turn depends on how much play time its account
+ * already has waiting ahead of it: someone who queues three long tracks gets
+ * them played after the short songs other people asked for in the meantime,
+ * not before.
+ *
+ * Every request is given a virtual finish time, the later of the current
+ * virtual time and its account's last finish time, plus the song's duration
+ * divided by the account's weight. The request with the earliest finish time
+ * plays next, and the virtual time moves up to it (self-clocked fair
+ * queuing). Adding and taking a request take O(log n) time.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class WeightedFairPolicy implements QueuePolicy {
+
+	private static final Comparator<QueueEntry> BY_FINISH = Comparator.<QueueEntry>comparingDouble(
+			(entry) -> entry.finish).thenComparingLong(QueueEntry::getSeq);
+
+	private PriorityQueue<QueueEntry> entries = new PriorityQueue<>(BY_FINISH);
+	private HashMap<Object, Account> accounts = new HashMap<>();
+	private ToDoubleFunction<JukeboxAccount> weights;
+	private double virtualTime;
+
+	/**
+	 * What is known about an account with requests waiting.
+	 */
+	private static class Account {
+		private double lastFinish;
+		private int waiting;
+	}
+
+	/**
+	 * Creates a new WeightedFairPolicy that gives every account the same share.
+	 */
+	public WeightedFairPolicy() {
+		this((account) -> 1);
+	}
+
+	/**
+	 * Creates a new WeightedFairPolicy that gives accounts different shares. An
+	 * account with weight 2 gets twice the play time of one with weight 1.
+	 *
+	 * @param weights : ToDoubleFunction giving the weight of an account, which
+	 *                must be more than 0. It is also asked for null, for
+	 *                requests made by nobody.
+	 */
+	public WeightedFairPolicy(ToDoubleFunction<JukeboxAccount> weights) {
+		this.weights = weights;
+	}
+
+	@Override
+	public void add(QueueEntry entry) {
+		double weight = weights.applyAsDouble(entry.getAccount());
+		if (!(weight > 0)) {
+			throw new IllegalArgumentException("Weight must be more than 0: " + weight);
+		}
+		Account account = accounts.get(entry.requester());
+		if (account == null) {
+			account = new Account();
+			accounts.put(entry.requester(), account);
+		}
+		double start = Math.max(virtualTime, account.lastFinish);
+		entry.finish = start + entry.getSong().getDurationMilliseconds() / weight;
+		account.lastFinish = entry.finish;
+		account.waiting++;
+		entries.add(entry);
+	}
+
+	@Override
+	public QueueEntry peek() {
+		return entries.peek();
+	}
+
+	@Override
+	public QueueEntry poll() {
+		QueueEntry entry = entries.poll();
+		if (entry == null) {
+			return null;
+		}
+		virtualTime = Math.max(virtualTime, entry.finish);
+		Account account = accounts.get(entry.requester());
+		if (--account.waiting == 0) {
+			// its last finish is behind the virtual time now, so it starts afresh
+			accounts.remove(entry.requester());
+		}
+		return entry;
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public List<QueueEntry> inPlayOrder() {
+		ArrayList<QueueEntry> order = new ArrayList<>(entries);
+		order.sort(BY_FINISH);
+		return order;
+	}
+}
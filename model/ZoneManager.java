@@ -0,0 +1,192 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Keeps track of the playback zones (rooms) of one site, which can be added
+ * and removed while the jukebox runs. Each zone has its own queue, backend,
+ * and listeners. Zones that play without a display share one bounded pool of
+ * threads for their timers, so a hundred quiet zones don't need a hundred
+ * threads.
+ *
+ * @author Adrianna Koppes
+ */
+
+public class ZoneManager {
+
+	/**
+	 * Threads in the shared pool if no number is given.
+	 */
+	public static final int DEFAULT_THREADS = 2;
+
+	private ConcurrentHashMap<String, PlaybackZone> zones = new ConcurrentHashMap<>();
+	private ScheduledThreadPoolExecutor executor;
+	private CopyOnWriteArrayList<Function<String, PlayListListener>> zoneListeners = new CopyOnWriteArrayList<>();
+	private Set<String> kept = ConcurrentHashMap.newKeySet(); // can't be removed
+
+	/**
+	 * Creates a new ZoneManager with the default number of shared threads.
+	 */
+	public ZoneManager() {
+		this(DEFAULT_THREADS);
+	}
+
+	/**
+	 * Creates a new ZoneManager.
+	 *
+	 * @param threads : integer representing the most threads the zones' timers
+	 *                may use between them.
+	 */
+	public ZoneManager(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread: " + threads);
+		}
+		AtomicInteger count = new AtomicInteger();
+		executor = new ScheduledThreadPoolExecutor(threads, (task) -> {
+			Thread thread = new Thread(task, "zone-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Creates a zone that plays without a display, in real time, on the shared
+	 * threads.
+	 *
+	 * @param name : String representing the name of the new zone.
+	 * @return PlaybackZone that was created, or null if the name is taken.
+	 */
+	public synchronized PlaybackZone createZone(String name) {
+		if (zones.containsKey(name)) {
+			return null;
+		}
+		return createZone(name, new HeadlessPlaybackBackend(1.0, executor));
+	}
+
+	/**
+	 * Creates a zone that plays with the specified backend. Zone names must all
+	 * be unique.
+	 *
+	 * @param name    : String representing the name of the new zone.
+	 * @param backend : PlaybackBackend for the new zone, not used by any other
+	 *                zone.
+	 * @return PlaybackZone that was created, or null if the name is taken.
+	 */
+	public synchronized PlaybackZone createZone(String name, PlaybackBackend backend) {
+		// checked first, so a taken name never gets a PlaybackZone made for it
+		if (zones.containsKey(name)) {
+			return null;
+		}
+		PlaybackZone zone = new PlaybackZone(name, backend);
+		zones.put(name, zone);
+		for (Function<String, PlayListListener> listeners : zoneListeners) {
+			zone.addListener(listeners.apply(name));
+		}
+		return zone;
+	}
+
+	/**
+	 * Registers a listener on every zone, those that exist now and those
+	 * created later. Each zone gets its own listener, made from its name.
+	 *
+	 * @param listeners : Function making the PlayListListener for the zone with
+	 *                  the name it is given.
+	 */
+	public synchronized void addZoneListener(Function<String, PlayListListener> listeners) {
+		zoneListeners.add(listeners);
+		for (PlaybackZone zone : zones.values()) {
+			zone.addListener(listeners.apply(zone.getName()));
+		}
+	}
+
+	/**
+	 * Retrieves a zone.
+	 *
+	 * @param name : String representing the name of the zone.
+	 * @return PlaybackZone with that name, or null if there is none.
+	 */
+	public PlaybackZone getZone(String name) {
+		return name == null ? null : zones.get(name);
+	}
+
+	/**
+	 * Stops a zone and forgets it. The main zone of a JukeboxEngine can't be
+	 * removed; it stops when the engine shuts down.
+	 *
+	 * @param name : String representing the name of the zone.
+	 * @return boolean representing whether the zone existed. true if it did,
+	 *         false otherwise.
+	 * @throws IllegalArgumentException if the zone can't be removed.
+	 */
+	public boolean removeZone(String name) {
+		if (name != null && kept.contains(name)) {
+			throw new IllegalArgumentException("Can't remove zone " + name);
+		}
+		return closeZone(name);
+	}
+
+	/**
+	 * Marks a zone as one that removeZone() refuses to remove, for the zone a
+	 * JukeboxEngine plays in by default.
+	 *
+	 * @param name : String representing the name of the zone.
+	 */
+	void keepZone(String name) {
+		kept.add(name);
+	}
+
+	private boolean closeZone(String name) {
+		PlaybackZone zone = name == null ? null : zones.remove(name);
+		if (zone == null) {
+			return false;
+		}
+		zone.close();
+		return true;
+	}
+
+	/**
+	 * Retrieves every zone.
+	 *
+	 * @return ArrayList of PlaybackZones, in no particular order.
+	 */
+	public ArrayList<PlaybackZone> getZones() {
+		return new ArrayList<>(zones.values());
+	}
+
+	/**
+	 * Retrieves the number of zones.
+	 *
+	 * @return integer representing how many zones there are.
+	 */
+	public int size() {
+		return zones.size();
+	}
+
+	/**
+	 * Retrieves the shared pool of threads, for making backends that use it.
+	 *
+	 * @return ScheduledExecutorService shared by the zones.
+	 */
+	public ScheduledExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Stops every zone and the shared threads. The ZoneManager can't be used
+	 * afterwards.
+	 */
+	public void shutdown() {
+		for (String name : zones.keySet()) {
+			closeZone(name);
+		}
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,95 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tests for the AccountJournal.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.AccountJournal;
+import model.AccountStore;
+import model.JukeboxAccount;
+
+class AccountJournalTest {
+
+	/**
+	 * Tests that accounts and song counts are restored from the journal alone.
+	 */
+	@Test
+	void testReplay() throws IOException {
+		Path dir = Files.createTempDirectory("journal");
+		Path snapshot = dir.resolve("accounts.ser");
+		Path log = dir.resolve("accounts.journal");
+
+		AccountJournal journal = new AccountJournal(snapshot, log, 1000);
+		AccountStore store = journal.open();
+		JukeboxAccount account = store.create("ABC", "123");
+		store.create("XYZ", "456");
+		assertTrue(store.addSong(account));
+		assertTrue(store.addSong(account));
+		journal.close();
+		assertFalse(Files.exists(snapshot));
+
+		AccountJournal reopened = new AccountJournal(snapshot, log, 1000);
+		AccountStore restored = reopened.open();
+		assertEquals(restored.size(), 2);
+		assertEquals(restored.find("ABC").getSongsToday(), 2);
+		assertNotNull(restored.authenticate("XYZ", "456"));
+		reopened.close();
+	}
+
+	/**
+	 * Tests that compaction moves everything into the snapshot and empties the
+	 * journal.
+	 */
+	@Test
+	void testCompaction() throws IOException {
+		Path dir = Files.createTempDirectory("journal");
+		Path snapshot = dir.resolve("accounts.ser");
+		Path log = dir.resolve("accounts.journal");
+
+		AccountJournal journal = new AccountJournal(snapshot, log, 1000);
+		AccountStore store = journal.open();
+		store.addSong(store.create("ABC", "123"));
+		journal.checkpoint();
+		assertTrue(Files.exists(snapshot));
+		assertEquals(Files.size(log), 0);
+		store.addSong(store.find("ABC"));
+		journal.close();
+
+		AccountJournal reopened = new AccountJournal(snapshot, log, 1000);
+		AccountStore restored = reopened.open();
+		assertEquals(restored.find("ABC").getSongsToday(), 2);
+		reopened.close();
+	}
+
+	/**
+	 * Tests that a record torn by a crash is ignored and cut off.
+	 */
+	@Test
+	void testTornRecord() throws IOException {
+		Path dir = Files.createTempDirectory("journal");
+		Path snapshot = dir.resolve("accounts.ser");
+		Path log = dir.resolve("accounts.journal");
+
+		AccountJournal journal = new AccountJournal(snapshot, log, 1000);
+		journal.open().create("ABC", "123");
+		journal.close();
+		long intact = Files.size(log);
+		Files.write(log, new byte[] { 0, 0, 0, 40, 1, 2 }, StandardOpenOption.APPEND);
+
+		AccountJournal reopened = new AccountJournal(snapshot, log, 1000);
+		AccountStore restored = reopened.open();
+		assertEquals(restored.size(), 1);
+		assertEquals(Files.size(log), intact);
+		reopened.close();
+	}
+}
@@ -0,0 +1,122 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the AccountStore.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.AccountStore;
+import model.JukeboxAccount;
+import model.ModelCodec;
+import model.PasswordHasher;
+
+class AccountStoreTest {
+
+	/**
+	 * Tests creating accounts and looking them up again.
+	 */
+	@Test
+	void testCreateAndFind() {
+		AccountStore store = new AccountStore();
+		JukeboxAccount created = store.create("Name", "PW");
+		assertNotNull(created);
+		assertSame(store.find("Name"), created);
+		assertNull(store.find("Other"));
+		assertNull(store.find(null));
+		// usernames must be unique
+		assertNull(store.create("Name", "different"));
+		assertEquals(store.size(), 1);
+	}
+
+	/**
+	 * Tests logging in with correct and incorrect passwords.
+	 */
+	@Test
+	void testAuthenticate() {
+		AccountStore store = new AccountStore();
+		JukeboxAccount account = store.create("ABC", "123");
+		assertSame(store.authenticate("ABC", "123"), account);
+		assertNull(store.authenticate("ABC", "1234"));
+		assertNull(store.authenticate("XYZ", "123"));
+	}
+
+	/**
+	 * Tests that a password is hashed again at the cost of the store's hasher
+	 * when it is too low, and that a store with a cheap hasher never moves its
+	 * accounts to the default cost.
+	 */
+	@Test
+	void testRehashAtStoreCost() throws IOException {
+		AccountStore store = new AccountStore(new PasswordHasher(1));
+		JukeboxAccount account = store.create("ABC", "123");
+		byte[] saved = ModelCodec.encodeAccounts(List.of(account));
+		assertSame(store.authenticate("ABC", "123"), account);
+		assertArrayEquals(ModelCodec.encodeAccounts(List.of(account)), saved);
+
+		assertTrue(account.checkPassword("123", new PasswordHasher(2)));
+		byte[] rehashed = ModelCodec.encodeAccounts(List.of(account));
+		assertFalse(Arrays.equals(rehashed, saved));
+		assertTrue(account.checkPassword("123", new PasswordHasher(2)));
+		assertArrayEquals(ModelCodec.encodeAccounts(List.of(account)), rehashed);
+		assertNull(store.authenticate("XYZ", "123"));
+		assertNull(store.authenticate("XYZ", "123")); // checked against the dummy hash
+	}
+
+	/**
+	 * Tests restoring the store from a saved list of accounts.
+	 */
+	@Test
+	void testRestore() {
+		ArrayList<JukeboxAccount> saved = new ArrayList<>();
+		saved.add(new JukeboxAccount("One", "1"));
+		saved.add(new JukeboxAccount("Two", "2"));
+		AccountStore store = new AccountStore(saved);
+		assertEquals(store.size(), 2);
+		assertTrue(store.contains("One"));
+		assertTrue(store.contains("Two"));
+		assertEquals(store.getAccounts().size(), 2);
+	}
+
+	/**
+	 * Tests that only one of many threads racing to create the same username
+	 * succeeds.
+	 */
+	@Test
+	void testConcurrentCreate() throws InterruptedException {
+		// cheap hashes, since this is about the race rather than the passwords
+		AccountStore store = new AccountStore(new PasswordHasher(1));
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		AtomicInteger successes = new AtomicInteger();
+		for (int i = 0; i < threads; i++) {
+			new Thread(() -> {
+				try {
+					start.await();
+					for (int j = 0; j < 1000; j++) {
+						if (store.create("user" + j, "pw") != null) {
+							successes.incrementAndGet();
+						}
+					}
+				} catch (InterruptedException e) {
+				}
+				done.countDown();
+			}).start();
+		}
+		start.countDown();
+		done.await();
+		assertEquals(successes.get(), 1000);
+		assertEquals(store.size(), 1000);
+	}
+}
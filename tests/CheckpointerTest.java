@@ -0,0 +1,146 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.Fixtures.CHEAP;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for the Checkpointer.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.AccountJournal;
+import model.AccountStore;
+import model.Checkpointable;
+import model.Checkpointer;
+
+class CheckpointerTest {
+
+	/**
+	 * Journal that only counts its changes and checkpoints.
+	 */
+	private static class FakeJournal implements Checkpointable {
+		private int dirty;
+		private int checkpoints;
+
+		@Override
+		public int getDirtyRecords() {
+			return dirty;
+		}
+
+		@Override
+		public void checkpoint() {
+			checkpoints++;
+			dirty = 0;
+		}
+	}
+
+	/**
+	 * Journal that lets a test wait for another journal's first checkpoint.
+	 */
+	private static class LatchedJournal implements Checkpointable {
+		private Checkpointable journal;
+		private CountDownLatch checkpointed = new CountDownLatch(1);
+
+		LatchedJournal(Checkpointable journal) {
+			this.journal = journal;
+		}
+
+		@Override
+		public int getDirtyRecords() {
+			return journal.getDirtyRecords();
+		}
+
+		@Override
+		public void checkpoint() {
+			journal.checkpoint();
+			checkpointed.countDown();
+		}
+	}
+
+	/**
+	 * Tests that a journal with enough changes is checkpointed right away.
+	 */
+	@Test
+	void testThreshold() throws IOException {
+		Path dir = Files.createTempDirectory("checkpoint");
+		AccountJournal journal = new AccountJournal(dir.resolve("accounts.ser"), dir.resolve("accounts.journal"),
+				100000, CHEAP);
+		AccountStore store = journal.open();
+		Checkpointer checkpointer = new Checkpointer(3600000, 3);
+		checkpointer.add(journal);
+
+		store.create("ABC", "123");
+		store.create("DEF", "456");
+		checkpointer.checkNow();
+		assertEquals(checkpointer.getCheckpoints(), 0);
+		assertEquals(journal.getDirtyRecords(), 2);
+
+		store.create("GHI", "789");
+		checkpointer.checkNow();
+		assertEquals(checkpointer.getCheckpoints(), 1);
+		assertEquals(journal.getDirtyRecords(), 0);
+		assertTrue(Files.exists(dir.resolve("accounts.ser")));
+		assertEquals(Files.size(dir.resolve("accounts.journal")), 0);
+		checkpointer.checkNow();
+		assertEquals(checkpointer.getCheckpoints(), 1);
+		journal.close();
+	}
+
+	/**
+	 * Tests that a few changes are checkpointed once the interval has passed.
+	 */
+	@Test
+	void testInterval() {
+		AtomicLong now = new AtomicLong();
+		FakeJournal journal = new FakeJournal();
+		Checkpointer checkpointer = new Checkpointer(50, 1000, now::get);
+		checkpointer.add(journal);
+		checkpointer.checkNow(); // clean, so the interval starts now
+
+		journal.dirty = 1;
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(49));
+		checkpointer.checkNow();
+		assertEquals(checkpointer.getCheckpoints(), 0);
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+		checkpointer.checkNow();
+		assertEquals(checkpointer.getCheckpoints(), 1);
+		assertEquals(journal.checkpoints, 1);
+		checkpointer.checkNow();
+		assertEquals(journal.checkpoints, 1);
+	}
+
+	/**
+	 * Tests the background thread, and that what it saved is read back.
+	 */
+	@Test
+	void testBackground() throws IOException, InterruptedException {
+		Path dir = Files.createTempDirectory("checkpoint");
+		Path snapshot = dir.resolve("accounts.ser");
+		Path log = dir.resolve("accounts.journal");
+		AccountJournal journal = new AccountJournal(snapshot, log, 100000, CHEAP);
+		AccountStore store = journal.open();
+		LatchedJournal latched = new LatchedJournal(journal);
+		// a single change is enough, so the first check after it checkpoints
+		Checkpointer checkpointer = new Checkpointer(20, 1);
+		checkpointer.add(latched);
+		checkpointer.start();
+		store.addSong(store.create("ABC", "123"));
+		assertTrue(latched.checkpointed.await(10, TimeUnit.SECONDS));
+		checkpointer.stop();
+		assertTrue(checkpointer.getCheckpoints() > 0);
+		journal.close();
+
+		AccountJournal reopened = new AccountJournal(snapshot, log, 100000, CHEAP);
+		assertEquals(reopened.open().find("ABC").getSongsToday(), 1);
+		reopened.close();
+	}
+}
@@ -0,0 +1,243 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.Fixtures.CHEAP;
+import static tests.Fixtures.song;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the duplicate policies of the PlayList.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.AccountStore;
+import model.DuplicatePolicy;
+import model.HeadlessPlaybackBackend;
+import model.JukeboxAccount;
+import model.JukeboxEngine;
+import model.ManualCooldownClock;
+import model.PlayList;
+import model.PlayListListener;
+import model.PlaybackZone;
+import model.QueueEntry;
+import model.Song;
+import model.SongList;
+import model.ZoneManager;
+import tests.Fixtures.ManualBackend;
+
+class DuplicatePolicyTest {
+
+	/**
+	 * Tests that duplicates are still queued by default.
+	 */
+	@Test
+	void testAllow() {
+		PlayList playList = new PlayList(new ManualBackend());
+		assertTrue(playList.queueUpNextSong(song("one")));
+		assertTrue(playList.queueUpNextSong(song("one")));
+		assertEquals(playList.size(), 2);
+	}
+
+	/**
+	 * Tests that a song already waiting or playing is turned away, even inside a
+	 * batch, and can be queued again once it has finished.
+	 */
+	@Test
+	void testReject() {
+		ManualBackend backend = new ManualBackend();
+		PlayList playList = new PlayList(backend);
+		playList.setGapMillis(0);
+		playList.setDuplicatePolicy(DuplicatePolicy.REJECT);
+		assertTrue(playList.queueUpNextSong(song("one")));
+		assertTrue(playList.queueUpNextSong(song("two")));
+		playList.play();
+		assertFalse(playList.queueUpNextSong(song("one"))); // playing
+		assertFalse(playList.queueUpNextSong(song("two"))); // waiting
+		assertFalse(playList.queueUpNextSongs(List.of(song("three"), song("three"))));
+		assertFalse(playList.queueUpNextSongs(List.of(song("three"), song("two"))));
+		assertEquals(playList.size(), 2);
+
+		backend.finish();
+		assertTrue(playList.queueUpNextSong(song("one")));
+		assertEquals(playList.getSongsAsList(), List.of(song("two"), song("one")));
+	}
+
+	/**
+	 * Tests that requests for a queued song are counted on the one entry, once
+	 * per user, and that the listeners are told.
+	 */
+	@Test
+	void testCoalesce() {
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		JukeboxAccount b = new JukeboxAccount("B", "2", null, CHEAP);
+		JukeboxAccount c = new JukeboxAccount("C", "3", null, CHEAP);
+		PlayList playList = new PlayList(new ManualBackend());
+		playList.setDuplicatePolicy(DuplicatePolicy.COALESCE);
+		ArrayList<Integer> counts = new ArrayList<>();
+		playList.addListener(new PlayListListener() {
+			@Override
+			public void songQueued(Song song) {
+			}
+
+			@Override
+			public void entryCoalesced(QueueEntry entry) {
+				counts.add(entry.getRequestCount());
+			}
+
+			@Override
+			public void songStarted(Song song) {
+			}
+
+			@Override
+			public void songFinished(Song song) {
+			}
+		});
+		assertEquals(playList.coalesces(List.of(song("one"), song("one"))), 1);
+		assertTrue(playList.queueUpNextSong(song("one"), a));
+		assertEquals(playList.coalesces(List.of(song("one"), song("two"))), 1);
+		assertTrue(playList.queueUpNextSong(song("one"), b));
+		assertTrue(playList.queueUpNextSong(song("one"), b));
+		assertTrue(playList.queueUpNextSongs(List.of(song("two"), song("one")), c));
+		List<QueueEntry> entries = playList.getEntries();
+		assertEquals(entries.size(), 2);
+		assertEquals(entries.get(0).getAccount(), a);
+		assertEquals(entries.get(0).getRequestCount(), 3);
+		assertEquals(entries.get(1).getRequestCount(), 1);
+		assertEquals(counts, List.of(2, 2, 3));
+	}
+
+	/**
+	 * Tests that a request for the song playing queues it again instead of
+	 * being coalesced into it.
+	 */
+	@Test
+	void testCoalesceNotIntoPlaying() {
+		ManualBackend backend = new ManualBackend();
+		PlayList playList = new PlayList(backend);
+		playList.setGapMillis(0);
+		playList.setDuplicatePolicy(DuplicatePolicy.COALESCE);
+		playList.queueUpNextSong(song("one"));
+		playList.play();
+		assertEquals(playList.coalesces(List.of(song("one"))), 0);
+		assertTrue(playList.queueUpNextSong(song("one")));
+		assertTrue(playList.queueUpNextSong(song("one")));
+		assertEquals(playList.size(), 2);
+		assertEquals(playList.getEntries().get(1).getRequestCount(), 1);
+		backend.finish();
+		assertEquals(playList.getSongsAsList(), List.of(song("one")));
+	}
+
+	/**
+	 * Tests that a song can't be queued again until the cooldown has passed
+	 * since it finished.
+	 */
+	@Test
+	void testCooldown() {
+		ManualBackend backend = new ManualBackend();
+		ManualCooldownClock clock = new ManualCooldownClock();
+		PlayList playList = new PlayList(backend);
+		playList.setCooldownClock(clock);
+		playList.setDuplicatePolicy(DuplicatePolicy.COOLDOWN);
+		playList.setDuplicateCooldownMillis(100);
+		playList.queueUpNextSong(song("one"));
+		playList.play();
+		assertFalse(playList.queueUpNextSong(song("one")));
+		backend.finish();
+		assertFalse(playList.queueUpNextSong(song("one")));
+		clock.advanceMillis(99);
+		assertFalse(playList.queueUpNextSong(song("one")));
+		clock.advanceMillis(1);
+		assertTrue(playList.queueUpNextSong(song("one")));
+	}
+
+	/**
+	 * Tests that finished songs are only remembered while the cooldown is the
+	 * policy.
+	 */
+	@Test
+	void testCooldownOnlyRemembersUnderCooldown() {
+		ManualBackend backend = new ManualBackend();
+		PlayList playList = new PlayList(backend);
+		playList.setGapMillis(0);
+		playList.queueUpNextSong(song("one"));
+		playList.play();
+		backend.finish(); // finished under ALLOW, so not remembered
+		playList.setDuplicatePolicy(DuplicatePolicy.COOLDOWN);
+		assertTrue(playList.queueUpNextSong(song("one")));
+		playList.play();
+		backend.finish();
+		assertFalse(playList.queueUpNextSong(song("one")));
+		playList.setDuplicatePolicy(DuplicatePolicy.REJECT);
+		playList.setDuplicatePolicy(DuplicatePolicy.COOLDOWN);
+		assertTrue(playList.queueUpNextSong(song("one")));
+	}
+
+	/**
+	 * Tests that the engine turns away duplicates without counting them against
+	 * the account's daily limit.
+	 */
+	@Test
+	void testEngine() {
+		HeadlessPlaybackBackend backend = new HeadlessPlaybackBackend();
+		JukeboxEngine engine = new JukeboxEngine(new SongList(), new AccountStore(CHEAP), backend);
+		try {
+			engine.getPlayList().setDuplicatePolicy(DuplicatePolicy.REJECT);
+			JukeboxAccount account = engine.createAccount("ABC", "123");
+			Song first = engine.getCatalog().get(0);
+			assertEquals(engine.requestSong(account, first), JukeboxEngine.RequestResult.QUEUED);
+			assertEquals(engine.requestSong(account, first), JukeboxEngine.RequestResult.DUPLICATE);
+			assertEquals(engine.requestSongs(account, List.of(engine.getCatalog().get(1), first)),
+					JukeboxEngine.RequestResult.DUPLICATE);
+			assertEquals(account.getSongsToday(), 1);
+		} finally {
+			engine.shutdown();
+			backend.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that the engine doesn't count coalesced requests against the
+	 * account's daily limit, and says they were coalesced.
+	 */
+	@Test
+	void testEngineCoalesce() {
+		HeadlessPlaybackBackend backend = new HeadlessPlaybackBackend();
+		JukeboxEngine engine = new JukeboxEngine(new SongList(), new AccountStore(CHEAP), backend);
+		try {
+			engine.getPlayList().setDuplicatePolicy(DuplicatePolicy.COALESCE);
+			JukeboxAccount a = engine.createAccount("ABC", "123");
+			JukeboxAccount b = engine.createAccount("DEF", "456");
+			Song first = engine.getCatalog().get(0);
+			Song second = engine.getCatalog().get(1);
+			assertEquals(engine.requestSong(a, first), JukeboxEngine.RequestResult.QUEUED); // playing
+			assertEquals(engine.requestSong(b, first), JukeboxEngine.RequestResult.QUEUED);
+			assertEquals(engine.requestSong(a, first), JukeboxEngine.RequestResult.COALESCED);
+			assertEquals(engine.requestSongs(a, List.of(second, first)), JukeboxEngine.RequestResult.QUEUED);
+			assertEquals(engine.requestSongs(b, List.of(second, first)), JukeboxEngine.RequestResult.COALESCED);
+			assertEquals(a.getSongsToday(), 2);
+			assertEquals(b.getSongsToday(), 1);
+			assertEquals(engine.getPlayList().size(), 3);
+		} finally {
+			engine.shutdown();
+			backend.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that a saved queue is put back whole, even with duplicates turned
+	 * away.
+	 */
+	@Test
+	void testRestore() {
+		ManualBackend backend = new ManualBackend();
+		PlaybackZone zone = new ZoneManager().createZone("bar", backend);
+		zone.getPlayList().setDuplicatePolicy(DuplicatePolicy.REJECT);
+		zone.restore(List.of(song("one"), song("two"), song("one")));
+		assertEquals(zone.getPlayList().getSongsAsList(), List.of(song("one"), song("two"), song("one")));
+		assertFalse(zone.request(song("two")));
+	}
+}
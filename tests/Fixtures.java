@@ -0,0 +1,67 @@
+package tests;
+
+/**
+ * Things shared by several tests: a cheap PasswordHasher for accounts, a
+ * backend that finishes songs only when told to, and a quick way to make
+ * songs.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.PasswordHasher;
+import model.PlaybackBackend;
+import model.Song;
+
+final class Fixtures {
+
+	/**
+	 * Hasher doing a single iteration, so making accounts costs nothing.
+	 */
+	static final PasswordHasher CHEAP = new PasswordHasher(1);
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Backend that finishes songs only when told to.
+	 */
+	static class ManualBackend implements PlaybackBackend {
+		private Runnable onFinished;
+
+		@Override
+		public void play(Song song, Runnable onFinished) {
+			this.onFinished = onFinished;
+		}
+
+		@Override
+		public void stop() {
+		}
+
+		void finish() {
+			onFinished.run();
+		}
+	}
+
+	/**
+	 * Makes a ten second song by artist "A".
+	 *
+	 * @param title : String representing the song's title, also used for its
+	 *              file name.
+	 * @return Song with that title.
+	 */
+	static Song song(String title) {
+		return song(title, 10);
+	}
+
+	/**
+	 * Makes a song by artist "A".
+	 *
+	 * @param title   : String representing the song's title, also used for its
+	 *                file name.
+	 * @param seconds : integer representing the song's duration.
+	 * @return Song with that title and duration.
+	 */
+	static Song song(String title, int seconds) {
+		return new Song(title, "A", seconds, title + ".mp3");
+	}
+}
@@ -3,7 +3,13 @@ package tests;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tests for the JukeboxAccount.
@@ -12,6 +18,8 @@ import java.time.LocalDate;
  */
 
 import model.JukeboxAccount;
+import model.ManualQuotaClock;
+import model.QuotaEngine;
 
 class JukeboxAccountTest {
 
@@ -23,12 +31,13 @@ class JukeboxAccountTest {
 		JukeboxAccount aJBA = new JukeboxAccount("Name", "PW");
 		JukeboxAccount another = new JukeboxAccount("Sample", "12345");
 		assertEquals(aJBA.getUsername(), "Name");
-		assertEquals(aJBA.getPassword(), "PW");
+		assertTrue(aJBA.checkPassword("PW"));
+		assertFalse(aJBA.checkPassword("pw"));
 		assertEquals(aJBA.getDate(), LocalDate.now());
 		assertEquals(aJBA.getSongsToday(), 0);
 		
 		assertEquals(another.getUsername(), "Sample");
-		assertEquals(another.getPassword(), "12345");
+		assertTrue(another.checkPassword("12345"));
 		assertEquals(another.getDate(), LocalDate.now());
 		assertEquals(another.getSongsToday(), 0);
 	}
@@ -62,4 +71,76 @@ class JukeboxAccountTest {
 		assertEquals(timeTravel.getSongsToday(), 1);
 		assertEquals(timeTravel.getDate(), LocalDate.now());
 	}
-}
+
+	/**
+	 * Tests the daily limit and the midnight reset using a test clock.
+	 */
+	@Test
+	void testQuotaWithClock() {
+		ManualQuotaClock clock = new ManualQuotaClock(LocalDate.of(2023, 3, 12));
+		JukeboxAccount account = new JukeboxAccount("ABC", "123", new QuotaEngine(clock, 2));
+		assertEquals(account.getDailyLimit(), 2);
+		assertTrue(account.addSong());
+		assertTrue(account.addSong());
+		assertFalse(account.addSong());
+		assertEquals(account.getSongsLeftToday(), 0);
+
+		// a new day starts over without anything being reset
+		clock.advanceDays(1);
+		assertEquals(account.getSongsLeftToday(), 2);
+		assertTrue(account.addSong());
+		assertEquals(account.getSongsToday(), 1);
+		assertEquals(account.getDate(), LocalDate.of(2023, 3, 13));
+	}
+
+	/**
+	 * Tests that many threads adding songs for the same account at once can't go
+	 * over the limit.
+	 */
+	@Test
+	void testConcurrentAddSong() throws InterruptedException {
+		ManualQuotaClock clock = new ManualQuotaClock(LocalDate.of(2023, 3, 12));
+		JukeboxAccount account = new JukeboxAccount("ABC", "123", new QuotaEngine(clock, 100));
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		AtomicInteger added = new AtomicInteger();
+		for (int i = 0; i < threads; i++) {
+			new Thread(() -> {
+				try {
+					start.await();
+					for (int j = 0; j < 1000; j++) {
+						if (account.addSong()) {
+							added.incrementAndGet();
+						}
+					}
+				} catch (InterruptedException e) {
+				}
+				done.countDown();
+			}).start();
+		}
+		start.countDown();
+		done.await();
+		assertEquals(added.get(), 100);
+		assertEquals(account.getSongsToday(), 100);
+	}
+
+	/**
+	 * Tests that an account saved with Java serialization comes back the same.
+	 */
+	@Test
+	void testSerialization() throws Exception {
+		JukeboxAccount account = new JukeboxAccount("ABC", "123");
+		account.addSong();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(account);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		JukeboxAccount copy = (JukeboxAccount) in.readObject();
+		assertEquals(copy.getUsername(), "ABC");
+		assertTrue(copy.checkPassword("123"));
+		assertEquals(copy.getSongsToday(), 1);
+		assertEquals(copy.getDate(), account.getDate());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the JukeboxEngine, run without any display.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.AccountStore;
+import model.HeadlessPlaybackBackend;
+import model.JukeboxAccount;
+import model.JukeboxEngine;
+import model.PlayListListener;
+import model.Song;
+import model.SongList;
+
+class JukeboxEngineTest {
+
+	/**
+	 * Listener that writes down everything it is told.
+	 */
+	private static class Recorder implements PlayListListener {
+		private ArrayList<String> events = new ArrayList<>();
+
+		@Override
+		public synchronized void songQueued(Song song) {
+			events.add("queued " + song.getTitle());
+		}
+
+		@Override
+		public synchronized void songsQueued(List<Song> songs) {
+			events.add("queued " + songs.size() + " songs");
+		}
+
+		@Override
+		public synchronized void songStarted(Song song) {
+			events.add("started " + song.getTitle());
+		}
+
+		@Override
+		public synchronized void songFinished(Song song) {
+			events.add("finished " + song.getTitle());
+		}
+	}
+
+	/**
+	 * Tests requesting songs and the events that follow.
+	 */
+	@Test
+	void testRequestSong() {
+		HeadlessPlaybackBackend backend = new HeadlessPlaybackBackend();
+		SongList catalog = new SongList();
+		JukeboxEngine engine = new JukeboxEngine(catalog, new AccountStore(), backend);
+		Recorder recorder = new Recorder();
+		engine.addListener(recorder);
+
+		Song first = catalog.get(0);
+		Song second = catalog.get(1);
+		assertEquals(engine.requestSong(null, first), JukeboxEngine.RequestResult.NOT_LOGGED_IN);
+
+		JukeboxAccount account = engine.createAccount("ABC", "123");
+		assertSame(engine.logIn("ABC", "123"), account);
+		assertEquals(engine.requestSong(account, first), JukeboxEngine.RequestResult.QUEUED);
+		assertEquals(engine.requestSong(account, second), JukeboxEngine.RequestResult.QUEUED);
+		assertEquals(engine.requestSong(account, second), JukeboxEngine.RequestResult.QUEUED);
+		assertEquals(engine.requestSong(account, first), JukeboxEngine.RequestResult.LIMIT_REACHED);
+
+		assertEquals(engine.getPlayList().getCurrentSong(), first);
+		assertEquals(engine.getPlayList().size(), 3);
+		assertEquals(recorder.events.get(0), "queued " + first.getTitle());
+		assertEquals(recorder.events.get(1), "started " + first.getTitle());
+		assertEquals(recorder.events.get(2), "queued " + second.getTitle());
+		engine.shutdown();
+		backend.shutdown();
+	}
+
+	/**
+	 * Tests requesting several songs at once: they are counted and queued
+	 * together, or not at all.
+	 */
+	@Test
+	void testRequestSongs() {
+		HeadlessPlaybackBackend backend = new HeadlessPlaybackBackend();
+		SongList catalog = new SongList();
+		JukeboxEngine engine = new JukeboxEngine(catalog, new AccountStore(), backend);
+		Recorder recorder = new Recorder();
+		engine.addListener(recorder);
+		JukeboxAccount account = engine.createAccount("ABC", "123");
+		List<Song> four = List.of(catalog.get(0), catalog.get(1), catalog.get(2), catalog.get(3));
+
+		assertEquals(engine.requestSongs(null, four), JukeboxEngine.RequestResult.NOT_LOGGED_IN);
+		assertEquals(engine.requestSongs(account, four), JukeboxEngine.RequestResult.LIMIT_REACHED);
+		assertEquals(account.getSongsToday(), 0);
+		assertTrue(recorder.events.isEmpty());
+
+		assertEquals(engine.requestSongs(account, four.subList(0, 2)), JukeboxEngine.RequestResult.QUEUED);
+		assertEquals(account.getSongsToday(), 2);
+		assertEquals(engine.getPlayList().size(), 2);
+		assertEquals(engine.getPlayList().getCurrentSong(), four.get(0));
+		assertEquals(recorder.events.get(0), "queued 2 songs");
+		assertEquals(recorder.events.get(1), "started " + four.get(0).getTitle());
+
+		assertEquals(engine.requestSongs(account, four.subList(2, 4)), JukeboxEngine.RequestResult.LIMIT_REACHED);
+		assertEquals(engine.requestSongs(account, four.subList(2, 3), "nowhere"),
+				JukeboxEngine.RequestResult.NO_SUCH_ZONE);
+		assertEquals(engine.requestSongs(account, four.subList(2, 3)), JukeboxEngine.RequestResult.QUEUED);
+		assertEquals(engine.getPlayList().getSongsAsList(), four.subList(0, 3));
+		engine.shutdown();
+		backend.shutdown();
+	}
+}
@@ -0,0 +1,125 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Tests for the JukeboxMetrics and LatencyHistogram.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.JukeboxMetrics;
+import model.LatencyHistogram;
+import model.ModelCodec;
+import model.PlayList;
+import model.PlaybackBackend;
+import model.Song;
+
+class JukeboxMetricsTest {
+
+	/**
+	 * Backend that finishes songs only when told to.
+	 */
+	private static class StepBackend implements PlaybackBackend {
+		private Runnable onFinished;
+
+		@Override
+		public void play(Song song, Runnable onFinished) {
+			this.onFinished = onFinished;
+		}
+
+		@Override
+		public void stop() {
+		}
+	}
+
+	/**
+	 * Tests the count, average, longest time, and percentiles.
+	 */
+	@Test
+	void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram("test");
+		assertEquals(histogram.getPercentileNanos(0.5), 0);
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000L);
+		}
+		histogram.record(-5);
+		assertEquals(histogram.getCount(), 101);
+		assertEquals(histogram.getMaxNanos(), 100000);
+		assertEquals(histogram.getMeanNanos(), 5050000 / 101);
+		long median = histogram.getPercentileNanos(0.5);
+		assertTrue(median >= 50000 && median < 100000, "median " + median);
+		assertEquals(histogram.getPercentileNanos(1.0), 100000);
+		histogram.reset();
+		assertEquals(histogram.getCount(), 0);
+		assertEquals(histogram.getMaxNanos(), 0);
+	}
+
+	/**
+	 * Tests that the PlayList records how long songs waited and how long each
+	 * change of song took.
+	 */
+	@Test
+	void testPlayListRecords() {
+		JukeboxMetrics metrics = JukeboxMetrics.getDefault();
+		long waits = metrics.getEnqueueToPlay().getCount();
+		long changes = metrics.getSongChange().getCount();
+		StepBackend backend = new StepBackend();
+		PlayList playList = new PlayList(backend);
+		playList.setGapMillis(0);
+		playList.queueUpNextSong(new Song("First", "A", 10, "first.mp3"));
+		playList.queueUpNextSong(new Song("Second", "B", 10, "second.mp3"));
+		playList.play();
+		assertEquals(metrics.getEnqueueToPlay().getCount(), waits + 1);
+		playList.stop();
+		playList.play(); // starting the same song again isn't another wait
+		assertEquals(metrics.getEnqueueToPlay().getCount(), waits + 1);
+		backend.onFinished.run();
+		assertEquals(metrics.getEnqueueToPlay().getCount(), waits + 2);
+		assertEquals(metrics.getSongChange().getCount(), changes + 1);
+	}
+
+	/**
+	 * Tests that reading and writing saved files is timed and measured.
+	 */
+	@Test
+	void testFileRecords() throws IOException {
+		JukeboxMetrics metrics = JukeboxMetrics.getDefault();
+		long written = metrics.getBytesWritten();
+		long read = metrics.getBytesRead();
+		long writes = metrics.getFilesWritten();
+		Path file = Files.createTempDirectory("metrics").resolve("playlist.ser");
+		ModelCodec.writeSongs(file, List.of(new Song("First", "A", 10, "first.mp3")));
+		ModelCodec.readSongs(file);
+		assertEquals(metrics.getFilesWritten(), writes + 1);
+		assertEquals(metrics.getBytesWritten() - written, Files.size(file));
+		assertEquals(metrics.getBytesRead() - read, Files.size(file));
+	}
+
+	/**
+	 * Tests that the metrics can be read through JMX.
+	 */
+	@Test
+	void testJmx() throws JMException {
+		JukeboxMetrics metrics = JukeboxMetrics.getDefault();
+		metrics.register();
+		metrics.register();
+		metrics.setQueueDepth(() -> 7);
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertEquals(server.getAttribute(new ObjectName("jukebox:type=Metrics"), "QueueDepth"), 7);
+		metrics.getLogin().record(2000000);
+		Object max = server.getAttribute(new ObjectName("jukebox:type=Latency,name=login"), "MaxMillis");
+		assertTrue((Double) max >= 2.0);
+		metrics.setQueueDepth(() -> 0);
+	}
+}
@@ -0,0 +1,300 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the LibraryScanner and Mp3Reader.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.LibraryScanner;
+import model.Mp3Reader;
+import model.PlayListJournal;
+import model.Song;
+import model.SongList;
+
+class LibraryScannerTest {
+
+	// MPEG 1 layer III, 128 kbps, 44100 Hz, stereo: 417 bytes and 1152 samples
+	private static final int FRAME_HEADER = 0xFFFB9000;
+	private static final int FRAME_LENGTH = 417;
+
+	/**
+	 * Builds an mp3 file with an ID3v2.3 tag and constant bitrate frames.
+	 */
+	private static byte[] mp3(String title, String artist, int frames) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream tag = new ByteArrayOutputStream();
+		textFrame(tag, "TIT2", title);
+		textFrame(tag, "TPE1", artist);
+		out.writeBytes(new byte[] { 'I', 'D', '3', 3, 0, 0 });
+		out.writeBytes(syncSafe(tag.size()));
+		out.writeBytes(tag.toByteArray());
+		for (int i = 0; i < frames; i++) {
+			out.writeBytes(ByteBuffer.allocate(FRAME_LENGTH).putInt(FRAME_HEADER).array());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Builds an mp3 file with an unsynchronised ID3v2.4 tag that has an
+	 * extended header. The text is UTF-16, whose byte order mark starts with
+	 * 0xFF, so unsynchronising changes it.
+	 */
+	private static byte[] mp3v24(String title, String artist, int frames) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream tag = new ByteArrayOutputStream();
+		tag.writeBytes(new byte[] { 0, 0, 0, 6, 1, 0 }); // size, one flag byte, no flags
+		unsynchronisedFrame(tag, "TIT2", title);
+		unsynchronisedFrame(tag, "TPE1", artist);
+		out.writeBytes(new byte[] { 'I', 'D', '3', 4, 0, (byte) 0xc0 });
+		out.writeBytes(syncSafe(tag.size()));
+		out.writeBytes(tag.toByteArray());
+		for (int i = 0; i < frames; i++) {
+			out.writeBytes(ByteBuffer.allocate(FRAME_LENGTH).putInt(FRAME_HEADER).array());
+		}
+		return out.toByteArray();
+	}
+
+	private static void unsynchronisedFrame(ByteArrayOutputStream tag, String id, String text) {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		body.write(1); // UTF-16 with a byte order mark
+		for (byte b : text.getBytes(StandardCharsets.UTF_16)) {
+			body.write(b);
+			if (b == (byte) 0xff) {
+				body.write(0);
+			}
+		}
+		tag.writeBytes(id.getBytes(StandardCharsets.ISO_8859_1));
+		tag.writeBytes(syncSafe(body.size()));
+		tag.writeBytes(new byte[] { 0, 2 }); // unsynchronised
+		tag.writeBytes(body.toByteArray());
+	}
+
+	/**
+	 * Deletes a temporary folder and everything in it.
+	 */
+	private static void delete(Path dir) throws IOException {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	private static byte[] syncSafe(int size) {
+		return new byte[] { (byte) (size >> 21 & 0x7f), (byte) (size >> 14 & 0x7f),
+				(byte) (size >> 7 & 0x7f), (byte) (size & 0x7f) };
+	}
+
+	private static void textFrame(ByteArrayOutputStream tag, String id, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		tag.writeBytes(id.getBytes(StandardCharsets.ISO_8859_1));
+		tag.writeBytes(ByteBuffer.allocate(4).putInt(bytes.length + 1).array());
+		tag.writeBytes(new byte[] { 0, 0, 3 }); // flags, then UTF-8
+		tag.writeBytes(bytes);
+	}
+
+	/**
+	 * Tests reading the tags and working out the duration from the frames.
+	 */
+	@Test
+	void testReadTags() throws IOException {
+		Path dir = Files.createTempDirectory("songfiles");
+		try {
+			Path file = dir.resolve("DejaVu.mp3");
+			// 383 frames of 1152 samples is 10.005 seconds
+			Files.write(file, mp3("D\u00e9j\u00e0 Vu", "Pierre Langer", 383));
+			Song song = Mp3Reader.read(file, "DejaVu.mp3");
+			assertEquals(song, new Song("D\u00e9j\u00e0 Vu", "Pierre Langer", 10, "DejaVu.mp3"));
+		} finally {
+			delete(dir);
+		}
+	}
+
+	/**
+	 * Tests reading an ID3v2.4 tag with an extended header and
+	 * unsynchronisation.
+	 */
+	@Test
+	void testExtendedHeaderAndUnsync() throws IOException {
+		Path dir = Files.createTempDirectory("songfiles");
+		try {
+			Path file = dir.resolve("DejaVu.mp3");
+			Files.write(file, mp3v24("D\u00e9j\u00e0 Vu", "Pierre Langer", 383));
+			Song song = Mp3Reader.read(file, "DejaVu.mp3");
+			assertEquals(song, new Song("D\u00e9j\u00e0 Vu", "Pierre Langer", 10, "DejaVu.mp3"));
+		} finally {
+			delete(dir);
+		}
+	}
+
+	/**
+	 * Tests that the frame count in a Xing header is used for the duration, and
+	 * that an ID3v1 tag is read if there is no ID3v2 tag.
+	 */
+	@Test
+	void testXingAndId3v1() throws IOException {
+		ByteBuffer first = ByteBuffer.allocate(FRAME_LENGTH).putInt(FRAME_HEADER);
+		first.position(4 + 32);
+		first.put("Xing".getBytes(StandardCharsets.ISO_8859_1)).putInt(1).putInt(1000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.writeBytes(first.array());
+		out.writeBytes(ByteBuffer.allocate(FRAME_LENGTH).putInt(FRAME_HEADER).array());
+		byte[] v1 = new byte[128];
+		System.arraycopy("TAG".getBytes(StandardCharsets.ISO_8859_1), 0, v1, 0, 3);
+		System.arraycopy("Swing Cheese".getBytes(StandardCharsets.ISO_8859_1), 0, v1, 3, 12);
+		System.arraycopy("FreePlay Music".getBytes(StandardCharsets.ISO_8859_1), 0, v1, 33, 14);
+		out.writeBytes(v1);
+		Path dir = Files.createTempDirectory("songfiles");
+		try {
+			Path file = dir.resolve("SwingCheese.mp3");
+			Files.write(file, out.toByteArray());
+
+			// 1000 frames of 1152 samples is 26.1 seconds
+			Song song = Mp3Reader.read(file, "SwingCheese.mp3");
+			assertEquals(song, new Song("Swing Cheese", "FreePlay Music", 26, "SwingCheese.mp3"));
+		} finally {
+			delete(dir);
+		}
+	}
+
+	/**
+	 * Tests that a scan only reads files that are new or changed, even from a
+	 * new scanner using the same cache.
+	 */
+	@Test
+	void testCache() throws IOException {
+		Path root = Files.createTempDirectory("library");
+		try {
+			Path dir = Files.createDirectory(root.resolve("songfiles"));
+			Path cache = root.resolve("library.cache");
+			Files.createDirectory(dir.resolve("kevin"));
+			Files.write(dir.resolve("Capture.mp3"), mp3("Pokemon Capture", "Pikachu", 192));
+			Files.write(dir.resolve("kevin").resolve("LopingSting.mp3"), mp3("LopingSting", "Kevin MacLeod", 192));
+			Files.write(dir.resolve("notes.txt"), new byte[] { 1, 2, 3 });
+
+			LibraryScanner scanner = new LibraryScanner(dir, cache);
+			List<Song> songs = scanner.scan();
+			assertEquals(songs.size(), 2);
+			assertEquals(songs.get(0), new Song("Pokemon Capture", "Pikachu", 5, "Capture.mp3"));
+			assertEquals(songs.get(1), new Song("LopingSting", "Kevin MacLeod", 5, "kevin/LopingSting.mp3"));
+			assertEquals(scanner.getFilesRead(), 2);
+			assertEquals(scanner.scan(), songs);
+			assertEquals(scanner.getFilesRead(), 2);
+
+			Path changed = dir.resolve("Capture.mp3");
+			Files.write(changed, mp3("Pokemon Capture", "Pikachu", 383));
+			Files.setLastModifiedTime(changed, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+			LibraryScanner restarted = new LibraryScanner(dir, cache);
+			songs = restarted.scan();
+			assertEquals(restarted.getFilesRead(), 1);
+			assertEquals(songs.get(0), new Song("Pokemon Capture", "Pikachu", 10, "Capture.mp3"));
+		} finally {
+			delete(root);
+		}
+	}
+
+	/**
+	 * Tests that songs keep their ids when files are added to and deleted from
+	 * the folder between runs, so a saved queue comes back whole.
+	 */
+	@Test
+	void testStableIds() throws IOException {
+		Path root = Files.createTempDirectory("library");
+		try {
+			Path dir = Files.createDirectory(root.resolve("songfiles"));
+			Path cache = root.resolve("library.cache");
+			Files.write(dir.resolve("B.mp3"), mp3("Bee", "Someone", 192));
+			Files.write(dir.resolve("C.mp3"), mp3("Sea", "Someone", 192));
+			Files.write(dir.resolve("D.mp3"), mp3("Dee", "Someone", 192));
+			SongList catalog = new SongList(new LibraryScanner(dir, cache));
+			Song c = catalog.get(1);
+			Song d = catalog.get(2);
+			assertEquals(catalog.idOf(d), 2);
+			Path snapshot = root.resolve("playlist.snapshot");
+			Path log = root.resolve("playlist.journal");
+			PlayListJournal journal = new PlayListJournal(catalog, snapshot, log, 1000);
+			journal.open();
+			journal.songQueued(c);
+			journal.songQueued(d);
+			journal.close();
+
+			// a file that sorts first is added, and one is deleted, while stopped
+			Files.write(dir.resolve("A.mp3"), mp3("Ay", "Someone", 192));
+			Files.delete(dir.resolve("B.mp3"));
+			SongList restarted = new SongList(new LibraryScanner(dir, cache));
+			assertEquals(restarted.idOf(c), 1);
+			assertEquals(restarted.idOf(d), 2);
+			assertEquals(restarted.getById(3).getTitle(), "Ay"); // a new id
+			assertEquals(restarted.get(0), c); // still in id order
+			assertNull(restarted.getById(0));
+			PlayListJournal reopened = new PlayListJournal(restarted, snapshot, log, 1000);
+			assertEquals(reopened.open(), List.of(c, d));
+			reopened.close();
+		} finally {
+			delete(root);
+		}
+	}
+
+	/**
+	 * Tests that files added to and deleted from a watched folder are reported,
+	 * however the watcher groups the changes.
+	 */
+	@Test
+	void testWatch() throws IOException, InterruptedException {
+		Path dir = Files.createTempDirectory("songfiles");
+		try {
+			Files.write(dir.resolve("Capture.mp3"), mp3("Pokemon Capture", "Pikachu", 192));
+			LibraryScanner scanner = new LibraryScanner(dir, null);
+			scanner.scan();
+
+			ArrayList<Song> removed = new ArrayList<>();
+			ArrayList<Song> added = new ArrayList<>();
+			scanner.watch((gone, found) -> {
+				synchronized (added) {
+					removed.addAll(gone);
+					added.addAll(found);
+					added.notifyAll();
+				}
+			});
+			try {
+				Files.write(dir.resolve("SwingCheese.mp3"), mp3("Swing Cheese", "FreePlay Music", 575));
+				Files.delete(dir.resolve("Capture.mp3"));
+				long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+				synchronized (added) {
+					while (added.isEmpty() || removed.isEmpty()) {
+						long left = deadline - System.nanoTime();
+						assertTrue(left > 0, "changes weren't reported");
+						TimeUnit.NANOSECONDS.timedWait(added, left);
+					}
+				}
+			} finally {
+				scanner.stopWatching();
+			}
+			synchronized (added) {
+				assertEquals(added.size(), 1);
+				assertEquals(added.get(0), new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3"));
+				assertEquals(removed.size(), 1);
+				assertEquals(removed.get(0).getFileName(), "Capture.mp3");
+			}
+		} finally {
+			delete(dir);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+
+/**
+ * Tests for the MediaCache, with fake media standing in for JavaFX Media.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.MediaCache;
+import model.Song;
+
+class MediaCacheTest {
+
+	/**
+	 * Stands in for a loaded Media.
+	 */
+	private static class FakeMedia {
+		private String fileName;
+
+		FakeMedia(String fileName) {
+			this.fileName = fileName;
+		}
+	}
+
+	/**
+	 * Loader that "loads" files of made up sizes and counts its loads.
+	 */
+	private static class FakeLoader implements MediaCache.Loader<FakeMedia> {
+		private HashMap<String, Long> sizes = new HashMap<>();
+		private int loads;
+
+		@Override
+		public FakeMedia load(String fileName) {
+			loads++;
+			return new FakeMedia(fileName);
+		}
+
+		@Override
+		public long sizeOf(String fileName, FakeMedia media) {
+			return sizes.getOrDefault(fileName, 10L);
+		}
+	}
+
+	/**
+	 * Tests that repeated songs are loaded once.
+	 */
+	@Test
+	void testHitsAndMisses() {
+		FakeLoader loader = new FakeLoader();
+		MediaCache<FakeMedia> cache = new MediaCache<>(loader, 100);
+		Song song = new Song("Space Music", "Unknown", 6, "spacemusic.au");
+		FakeMedia first = cache.get(song);
+		assertEquals(first.fileName, "spacemusic.au");
+		assertSame(cache.get(song), first);
+		assertSame(cache.get("spacemusic.au"), first);
+		assertEquals(loader.loads, 1);
+		assertEquals(cache.getMisses(), 1);
+		assertEquals(cache.getHits(), 2);
+		assertEquals(cache.getBytes(), 10);
+	}
+
+	/**
+	 * Tests that the least recently used media is dropped to stay within the
+	 * budget.
+	 */
+	@Test
+	void testEviction() {
+		FakeLoader loader = new FakeLoader();
+		MediaCache<FakeMedia> cache = new MediaCache<>(loader, 30);
+		cache.get("a.mp3");
+		cache.get("b.mp3");
+		cache.get("c.mp3");
+		cache.get("a.mp3"); // a is now more recent than b
+		cache.get("d.mp3");
+		assertEquals(cache.getEvictions(), 1);
+		assertFalse(cache.contains("b.mp3"));
+		assertTrue(cache.contains("a.mp3"));
+		assertTrue(cache.contains("c.mp3"));
+		assertTrue(cache.contains("d.mp3"));
+		assertEquals(cache.getBytes(), 30);
+
+		// a large file pushes out as many as it needs
+		loader.sizes.put("big.mp3", 25L);
+		cache.get("big.mp3");
+		assertEquals(cache.size(), 1);
+		assertEquals(cache.getEvictions(), 4);
+
+		cache.setMaxBytes(10);
+		assertEquals(cache.size(), 0);
+		assertEquals(cache.getBytes(), 0);
+	}
+
+	/**
+	 * Tests that media bigger than the budget is loaded but not kept.
+	 */
+	@Test
+	void testTooBig() {
+		FakeLoader loader = new FakeLoader();
+		loader.sizes.put("huge.mp3", 1000L);
+		MediaCache<FakeMedia> cache = new MediaCache<>(loader, 100);
+		cache.get("a.mp3");
+		assertNotNull(cache.get("huge.mp3"));
+		assertFalse(cache.contains("huge.mp3"));
+		assertTrue(cache.contains("a.mp3"));
+		assertEquals(cache.getEvictions(), 0);
+
+		cache.invalidate("a.mp3");
+		assertEquals(cache.size(), 0);
+		cache.get("a.mp3");
+		assertEquals(loader.loads, 3);
+	}
+}
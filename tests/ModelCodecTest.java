@@ -0,0 +1,149 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Tests for the ModelCodec.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.JukeboxAccount;
+import model.ModelCodec;
+import model.Song;
+
+class ModelCodecTest {
+
+	private static List<Song> songs() {
+		return List.of(new Song("Danse Macabre", "Kevin MacLeod", 34, "DanseMacabreViolinHook.mp3"),
+				new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3"),
+				new Song("The Curtain Rises", "Kevin MacLeod", 28, "TheCurtainRises.mp3"),
+				new Song("Caf\u00e9", "Ren\u00e9e", 3671, "cafe.mp3"));
+	}
+
+	/**
+	 * Tests that songs come back the same and in order.
+	 */
+	@Test
+	void testSongs() throws IOException {
+		ArrayList<Song> decoded = ModelCodec.decodeSongs(ModelCodec.encodeSongs(songs()));
+		assertEquals(decoded, songs());
+		assertEquals(decoded.get(3).getPlaytimeAsString(), "61:11");
+		assertSame(decoded.get(0).getArtist(), decoded.get(2).getArtist());
+		assertTrue(ModelCodec.decodeSongs(ModelCodec.encodeSongs(new ArrayList<>())).isEmpty());
+	}
+
+	/**
+	 * Tests that accounts come back with their passwords and song counts.
+	 */
+	@Test
+	void testAccounts() throws IOException {
+		JukeboxAccount account = new JukeboxAccount("ABC", "123");
+		account.addSong();
+		account.addSong();
+		ArrayList<JukeboxAccount> accounts = new ArrayList<>();
+		accounts.add(account);
+		accounts.add(new JukeboxAccount("XYZ", "456"));
+		ArrayList<JukeboxAccount> decoded = ModelCodec.decodeAccounts(ModelCodec.encodeAccounts(accounts));
+		assertEquals(decoded.size(), 2);
+		assertEquals(decoded.get(0).getUsername(), "ABC");
+		assertTrue(decoded.get(0).checkPassword("123"));
+		assertEquals(decoded.get(0).getSongsToday(), 2);
+		assertEquals(decoded.get(0).getDate(), account.getDate());
+		assertEquals(decoded.get(1).getSongsToday(), 0);
+	}
+
+	/**
+	 * Tests that files written with Java serialization by older versions are
+	 * still read.
+	 */
+	@Test
+	void testReadsSerializedFiles() throws IOException {
+		Path dir = Files.createTempDirectory("codec");
+		Path playlist = dir.resolve("playlist.ser");
+		Files.write(playlist, serialize(new LinkedBlockingQueue<>(songs())));
+		assertEquals(ModelCodec.readSongs(playlist), songs());
+
+		ArrayList<JukeboxAccount> accounts = new ArrayList<>();
+		accounts.add(new JukeboxAccount("ABC", "123"));
+		accounts.get(0).addSong();
+		Path accountFile = dir.resolve("accounts.ser");
+		Files.write(accountFile, serialize(accounts));
+		ArrayList<JukeboxAccount> read = ModelCodec.readAccounts(accountFile);
+		assertTrue(read.get(0).checkPassword("123"));
+		assertEquals(read.get(0).getSongsToday(), 1);
+
+		// saving again replaces the old format
+		ModelCodec.writeSongs(playlist, songs());
+		assertEquals(ModelCodec.readSongs(playlist), songs());
+		assertTrue(Files.size(playlist) < serialize(new LinkedBlockingQueue<>(songs())).length);
+	}
+
+	/**
+	 * Tests that a serialized file holding anything but the classes old
+	 * versions saved is refused before any of it is created.
+	 */
+	@Test
+	void testRefusesOtherSerializedClasses() throws IOException {
+		Path dir = Files.createTempDirectory("codec");
+		Path playlist = dir.resolve("playlist.ser");
+		ArrayList<Object> planted = new ArrayList<>();
+		planted.add(new Planted());
+		Files.write(playlist, serialize(planted));
+		assertThrows(IOException.class, () -> ModelCodec.readSongs(playlist));
+		assertFalse(Planted.read);
+		Files.write(playlist, serialize(new HashMap<String, Song>()));
+		assertThrows(IOException.class, () -> ModelCodec.readSongs(playlist));
+		Files.delete(playlist);
+		Files.delete(dir);
+	}
+
+	/**
+	 * Serializable class that notes when it is read back.
+	 */
+	private static class Planted implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private static volatile boolean read;
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			in.defaultReadObject();
+			read = true;
+		}
+	}
+
+	/**
+	 * Tests that damaged or mismatched data is rejected rather than misread.
+	 */
+	@Test
+	void testCorruptData() {
+		byte[] bytes = ModelCodec.encodeSongs(songs());
+		bytes[20] ^= 1;
+		assertThrows(IOException.class, () -> ModelCodec.decodeSongs(bytes));
+		byte[] cut = new byte[30];
+		System.arraycopy(ModelCodec.encodeSongs(songs()), 0, cut, 0, cut.length);
+		assertThrows(IOException.class, () -> ModelCodec.decodeSongs(cut));
+		assertThrows(IOException.class, () -> ModelCodec.decodeAccounts(ModelCodec.encodeSongs(songs())));
+		assertThrows(IOException.class, () -> ModelCodec.decodeSongs(new byte[3]));
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+}
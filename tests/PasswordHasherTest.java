@@ -0,0 +1,150 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * Tests for the PasswordHasher and PasswordVerifier.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.AccountJournal;
+import model.AccountStore;
+import model.JukeboxAccount;
+import model.PasswordHasher;
+import model.PasswordVerifier;
+
+class PasswordHasherTest {
+
+	/**
+	 * Tests that a hash checks its own password and no other, and that the
+	 * same password hashes differently each time.
+	 */
+	@Test
+	void testHashAndVerify() {
+		PasswordHasher hasher = new PasswordHasher(1000);
+		String hash = hasher.hash("secret");
+		assertTrue(PasswordHasher.isHash(hash));
+		assertFalse(hash.contains("secret"));
+		assertTrue(PasswordHasher.verify("secret", hash));
+		assertFalse(PasswordHasher.verify("Secret", hash));
+		assertFalse(PasswordHasher.verify("", hash));
+		assertNotEquals(hasher.hash("secret"), hash);
+		assertTrue(PasswordHasher.verify("", hasher.hash("")));
+
+		assertFalse(PasswordHasher.isHash("secret"));
+		assertFalse(PasswordHasher.verify("secret", "secret"));
+		assertFalse(hasher.needsRehash(hash));
+		assertTrue(new PasswordHasher(2000).needsRehash(hash));
+	}
+
+	/**
+	 * Tests that an account saved with a plain text password by an older
+	 * version still logs in, and has its password hashed (and journaled) when
+	 * it does.
+	 */
+	@Test
+	void testPlainTextUpgrade() throws IOException {
+		Path dir = Files.createTempDirectory("password");
+		Path snapshot = dir.resolve("accounts.ser");
+		Path log = dir.resolve("accounts.journal");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream record = new DataOutputStream(bytes);
+		record.writeByte(1); // created, as older versions recorded it
+		record.writeUTF("ABC");
+		record.writeUTF("123");
+		record.writeLong(LocalDate.now().toEpochDay());
+		record.writeInt(0);
+		Files.write(log, frame(bytes.toByteArray()));
+
+		AccountJournal journal = new AccountJournal(snapshot, log, 1000);
+		AccountStore store = journal.open();
+		assertNull(store.authenticate("ABC", "1234"));
+		long before = Files.size(log);
+		assertNotNull(store.authenticate("ABC", "123"));
+		journal.flush();
+		assertTrue(Files.size(log) > before);
+		journal.checkpoint();
+		assertFalse(new String(Files.readAllBytes(snapshot), "UTF-8").contains("123"));
+		journal.close();
+
+		AccountJournal reopened = new AccountJournal(snapshot, log, 1000);
+		assertNotNull(reopened.open().authenticate("ABC", "123"));
+		reopened.close();
+	}
+
+	/**
+	 * Tests that many users logging in at once, no more than the
+	 * PasswordVerifier can hold, are all checked and none are turned away. How
+	 * fast they are checked is measured by LoginBenchmark.
+	 */
+	@Test
+	void testConcurrentLogins() {
+		int cost = 1000;
+		int logins = 100;
+		PasswordHasher previous = PasswordHasher.getDefault();
+		PasswordHasher hasher = new PasswordHasher(cost);
+		PasswordHasher.setDefault(hasher);
+		try {
+			AccountStore store = new AccountStore(hasher);
+			for (int i = 0; i < 10; i++) {
+				store.create("user" + i, "pw" + i);
+			}
+			PasswordVerifier verifier = new PasswordVerifier(PasswordVerifier.DEFAULT_THREADS, logins);
+			ArrayList<CompletableFuture<JukeboxAccount>> results = new ArrayList<>();
+			for (int i = 0; i < logins; i++) {
+				int user = i % 10;
+				String password = i % 5 == 0 ? "wrong" : "pw" + user;
+				results.add(verifier.logIn(store, "user" + user, password));
+			}
+			for (int i = 0; i < logins; i++) {
+				assertFalse(results.get(i).isCompletedExceptionally());
+				JukeboxAccount account = results.get(i).join();
+				assertEquals(account == null, i % 5 == 0);
+			}
+			verifier.shutdown();
+		} finally {
+			PasswordHasher.setDefault(previous);
+		}
+	}
+
+	/**
+	 * Tests that requests beyond what the pool can hold fail right away instead
+	 * of waiting.
+	 */
+	@Test
+	void testBoundedQueue() {
+		AccountStore store = new AccountStore(new PasswordHasher(200000));
+		store.create("ABC", "123");
+		PasswordVerifier verifier = new PasswordVerifier(1, 1);
+		ArrayList<CompletableFuture<JukeboxAccount>> results = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			results.add(verifier.logIn(store, "ABC", "wrong"));
+		}
+		assertTrue(results.get(4).isCompletedExceptionally());
+		assertNull(results.get(0).join());
+		verifier.shutdown();
+	}
+
+	private static byte[] frame(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+		record.putInt(payload.length);
+		record.putInt((int) crc.getValue());
+		record.put(payload);
+		return record.array();
+	}
+}
@@ -0,0 +1,184 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.Fixtures.CHEAP;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the PlayHistoryLog.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.JukeboxAccount;
+import model.PlayHistoryLog;
+import model.PlayList;
+import model.PlaybackBackend;
+import model.Song;
+import model.SongList;
+
+class PlayHistoryLogTest {
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+	private static final long HOUR = 60 * 60 * 1000L;
+	// midnight UTC at the start of 2024-03-01
+	private static final long MARCH_1 = LocalDate.of(2024, 3, 1).toEpochDay() * DAY;
+
+	/**
+	 * Backend that never finishes a song.
+	 */
+	private static class SilentBackend implements PlaybackBackend {
+		@Override
+		public void play(Song song, Runnable onFinished) {
+		}
+
+		@Override
+		public void stop() {
+		}
+	}
+
+	private static PlayHistoryLog open(Path dir, int snapshotEvery) {
+		PlayHistoryLog history = new PlayHistoryLog(dir.resolve("history.snapshot"),
+				dir.resolve("history.log"), ZoneOffset.UTC, snapshotEvery);
+		history.open();
+		return history;
+	}
+
+	/**
+	 * Tests the counts of plays per song per day, per account and per hour.
+	 */
+	@Test
+	void testCounts() throws IOException {
+		SongList catalog = new SongList();
+		PlayHistoryLog history = open(Files.createTempDirectory("history"), 1000);
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		JukeboxAccount b = new JukeboxAccount("B", "2", null, CHEAP);
+		history.recordPlay(catalog.get(0), a, "main", MARCH_1 + 20 * HOUR);
+		history.recordPlay(catalog.get(1), a, "main", MARCH_1 + 20 * HOUR);
+		history.recordPlay(catalog.get(1), b, "bar", MARCH_1 + 21 * HOUR);
+		history.recordPlay(catalog.get(1), null, "main", MARCH_1 + DAY + 20 * HOUR);
+		history.close();
+
+		assertEquals(history.size(), 4);
+		LocalDate march1 = LocalDate.of(2024, 3, 1);
+		assertEquals(history.getPlays(catalog.get(1), march1), 2);
+		assertEquals(history.getPlays(catalog.get(1), march1.plusDays(1)), 1);
+		assertEquals(history.getPlays(catalog.get(2), march1), 0);
+		assertEquals(new ArrayList<>(history.getPlaysPerSong(march1).keySet()),
+				List.of(catalog.get(1), catalog.get(0)));
+		assertEquals(history.getDays(), List.of(march1, march1.plusDays(1)));
+		assertEquals(history.getPlaysBy("A"), 2);
+		assertEquals(history.getPlaysBy("B"), 1);
+		assertEquals(history.getPlaysBy("C"), 0);
+		assertEquals(new ArrayList<>(history.getPlaysPerAccount().keySet()), List.of("A", "B"));
+		assertEquals(history.getPlaysPerHour()[20], 3);
+		assertEquals(history.getBusiestHours(2), List.of(20, 21));
+	}
+
+	/**
+	 * Tests that the counts come back when the log is opened again, whether
+	 * they are read from the snapshot, replayed from the log, or both, and that
+	 * no play is counted twice.
+	 */
+	@Test
+	void testReopen() throws IOException {
+		Path dir = Files.createTempDirectory("history");
+		SongList catalog = new SongList();
+		PlayHistoryLog history = open(dir, 50);
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		for (int i = 0; i < 1000; i++) {
+			history.recordPlay(catalog.get(i % catalog.size()), a, "main", MARCH_1 + i * HOUR);
+		}
+		history.checkpoint();
+		assertTrue(Files.exists(dir.resolve("history.snapshot")));
+		assertEquals(history.getDirtyRecords(), 0);
+		for (int i = 0; i < 10; i++) {
+			history.recordPlay(catalog.get(0), null, "bar", MARCH_1 + i * HOUR);
+		}
+		history.close();
+
+		PlayHistoryLog reopened = open(dir, 50);
+		assertEquals(reopened.size(), 1010);
+		assertEquals(reopened.getPlaysBy("A"), 1000);
+		LocalDate march1 = LocalDate.of(2024, 3, 1);
+		// 24 plays on the first day, cycling through the catalog, then 10 more
+		assertEquals(reopened.getPlays(catalog.get(0), march1), 23 / catalog.size() + 1 + 10);
+		assertArrayEquals(reopened.getPlaysPerHour(), history.getPlaysPerHour());
+		reopened.close();
+	}
+
+	/**
+	 * Tests that songs are recorded as they start playing, with the account that
+	 * asked for them.
+	 */
+	@Test
+	void testPlayList() throws IOException {
+		SongList catalog = new SongList();
+		PlayHistoryLog history = open(Files.createTempDirectory("history"), 1000);
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		PlayList playList = new PlayList(new SilentBackend());
+		playList.addListener(history.listenerFor("main"));
+		playList.queueUpNextSong(catalog.get(3), a);
+		playList.queueUpNextSong(catalog.get(4), a);
+		assertEquals(history.size(), 0);
+		playList.play();
+		assertEquals(history.size(), 1);
+		assertEquals(history.getPlaysBy("A"), 1);
+		assertEquals(history.getPlays(catalog.get(3), LocalDate.now(ZoneOffset.UTC)), 1);
+		history.close();
+	}
+
+	/**
+	 * Tests that plays still count for the right songs after the catalog is
+	 * reordered, and that songs no longer in it are still reported.
+	 */
+	@Test
+	void testReorderedCatalog() throws IOException {
+		Path dir = Files.createTempDirectory("history");
+		SongList catalog = new SongList();
+		PlayHistoryLog history = open(dir, 2);
+		Song gone = new Song("Gone", "Nobody", 60, "gone.mp3");
+		history.recordPlay(catalog.get(0), null, "main", MARCH_1);
+		history.recordPlay(catalog.get(1), null, "main", MARCH_1);
+		history.recordPlay(catalog.get(1), null, "main", MARCH_1);
+		history.recordPlay(gone, null, "main", MARCH_1);
+		history.checkpoint();
+		history.recordPlay(catalog.get(2), null, "main", MARCH_1);
+		history.close();
+
+		// the same songs, read again in the opposite order, as a scan of a
+		// folder with a file added in front might find them
+		SongList reordered = new SongList();
+		for (Song song : catalog.getSongs()) {
+			reordered.removeSong(song);
+		}
+		reordered.addSong(new Song("Added", "Someone", 30, "added.mp3"));
+		Song first = null;
+		for (int i = catalog.size() - 1; i >= 0; i--) {
+			Song song = catalog.get(i);
+			first = new Song(song.getTitle(), song.getArtist(), (int) (song.getDurationMilliseconds() / 1000),
+					song.getFileName());
+			reordered.addSong(first);
+		}
+		assertNotEquals(reordered.idOf(first), catalog.idOf(catalog.get(0)));
+
+		PlayHistoryLog reopened = open(dir, 2);
+		LocalDate march1 = LocalDate.of(2024, 3, 1);
+		assertEquals(first, catalog.get(0));
+		assertEquals(reopened.getPlays(first, march1), 1);
+		assertEquals(reopened.getPlays(catalog.get(1), march1), 2);
+		assertEquals(reopened.getPlays(catalog.get(2), march1), 1);
+		assertEquals(reopened.getPlays(gone, march1), 1);
+		assertEquals(new ArrayList<>(reopened.getPlaysPerSong(march1).keySet()).get(0), catalog.get(1));
+		assertTrue(reopened.getPlaysPerSong(march1).containsKey(gone));
+		reopened.close();
+	}
+}
@@ -0,0 +1,172 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Tests for the PlayListJournal.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.PlayListJournal;
+import model.Song;
+import model.SongList;
+
+class PlayListJournalTest {
+
+	/**
+	 * Tests that the queue is rebuilt from the journal alone, as after a crash.
+	 */
+	@Test
+	void testReplay() throws IOException {
+		Path dir = Files.createTempDirectory("playlist");
+		Path snapshot = dir.resolve("playlist.snapshot");
+		Path log = dir.resolve("playlist.journal");
+		SongList catalog = new SongList();
+
+		PlayListJournal journal = new PlayListJournal(catalog, snapshot, log, 1000);
+		assertTrue(journal.open().isEmpty());
+		assertFalse(journal.foundSaved());
+		journal.songQueued(catalog.get(0));
+		journal.songQueued(catalog.get(1));
+		journal.songQueued(catalog.get(2));
+		journal.songFinished(catalog.get(0));
+		journal.close();
+		assertFalse(Files.exists(snapshot));
+
+		PlayListJournal reopened = new PlayListJournal(catalog, snapshot, log, 1000);
+		ArrayList<Song> queue = reopened.open();
+		assertTrue(reopened.foundSaved());
+		assertEquals(queue.size(), 2);
+		assertEquals(queue.get(0), catalog.get(1));
+		assertEquals(queue.get(1), catalog.get(2));
+		reopened.close();
+	}
+
+	/**
+	 * Tests that a record torn by a crash is dropped, and everything before it is
+	 * kept.
+	 */
+	@Test
+	void testTornRecord() throws IOException {
+		Path dir = Files.createTempDirectory("playlist");
+		Path snapshot = dir.resolve("playlist.snapshot");
+		Path log = dir.resolve("playlist.journal");
+		SongList catalog = new SongList();
+
+		PlayListJournal journal = new PlayListJournal(catalog, snapshot, log, 1000);
+		journal.open();
+		journal.songQueued(catalog.get(3));
+		journal.close();
+		Files.write(log, new byte[] { 0, 0, 0, 17, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+		PlayListJournal reopened = new PlayListJournal(catalog, snapshot, log, 1000);
+		ArrayList<Song> queue = reopened.open();
+		assertEquals(queue.size(), 1);
+		assertEquals(queue.get(0), catalog.get(3));
+		reopened.songQueued(catalog.get(4));
+		reopened.close();
+
+		PlayListJournal again = new PlayListJournal(catalog, snapshot, log, 1000);
+		assertEquals(again.open().size(), 2);
+		again.close();
+	}
+
+	/**
+	 * Tests a long queue that goes through several snapshots.
+	 */
+	@Test
+	void testSnapshots() throws IOException {
+		Path dir = Files.createTempDirectory("playlist");
+		Path snapshot = dir.resolve("playlist.snapshot");
+		Path log = dir.resolve("playlist.journal");
+		SongList catalog = new SongList();
+
+		PlayListJournal journal = new PlayListJournal(catalog, snapshot, log, 500);
+		journal.open();
+		for (int i = 0; i < 100000; i++) {
+			journal.songQueued(catalog.get(i % catalog.size()));
+		}
+		for (int i = 0; i < 10; i++) {
+			journal.songFinished(catalog.get(i % catalog.size()));
+		}
+		journal.close();
+		assertTrue(Files.exists(snapshot));
+
+		PlayListJournal reopened = new PlayListJournal(catalog, snapshot, log, 500);
+		ArrayList<Song> queue = reopened.open();
+		assertEquals(queue.size(), 99990);
+		assertEquals(queue.get(0), catalog.get(10 % catalog.size()));
+
+		// choosing not to restore leaves nothing behind
+		reopened.discard();
+		reopened.close();
+		assertEquals(Files.size(log), 0);
+		PlayListJournal emptied = new PlayListJournal(catalog, snapshot, log, 500);
+		assertTrue(emptied.open().isEmpty());
+		emptied.close();
+	}
+
+	/**
+	 * Tests that songs that aren't in the catalog any more are skipped.
+	 */
+	@Test
+	void testCatalogChanged() throws IOException {
+		Path dir = Files.createTempDirectory("playlist");
+		Path snapshot = dir.resolve("playlist.snapshot");
+		Path log = dir.resolve("playlist.journal");
+		SongList catalog = new SongList();
+		Song extra = new Song("Extra", "Someone", 30, "extra.mp3");
+		catalog.addSong(extra);
+
+		PlayListJournal journal = new PlayListJournal(catalog, snapshot, log, 1000);
+		journal.open();
+		journal.songQueued(extra);
+		journal.songQueued(catalog.get(0));
+		journal.close();
+
+		PlayListJournal reopened = new PlayListJournal(new SongList(), snapshot, log, 1000);
+		ArrayList<Song> queue = reopened.open();
+		assertEquals(queue.size(), 1);
+		assertEquals(queue.get(0), catalog.get(0));
+		reopened.close();
+	}
+
+	/**
+	 * Tests a long queue that is mostly played through, so finished songs are
+	 * dropped from the front many times between snapshots.
+	 */
+	@Test
+	void testLongQueue() throws IOException {
+		Path dir = Files.createTempDirectory("playlist");
+		Path snapshot = dir.resolve("playlist.snapshot");
+		Path log = dir.resolve("playlist.journal");
+		SongList catalog = new SongList();
+
+		PlayListJournal journal = new PlayListJournal(catalog, snapshot, log, 5000);
+		journal.open();
+		for (int i = 0; i < 20000; i++) {
+			journal.songQueued(catalog.get(i % catalog.size()));
+		}
+		for (int i = 0; i < 19990; i++) {
+			journal.songFinished(catalog.get(i % catalog.size()));
+		}
+		assertEquals(journal.size(), 10);
+		journal.close();
+
+		PlayListJournal reopened = new PlayListJournal(catalog, snapshot, log, 5000);
+		ArrayList<Song> queue = reopened.open();
+		assertEquals(queue.size(), 10);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(queue.get(i), catalog.get((19990 + i) % catalog.size()));
+		}
+		reopened.close();
+	}
+}
@@ -0,0 +1,268 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tests for the PlayList, with a backend that only writes down what it is
+ * asked to do.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.PlayList;
+import model.PlayListListener;
+import model.PlaybackBackend;
+import model.PlaybackScheduler;
+import model.QueueEntry;
+import model.Song;
+
+class PlayListTest {
+
+	/**
+	 * Backend that writes down every call, and finishes songs only when told to.
+	 */
+	private static class RecordingBackend implements PlaybackBackend {
+		private ArrayList<String> calls = new ArrayList<>();
+		private Runnable onFinished;
+		private ManualScheduler scheduler = new ManualScheduler();
+
+		@Override
+		public void play(Song song, Runnable onFinished) {
+			calls.add("play " + song.getTitle());
+			this.onFinished = onFinished;
+		}
+
+		@Override
+		public void prepare(Song next) {
+			calls.add("prepare " + (next == null ? null : next.getTitle()));
+		}
+
+		@Override
+		public void stop() {
+			calls.add("stop");
+		}
+
+		@Override
+		public PlaybackScheduler getScheduler() {
+			return scheduler;
+		}
+
+		void finish() {
+			onFinished.run();
+		}
+	}
+
+	/**
+	 * Scheduler that only runs its actions when told to.
+	 */
+	private static class ManualScheduler implements PlaybackScheduler {
+		private ArrayList<Runnable> pending = new ArrayList<>();
+		private long lastDelay;
+
+		@Override
+		public Timer schedule(Runnable action, long delayMillis) {
+			pending.add(action);
+			lastDelay = delayMillis;
+			return () -> pending.remove(action);
+		}
+
+		void runAll() {
+			ArrayList<Runnable> due = new ArrayList<>(pending);
+			pending.clear();
+			for (Runnable action : due) {
+				action.run();
+			}
+		}
+	}
+
+	private PlayList playing(RecordingBackend backend, String... titles) {
+		PlayList playList = new PlayList(backend);
+		for (String title : titles) {
+			playList.queueUpNextSong(new Song(title, "A", 10, title + ".mp3"));
+		}
+		playList.play();
+		return playList;
+	}
+
+	/**
+	 * Tests that the song after the current one is always prepared ahead of time.
+	 */
+	@Test
+	void testPrefetch() {
+		RecordingBackend backend = new RecordingBackend();
+		PlayList playList = new PlayList(backend);
+		playList.setGapMillis(0);
+		Song first = new Song("First", "A", 10, "first.mp3");
+		Song second = new Song("Second", "B", 10, "second.mp3");
+		Song third = new Song("Third", "C", 10, "third.mp3");
+
+		playList.queueUpNextSong(first);
+		playList.play();
+		assertEquals(backend.calls.get(0), "play First");
+		assertEquals(backend.calls.get(1), "prepare null");
+		playList.queueUpNextSong(second);
+		assertEquals(backend.calls.get(2), "prepare Second");
+		playList.queueUpNextSong(third);
+		assertEquals(backend.calls.size(), 3);
+
+		backend.finish();
+		assertEquals(backend.calls.get(3), "play Second");
+		assertEquals(backend.calls.get(4), "prepare Third");
+		assertEquals(playList.getCurrentSong(), second);
+		assertEquals(playList.getTransitionCount(), 1);
+		assertTrue(playList.getLastTransitionNanos() > 0);
+
+		backend.finish();
+		backend.finish();
+		assertFalse(playList.isPlaying());
+		assertEquals(playList.getTransitionCount(), 2);
+	}
+
+	/**
+	 * Tests that the next song waits for the gap, without blocking the thread
+	 * that said the last song ended.
+	 */
+	@Test
+	void testGapIsScheduled() {
+		RecordingBackend backend = new RecordingBackend();
+		PlayList playList = playing(backend, "First", "Second");
+		backend.finish();
+		assertTrue(playList.isGapPending());
+		assertTrue(playList.isPlaying());
+		assertEquals(backend.scheduler.lastDelay, PlayList.DEFAULT_GAP_MILLIS);
+		assertEquals(playList.size(), 1);
+		assertFalse(backend.calls.contains("play Second"));
+
+		backend.scheduler.runAll();
+		assertFalse(playList.isGapPending());
+		assertEquals(playList.getCurrentSong().getTitle(), "Second");
+		assertEquals(playList.getTransitionCount(), 1);
+	}
+
+	/**
+	 * Tests pausing and resuming the gap.
+	 */
+	@Test
+	void testPauseGap() {
+		RecordingBackend backend = new RecordingBackend();
+		PlayList playList = playing(backend, "First", "Second");
+		assertFalse(playList.pauseGap());
+		backend.finish();
+		assertTrue(playList.pauseGap());
+		assertTrue(playList.isGapPaused());
+		assertTrue(backend.scheduler.pending.isEmpty());
+		assertTrue(playList.resumeGap());
+		assertFalse(playList.resumeGap());
+		assertFalse(playList.isGapPaused());
+		assertEquals(backend.scheduler.pending.size(), 1);
+		assertTrue(backend.scheduler.lastDelay <= PlayList.DEFAULT_GAP_MILLIS);
+		backend.scheduler.runAll();
+		assertEquals(playList.getCurrentSong().getTitle(), "Second");
+	}
+
+	/**
+	 * Tests skipping the gap, and skipping a song that is playing.
+	 */
+	@Test
+	void testSkip() {
+		RecordingBackend backend = new RecordingBackend();
+		PlayList playList = playing(backend, "First", "Second", "Third");
+		backend.finish();
+		playList.skip();
+		assertFalse(playList.isGapPending());
+		assertTrue(backend.scheduler.pending.isEmpty());
+		assertEquals(playList.getCurrentSong().getTitle(), "Second");
+
+		Runnable secondFinished = backend.onFinished;
+		playList.skip();
+		assertEquals(playList.getCurrentSong().getTitle(), "Third");
+		assertEquals(playList.size(), 1);
+		// the skipped song's end must not move the queue along again
+		secondFinished.run();
+		assertEquals(playList.getCurrentSong().getTitle(), "Third");
+		assertFalse(playList.isGapPending());
+	}
+
+	/**
+	 * Tests that stopping during the gap cancels it.
+	 */
+	@Test
+	void testCancelGap() {
+		RecordingBackend backend = new RecordingBackend();
+		PlayList playList = playing(backend, "First", "Second");
+		backend.finish();
+		playList.stop();
+		assertFalse(playList.isGapPending());
+		assertFalse(playList.isPlaying());
+		assertTrue(backend.scheduler.pending.isEmpty());
+		playList.play();
+		assertEquals(playList.getCurrentSong().getTitle(), "Second");
+	}
+
+	/**
+	 * Tests that listeners hear that an entry was queued before they hear that
+	 * it started, even while another thread is skipping through the queue.
+	 */
+	@Test
+	void testQueuedBeforeStarted() throws InterruptedException {
+		RecordingBackend backend = new RecordingBackend();
+		PlayList playList = new PlayList(backend);
+		playList.setGapMillis(0);
+		Set<QueueEntry> queued = ConcurrentHashMap.newKeySet();
+		ArrayList<QueueEntry> unheard = new ArrayList<>();
+		playList.addListener(new PlayListListener() {
+			@Override
+			public void songQueued(Song song) {
+			}
+
+			@Override
+			public void songStarted(Song song) {
+			}
+
+			@Override
+			public void songFinished(Song song) {
+			}
+
+			@Override
+			public void entriesQueued(List<QueueEntry> entries) {
+				queued.addAll(entries);
+			}
+
+			@Override
+			public void entryStarted(QueueEntry entry) {
+				if (!queued.contains(entry)) {
+					unheard.add(entry);
+				}
+			}
+		});
+		playList.play();
+		Thread requests = new Thread(() -> {
+			for (int i = 0; i < 10000; i++) {
+				playList.queueUpNextSong(new Song("Song " + i, "A", 10, i + ".mp3"));
+			}
+		});
+		requests.start();
+		while (requests.isAlive()) {
+			playList.play();
+			playList.skip();
+		}
+		requests.join();
+		assertTrue(unheard.isEmpty());
+	}
+
+	/**
+	 * Tests that a negative gap is refused.
+	 */
+	@Test
+	void testGap() {
+		PlayList playList = new PlayList(new RecordingBackend());
+		assertEquals(playList.getGapMillis(), PlayList.DEFAULT_GAP_MILLIS);
+		assertThrows(IllegalArgumentException.class, () -> playList.setGapMillis(-1));
+	}
+}
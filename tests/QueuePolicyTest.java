@@ -0,0 +1,163 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.Fixtures.CHEAP;
+import static tests.Fixtures.song;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tests for the queue policies, on their own and in a PlayList.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.JukeboxAccount;
+import model.PlayList;
+import model.PlayListJournal;
+import model.QueueEntry;
+import model.QueuePolicy;
+import model.RoundRobinPolicy;
+import model.Song;
+import model.SongList;
+import model.WeightedFairPolicy;
+import tests.Fixtures.ManualBackend;
+
+class QueuePolicyTest {
+
+	/**
+	 * Queues the songs in a PlayList that isn't playing, so the policy keeps them
+	 * all, and gives their titles in play order.
+	 */
+	private static List<String> order(QueuePolicy policy, Object... requests) {
+		PlayList playList = new PlayList(new ManualBackend());
+		playList.setQueuePolicy(policy);
+		for (int i = 0; i < requests.length; i += 2) {
+			playList.queueUpNextSong((Song) requests[i + 1], (JukeboxAccount) requests[i]);
+		}
+		ArrayList<String> titles = new ArrayList<>();
+		for (Song song : playList.getSongsAsList()) {
+			titles.add(song.getTitle());
+		}
+		// taking them one at a time must agree with the listed order
+		ArrayList<String> polled = new ArrayList<>();
+		for (QueueEntry entry = policy.poll(); entry != null; entry = policy.poll()) {
+			polled.add(entry.getSong().getTitle());
+		}
+		assertEquals(polled, titles);
+		return titles;
+	}
+
+	/**
+	 * Tests that the FIFO policy keeps the order songs were asked for.
+	 */
+	@Test
+	void testFifo() {
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		JukeboxAccount b = new JukeboxAccount("B", "2", null, CHEAP);
+		assertEquals(order(QueuePolicy.named("fifo"), a, song("a1", 300), a, song("a2", 300), b, song("b1", 30)),
+				List.of("a1", "a2", "b1"));
+	}
+
+	/**
+	 * Tests that round robin takes one song from each account in turn.
+	 */
+	@Test
+	void testRoundRobin() {
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		JukeboxAccount b = new JukeboxAccount("B", "2", null, CHEAP);
+		JukeboxAccount c = new JukeboxAccount("C", "3", null, CHEAP);
+		assertEquals(order(new RoundRobinPolicy(), a, song("a1", 300), a, song("a2", 300), a, song("a3", 300), b,
+				song("b1", 30), c, song("c1", 30), b, song("b2", 30)), List.of("a1", "b1", "c1", "a2", "b2", "a3"));
+	}
+
+	/**
+	 * Tests that weighted fair queuing shares play time, and that weights change
+	 * the shares.
+	 */
+	@Test
+	void testWeightedFair() {
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		JukeboxAccount b = new JukeboxAccount("B", "2", null, CHEAP);
+		// a's songs finish at 100, 200, 300 and b's at 40, 80, 120
+		assertEquals(order(new WeightedFairPolicy(), a, song("a1", 100), a, song("a2", 100), a, song("a3", 100), b,
+				song("b1", 40), b, song("b2", 40), b, song("b3", 40)), List.of("b1", "b2", "a1", "b3", "a2", "a3"));
+
+		// with twice the weight, a's songs finish at 50, 100, 150
+		WeightedFairPolicy weighted = new WeightedFairPolicy((account) -> account == a ? 2 : 1);
+		assertEquals(order(weighted, a, song("a1", 100), a, song("a2", 100), a, song("a3", 100), b, song("b1", 40), b,
+				song("b2", 40), b, song("b3", 40)), List.of("b1", "a1", "b2", "a2", "b3", "a3"));
+	}
+
+	/**
+	 * Tests that the PlayList plays in the policy's order, keeps the playing song
+	 * at the front, and that the journal records which song finished.
+	 */
+	@Test
+	void testPlayListWithJournal() throws IOException {
+		Path dir = Files.createTempDirectory("playlist");
+		SongList catalog = new SongList();
+		PlayListJournal journal = new PlayListJournal(catalog, dir.resolve("playlist.snapshot"),
+				dir.resolve("playlist.journal"), 1000);
+		journal.open();
+		JukeboxAccount a = new JukeboxAccount("A", "1", null, CHEAP);
+		JukeboxAccount b = new JukeboxAccount("B", "2", null, CHEAP);
+
+		ManualBackend backend = new ManualBackend();
+		PlayList playList = new PlayList(backend);
+		playList.setGapMillis(0);
+		playList.setQueuePolicy(new RoundRobinPolicy());
+		playList.addListener(journal);
+		playList.queueUpNextSongs(List.of(catalog.get(0), catalog.get(1), catalog.get(2)), a);
+		playList.play();
+		playList.queueUpNextSong(catalog.get(3), b);
+		assertEquals(playList.getCurrentSong(), catalog.get(0));
+		assertEquals(playList.getSongsAsList(), List.of(catalog.get(0), catalog.get(1), catalog.get(3), catalog.get(2)));
+
+		backend.finish();
+		backend.finish();
+		assertEquals(playList.getCurrentSong(), catalog.get(3)); // b's turn, ahead of a's third song
+		backend.finish();
+		journal.close();
+
+		PlayListJournal reopened = new PlayListJournal(catalog, dir.resolve("playlist.snapshot"),
+				dir.resolve("playlist.journal"), 1000);
+		assertEquals(reopened.open(), List.of(catalog.get(2)));
+		reopened.close();
+	}
+
+	/**
+	 * Tests the policies with 100,000 requests from 1,000 accounts: every song
+	 * comes out once, and each account's songs in the order it asked for them.
+	 * How long this takes is measured by PlayListBenchmark.fillAndDrain().
+	 */
+	@Test
+	void testManyRequests() {
+		ArrayList<JukeboxAccount> accounts = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			accounts.add(new JukeboxAccount("user" + i, "pw", null, CHEAP));
+		}
+		for (String name : List.of("fifo", "round-robin", "fair")) {
+			PlayList playList = new PlayList(new ManualBackend());
+			QueuePolicy policy = QueuePolicy.named(name);
+			playList.setQueuePolicy(policy);
+			for (int i = 0; i < 100000; i++) {
+				playList.queueUpNextSong(song("s" + i, 10 + i % 300), accounts.get((i * 7919) % 1000));
+			}
+			HashMap<String, Long> last = new HashMap<>();
+			int count = 0;
+			for (QueueEntry entry = policy.poll(); entry != null; entry = policy.poll()) {
+				Long previous = last.put(entry.getAccount().getUsername(), entry.getSeq());
+				assertTrue(previous == null || previous < entry.getSeq());
+				count++;
+			}
+			assertEquals(count, 100000);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Tests for the SongCatalog and SongCatalogWriter.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.Song;
+import model.SongCatalog;
+import model.SongCatalogWriter;
+import model.SongList;
+
+class SongCatalogTest {
+
+	/**
+	 * Tests that songs come back out of a catalog exactly as written.
+	 */
+	@Test
+	void testRoundTrip() throws IOException {
+		ArrayList<Song> songs = new ArrayList<>();
+		songs.add(new Song("Danse Macabre", "Kevin MacLeod", 34, "DanseMacabreViolinHook.mp3"));
+		songs.add(new Song("The Curtain Rises", "Kevin MacLeod", 28, "TheCurtainRises.mp3"));
+		songs.add(new Song("D\u00e9j\u00e0 Vu", "\u00dcn\u00efcode", 282, "DejaVu.mp3"));
+		Path file = Files.createTempFile("songs", ".jbc");
+		SongCatalogWriter.write(songs, file);
+
+		SongCatalog catalog = SongCatalog.open(file);
+		assertEquals(catalog.size(), 3);
+		for (int i = 0; i < songs.size(); i++) {
+			assertEquals(catalog.get(i), songs.get(i));
+		}
+		assertEquals(catalog.getDuration(2), 282);
+		assertThrows(IndexOutOfBoundsException.class, () -> catalog.get(3));
+	}
+
+	/**
+	 * Tests reading songs from a CSV file, including quoted fields.
+	 */
+	@Test
+	void testCsv() throws IOException {
+		Path csv = Files.createTempFile("songs", ".csv");
+		Files.writeString(csv, "title,artist,duration,file\n" + "Swing Cheese,FreePlay Music,15,SwingCheese.mp3\n"
+				+ "\"Hello, \"\"World\"\"\",Someone,61,hello.mp3\n");
+		ArrayList<Song> songs = new ArrayList<>(SongCatalogWriter.readCsv(csv));
+		assertEquals(songs.size(), 2);
+		assertEquals(songs.get(1).getTitle(), "Hello, \"World\"");
+		assertEquals(songs.get(1).getPlaytimeAsString(), "1:01");
+	}
+
+	/**
+	 * Tests a SongList backed by a catalog, with songs added afterwards.
+	 */
+	@Test
+	void testSongListFromCatalog() throws IOException {
+		ArrayList<Song> songs = new ArrayList<>();
+		songs.add(new Song("B", "Artist", 20, "b.mp3"));
+		songs.add(new Song("A", "Artist", 10, "a.mp3"));
+		Path file = Files.createTempFile("songs", ".jbc");
+		SongCatalogWriter.write(songs, file);
+
+		SongList list = new SongList(SongCatalog.open(file));
+		assertEquals(list.size(), 2);
+		Song added = new Song("C", "Other", 5, "c.mp3");
+		list.addSong(added);
+		assertEquals(list.size(), 3);
+		assertEquals(list.get(0), songs.get(0));
+		assertEquals(list.get(2), added);
+		list.sortByTitle();
+		assertEquals(list.get(0).getTitle(), "A");
+		assertEquals(list.get(2).getTitle(), "C");
+	}
+}
@@ -0,0 +1,161 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the SongList.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.Song;
+import model.SongList;
+
+class SongListTest {
+
+	/**
+	 * Tests that removing a song shrinks the list.
+	 */
+	@Test
+	void testRemoveSong() {
+		SongList list = new SongList();
+		assertEquals(list.size(), 7);
+		list.removeSong(new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3"));
+		assertEquals(list.size(), 6);
+		for (int i = 0; i < list.size(); i++) {
+			assertNotEquals(list.get(i).getTitle(), "Swing Cheese");
+		}
+		// removing a song that isn't there changes nothing
+		list.removeSong(new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3"));
+		assertEquals(list.size(), 6);
+	}
+
+	/**
+	 * Tests switching between sorted orders.
+	 */
+	@Test
+	void testSorting() {
+		SongList list = new SongList();
+		list.sortByDuration();
+		assertEquals(list.get(0).getTitle(), "Pokemon Capture");
+		assertEquals(list.get(1).getTitle(), "LopingSting");
+		assertEquals(list.get(6).getTitle(), "UntameableFire");
+		list.sortByArtist();
+		assertEquals(list.get(0).getArtist(), "FreePlay Music");
+		assertEquals(list.get(6).getArtist(), "Pikachu");
+		list.sortByTitle();
+		assertEquals(list.get(0).getTitle(), "Danse Macabre");
+		assertEquals(list.getSongs().get(6).getTitle(), "UntameableFire");
+	}
+
+	/**
+	 * Tests that every order stays sorted through many random additions and
+	 * removals.
+	 */
+	@Test
+	void testOrdersStayUpdated() {
+		SongList list = new SongList();
+		List<Song> byTitle = list.getSongsByTitle();
+		List<Song> byDuration = list.getSongsByDuration();
+		ArrayList<Song> added = new ArrayList<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			if (added.isEmpty() || random.nextInt(3) > 0) {
+				Song song = new Song("Title " + random.nextInt(500), "Artist " + random.nextInt(50),
+						random.nextInt(300), "file" + i + ".mp3");
+				list.addSong(song);
+				added.add(song);
+			} else {
+				Song song = added.remove(random.nextInt(added.size()));
+				list.removeSong(song);
+			}
+		}
+		assertEquals(list.size(), 7 + added.size());
+		assertEquals(byTitle.size(), list.size());
+		for (int i = 1; i < list.size(); i++) {
+			assertTrue(byTitle.get(i - 1).compareByTitle(byTitle.get(i)) <= 0);
+			assertTrue(byDuration.get(i - 1).compareByDuration(byDuration.get(i)) <= 0);
+		}
+		assertEquals(list.getSongsInOrderAdded().get(7), added.get(0));
+		assertThrows(UnsupportedOperationException.class, () -> byTitle.remove(0));
+	}
+
+	/**
+	 * Tests that every song keeps its id as others are added and removed, and
+	 * that ids lead back to their songs.
+	 */
+	@Test
+	void testIds() {
+		SongList list = new SongList();
+		Song first = list.get(0);
+		assertEquals(list.idOf(first), 0);
+		ArrayList<Song> added = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			Song song = new Song("Title " + i, "Artist " + i % 50, i % 300, "file" + i + ".mp3");
+			list.addSong(song);
+			added.add(song);
+		}
+		for (int i = 0; i < added.size(); i += 3) {
+			list.removeSong(added.get(i));
+		}
+		for (int i = 0; i < added.size(); i++) {
+			Song song = added.get(i);
+			if (i % 3 == 0) {
+				assertEquals(list.idOf(song), -1);
+				assertNull(list.getById(7 + i));
+			} else {
+				assertEquals(list.idOf(song), 7 + i);
+				assertEquals(list.getById(7 + i), song);
+			}
+		}
+		Song later = new Song("Later", "Artist", 10, "later.mp3");
+		list.addSong(later);
+		assertEquals(list.idOf(later), 7 + added.size());
+		assertEquals(list.idOf(first), 0);
+	}
+
+	/**
+	 * Tests that songs can be looked up on one thread while another keeps
+	 * removing and adding songs, as the library watcher does.
+	 */
+	@Test
+	void testConcurrentChanges() throws InterruptedException {
+		SongList list = new SongList();
+		Song first = list.get(0);
+		ArrayList<Song> added = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Song song = new Song("Title " + i, "Artist", i, "file" + i + ".mp3");
+			list.addSong(song);
+			added.add(song);
+		}
+		Thread watcher = new Thread(() -> {
+			Random random = new Random(7);
+			for (int i = 0; i < 50000; i++) {
+				Song song = added.get(random.nextInt(added.size()));
+				list.removeSong(song);
+				list.addSong(song); // gets a new id
+			}
+		});
+		watcher.start();
+		// the ids are looked up for the first time while the watcher runs
+		while (watcher.isAlive()) {
+			assertEquals(list.idOf(first), 0);
+			for (Song song : added) {
+				// an id is never given to another song
+				int id = list.idOf(song);
+				Song found = list.getById(id);
+				assertTrue(id == -1 || found == null || found.equals(song));
+			}
+			ArrayList<Song> songs = list.getSongs(); // may be between a removal and an addition
+			assertTrue(songs.size() >= 106);
+			assertFalse(songs.contains(null));
+		}
+		watcher.join();
+		assertEquals(list.size(), 107);
+	}
+}
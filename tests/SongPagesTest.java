@@ -0,0 +1,97 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Tests for SongPages.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.Song;
+import model.SongList;
+import model.SongPages;
+
+class SongPagesTest {
+
+	/**
+	 * A huge list that makes up its songs and counts how many it was asked for.
+	 */
+	private static class CountingList extends AbstractList<Song> {
+		private int size;
+		private int reads;
+
+		CountingList(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public Song get(int index) {
+			reads++;
+			return new Song("Song " + index, "Artist", 20, "song" + index + ".mp3");
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Tests that only the pages that are looked at get read.
+	 */
+	@Test
+	void testReadsOnlyWhatIsShown() {
+		CountingList source = new CountingList(10000000);
+		SongPages pages = new SongPages(source, false, 50, 4);
+		assertEquals(pages.size(), 10000000);
+		assertEquals(source.reads, 0);
+		for (int i = 0; i < 30; i++) {
+			assertEquals(pages.get(i).getTitle(), "Song " + i);
+		}
+		assertEquals(source.reads, 50);
+		assertEquals(pages.get(9999999).getTitle(), "Song 9999999");
+		assertEquals(source.reads, 100);
+		assertEquals(pages.getFetches(), 2);
+	}
+
+	/**
+	 * Tests that only the most recently used pages are kept.
+	 */
+	@Test
+	void testPageLimit() {
+		CountingList source = new CountingList(1000);
+		SongPages pages = new SongPages(source, false, 10, 2);
+		pages.get(0);
+		pages.get(10);
+		pages.get(5); // page 0 is now more recent than page 1
+		pages.get(20);
+		assertEquals(pages.getFetches(), 3);
+		pages.get(0);
+		assertEquals(pages.getFetches(), 3);
+		pages.get(10);
+		assertEquals(pages.getFetches(), 4);
+		pages.invalidate();
+		pages.get(10);
+		assertEquals(pages.getFetches(), 5);
+	}
+
+	/**
+	 * Tests paging through a SongList view in reverse.
+	 */
+	@Test
+	void testDescending() {
+		SongList list = new SongList();
+		List<Song> byTitle = list.getSongsByTitle();
+		SongPages pages = new SongPages(byTitle, true, 3, 2);
+		assertEquals(pages.size(), byTitle.size());
+		for (int i = 0; i < pages.size(); i++) {
+			assertEquals(pages.get(i), byTitle.get(byTitle.size() - 1 - i));
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> pages.get(pages.size()));
+	}
+}
@@ -0,0 +1,85 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SongSearchIndex.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.SearchResults;
+import model.Song;
+import model.SongList;
+import model.SongSearchIndex;
+
+class SongSearchIndexTest {
+
+	private SongSearchIndex sampleIndex() {
+		SongSearchIndex index = new SongSearchIndex();
+		index.add(new Song("Danse Macabre", "Kevin MacLeod", 34, "DanseMacabreViolinHook.mp3"));
+		index.add(new Song("The Curtain Rises", "Kevin MacLeod", 28, "TheCurtainRises.mp3"));
+		index.add(new Song("Determined Tumbao", "FreePlay Music", 20, "DeterminedTumbao.mp3"));
+		index.add(new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3"));
+		return index;
+	}
+
+	/**
+	 * Tests short queries, which match the start of any word.
+	 */
+	@Test
+	void testPrefix() {
+		SongSearchIndex index = sampleIndex();
+		SearchResults results = index.search("d", 0, 10);
+		assertEquals(results.getTotal(), 2);
+		// both titles start with "d", so the shorter title comes first
+		assertEquals(results.getSongs().get(0).getTitle(), "Danse Macabre");
+		assertEquals(index.search("ke", 0, 10).getTotal(), 2);
+		assertEquals(index.search("x", 0, 10).getTotal(), 0);
+	}
+
+	/**
+	 * Tests longer queries, which match anywhere and ignore case and punctuation.
+	 */
+	@Test
+	void testSubstringAndRanking() {
+		SongSearchIndex index = sampleIndex();
+		SearchResults results = index.search("MAC", 0, 10);
+		assertEquals(results.getTotal(), 2);
+		// a title word beats an artist word
+		assertEquals(results.getSongs().get(0).getTitle(), "Danse Macabre");
+		assertEquals(index.search("curtain-rises", 0, 10).getTotal(), 1);
+		assertEquals(index.search("eese", 0, 10).getTotal(), 1);
+		assertEquals(index.search("cheese swing", 0, 10).getTotal(), 0);
+	}
+
+	/**
+	 * Tests asking for results one page at a time.
+	 */
+	@Test
+	void testPaging() {
+		SongSearchIndex index = sampleIndex();
+		SearchResults first = index.search("music", 0, 1);
+		assertEquals(first.getSongs().size(), 1);
+		assertTrue(first.hasMore());
+		SearchResults second = index.search("music", 1, 1);
+		assertEquals(second.getSongs().size(), 1);
+		assertFalse(second.hasMore());
+		assertNotEquals(first.getSongs().get(0), second.getSongs().get(0));
+	}
+
+	/**
+	 * Tests that the SongList keeps its index up to date.
+	 */
+	@Test
+	void testSongListUpdates() {
+		SongList list = new SongList();
+		assertEquals(list.search("pika", 0, 10).getTotal(), 1);
+		Song added = new Song("Pikachu Returns", "Ash", 60, "Returns.mp3");
+		list.addSong(added);
+		assertEquals(list.search("pika", 0, 10).getTotal(), 2);
+		list.removeSong(new Song("Pikachu Returns", "Ash", 60, "Returns.mp3"));
+		assertEquals(list.search("pika", 0, 10).getTotal(), 1);
+	}
+}
@@ -0,0 +1,77 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+
+/**
+ * Tests for the Song class.
+ *
+ * @author Amelia Matheson
+ */
+
+import model.Song;
+
+class SongTest {
+
+	/**
+	 * Tests that equal Songs have equal hash codes and work in hashed sets.
+	 */
+	@Test
+	void testHashCode() {
+		Song a = new Song("Tada", "Microsoft", 2, "tada.wav");
+		Song b = new Song("Tada", "Microsoft", 2, "tada.wav");
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		HashSet<Song> set = new HashSet<>();
+		set.add(a);
+		assertTrue(set.contains(b));
+		assertFalse(set.contains(new Song("Tada", "Microsoft", 3, "tada.wav")));
+	}
+
+	/**
+	 * Tests that songs by the same artist share one artist String.
+	 */
+	@Test
+	void testArtistsShared() {
+		Song a = new Song("Danse Macabre", new String("Kevin MacLeod"), 34, "DanseMacabreViolinHook.mp3");
+		Song b = new Song("The Curtain Rises", new String("Kevin MacLeod"), 28, "TheCurtainRises.mp3");
+		assertSame(a.getArtist(), b.getArtist());
+	}
+
+	/**
+	 * Tests the playtime format, including songs too long to be cached.
+	 */
+	@Test
+	void testPlaytime() {
+		assertEquals(new Song("A", "B", 5, "a.mp3").getPlaytimeAsString(), "0:05");
+		assertEquals(new Song("A", "B", 65, "a.mp3").getPlaytimeAsString(), "1:05");
+		assertEquals(new Song("A", "B", 600, "a.mp3").getPlaytimeAsString(), "10:00");
+		assertEquals(new Song("A", "B", 3671, "a.mp3").getPlaytimeAsString(), "61:11");
+		Song song = new Song("A", "B", 34, "a.mp3");
+		assertSame(song.getPlaytimeAsString(), new Song("C", "D", 34, "c.mp3").getPlaytimeAsString());
+	}
+
+	/**
+	 * Tests saving and loading a Song.
+	 */
+	@Test
+	void testSerialization() throws IOException, ClassNotFoundException {
+		Song song = new Song("Swing Cheese", "FreePlay Music", 15, "SwingCheese.mp3");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(song);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Song loaded = (Song) in.readObject();
+		assertEquals(loaded, song);
+		assertSame(loaded.getArtist(), song.getArtist());
+		assertEquals(loaded.getPlaytimeAsString(), "0:15");
+	}
+}
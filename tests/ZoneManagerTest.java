@@ -0,0 +1,164 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the ZoneManager and PlaybackZones, run without any display.
+ *
+ * @author Adrianna Koppes
+ */
+
+import model.AccountStore;
+import model.HeadlessPlaybackBackend;
+import model.JukeboxAccount;
+import model.JukeboxEngine;
+import model.PlayListListener;
+import model.PlaybackZone;
+import model.Song;
+import model.SongList;
+import model.ZoneManager;
+
+class ZoneManagerTest {
+
+	/**
+	 * Listener that counts down every time a song finishes.
+	 */
+	private static class FinishCounter implements PlayListListener {
+		private CountDownLatch finished;
+
+		FinishCounter(int songs) {
+			finished = new CountDownLatch(songs);
+		}
+
+		@Override
+		public void songQueued(Song song) {
+		}
+
+		@Override
+		public void songStarted(Song song) {
+		}
+
+		@Override
+		public void songFinished(Song song) {
+			finished.countDown();
+		}
+	}
+
+	/**
+	 * Tests that zones play their own queues.
+	 */
+	@Test
+	void testIndependentZones() {
+		ZoneManager zones = new ZoneManager();
+		PlaybackZone bar = zones.createZone("bar");
+		PlaybackZone patio = zones.createZone("patio");
+		assertNull(zones.createZone("bar"));
+		assertEquals(zones.size(), 2);
+		assertSame(zones.getZone("patio"), patio);
+
+		Song first = new Song("Tada", "Microsoft", 2, "tada.wav");
+		Song second = new Song("Space Music", "Unknown", 6, "spacemusic.au");
+		bar.request(first);
+		patio.request(second);
+		bar.request(second);
+		assertEquals(bar.getPlayList().getCurrentSong(), first);
+		assertEquals(patio.getPlayList().getCurrentSong(), second);
+		assertEquals(bar.getPlayList().size(), 2);
+		assertEquals(patio.getPlayList().size(), 1);
+
+		assertTrue(zones.removeZone("bar"));
+		assertFalse(zones.removeZone("bar"));
+		assertFalse(bar.getPlayList().isPlaying());
+		assertTrue(patio.getPlayList().isPlaying());
+		zones.shutdown();
+	}
+
+	/**
+	 * Tests many zones playing at once on a small shared pool of threads.
+	 */
+	@Test
+	void testManyZonesFewThreads() throws InterruptedException {
+		ZoneManager zones = new ZoneManager(2);
+		ArrayList<FinishCounter> counters = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			PlaybackZone zone = zones.createZone("zone" + i,
+					new HeadlessPlaybackBackend(1000, zones.getExecutor()));
+			zone.getPlayList().setGapMillis(0);
+			FinishCounter counter = new FinishCounter(3);
+			zone.addListener(counter);
+			counters.add(counter);
+			for (int song = 0; song < 3; song++) {
+				zone.request(new Song("Song " + song, "Zone " + i, 2, "song.mp3"));
+			}
+		}
+		for (FinishCounter counter : counters) {
+			assertTrue(counter.finished.await(10, TimeUnit.SECONDS));
+		}
+		zones.shutdown();
+	}
+
+	/**
+	 * Tests that a listener registered on every zone is given to zones created
+	 * before and after it was registered, each with the zone's own name.
+	 */
+	@Test
+	void testZoneListener() {
+		ZoneManager zones = new ZoneManager();
+		PlaybackZone bar = zones.createZone("bar");
+		List<String> started = new ArrayList<>();
+		zones.addZoneListener((name) -> new PlayListListener() {
+			@Override
+			public void songQueued(Song song) {
+			}
+
+			@Override
+			public void songStarted(Song song) {
+				synchronized (started) {
+					started.add(name + ": " + song.getTitle());
+				}
+			}
+
+			@Override
+			public void songFinished(Song song) {
+			}
+		});
+		PlaybackZone patio = zones.createZone("patio");
+		bar.request(new Song("Tada", "Microsoft", 2, "tada.wav"));
+		patio.request(new Song("Space Music", "Unknown", 6, "spacemusic.au"));
+		synchronized (started) {
+			assertEquals(started, List.of("bar: Tada", "patio: Space Music"));
+		}
+		zones.shutdown();
+	}
+
+	/**
+	 * Tests requesting songs in zones through the engine.
+	 */
+	@Test
+	void testEngineZones() {
+		HeadlessPlaybackBackend backend = new HeadlessPlaybackBackend();
+		JukeboxEngine engine = new JukeboxEngine(new SongList(), new AccountStore(), backend);
+		engine.getZones().createZone("patio");
+		JukeboxAccount account = engine.createAccount("ABC", "123");
+		Song song = engine.getCatalog().get(0);
+		assertEquals(engine.requestSong(account, song, "lobby"), JukeboxEngine.RequestResult.NO_SUCH_ZONE);
+		assertEquals(engine.requestSong(account, song, "patio"), JukeboxEngine.RequestResult.QUEUED);
+		assertEquals(engine.requestSong(account, song), JukeboxEngine.RequestResult.QUEUED);
+		assertEquals(engine.getZones().getZone("patio").getPlayList().getCurrentSong(), song);
+		assertEquals(engine.getPlayList().getCurrentSong(), song);
+		assertEquals(account.getSongsLeftToday(), 1);
+		assertThrows(IllegalArgumentException.class, () -> engine.getZones().removeZone(JukeboxEngine.MAIN_ZONE));
+		assertTrue(engine.getPlayList().isPlaying());
+		assertNull(engine.getZones().createZone(JukeboxEngine.MAIN_ZONE));
+		assertTrue(engine.getZones().removeZone("patio"));
+		engine.shutdown();
+		assertFalse(engine.getPlayList().isPlaying());
+		backend.shutdown();
+	}
+}